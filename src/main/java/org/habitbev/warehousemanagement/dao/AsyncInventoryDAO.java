@@ -0,0 +1,32 @@
+package org.habitbev.warehousemanagement.dao;
+
+import org.habitbev.warehousemanagement.entities.inventory.InventoryAddRequest;
+import org.habitbev.warehousemanagement.entities.inventory.InventoryInboundRequestDTO;
+import org.habitbev.warehousemanagement.entities.inventory.InventoryOutboundRequestDTO;
+import org.habitbev.warehousemanagement.entities.inventory.MoveInventoryRequest;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non blocking counterpart of InventoryDAO. Futures complete exceptionally with the same
+ * RetriableException / NonRetriableException types the blocking DAO throws.
+ */
+public interface AsyncInventoryDAO {
+
+    CompletableFuture<List<String>> add(InventoryAddRequest inventoryAddRequest);
+
+    /**
+     * transact write of inbounding the upis and adding to the container capacity.
+     * Completes with false when an earlier attempt with the same clientRequestToken already committed the sub batch.
+     */
+    CompletableFuture<Boolean> inbound(InventoryInboundRequestDTO inventoryInboundRequestDTO);
+
+    /**
+     * transact write of outbounding the upis and removing from the container capacity.
+     * Completes with false when an earlier attempt with the same clientRequestToken already committed the sub batch.
+     */
+    CompletableFuture<Boolean> outbound(InventoryOutboundRequestDTO inventoryOutboundRequestDTO);
+
+    CompletableFuture<Void> move(MoveInventoryRequest moveInventoryRequest);
+}
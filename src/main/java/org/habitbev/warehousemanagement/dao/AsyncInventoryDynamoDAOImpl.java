@@ -0,0 +1,389 @@
+package org.habitbev.warehousemanagement.dao;
+
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.handlers.AsyncHandler;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBAsync;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperTableModel;
+import com.amazonaws.services.dynamodbv2.model.*;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.habitbev.warehousemanagement.entities.dynamodb.Inventory;
+import org.habitbev.warehousemanagement.entities.exceptions.InconsistentStateException;
+import org.habitbev.warehousemanagement.entities.exceptions.NonRetriableException;
+import org.habitbev.warehousemanagement.entities.exceptions.ResourceAlreadyExistsException;
+import org.habitbev.warehousemanagement.entities.exceptions.RetriableException;
+import org.habitbev.warehousemanagement.entities.inventory.InventoryAddRequest;
+import org.habitbev.warehousemanagement.entities.inventory.InventoryInboundRequestDTO;
+import org.habitbev.warehousemanagement.entities.inventory.InventoryOutboundRequestDTO;
+import org.habitbev.warehousemanagement.entities.inventory.MoveInventoryRequest;
+import org.habitbev.warehousemanagement.entities.inventory.inventorystatus.Production;
+import org.habitbev.warehousemanagement.helpers.ContainerCapacityShards;
+import org.habitbev.warehousemanagement.helpers.ContainerStatusDeterminer;
+
+import java.time.Clock;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * InventoryDAO on the async DynamoDB client. Calls return as soon as the request is handed to the client
+ * and complete from the client callback, so callers do not hold a thread while a transaction is in flight.
+ * The v1 async client still blocks one thread of its own executor per call, so in flight calls are bounded by
+ * asyncDynamoDbClientThreads. A non blocking client needs the v2 sdk, which the project does not depend on.
+ * Container capacity is always updated with guarded deltas since a read-modify-write cannot be done without blocking.
+ */
+@Slf4j
+public class AsyncInventoryDynamoDAOImpl implements AsyncInventoryDAO {
+
+    private static final String DELIMITER = "<%>";
+    private static final String INVENTORY_TABLE_NAME = "inventory";
+    private static final String CONTAINER_CAPACITY_TABLE_NAME = "container-capacity";
+    private static final String COMMA = ",";
+
+    AmazonDynamoDBAsync amazonDynamoDBAsyncClient;
+    DynamoDBMapper inventoryDynamoDbMapper;
+    InventoryTransactionBuilder inventoryTransactionBuilder;
+    ContainerCapacityShards containerCapacityShards;
+    long baseDelayMillis;
+    long maxDelayMillis;
+    long timeBudgetMillis;
+    int transactionMaxAttempts;
+    Clock clock;
+
+    @Inject
+    public AsyncInventoryDynamoDAOImpl(AmazonDynamoDBAsync amazonDynamoDBAsyncClient, DynamoDBMapper inventoryDynamoDbMapper,
+                                       ContainerStatusDeterminer containerStatusDeterminer, ContainerCapacityShards containerCapacityShards,
+                                       @Named("batchWriteBaseDelayMillis") long baseDelayMillis,
+                                       @Named("batchWriteMaxDelayMillis") long maxDelayMillis,
+                                       @Named("batchWriteTimeBudgetMillis") long timeBudgetMillis,
+                                       @Named("transactionMaxAttempts") int transactionMaxAttempts, Clock clock) {
+        this.amazonDynamoDBAsyncClient = amazonDynamoDBAsyncClient;
+        this.inventoryDynamoDbMapper = inventoryDynamoDbMapper;
+        this.inventoryTransactionBuilder = new InventoryTransactionBuilder(containerStatusDeterminer, containerCapacityShards, clock);
+        this.containerCapacityShards = containerCapacityShards;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.transactionMaxAttempts = transactionMaxAttempts;
+        this.clock = clock;
+    }
+
+    @Override
+    public CompletableFuture<List<String>> add(InventoryAddRequest addRequest) {
+        Preconditions.checkArgument(addRequest != null, "inventoryAddRequest cannot be null");
+        List<String> uniqueProductIds = addRequest.getUniqueProductIds();
+        String companyId = addRequest.getCompanyId();
+        List<Map<String, AttributeValue>> keys = uniqueProductIds.stream().map(id -> (Map<String, AttributeValue>) ImmutableMap.of(
+                "uniqueProductId", new AttributeValue(id), "companyId", new AttributeValue(companyId))).collect(toList());
+        Map<String, KeysAndAttributes> keysToLoad = ImmutableMap.of(INVENTORY_TABLE_NAME, new KeysAndAttributes().withKeys(keys)
+                .withConsistentRead(true).withProjectionExpression("uniqueProductId"));
+
+        return countExisting(keysToLoad, 0, clock.millis() + timeBudgetMillis).thenCompose(existingCount -> {
+            if (existingCount > 0) {
+                String message = String.format("Some or All of given ids %s already exist for companyId %s and warehouse Id %s",
+                        StringUtils.join(uniqueProductIds, COMMA), companyId, addRequest.getWarehouseId());
+                throw new ResourceAlreadyExistsException(message);
+            }
+            long creationTime = clock.millis();
+            String skuCategoryAndType = String.join(DELIMITER, addRequest.getSkuCategory(), addRequest.getSkuType());
+            DynamoDBMapperTableModel<Inventory> tableModel = inventoryDynamoDbMapper.getTableModel(Inventory.class);
+            List<WriteRequest> writeRequests = uniqueProductIds.stream().map(productId -> Inventory.builder().uniqueProductId(productId)
+                            .companyId(companyId).warehouseId(addRequest.getWarehouseId())
+                            .inventoryStatus(new Production()).creationTime(creationTime).modifiedTime(creationTime)
+                            .productionTime(addRequest.getProductionTime()).skuCode(addRequest.getSkuCode())
+                            .skuCategoryType(skuCategoryAndType).build())
+                    .map(inventory -> new WriteRequest().withPutRequest(new PutRequest().withItem(tableModel.convert(inventory))))
+                    .collect(toList());
+            return batchWrite(ImmutableMap.of(INVENTORY_TABLE_NAME, writeRequests), 0, clock.millis() + timeBudgetMillis);
+        }).thenApply(unprocessedItems -> {
+            List<String> failedIds = unprocessedItems.values().stream().flatMap(List::stream)
+                    .map(writeRequest -> writeRequest.getPutRequest().getItem().get("uniqueProductId").getS()).collect(toList());
+            if (!failedIds.isEmpty()) {
+                log.error("{} ids could not be saved for companyId {} and warehouseId {} within the retry budget", failedIds.size(),
+                        companyId, addRequest.getWarehouseId());
+            }
+            List<String> successfulProductIds = new ArrayList<>(uniqueProductIds);
+            successfulProductIds.removeAll(failedIds);
+            return successfulProductIds;
+        }).handle((successfulProductIds, throwable) -> {
+            if (throwable != null) {
+                throw translate(throwable, "Error occurred while saving ids");
+            }
+            return successfulProductIds;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> inbound(InventoryInboundRequestDTO inboundRequest) {
+        Preconditions.checkArgument(inboundRequest != null, "inboundRequest cannot be null");
+        List<String> uniqueProductIds = inboundRequest.getUniqueProductIds();
+        List<TransactWriteItem> transactWrites = uniqueProductIds.stream()
+                .map(itemId -> new TransactWriteItem().withUpdate(inventoryTransactionBuilder.constructUpdateExpression(itemId, inboundRequest)))
+                .collect(toList());
+        CompletableFuture<List<Update>> capacityUpdates = inboundRequest.isCapacityPreReserved() ? CompletableFuture.completedFuture(Collections.<Update>emptyList())
+                : containerCapacityUpdates(inboundRequest.getWarehouseId(), inboundRequest.getContainerId(), uniqueProductIds.size(),
+                inboundRequest.getContainerMaxCapacity(), uniqueProductIds.get(0));
+        String message = String.format("Inconsistent state occurred in data layer, either of the following is true \n" +
+                        "1) Container %s reached its capacity \n" +
+                        "2) ProductIds are never generated \n" +
+                        "3) ProductIds are not generated for the given companyId %s and warehouseId %s", inboundRequest.getContainerId(),
+                inboundRequest.getCompanyId(), inboundRequest.getWarehouseId());
+        return capacityUpdates.thenCompose(updates -> {
+            updates.forEach(update -> transactWrites.add(new TransactWriteItem().withUpdate(update)));
+            if (!inboundRequest.isCapacityPreReserved()) {
+                transactWrites.add(new TransactWriteItem().withUpdate(inventoryTransactionBuilder.constructInventoryCountsExpression(
+                        inboundRequest.getSkuCode(), inboundRequest.getWarehouseId(), uniqueProductIds.size())));
+            }
+            return transactWrite(transactWrites, inboundRequest.getClientRequestToken(), message, inboundRequest.getCompanyId(),
+                    uniqueProductIds, inventoryTransactionBuilder.appliedBy(inboundRequest));
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> outbound(InventoryOutboundRequestDTO outboundRequest) {
+        Preconditions.checkArgument(outboundRequest != null, "outboundRequest cannot be null");
+        List<String> uniqueProductIds = outboundRequest.getUniqueProductIds();
+        List<TransactWriteItem> transactWrites = uniqueProductIds.stream()
+                .map(itemId -> new TransactWriteItem().withUpdate(inventoryTransactionBuilder.constructUpdateExpression(itemId, outboundRequest)))
+                .collect(toList());
+        CompletableFuture<List<Update>> capacityUpdates = outboundRequest.isCapacityPreReserved() ? CompletableFuture.completedFuture(Collections.<Update>emptyList())
+                : containerCapacityUpdates(outboundRequest.getWarehouseId(), outboundRequest.getContainerId(), -uniqueProductIds.size(),
+                outboundRequest.getContainerMaxCapacity(), uniqueProductIds.get(0));
+        String message = String.format("Inconsistent state occurred in data layer, either of the following is true \n" +
+                        "1) Container %s reached its minimal capacity \n" +
+                        "2) ProductIds are never generated \n" +
+                        "3) ProductIds are not generated for the given companyId %s and warehouseId %s", outboundRequest.getContainerId(),
+                outboundRequest.getCompanyId(), outboundRequest.getWarehouseId());
+        return capacityUpdates.thenCompose(updates -> {
+            updates.forEach(update -> transactWrites.add(new TransactWriteItem().withUpdate(update)));
+            if (!outboundRequest.isCapacityPreReserved()) {
+                transactWrites.add(new TransactWriteItem().withUpdate(inventoryTransactionBuilder.constructInventoryCountsExpression(
+                        outboundRequest.getSkuCode(), outboundRequest.getWarehouseId(), -uniqueProductIds.size())));
+            }
+            return transactWrite(transactWrites, outboundRequest.getClientRequestToken(), message, outboundRequest.getCompanyId(),
+                    uniqueProductIds, inventoryTransactionBuilder.appliedBy(outboundRequest));
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> move(MoveInventoryRequest moveRequest) {
+        Preconditions.checkArgument(moveRequest != null, "moveRequest cannot be null");
+        List<String> uniqueProductIds = moveRequest.getUniqueProductIds();
+        String warehouseId = moveRequest.getWarehouseId();
+        List<TransactWriteItem> transactWrites = uniqueProductIds.stream()
+                .map(itemId -> new TransactWriteItem().withUpdate(inventoryTransactionBuilder.constructUpdateExpression(itemId, moveRequest)))
+                .collect(toList());
+        CompletableFuture<List<Update>> sourceCapacityUpdates = containerCapacityUpdates(warehouseId, moveRequest.getSourceContainerId(),
+                -uniqueProductIds.size(), moveRequest.getSourceContainerMaxCapacity(), uniqueProductIds.get(0));
+        CompletableFuture<List<Update>> destinationCapacityUpdates = containerCapacityUpdates(warehouseId, moveRequest.getDestinationContainerId(),
+                uniqueProductIds.size(), moveRequest.getDestinationContainerMaxCapacity(), uniqueProductIds.get(0));
+        String message = String.format("Inconsistent state occurred in data layer, either of the following is true \n" +
+                        "1) Source Container %s reached its minimal capacity \n" +
+                        "2) Destination Container %s reached its maximal capacity \n" +
+                        "3) ProductIds are not generated for the given companyId %s and warehouseId %s", moveRequest.getSourceContainerId(),
+                moveRequest.getDestinationContainerId(), moveRequest.getCompanyId(), warehouseId);
+        return sourceCapacityUpdates.thenCombine(destinationCapacityUpdates, (sourceUpdates, destinationUpdates) -> {
+            sourceUpdates.forEach(update -> transactWrites.add(new TransactWriteItem().withUpdate(update)));
+            destinationUpdates.forEach(update -> transactWrites.add(new TransactWriteItem().withUpdate(update)));
+            return transactWrites;
+        }).thenCompose(writes -> transactWrite(writes, moveRequest.getClientRequestToken(), message, moveRequest.getCompanyId(),
+                uniqueProductIds, inventoryTransactionBuilder.appliedBy(moveRequest))).thenApply(applied -> null);
+    }
+
+    /**
+     * a mismatch on the clientRequestToken is a client retry of a committed sub batch when its items already are in the state it sets.
+     *
+     * @return false when the sub batch was already committed by an earlier attempt
+     */
+    private CompletableFuture<Boolean> transactWrite(List<TransactWriteItem> transactWrites, String clientRequestToken, String inconsistentStateMessage,
+                                                  String companyId, List<String> uniqueProductIds, Predicate<Map<String, AttributeValue>> applied) {
+        TransactWriteItemsRequest transactWriteItemsRequest = new TransactWriteItemsRequest()
+                .withTransactItems(transactWrites)
+                .withReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL)
+                .withClientRequestToken(clientRequestToken);
+        return transactWrite(transactWriteItemsRequest, 1).handle((result, throwable) -> {
+            if (throwable == null) {
+                return CompletableFuture.completedFuture(true);
+            }
+            Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+            if (cause instanceof IdempotentParameterMismatchException) {
+                return verifyAlreadyApplied(cause, companyId, uniqueProductIds, applied);
+            }
+            throw translate(throwable, inconsistentStateMessage);
+        }).thenCompose(future -> future);
+    }
+
+    private CompletableFuture<Boolean> verifyAlreadyApplied(Throwable mismatch, String companyId, List<String> uniqueProductIds,
+                                                         Predicate<Map<String, AttributeValue>> applied) {
+        CompletableAsyncHandler<BatchGetItemRequest, BatchGetItemResult> handler = new CompletableAsyncHandler<>();
+        amazonDynamoDBAsyncClient.batchGetItemAsync(new BatchGetItemRequest().withRequestItems(ImmutableMap.of(INVENTORY_TABLE_NAME,
+                inventoryTransactionBuilder.constructInventoryKeys(companyId, uniqueProductIds))), handler);
+        return handler.handle((result, throwable) -> {
+            if (throwable != null || (result.getUnprocessedKeys() != null && !result.getUnprocessedKeys().isEmpty())) {
+                throw new RetriableException("could not verify whether the sub batch was already committed", throwable != null ? throwable : mismatch);
+            }
+            List<Map<String, AttributeValue>> items = result.getResponses() == null ? Collections.emptyList()
+                    : result.getResponses().getOrDefault(INVENTORY_TABLE_NAME, Collections.emptyList());
+            if (!InventoryTransactionBuilder.allApplied(uniqueProductIds, items, applied)) {
+                throw new NonRetriableException("clientRequestToken was already used for a different transaction", mismatch);
+            }
+            log.info("sub batch of {} items was already committed by an earlier attempt", uniqueProductIds.size());
+            return false;
+        });
+    }
+
+    /**
+     * retries transient failures of transactions carrying a clientRequestToken, an already committed attempt is reported as success by dynamodb.
+     * A transaction cancelled only by a conflicting concurrent transaction did not apply anything and is retried with or without a token.
+     */
+    private CompletableFuture<TransactWriteItemsResult> transactWrite(TransactWriteItemsRequest transactWriteItemsRequest, int attempt) {
+        CompletableAsyncHandler<TransactWriteItemsRequest, TransactWriteItemsResult> handler = new CompletableAsyncHandler<>();
+        amazonDynamoDBAsyncClient.transactWriteItemsAsync(transactWriteItemsRequest, handler);
+        return handler.handle((result, throwable) -> {
+            if (throwable == null) {
+                return CompletableFuture.completedFuture(result);
+            }
+            boolean transientFailure = (throwable instanceof InternalServerErrorException || throwable instanceof TransactionInProgressException)
+                    && transactWriteItemsRequest.getClientRequestToken() != null;
+            boolean conflict = throwable instanceof TransactionCanceledException
+                    && InventoryTransactionBuilder.isConflictOnly((TransactionCanceledException) throwable);
+            if (!(transientFailure || conflict) || attempt >= transactionMaxAttempts) {
+                CompletableFuture<TransactWriteItemsResult> failed = new CompletableFuture<>();
+                failed.completeExceptionally(throwable);
+                return failed;
+            }
+            log.warn("transaction attempt {} with clientRequestToken {} failed, retrying", attempt, transactWriteItemsRequest.getClientRequestToken(), throwable);
+            return afterBackoff(attempt).thenCompose(ignored -> transactWrite(transactWriteItemsRequest, attempt + 1));
+        }).thenCompose(future -> future);
+    }
+
+    /**
+     * a single guarded delta for plain containers. Sharded containers read their shards first and get one delta per shard
+     * the change is distributed to, starting at the shard picked by routingKey.
+     */
+    private CompletableFuture<List<Update>> containerCapacityUpdates(String warehouseId, String containerId, int delta, int maxCapacity,
+                                                                     String routingKey) {
+        if (!containerCapacityShards.isSharded(warehouseId, containerId)) {
+            return CompletableFuture.completedFuture(Collections.singletonList(
+                    inventoryTransactionBuilder.constructDeltaContainerCapacityExpression(warehouseId, containerId, delta, maxCapacity)));
+        }
+        CompletableAsyncHandler<BatchGetItemRequest, BatchGetItemResult> handler = new CompletableAsyncHandler<>();
+        amazonDynamoDBAsyncClient.batchGetItemAsync(new BatchGetItemRequest().withRequestItems(ImmutableMap.of(CONTAINER_CAPACITY_TABLE_NAME,
+                inventoryTransactionBuilder.constructCapacityShardKeys(warehouseId, containerId))), handler);
+        return handler.handle((result, throwable) -> {
+            if (throwable != null) {
+                throw translate(throwable, "Error occurred while reading capacity shards");
+            }
+            if (result.getUnprocessedKeys() != null && !result.getUnprocessedKeys().isEmpty()) {
+                throw new RetriableException(String.format("capacity shards of container %s in warehouse %s were not read", containerId, warehouseId));
+            }
+            int[] shardCapacities = inventoryTransactionBuilder.readShardCapacities(warehouseId, containerId,
+                    result.getResponses().getOrDefault(CONTAINER_CAPACITY_TABLE_NAME, Collections.emptyList()));
+            int[] shardDeltas = containerCapacityShards.distribute(delta, maxCapacity, shardCapacities,
+                    containerCapacityShards.preferredShard(routingKey, shardCapacities.length));
+            return inventoryTransactionBuilder.constructDeltaContainerCapacityShardExpressions(warehouseId, containerId, shardDeltas, maxCapacity);
+        });
+    }
+
+    /**
+     * counts the keys which already exist, following UnprocessedKeys with backoff until the deadline.
+     * Keys still unprocessed then fail the count with a RetriableException, since they cannot be told apart from new ones.
+     */
+    private CompletableFuture<Integer> countExisting(Map<String, KeysAndAttributes> keysToLoad, int attempt, long deadline) {
+        CompletableAsyncHandler<BatchGetItemRequest, BatchGetItemResult> handler = new CompletableAsyncHandler<>();
+        amazonDynamoDBAsyncClient.batchGetItemAsync(new BatchGetItemRequest().withRequestItems(keysToLoad), handler);
+        return handler.thenCompose(result -> {
+            int existing = result.getResponses() == null ? 0 : result.getResponses().getOrDefault(INVENTORY_TABLE_NAME, Collections.emptyList()).size();
+            Map<String, KeysAndAttributes> unprocessedKeys = result.getUnprocessedKeys();
+            if (unprocessedKeys == null || unprocessedKeys.isEmpty()) {
+                return CompletableFuture.completedFuture(existing);
+            }
+            if (clock.millis() + backoffCeiling(attempt) > deadline) {
+                int remaining = unprocessedKeys.values().stream().mapToInt(keysAndAttributes -> keysAndAttributes.getKeys().size()).sum();
+                log.warn("batch get time budget of {} ms exhausted after {} attempts, {} keys still unprocessed", timeBudgetMillis, attempt + 1, remaining);
+                throw new RetriableException(String.format("%d keys still unprocessed after %d batch get attempts", remaining, attempt + 1));
+            }
+            return afterBackoff(attempt).thenCompose(ignored -> countExisting(unprocessedKeys, attempt + 1, deadline))
+                    .thenApply(remainingExisting -> existing + remainingExisting);
+        });
+    }
+
+    /**
+     * @return items still unprocessed when the deadline is reached, empty if everything got written
+     */
+    private CompletableFuture<Map<String, List<WriteRequest>>> batchWrite(Map<String, List<WriteRequest>> writeRequests, int attempt, long deadline) {
+        CompletableAsyncHandler<BatchWriteItemRequest, BatchWriteItemResult> handler = new CompletableAsyncHandler<>();
+        amazonDynamoDBAsyncClient.batchWriteItemAsync(new BatchWriteItemRequest().withRequestItems(writeRequests)
+                .withReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL), handler);
+        return handler.thenCompose(result -> {
+            Map<String, List<WriteRequest>> unprocessedItems = result.getUnprocessedItems();
+            if (unprocessedItems == null || unprocessedItems.isEmpty()) {
+                return CompletableFuture.completedFuture(Collections.emptyMap());
+            }
+            if (clock.millis() + backoffCeiling(attempt) > deadline) {
+                log.warn("batch write time budget of {} ms exhausted after {} attempts", timeBudgetMillis, attempt + 1);
+                return CompletableFuture.completedFuture(unprocessedItems);
+            }
+            return afterBackoff(attempt).thenCompose(ignored -> batchWrite(unprocessedItems, attempt + 1, deadline));
+        });
+    }
+
+    /**
+     * completes after a full jitter backoff without holding a thread while waiting.
+     */
+    private CompletableFuture<Void> afterBackoff(int attempt) {
+        long delay = ThreadLocalRandom.current().nextLong(backoffCeiling(attempt) + 1);
+        return CompletableFuture.runAsync(() -> {
+        }, CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS));
+    }
+
+    private long backoffCeiling(int attempt) {
+        return attempt >= 30 ? maxDelayMillis : Math.min(maxDelayMillis, baseDelayMillis << attempt);
+    }
+
+    private RuntimeException translate(Throwable throwable, String message) {
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+        if (cause instanceof TransactionCanceledException && InventoryTransactionBuilder.isConflictOnly((TransactionCanceledException) cause)) {
+            log.warn("transaction kept conflicting with concurrent transactions on the same items");
+            return new RetriableException("transaction conflicted with concurrent transactions, retry later", cause);
+        } else if (cause instanceof TransactionCanceledException) {
+            List<CancellationReason> cancellationReasons = ((TransactionCanceledException) cause).getCancellationReasons();
+            log.error("transaction cancelled with cancellation reasons {}", StringUtils.join(cancellationReasons, COMMA));
+            return new InconsistentStateException(message, cause);
+        } else if (cause instanceof IdempotentParameterMismatchException) {
+            return new NonRetriableException("clientRequestToken was already used for a different transaction", cause);
+        } else if (cause instanceof InternalServerErrorException || cause instanceof TransactionInProgressException) {
+            return new RetriableException("Exception occurred", cause);
+        } else if (cause instanceof RetriableException || cause instanceof NonRetriableException) {
+            return (RuntimeException) cause;
+        }
+        return new NonRetriableException("Exception occurred", cause);
+    }
+
+    /**
+     * bridges the v1 client callback to a CompletableFuture.
+     */
+    private static class CompletableAsyncHandler<REQUEST extends AmazonWebServiceRequest, RESULT> extends CompletableFuture<RESULT>
+            implements AsyncHandler<REQUEST, RESULT> {
+
+        @Override
+        public void onError(Exception exception) {
+            completeExceptionally(exception);
+        }
+
+        @Override
+        public void onSuccess(REQUEST request, RESULT result) {
+            complete(result);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package org.habitbev.warehousemanagement.dao;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemResult;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemResult;
+import com.amazonaws.services.dynamodbv2.model.InternalServerErrorException;
+import com.amazonaws.services.dynamodbv2.model.KeysAndAttributes;
+import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughputExceededException;
+import com.amazonaws.services.dynamodbv2.model.RequestLimitExceededException;
+import com.amazonaws.services.dynamodbv2.model.ReturnConsumedCapacity;
+import com.amazonaws.services.dynamodbv2.model.WriteRequest;
+import com.google.common.base.Preconditions;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.habitbev.warehousemanagement.entities.exceptions.RetriableException;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Resubmits the UnprocessedItems of a BatchWriteItem until they are written or the time budget runs out.
+ * Waits between attempts follow exponential backoff with full jitter, so throttled writers spread out instead of retrying in lock step.
+ * Items still unprocessed at the deadline are handed back to the caller.
+ * UnprocessedKeys of a BatchGetItem are retried the same way, a partial read is of no use so there the deadline fails the read.
+ */
+@Slf4j
+@Singleton
+public class BatchWriteRetryEngine {
+
+    AmazonDynamoDB amazonDynamoDBClient;
+    Clock clock;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final long timeBudgetMillis;
+
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder throttledAttempts = new LongAdder();
+    private final LongAdder retriedItems = new LongAdder();
+    private final LongAdder exhaustedItems = new LongAdder();
+
+    @Inject
+    public BatchWriteRetryEngine(AmazonDynamoDB amazonDynamoDBClient, @Named("batchWriteBaseDelayMillis") long baseDelayMillis,
+                                 @Named("batchWriteMaxDelayMillis") long maxDelayMillis,
+                                 @Named("batchWriteTimeBudgetMillis") long timeBudgetMillis, Clock clock) {
+        Preconditions.checkArgument(baseDelayMillis > 0, "baseDelayMillis should be > 0");
+        Preconditions.checkArgument(maxDelayMillis >= baseDelayMillis, "maxDelayMillis should be >= baseDelayMillis");
+        Preconditions.checkArgument(timeBudgetMillis >= 0, "timeBudgetMillis should be >= 0");
+        this.amazonDynamoDBClient = amazonDynamoDBClient;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * @param unprocessedItems table name wise write requests left unprocessed by an earlier batch write
+     * @return table name wise write requests which are still unprocessed once the time budget is exhausted, empty if all got written
+     */
+    public Map<String, List<WriteRequest>> retryUnprocessed(Map<String, List<WriteRequest>> unprocessedItems) {
+        Preconditions.checkArgument(unprocessedItems != null, "unprocessedItems cannot be null");
+        Map<String, List<WriteRequest>> pending = new HashMap<>(unprocessedItems);
+        long deadline = clock.millis() + timeBudgetMillis;
+        int attempt = 0;
+        while (countItems(pending) > 0) {
+            long delay = backoffDelay(attempt);
+            if (clock.millis() + delay > deadline) {
+                int remaining = countItems(pending);
+                exhaustedItems.add(remaining);
+                log.warn("batch write time budget of {} ms exhausted after {} attempts, {} items still unprocessed",
+                        timeBudgetMillis, attempt, remaining);
+                return pending;
+            }
+            sleep(delay);
+            attempt++;
+            int submitted = countItems(pending);
+            attempts.increment();
+            retriedItems.add(submitted);
+            try {
+                BatchWriteItemResult result = amazonDynamoDBClient.batchWriteItem(new BatchWriteItemRequest().withRequestItems(pending)
+                        .withReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL));
+                pending = result.getUnprocessedItems() == null ? Collections.emptyMap() : new HashMap<>(result.getUnprocessedItems());
+                log.info("batch write attempt {} after {} ms backoff, submitted {} items, {} unprocessed, consumed capacity {}",
+                        attempt, delay, submitted, countItems(pending), result.getConsumedCapacity());
+            } catch (ProvisionedThroughputExceededException | RequestLimitExceededException | InternalServerErrorException e) {
+                throttledAttempts.increment();
+                log.warn("batch write attempt {} after {} ms backoff failed for {} items", attempt, delay, submitted, e);
+            }
+        }
+        return Collections.emptyMap();
+    }
+
+    /**
+     * @param unprocessedKeys table name wise keys left unprocessed by an earlier batch get
+     * @return table name wise items read by the retries
+     * @throws RetriableException when keys are still unprocessed once the time budget is exhausted
+     */
+    public Map<String, List<Map<String, AttributeValue>>> retryUnprocessedKeys(Map<String, KeysAndAttributes> unprocessedKeys) {
+        Preconditions.checkArgument(unprocessedKeys != null, "unprocessedKeys cannot be null");
+        Map<String, KeysAndAttributes> pending = new HashMap<>(unprocessedKeys);
+        Map<String, List<Map<String, AttributeValue>>> items = new HashMap<>();
+        long deadline = clock.millis() + timeBudgetMillis;
+        int attempt = 0;
+        while (countKeys(pending) > 0) {
+            long delay = backoffDelay(attempt);
+            if (clock.millis() + delay > deadline) {
+                int remaining = countKeys(pending);
+                exhaustedItems.add(remaining);
+                log.warn("batch get time budget of {} ms exhausted after {} attempts, {} keys still unprocessed",
+                        timeBudgetMillis, attempt, remaining);
+                throw new RetriableException(String.format("%d keys still unprocessed after %d batch get attempts", remaining, attempt));
+            }
+            sleep(delay);
+            attempt++;
+            int submitted = countKeys(pending);
+            attempts.increment();
+            retriedItems.add(submitted);
+            try {
+                BatchGetItemResult result = amazonDynamoDBClient.batchGetItem(new BatchGetItemRequest().withRequestItems(pending));
+                if (result.getResponses() != null) {
+                    result.getResponses().forEach((tableName, tableItems) -> items.computeIfAbsent(tableName, key -> new ArrayList<>()).addAll(tableItems));
+                }
+                pending = result.getUnprocessedKeys() == null ? Collections.emptyMap() : new HashMap<>(result.getUnprocessedKeys());
+                log.info("batch get attempt {} after {} ms backoff, submitted {} keys, {} unprocessed", attempt, delay, submitted, countKeys(pending));
+            } catch (ProvisionedThroughputExceededException | RequestLimitExceededException | InternalServerErrorException e) {
+                throttledAttempts.increment();
+                log.warn("batch get attempt {} after {} ms backoff failed for {} keys", attempt, delay, submitted, e);
+            }
+        }
+        return items;
+    }
+
+    public RetryMetrics getMetrics() {
+        return RetryMetrics.builder().attempts(attempts.sum()).throttledAttempts(throttledAttempts.sum())
+                .retriedItems(retriedItems.sum()).exhaustedItems(exhaustedItems.sum()).build();
+    }
+
+    /**
+     * full jitter, a uniformly random wait in [0, min(maxDelay, baseDelay * 2^attempt)].
+     */
+    private long backoffDelay(int attempt) {
+        long ceiling = attempt >= 30 ? maxDelayMillis : Math.min(maxDelayMillis, baseDelayMillis << attempt);
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private void sleep(long delayMillis) {
+        if (delayMillis == 0) {
+            return;
+        }
+        try {
+            Thread.sleep(delayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RetriableException("interrupted while backing off batch request", e);
+        }
+    }
+
+    private int countItems(Map<String, List<WriteRequest>> items) {
+        return items.values().stream().mapToInt(List::size).sum();
+    }
+
+    private int countKeys(Map<String, KeysAndAttributes> keys) {
+        return keys.values().stream().mapToInt(keysAndAttributes -> keysAndAttributes.getKeys() == null ? 0 : keysAndAttributes.getKeys().size()).sum();
+    }
+
+    @Value
+    @Builder
+    public static class RetryMetrics {
+        long attempts;
+        long throttledAttempts;
+        long retriedItems;
+        long exhaustedItems;
+    }
+}
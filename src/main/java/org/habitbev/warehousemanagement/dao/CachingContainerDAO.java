@@ -0,0 +1,100 @@
+package org.habitbev.warehousemanagement.dao;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+import lombok.Builder;
+import lombok.Value;
+import org.habitbev.warehousemanagement.entities.PaginatedResponse;
+import org.habitbev.warehousemanagement.entities.container.ContainerDTO;
+import org.habitbev.warehousemanagement.entities.container.GetContainerRequest;
+import org.habitbev.warehousemanagement.entities.container.GetContainersRequest;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read through cache of container definitions in front of the dynamo ContainerDAO.
+ * Only getContainer is cached. Its result carries the static definition (skuCodeWisePredefinedCapacity) and no current capacity,
+ * so capacity reads stay fresh. Entries are bounded by count and expire a fixed time after they were loaded.
+ * Missing containers are not cached, a container added after a miss is found on the next call.
+ * Cached DTOs are shared between callers and must not be modified.
+ */
+@Singleton
+public class CachingContainerDAO implements ContainerDAO {
+
+    private static final String DELIMITER = "<%>";
+
+    ContainerDAO containerDAO;
+    private final Cache<String, ContainerDTO> containerCache;
+
+    @Inject
+    public CachingContainerDAO(@Named("dynamoDbImpl") ContainerDAO containerDAO, @Named("containerCacheMaxSize") long maxSize,
+                               @Named("containerCacheTtlMillis") long ttlMillis, Clock clock) {
+        Preconditions.checkArgument(maxSize > 0, "maxSize should be > 0");
+        Preconditions.checkArgument(ttlMillis > 0, "ttlMillis should be > 0");
+        this.containerDAO = containerDAO;
+        this.containerCache = CacheBuilder.newBuilder().maximumSize(maxSize).expireAfterWrite(ttlMillis, TimeUnit.MILLISECONDS)
+                .ticker(new Ticker() {
+                    @Override
+                    public long read() {
+                        return TimeUnit.MILLISECONDS.toNanos(clock.millis());
+                    }
+                }).recordStats().build();
+    }
+
+    @Override
+    public Optional<ContainerDTO> getContainer(GetContainerRequest getContainerRequest) {
+        Preconditions.checkArgument(getContainerRequest != null, "getContainerRequest cannot be null");
+        String key = String.join(DELIMITER, getContainerRequest.getWarehouseId(), getContainerRequest.getContainerId());
+        ContainerDTO cachedContainerDTO = containerCache.getIfPresent(key);
+        if (cachedContainerDTO != null) {
+            return Optional.of(cachedContainerDTO);
+        }
+        Optional<ContainerDTO> containerDTOOp = containerDAO.getContainer(getContainerRequest);
+        containerDTOOp.ifPresent(containerDTO -> containerCache.put(key, containerDTO));
+        return containerDTOOp;
+    }
+
+    @Override
+    public PaginatedResponse<ContainerDTO> getContainers(GetContainersRequest getContainersRequest) {
+        return containerDAO.getContainers(getContainersRequest);
+    }
+
+    @Override
+    public void add(ContainerDTO containerDTO) {
+        containerDAO.add(containerDTO);
+    }
+
+    @Override
+    public List<ContainerDTO> addAll(List<ContainerDTO> containerDTOs) {
+        return containerDAO.addAll(containerDTOs);
+    }
+
+    @Override
+    public Optional<ContainerDTO> getLastAddedContainer(String warehouseId) {
+        return containerDAO.getLastAddedContainer(warehouseId);
+    }
+
+    public CacheMetrics getMetrics() {
+        CacheStats cacheStats = containerCache.stats();
+        return CacheMetrics.builder().hits(cacheStats.hitCount()).misses(cacheStats.missCount())
+                .evictions(cacheStats.evictionCount()).size(containerCache.size()).build();
+    }
+
+    @Value
+    @Builder
+    public static class CacheMetrics {
+        long hits;
+        long misses;
+        long evictions;
+        long size;
+    }
+}
@@ -2,6 +2,8 @@ package org.habitbev.warehousemanagement.dao;
 
 import org.habitbev.warehousemanagement.entities.dynamodb.ContainerCapacity;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface ContainerCapacityDAO {
@@ -9,8 +11,23 @@ public interface ContainerCapacityDAO {
 
     Optional<ContainerCapacity> get(String warehouseId, String containerId);
 
+    /**
+     * capacities of many containers of a warehouse by containerId, containers without capacity are left out.
+     */
+    Map<String, ContainerCapacity> batchGet(String warehouseId, List<String> containerIds);
+
      int getExistingQuantity(String warehouseId, String containerId);
 
     void init(String warehouseId, String containerId);
 
+    /**
+     * atomically adds delta to the current capacity of the container, failing if the result falls outside [0, maxCapacity].
+     */
+    void adjustCapacity(String warehouseId, String containerId, int delta, int maxCapacity);
+
+    /**
+     * current capacity of each shard of a sharded container, a single element for containers which are not sharded.
+     */
+    int[] getShardCapacities(String warehouseId, String containerId);
+
 }
@@ -1,35 +1,78 @@
 package org.habitbev.warehousemanagement.dao;
 
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBSaveExpression;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemResult;
 import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
 import com.amazonaws.services.dynamodbv2.model.ExpectedAttributeValue;
 import com.amazonaws.services.dynamodbv2.model.InternalServerErrorException;
+import com.amazonaws.services.dynamodbv2.model.KeysAndAttributes;
+import com.amazonaws.services.dynamodbv2.model.TransactWriteItem;
+import com.amazonaws.services.dynamodbv2.model.TransactWriteItemsRequest;
+import com.amazonaws.services.dynamodbv2.model.TransactionCanceledException;
+import com.amazonaws.services.dynamodbv2.model.Update;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
 import com.google.inject.Inject;
+import com.google.inject.name.Named;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.habitbev.warehousemanagement.entities.container.containerstatus.Available;
+import org.habitbev.warehousemanagement.entities.container.containerstatus.Discontinued;
+import org.habitbev.warehousemanagement.entities.container.containerstatus.Filled;
+import org.habitbev.warehousemanagement.entities.exceptions.InconsistentStateException;
 import org.habitbev.warehousemanagement.entities.exceptions.NonRetriableException;
 import org.habitbev.warehousemanagement.entities.exceptions.ResourceAlreadyExistsException;
 import org.habitbev.warehousemanagement.entities.exceptions.RetriableException;
 import org.habitbev.warehousemanagement.entities.dynamodb.ContainerCapacity;
+import org.habitbev.warehousemanagement.helpers.ContainerCapacityShards;
+import org.habitbev.warehousemanagement.helpers.ContainerStatusDeterminer;
 
 import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
 
 @Slf4j
 public class ContainerCapacityDynamoDAOImpl implements ContainerCapacityDAO {
 
     private static final String DELIMITER = "<%>";
+    private static final String CONTAINER_CAPACITY_TABLE_NAME = "container-capacity";
+    private static final int BATCH_GET_MAX_KEYS = 100;
+    AmazonDynamoDB amazonDynamoDBClient;
     DynamoDBMapper containerCapacityDynamoDbMapper;
+    ContainerStatusDeterminer containerStatusDeterminer;
+    ContainerCapacityShards containerCapacityShards;
+    InventoryTransactionBuilder inventoryTransactionBuilder;
+    ExecutorService capacityBatchGetExecutorService;
+    BatchWriteRetryEngine batchWriteRetryEngine;
     Clock clock;
 
     @Inject
-    public ContainerCapacityDynamoDAOImpl(DynamoDBMapper containerCapacityDynamoDbMapper, Clock clock) {
+    public ContainerCapacityDynamoDAOImpl(AmazonDynamoDB amazonDynamoDBClient, DynamoDBMapper containerCapacityDynamoDbMapper,
+                                          ContainerStatusDeterminer containerStatusDeterminer, ContainerCapacityShards containerCapacityShards,
+                                          @Named("capacityBatchGetExecutorService") ExecutorService capacityBatchGetExecutorService,
+                                          BatchWriteRetryEngine batchWriteRetryEngine, Clock clock) {
+        this.amazonDynamoDBClient = amazonDynamoDBClient;
         this.containerCapacityDynamoDbMapper = containerCapacityDynamoDbMapper;
+        this.containerStatusDeterminer = containerStatusDeterminer;
+        this.containerCapacityShards = containerCapacityShards;
+        this.inventoryTransactionBuilder = new InventoryTransactionBuilder(containerStatusDeterminer, containerCapacityShards, clock);
+        this.capacityBatchGetExecutorService = capacityBatchGetExecutorService;
+        this.batchWriteRetryEngine = batchWriteRetryEngine;
         this.clock = clock;
     }
 
@@ -37,11 +80,19 @@ public class ContainerCapacityDynamoDAOImpl implements ContainerCapacityDAO {
         try {
             Preconditions.checkArgument(StringUtils.isNotBlank(warehouseId), "warehouseId cannot be blank or null");
             Preconditions.checkArgument(StringUtils.isNotBlank(containerId), "containerId cannot be blank or null");
+            if (containerCapacityShards.isSharded(warehouseId, containerId)) {
+                return getSharded(warehouseId, containerId);
+            }
             String hashKey = String.join(DELIMITER, warehouseId, containerId);
             ContainerCapacity containerCapacity = containerCapacityDynamoDbMapper.load(ContainerCapacity.class, hashKey);
+            if (containerCapacity != null) {
+                deriveContainerStatus(containerCapacity);
+            }
             return Optional.ofNullable(containerCapacity);
         } catch (IllegalArgumentException e) {
             throw (e);
+        } catch (RetriableException e) {
+            throw e;
         } catch (InternalServerErrorException e) {
             log.error("Retriable Error occured while getting last inbound", e);
             throw new RetriableException(e);
@@ -51,6 +102,63 @@ public class ContainerCapacityDynamoDAOImpl implements ContainerCapacityDAO {
         }
     }
 
+    /**
+     * capacities of the given containers of a warehouse in as few round trips as BatchGetItem allows.
+     * Keys (every shard of sharded containers included) are split in chunks of 100 which are read in parallel,
+     * unprocessed keys of a chunk are retried with backoff within the batchWriteRetryEngine time budget.
+     *
+     * @return capacity by containerId, containers without a capacity item are left out
+     */
+    public Map<String, ContainerCapacity> batchGet(String warehouseId, List<String> containerIds) {
+        try {
+            Preconditions.checkArgument(StringUtils.isNotBlank(warehouseId), "warehouseId cannot be blank or null");
+            Preconditions.checkArgument(containerIds != null, "containerIds cannot be null");
+            Map<String, String> keyContainerIds = new HashMap<>();
+            List<Map<String, AttributeValue>> keys = new ArrayList<>();
+            containerIds.stream().distinct().forEach(containerId -> {
+                Preconditions.checkArgument(StringUtils.isNotBlank(containerId), "containerId cannot be blank or null");
+                for (int shard = 0; shard < containerCapacityShards.shardCount(warehouseId, containerId); shard++) {
+                    String shardKey = containerCapacityShards.shardKey(warehouseId, containerId, shard);
+                    keyContainerIds.put(shardKey, containerId);
+                    Map<String, AttributeValue> key = new HashMap<>();
+                    key.put("warehouseContainerId", new AttributeValue().withS(shardKey));
+                    keys.add(key);
+                }
+            });
+            List<CompletableFuture<List<Map<String, AttributeValue>>>> chunkFutures = Lists.partition(keys, BATCH_GET_MAX_KEYS).stream()
+                    .map(chunk -> CompletableFuture.supplyAsync(() -> loadKeys(new KeysAndAttributes().withKeys(chunk)), capacityBatchGetExecutorService))
+                    .collect(Collectors.toList());
+            Map<String, List<ContainerCapacity>> containerWiseShards = new LinkedHashMap<>();
+            for (CompletableFuture<List<Map<String, AttributeValue>>> chunkFuture : chunkFutures) {
+                chunkFuture.join().stream().map(item -> containerCapacityDynamoDbMapper.marshallIntoObject(ContainerCapacity.class, item))
+                        .forEach(shard -> containerWiseShards.computeIfAbsent(keyContainerIds.get(shard.getWarehouseContainerId()),
+                                containerId -> new ArrayList<>()).add(shard));
+            }
+            Map<String, ContainerCapacity> containerCapacities = new LinkedHashMap<>();
+            containerWiseShards.forEach((containerId, shards) -> sumShards(warehouseId, containerId, shards)
+                    .ifPresent(containerCapacity -> containerCapacities.put(containerId, containerCapacity)));
+            return containerCapacities;
+        } catch (IllegalArgumentException e) {
+            throw (e);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RetriableException) {
+                throw (RetriableException) e.getCause();
+            }
+            if (e.getCause() instanceof InternalServerErrorException) {
+                log.error("Retriable Error occured while batch getting container capacities", e.getCause());
+                throw new RetriableException(e.getCause());
+            }
+            log.error("Non Retriable Error occured while batch getting container capacities", e.getCause());
+            throw new NonRetriableException(e.getCause());
+        } catch (InternalServerErrorException e) {
+            log.error("Retriable Error occured while batch getting container capacities", e);
+            throw new RetriableException(e);
+        } catch (Exception e) {
+            log.error("Non Retriable Error occured while batch getting container capacities", e);
+            throw new NonRetriableException(e);
+        }
+    }
+
     public int getExistingQuantity(String warehouseId, String containerId) {
         Optional<ContainerCapacity> containerCapacityOptional = this.get(warehouseId, containerId);
         int existingQuantity = 0;
@@ -76,6 +184,17 @@ public class ContainerCapacityDynamoDAOImpl implements ContainerCapacityDAO {
             expected.put("warehouseContainerId", new ExpectedAttributeValue().withExists(false));
             dynamoDBSaveExpression.setExpected(expected);
             containerCapacityDynamoDbMapper.save(containerCapacity, dynamoDBSaveExpression);
+            //shard 0 tells whether the container was initialised before, the other shards are best effort as additions create them anyway
+            for (int shard = 1; shard < containerCapacityShards.shardCount(warehouseId, containerId); shard++) {
+                ContainerCapacity shardCapacity = ContainerCapacity.builder().containerStatus(new Available()).currentCapacity(0)
+                        .warehouseContainerId(containerCapacityShards.shardKey(warehouseId, containerId, shard))
+                        .creationTime(time).modifiedTime(time).build();
+                try {
+                    containerCapacityDynamoDbMapper.save(shardCapacity, dynamoDBSaveExpression);
+                } catch (ConditionalCheckFailedException ce) {
+                    log.info("capacity shard {} of container {} in warehouse {} already exists", shard, containerId, warehouseId);
+                }
+            }
         } catch (InternalServerErrorException e) {
             log.error("Retriable Error occured while starting inbound", e);
             throw new RetriableException(e);
@@ -88,4 +207,149 @@ public class ContainerCapacityDynamoDAOImpl implements ContainerCapacityDAO {
         }
 
     }
+
+    /**
+     * used to reserve capacity for a bulk action up front and to release what was not used.
+     * Guarded the same way as delta capacity updates in transactions, and stores maxCapacity so status can be derived on read.
+     */
+    public void adjustCapacity(String warehouseId, String containerId, int delta, int maxCapacity) {
+        try {
+            Preconditions.checkArgument(StringUtils.isNotBlank(warehouseId), "warehouseId cannot be blank or null");
+            Preconditions.checkArgument(StringUtils.isNotBlank(containerId), "containerId cannot be blank or null");
+            Preconditions.checkArgument(maxCapacity > 0, "maxCapacity should be > 0");
+            if (containerCapacityShards.isSharded(warehouseId, containerId)) {
+                adjustShardedCapacity(warehouseId, containerId, delta, maxCapacity);
+                return;
+            }
+
+            Update update = inventoryTransactionBuilder.constructDeltaContainerCapacityExpression(warehouseId, containerId, delta, maxCapacity);
+            UpdateItemRequest updateItemRequest = new UpdateItemRequest().withTableName(update.getTableName()).withKey(update.getKey())
+                    .withUpdateExpression(update.getUpdateExpression())
+                    .withExpressionAttributeValues(update.getExpressionAttributeValues())
+                    .withConditionExpression(update.getConditionExpression());
+            amazonDynamoDBClient.updateItem(updateItemRequest);
+        } catch (IllegalArgumentException e) {
+            throw (e);
+        } catch (ConditionalCheckFailedException | TransactionCanceledException ce) {
+            String message = String.format("capacity of container %s in warehouse %s cannot be adjusted by %d within max capacity %d",
+                    containerId, warehouseId, delta, maxCapacity);
+            log.error(message, ce);
+            throw new InconsistentStateException(message, ce);
+        } catch (InconsistentStateException e) {
+            throw e;
+        } catch (RetriableException e) {
+            throw e;
+        } catch (InternalServerErrorException e) {
+            log.error("Retriable Error occured while adjusting container capacity", e);
+            throw new RetriableException(e);
+        } catch (Exception e) {
+            log.error("Non Retriable Error occured while adjusting container capacity", e);
+            throw new NonRetriableException(e);
+        }
+    }
+
+    /**
+     * strongly consistent read of every capacity shard of the container, 0 for shards not written yet.
+     */
+    public int[] getShardCapacities(String warehouseId, String containerId) {
+        try {
+            Preconditions.checkArgument(StringUtils.isNotBlank(warehouseId), "warehouseId cannot be blank or null");
+            Preconditions.checkArgument(StringUtils.isNotBlank(containerId), "containerId cannot be blank or null");
+            return inventoryTransactionBuilder.readShardCapacities(warehouseId, containerId, loadShards(warehouseId, containerId));
+        } catch (IllegalArgumentException e) {
+            throw (e);
+        } catch (RetriableException e) {
+            throw e;
+        } catch (InternalServerErrorException e) {
+            log.error("Retriable Error occured while getting capacity shards", e);
+            throw new RetriableException(e);
+        } catch (Exception e) {
+            log.error("Non Retriable Error occured while getting capacity shards", e);
+            throw new NonRetriableException(e);
+        }
+    }
+
+    /**
+     * sum of the shards, reported under the plain warehouseContainerId with the status and creation time of shard 0.
+     */
+    private Optional<ContainerCapacity> getSharded(String warehouseId, String containerId) {
+        List<ContainerCapacity> shards = loadShards(warehouseId, containerId).stream()
+                .map(item -> containerCapacityDynamoDbMapper.marshallIntoObject(ContainerCapacity.class, item)).collect(Collectors.toList());
+        return sumShards(warehouseId, containerId, shards);
+    }
+
+    private Optional<ContainerCapacity> sumShards(String warehouseId, String containerId, List<ContainerCapacity> shards) {
+        if (!containerCapacityShards.isSharded(warehouseId, containerId)) {
+            shards.forEach(this::deriveContainerStatus);
+            return shards.stream().findFirst();
+        }
+        String warehouseContainerId = String.join(DELIMITER, warehouseId, containerId);
+        Optional<ContainerCapacity> firstShardOp = shards.stream().filter(shard -> warehouseContainerId.equals(shard.getWarehouseContainerId())).findFirst();
+        if (!firstShardOp.isPresent()) {
+            return Optional.empty();
+        }
+        ContainerCapacity firstShard = firstShardOp.get();
+        ContainerCapacity containerCapacity = ContainerCapacity.builder().warehouseContainerId(warehouseContainerId)
+                .currentCapacity(shards.stream().mapToInt(ContainerCapacity::getCurrentCapacity).sum())
+                .containerStatus(Optional.ofNullable(firstShard.getContainerStatus()).orElseGet(Available::new)).creationTime(firstShard.getCreationTime())
+                .modifiedTime(shards.stream().mapToLong(ContainerCapacity::getModifiedTime).max().getAsLong())
+                .maxCapacity(shards.stream().map(ContainerCapacity::getMaxCapacity).filter(maxCapacity -> maxCapacity != null)
+                        .findFirst().orElse(null)).build();
+        deriveContainerStatus(containerCapacity);
+        return Optional.of(containerCapacity);
+    }
+
+    private List<Map<String, AttributeValue>> loadShards(String warehouseId, String containerId) {
+        return loadKeys(inventoryTransactionBuilder.constructCapacityShardKeys(warehouseId, containerId));
+    }
+
+    /**
+     * batch get of at most 100 keys, unprocessed keys are retried within the time budget of the batchWriteRetryEngine.
+     */
+    private List<Map<String, AttributeValue>> loadKeys(KeysAndAttributes keysAndAttributes) {
+        BatchGetItemResult batchGetItemResult = amazonDynamoDBClient.batchGetItem(new BatchGetItemRequest()
+                .withRequestItems(Collections.singletonMap(CONTAINER_CAPACITY_TABLE_NAME, keysAndAttributes)));
+        List<Map<String, AttributeValue>> items = new ArrayList<>(Optional.ofNullable(batchGetItemResult.getResponses())
+                .map(responses -> responses.get(CONTAINER_CAPACITY_TABLE_NAME)).orElse(Collections.emptyList()));
+        Map<String, KeysAndAttributes> unprocessedKeys = batchGetItemResult.getUnprocessedKeys();
+        if (unprocessedKeys != null && !unprocessedKeys.isEmpty()) {
+            items.addAll(batchWriteRetryEngine.retryUnprocessedKeys(unprocessedKeys)
+                    .getOrDefault(CONTAINER_CAPACITY_TABLE_NAME, Collections.emptyList()));
+        }
+        return items;
+    }
+
+    /**
+     * spreads the delta over the shards from a random starting shard and writes all touched shards in one transaction.
+     */
+    private void adjustShardedCapacity(String warehouseId, String containerId, int delta, int maxCapacity) {
+        int[] shardCapacities = getShardCapacities(warehouseId, containerId);
+        int[] shardDeltas = containerCapacityShards.distribute(delta, maxCapacity, shardCapacities,
+                ThreadLocalRandom.current().nextInt(shardCapacities.length));
+        List<TransactWriteItem> transactWrites = inventoryTransactionBuilder.constructDeltaContainerCapacityShardExpressions(warehouseId,
+                containerId, shardDeltas, maxCapacity).stream().map(update -> new TransactWriteItem().withUpdate(update)).collect(Collectors.toList());
+        if (transactWrites.isEmpty()) {
+            return;
+        }
+        amazonDynamoDBClient.transactWriteItems(new TransactWriteItemsRequest().withTransactItems(transactWrites));
+    }
+
+    /**
+     * delta capacity updates only ADD to currentCapacity and remove the stored occupancy status they cannot recompute,
+     * so the status is derived from the post update value whenever the item carries its max capacity.
+     * Rows created by a delta update have no status at all until derived here.
+     */
+    private void deriveContainerStatus(ContainerCapacity containerCapacity) {
+        Integer maxCapacity = containerCapacity.getMaxCapacity();
+        if (maxCapacity == null || new Discontinued().equals(containerCapacity.getContainerStatus())) {
+            return;
+        }
+        if (containerCapacity.getCurrentCapacity() > maxCapacity) {
+            if (containerCapacity.getContainerStatus() == null) {
+                containerCapacity.setContainerStatus(new Filled());
+            }
+            return;
+        }
+        containerCapacity.setContainerStatus(containerStatusDeterminer.determineStatus(containerCapacity.getCurrentCapacity(), maxCapacity));
+    }
 }
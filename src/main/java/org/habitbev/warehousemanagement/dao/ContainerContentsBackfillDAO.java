@@ -0,0 +1,14 @@
+package org.habitbev.warehousemanagement.dao;
+
+import org.habitbev.warehousemanagement.entities.SegmentBackfillProgress;
+
+public interface ContainerContentsBackfillDAO {
+
+    /**
+     * sets warehouseContainerId on inventory items of one scan segment which sit in a container but were written before the
+     * container contents index existed. Stops after the page in progress once deadlineMillis passes.
+     *
+     * @param startToken token of an earlier run of the segment, null to start from the beginning
+     */
+    SegmentBackfillProgress backfillSegment(int segment, int totalSegments, String startToken, long deadlineMillis);
+}
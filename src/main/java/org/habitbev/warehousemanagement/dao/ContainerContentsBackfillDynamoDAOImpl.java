@@ -0,0 +1,104 @@
+package org.habitbev.warehousemanagement.dao;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.InternalServerErrorException;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanResult;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.habitbev.warehousemanagement.entities.SegmentBackfillProgress;
+import org.habitbev.warehousemanagement.entities.exceptions.NonRetriableException;
+import org.habitbev.warehousemanagement.entities.exceptions.RetriableException;
+import org.habitbev.warehousemanagement.entities.inventory.inventorystatus.Outbound;
+
+import java.time.Clock;
+import java.util.HashMap;
+import java.util.Map;
+
+@Slf4j
+public class ContainerContentsBackfillDynamoDAOImpl implements ContainerContentsBackfillDAO {
+
+    private static final String INVENTORY_TABLE_NAME = "inventory";
+    private static final String DELIMITER = "<%>";
+    private static final int SCAN_PAGE_SIZE = 500;
+    /**
+     * items in a container without warehouseContainerId, outbound items have left their container and stay out of the index.
+     */
+    private static final String NOT_INDEXED_CONDITION = "attribute_exists(containerId) and attribute_not_exists(warehouseContainerId) " +
+            "and inventoryStatus <> :outbound_status";
+
+    AmazonDynamoDB amazonDynamoDBClient;
+    Clock clock;
+
+    @Inject
+    public ContainerContentsBackfillDynamoDAOImpl(AmazonDynamoDB amazonDynamoDBClient, Clock clock) {
+        this.amazonDynamoDBClient = amazonDynamoDBClient;
+        this.clock = clock;
+    }
+
+    @Override
+    public SegmentBackfillProgress backfillSegment(int segment, int totalSegments, String startToken, long deadlineMillis) {
+        try {
+            Preconditions.checkArgument(segment >= 0 && segment < totalSegments, "segment out of range");
+            Map<String, AttributeValue> exclusiveStartKey = startToken == null ? null : PageTokens.decode(startToken);
+            int updatedItems = 0;
+            do {
+                ScanRequest scanRequest = new ScanRequest().withTableName(INVENTORY_TABLE_NAME)
+                        .withSegment(segment).withTotalSegments(totalSegments).withLimit(SCAN_PAGE_SIZE)
+                        .withProjectionExpression("uniqueProductId, companyId, warehouseId, containerId")
+                        .withFilterExpression(NOT_INDEXED_CONDITION)
+                        .withExpressionAttributeValues(ImmutableMap.of(":outbound_status", new AttributeValue(new Outbound().getStatus())))
+                        .withExclusiveStartKey(exclusiveStartKey);
+                ScanResult scanResult = amazonDynamoDBClient.scan(scanRequest);
+                for (Map<String, AttributeValue> item : scanResult.getItems()) {
+                    if (setWarehouseContainerId(item)) {
+                        updatedItems++;
+                    }
+                }
+                exclusiveStartKey = scanResult.getLastEvaluatedKey();
+            } while (exclusiveStartKey != null && !exclusiveStartKey.isEmpty() && clock.millis() < deadlineMillis);
+            String nextToken = PageTokens.encode(exclusiveStartKey);
+            log.info("segment {} of {} of inventory set {} warehouseContainerIds, finished {}", segment, totalSegments,
+                    updatedItems, nextToken == null);
+            return SegmentBackfillProgress.builder().segment(segment).updatedItems(updatedItems).nextToken(nextToken).build();
+        } catch (IllegalArgumentException e) {
+            throw (e);
+        } catch (InternalServerErrorException e) {
+            log.error("Retriable Error occured while backfilling container contents", e);
+            throw new RetriableException(e);
+        } catch (Exception e) {
+            log.error("Non Retriable Error occured while backfilling container contents", e);
+            throw new NonRetriableException(e);
+        }
+    }
+
+    /**
+     * conditional on the item still sitting in the scanned container without warehouseContainerId, so items moved or
+     * outbound since the scan, reruns and concurrent writers are left alone.
+     */
+    private boolean setWarehouseContainerId(Map<String, AttributeValue> item) {
+        Map<String, AttributeValue> key = new HashMap<>();
+        key.put("uniqueProductId", item.get("uniqueProductId"));
+        key.put("companyId", item.get("companyId"));
+        Map<String, AttributeValue> expressionAttributeValues = new HashMap<>();
+        expressionAttributeValues.put(":warehouse_container_id", new AttributeValue(String.join(DELIMITER,
+                item.get("warehouseId").getS(), item.get("containerId").getS())));
+        expressionAttributeValues.put(":container_id", item.get("containerId"));
+        expressionAttributeValues.put(":outbound_status", new AttributeValue(new Outbound().getStatus()));
+        UpdateItemRequest updateItemRequest = new UpdateItemRequest().withTableName(INVENTORY_TABLE_NAME).withKey(key)
+                .withUpdateExpression("SET warehouseContainerId = :warehouse_container_id")
+                .withConditionExpression("containerId = :container_id and " + NOT_INDEXED_CONDITION)
+                .withExpressionAttributeValues(expressionAttributeValues);
+        try {
+            amazonDynamoDBClient.updateItem(updateItemRequest);
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import org.habitbev.warehousemanagement.entities.container.ContainerDTO;
 import org.habitbev.warehousemanagement.entities.container.GetContainerRequest;
 import org.habitbev.warehousemanagement.entities.container.GetContainersRequest;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -35,6 +36,14 @@ public interface ContainerDAO {
      */
     void add(ContainerDTO containerDTO);
 
+    /**
+     * creates the given new containers along with their initial capacity items, in as few transactions as possible.
+     * Every transaction is all or nothing, containers written by earlier transactions stay when a later one fails.
+     *
+     * @return the containers actually written, fewer than given when a later transaction failed
+     */
+    List<ContainerDTO> addAll(List<ContainerDTO> containerDTOs);
+
     Optional<ContainerDTO> getLastAddedContainer(String warehouseId);
 
 }
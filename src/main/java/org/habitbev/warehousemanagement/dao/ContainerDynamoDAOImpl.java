@@ -5,19 +5,23 @@ import com.amazonaws.services.dynamodbv2.model.*;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
 import com.google.inject.Inject;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.habitbev.warehousemanagement.entities.PaginatedResponse;
 import org.habitbev.warehousemanagement.entities.container.GetContainerRequest;
+import org.habitbev.warehousemanagement.entities.container.containerstatus.Available;
 import org.habitbev.warehousemanagement.entities.container.GetContainersRequest;
 import org.habitbev.warehousemanagement.entities.exceptions.NonRetriableException;
 import org.habitbev.warehousemanagement.entities.exceptions.RetriableException;
 import org.habitbev.warehousemanagement.entities.container.ContainerDTO;
 import org.habitbev.warehousemanagement.entities.dynamodb.Container;
+import org.habitbev.warehousemanagement.entities.dynamodb.ContainerCapacity;
 import org.habitbev.warehousemanagement.entities.exceptions.ResourceAlreadyExistsException;
 
 import java.time.Clock;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -32,6 +36,12 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ContainerDynamoDAOImpl implements ContainerDAO {
 
+    private static final String DELIMITER = "<%>";
+    private static final String CONDITIONAL_CHECK_FAILED = "ConditionalCheckFailed";
+    /**
+     * two items per container keep a transaction within the 100 item limit.
+     */
+    private static final int CONTAINERS_PER_TRANSACTION = 50;
 
     DynamoDBMapper containerDynamoDbMapper;
 
@@ -139,16 +149,74 @@ public class ContainerDynamoDAOImpl implements ContainerDAO {
         }
     }
 
+    /**
+     * a container and its capacity item are put with attribute_not_exists conditions in the same transaction.
+     * New containers start with a single capacity item, extra shards are created by capacity updates.
+     * A failing first transaction fails the call, a failing later one stops it with the containers committed so far returned.
+     */
+    @Override
+    public List<ContainerDTO> addAll(List<ContainerDTO> containerDTOs) {
+
+        try {
+            Preconditions.checkArgument(containerDTOs != null && !containerDTOs.isEmpty(), "containerDTOs cannot be null or empty");
+            long time = clock.millis();
+            DynamoDBTransactionWriteExpression containerNotExists = new DynamoDBTransactionWriteExpression()
+                    .withConditionExpression("attribute_not_exists(warehouseId)");
+            DynamoDBTransactionWriteExpression capacityNotExists = new DynamoDBTransactionWriteExpression()
+                    .withConditionExpression("attribute_not_exists(warehouseContainerId)");
+            List<ContainerDTO> addedContainers = new ArrayList<>();
+            for (List<ContainerDTO> transactionContainers : Lists.partition(containerDTOs, CONTAINERS_PER_TRANSACTION)) {
+                TransactionWriteRequest transactionWriteRequest = new TransactionWriteRequest();
+                for (ContainerDTO containerDTO : transactionContainers) {
+                    String warehouseId = containerDTO.getWarehouseId();
+                    String containerId = containerDTO.getContainerId();
+                    Container container = Container.builder().containerId(containerId).warehouseId(warehouseId)
+                            .skuCodeWisePredefinedCapacity(containerDTO.getSkuCodeWisePredefinedCapacity())
+                            .creationTime(time).modifiedTime(time).build();
+                    ContainerCapacity containerCapacity = ContainerCapacity.builder().containerStatus(new Available()).currentCapacity(0)
+                            .warehouseContainerId(String.join(DELIMITER, warehouseId, containerId)).creationTime(time).modifiedTime(time).build();
+                    transactionWriteRequest.addPut(container, containerNotExists).addPut(containerCapacity, capacityNotExists);
+                }
+                try {
+                    containerDynamoDbMapper.transactionWrite(transactionWriteRequest);
+                } catch (RuntimeException e) {
+                    if (addedContainers.isEmpty()) {
+                        throw e;
+                    }
+                    log.error("adding containers stopped after {} of {} containers, returning the committed ones",
+                            addedContainers.size(), containerDTOs.size(), e);
+                    return addedContainers;
+                }
+                addedContainers.addAll(transactionContainers);
+            }
+            return addedContainers;
+        } catch (InternalServerErrorException | TransactionInProgressException e) {
+            log.error("Retriable Error occured while adding containers", e);
+            throw new RetriableException(e);
+        } catch (TransactionCanceledException tce) {
+            log.error("transaction cancelled while adding containers with cancellation reasons {}", tce.getCancellationReasons(), tce);
+            boolean alreadyExists = tce.getCancellationReasons().stream()
+                    .anyMatch(cancellationReason -> CONDITIONAL_CHECK_FAILED.equals(cancellationReason.getCode()));
+            if (alreadyExists) {
+                throw new ResourceAlreadyExistsException(tce);
+            }
+            throw new RetriableException(tce);
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Non Retriable Error occured while adding containers", e);
+            throw new NonRetriableException(e);
+        }
+    }
+
     public Optional<ContainerDTO> getLastAddedContainer(String warehouseId) {
         try {
             Preconditions.checkArgument(StringUtils.isNotBlank(warehouseId), "warehouseId cannot be null");
-            Map<String, AttributeValue> eav = new HashMap();
-            eav.put(":val1", new AttributeValue().withS(warehouseId));
-            DynamoDBQueryExpression<Container> dynamoDBQueryExpression = new DynamoDBQueryExpression<Container>()
-                    .withKeyConditionExpression("warehouseId = :val1").withExpressionAttributeValues(eav)
-                    .withScanIndexForward(false).withLimit(1).withConsistentRead(true);
-            PaginatedQueryList<Container> queryResponse = containerDynamoDbMapper.query(Container.class, dynamoDBQueryExpression);
-            Optional<Container> latestAddedContainer = queryResponse.stream().findAny();
+            Optional<Container> latestAddedContainer = queryLast(warehouseId, Container.WAREHOUSE_SEQUENCE_INDEX);
+            if (!latestAddedContainer.isPresent()) {
+                // rows written before the sequence numbers were backfilled are not in the sparse index yet
+                latestAddedContainer = queryLast(warehouseId, null);
+            }
             if (latestAddedContainer.isPresent()) {
                 return Optional.of(new ContainerDTO.Builder().containerDetails(latestAddedContainer.get()).build());
 
@@ -164,4 +232,18 @@ public class ContainerDynamoDAOImpl implements ContainerDAO {
         }
     }
 
+    /**
+     * latest row of the warehouse, by sequenceNumber on the index or by the string range key on the table when indexName is null.
+     * Only the table read can be consistent.
+     */
+    private Optional<Container> queryLast(String warehouseId, String indexName) {
+        Map<String, AttributeValue> eav = new HashMap();
+        eav.put(":val1", new AttributeValue().withS(warehouseId));
+        DynamoDBQueryExpression<Container> dynamoDBQueryExpression = new DynamoDBQueryExpression<Container>()
+                .withIndexName(indexName)
+                .withKeyConditionExpression("warehouseId = :val1").withExpressionAttributeValues(eav)
+                .withScanIndexForward(false).withLimit(1).withConsistentRead(indexName == null);
+        PaginatedQueryList<Container> queryResponse = containerDynamoDbMapper.query(Container.class, dynamoDBQueryExpression);
+        return queryResponse.stream().findAny();
+    }
 }
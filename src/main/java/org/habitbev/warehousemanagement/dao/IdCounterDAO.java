@@ -0,0 +1,25 @@
+package org.habitbev.warehousemanagement.dao;
+
+import java.util.Optional;
+
+public interface IdCounterDAO {
+
+    /**
+     * atomically moves the counter forward by blockSize, the caller owns the ids (value - blockSize, value].
+     *
+     * @return new counter value, empty when the counter was never initialised
+     */
+    Optional<Long> leaseBlock(String counterName, int blockSize);
+
+    /**
+     * creates the counter at initialValue, left untouched when it already exists.
+     */
+    void init(String counterName, long initialValue);
+
+    /**
+     * takes or renews the named lease for owner, only when nobody holds it, it expired or owner already holds it.
+     *
+     * @return time the lease expires, empty when it is held by someone else
+     */
+    Optional<Long> acquireLease(String leaseName, String owner, long leaseMillis);
+}
@@ -0,0 +1,129 @@
+package org.habitbev.warehousemanagement.dao;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBSaveExpression;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.ExpectedAttributeValue;
+import com.amazonaws.services.dynamodbv2.model.InternalServerErrorException;
+import com.amazonaws.services.dynamodbv2.model.ReturnValue;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemResult;
+import com.google.common.base.Preconditions;
+import com.google.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.habitbev.warehousemanagement.entities.dynamodb.IdCounter;
+import org.habitbev.warehousemanagement.entities.exceptions.NonRetriableException;
+import org.habitbev.warehousemanagement.entities.exceptions.RetriableException;
+
+import java.time.Clock;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+@Slf4j
+public class IdCounterDynamoDAOImpl implements IdCounterDAO {
+
+    private static final String ID_COUNTER_TABLE_NAME = "id-counter";
+
+    AmazonDynamoDB amazonDynamoDBClient;
+    DynamoDBMapper idCounterDynamoDbMapper;
+    Clock clock;
+
+    @Inject
+    public IdCounterDynamoDAOImpl(AmazonDynamoDB amazonDynamoDBClient, DynamoDBMapper idCounterDynamoDbMapper, Clock clock) {
+        this.amazonDynamoDBClient = amazonDynamoDBClient;
+        this.idCounterDynamoDbMapper = idCounterDynamoDbMapper;
+        this.clock = clock;
+    }
+
+    @Override
+    public Optional<Long> leaseBlock(String counterName, int blockSize) {
+        try {
+            Preconditions.checkArgument(StringUtils.isNotBlank(counterName), "counterName cannot be blank or null");
+            Preconditions.checkArgument(blockSize > 0, "blockSize should be > 0");
+            Map<String, AttributeValue> key = new HashMap<>();
+            key.put("counterName", new AttributeValue().withS(counterName));
+            Map<String, AttributeValue> expressionAttributeValues = new HashMap<>();
+            expressionAttributeValues.put(":block_size", new AttributeValue().withN(String.valueOf(blockSize)));
+            expressionAttributeValues.put(":modified_time", new AttributeValue().withN(String.valueOf(clock.millis())));
+            UpdateItemRequest updateItemRequest = new UpdateItemRequest().withTableName(ID_COUNTER_TABLE_NAME).withKey(key)
+                    .withUpdateExpression("ADD counterValue :block_size SET modifiedTime = :modified_time")
+                    .withConditionExpression("attribute_exists(counterName)")
+                    .withExpressionAttributeValues(expressionAttributeValues).withReturnValues(ReturnValue.UPDATED_NEW);
+            UpdateItemResult updateItemResult = amazonDynamoDBClient.updateItem(updateItemRequest);
+            return Optional.of(Long.valueOf(updateItemResult.getAttributes().get("counterValue").getN()));
+        } catch (IllegalArgumentException e) {
+            throw (e);
+        } catch (ConditionalCheckFailedException e) {
+            return Optional.empty();
+        } catch (InternalServerErrorException e) {
+            log.error("Retriable Error occured while leasing id block", e);
+            throw new RetriableException(e);
+        } catch (Exception e) {
+            log.error("Non Retriable Error occured while leasing id block", e);
+            throw new NonRetriableException(e);
+        }
+    }
+
+    /**
+     * leases live in the id-counter table next to the counters, keyed by the lease name with the owner and expiry as attributes.
+     */
+    @Override
+    public Optional<Long> acquireLease(String leaseName, String owner, long leaseMillis) {
+        try {
+            Preconditions.checkArgument(StringUtils.isNotBlank(leaseName), "leaseName cannot be blank or null");
+            Preconditions.checkArgument(StringUtils.isNotBlank(owner), "owner cannot be blank or null");
+            Preconditions.checkArgument(leaseMillis > 0, "leaseMillis should be > 0");
+            long now = clock.millis();
+            long expiresAt = now + leaseMillis;
+            Map<String, AttributeValue> key = new HashMap<>();
+            key.put("counterName", new AttributeValue().withS(leaseName));
+            Map<String, AttributeValue> expressionAttributeValues = new HashMap<>();
+            expressionAttributeValues.put(":owner", new AttributeValue().withS(owner));
+            expressionAttributeValues.put(":now", new AttributeValue().withN(String.valueOf(now)));
+            expressionAttributeValues.put(":expires_at", new AttributeValue().withN(String.valueOf(expiresAt)));
+            UpdateItemRequest updateItemRequest = new UpdateItemRequest().withTableName(ID_COUNTER_TABLE_NAME).withKey(key)
+                    .withUpdateExpression("SET leaseOwner = :owner, leaseExpiresAt = :expires_at, modifiedTime = :now")
+                    .withConditionExpression("attribute_not_exists(counterName) or leaseExpiresAt < :now or leaseOwner = :owner")
+                    .withExpressionAttributeValues(expressionAttributeValues);
+            amazonDynamoDBClient.updateItem(updateItemRequest);
+            return Optional.of(expiresAt);
+        } catch (IllegalArgumentException e) {
+            throw (e);
+        } catch (ConditionalCheckFailedException e) {
+            return Optional.empty();
+        } catch (InternalServerErrorException e) {
+            log.error("Retriable Error occured while acquiring lease", e);
+            throw new RetriableException(e);
+        } catch (Exception e) {
+            log.error("Non Retriable Error occured while acquiring lease", e);
+            throw new NonRetriableException(e);
+        }
+    }
+
+    @Override
+    public void init(String counterName, long initialValue) {
+        try {
+            Preconditions.checkArgument(StringUtils.isNotBlank(counterName), "counterName cannot be blank or null");
+            IdCounter idCounter = IdCounter.builder().counterName(counterName).counterValue(initialValue).modifiedTime(clock.millis()).build();
+            DynamoDBSaveExpression dynamoDBSaveExpression = new DynamoDBSaveExpression();
+            Map<String, ExpectedAttributeValue> expected = new HashMap<>();
+            expected.put("counterName", new ExpectedAttributeValue().withExists(false));
+            dynamoDBSaveExpression.setExpected(expected);
+            idCounterDynamoDbMapper.save(idCounter, dynamoDBSaveExpression);
+        } catch (IllegalArgumentException e) {
+            throw (e);
+        } catch (ConditionalCheckFailedException e) {
+            log.info("id counter {} already initialised", counterName);
+        } catch (InternalServerErrorException e) {
+            log.error("Retriable Error occured while initialising id counter", e);
+            throw new RetriableException(e);
+        } catch (Exception e) {
+            log.error("Non Retriable Error occured while initialising id counter", e);
+            throw new NonRetriableException(e);
+        }
+    }
+}
@@ -122,13 +122,11 @@ public class InboundDynamoDAOImpl implements InboundDAO {
 
         try {
 
-            Map<String, AttributeValue> eav = new HashMap();
-            eav.put(":val1", new AttributeValue().withS(warehouseId));
-            DynamoDBQueryExpression<FinishedGoodsInbound> dynamoDBQueryExpression = new DynamoDBQueryExpression<FinishedGoodsInbound>()
-                    .withKeyConditionExpression("warehouseId = :val1").withExpressionAttributeValues(eav)
-                    .withScanIndexForward(false).withLimit(1).withConsistentRead(true);
-            PaginatedQueryList<FinishedGoodsInbound> queryResponse = inboundDynamoDbMapper.query(FinishedGoodsInbound.class, dynamoDBQueryExpression);
-            Optional<FinishedGoodsInbound> latestInbound = queryResponse.stream().findAny();
+            Optional<FinishedGoodsInbound> latestInbound = queryLast(warehouseId, FinishedGoodsInbound.WAREHOUSE_SEQUENCE_INDEX);
+            if (!latestInbound.isPresent()) {
+                // rows written before the sequence numbers were backfilled are not in the sparse index yet
+                latestInbound = queryLast(warehouseId, null);
+            }
             if (latestInbound.isPresent()) {
                 return latestInbound;
             } else {
@@ -143,4 +141,18 @@ public class InboundDynamoDAOImpl implements InboundDAO {
         }
     }
 
+    /**
+     * latest row of the warehouse, by sequenceNumber on the index or by the string range key on the table when indexName is null.
+     * Only the table read can be consistent.
+     */
+    private Optional<FinishedGoodsInbound> queryLast(String warehouseId, String indexName) {
+        Map<String, AttributeValue> eav = new HashMap();
+        eav.put(":val1", new AttributeValue().withS(warehouseId));
+        DynamoDBQueryExpression<FinishedGoodsInbound> dynamoDBQueryExpression = new DynamoDBQueryExpression<FinishedGoodsInbound>()
+                .withIndexName(indexName)
+                .withKeyConditionExpression("warehouseId = :val1").withExpressionAttributeValues(eav)
+                .withScanIndexForward(false).withLimit(1).withConsistentRead(indexName == null);
+        PaginatedQueryList<FinishedGoodsInbound> queryResponse = inboundDynamoDbMapper.query(FinishedGoodsInbound.class, dynamoDBQueryExpression);
+        return queryResponse.stream().findAny();
+    }
 }
@@ -0,0 +1,28 @@
+package org.habitbev.warehousemanagement.dao;
+
+import org.habitbev.warehousemanagement.entities.dynamodb.InventoryCounts;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface InventoryCountsDAO {
+
+    Optional<InventoryCounts> get(String skuCode, String warehouseId);
+
+    /**
+     * writes the counts of the sku in the warehouse unless a counts item already exists for it.
+     *
+     * @return false when the counts item already existed and was left untouched
+     */
+    boolean putIfAbsent(InventoryCounts inventoryCounts);
+
+    /**
+     * adds availableDelta to the available inventory of the sku in the warehouse, the counts item is created on first use.
+     */
+    void addAvailableInventory(String skuCode, String warehouseId, int availableDelta);
+
+    /**
+     * counts the inventory in INBOUND state per sku and warehouse from the inventory table, scanning totalSegments segments in parallel.
+     */
+    List<InventoryCounts> countAvailableInventory(int totalSegments);
+}
@@ -0,0 +1,163 @@
+package org.habitbev.warehousemanagement.dao;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBSaveExpression;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.ExpectedAttributeValue;
+import com.amazonaws.services.dynamodbv2.model.InternalServerErrorException;
+import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughputExceededException;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanResult;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.habitbev.warehousemanagement.entities.dynamodb.InventoryCounts;
+import org.habitbev.warehousemanagement.entities.exceptions.NonRetriableException;
+import org.habitbev.warehousemanagement.entities.exceptions.RetriableException;
+import org.habitbev.warehousemanagement.entities.inventory.inventorystatus.Inbound;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static java.util.stream.Collectors.toList;
+
+@Slf4j
+public class InventoryCountsDynamoDAOImpl implements InventoryCountsDAO {
+
+    private static final String DELIMITER = "<%>";
+    private static final String INVENTORY_TABLE_NAME = "inventory";
+    private static final String INVENTORY_COUNTS_TABLE_NAME = "inventory-counts";
+
+    AmazonDynamoDB amazonDynamoDBClient;
+    DynamoDBMapper inventoryCountsDynamoDbMapper;
+
+    @Inject
+    public InventoryCountsDynamoDAOImpl(AmazonDynamoDB amazonDynamoDBClient, DynamoDBMapper inventoryCountsDynamoDbMapper) {
+        this.amazonDynamoDBClient = amazonDynamoDBClient;
+        this.inventoryCountsDynamoDbMapper = inventoryCountsDynamoDbMapper;
+    }
+
+    @Override
+    public Optional<InventoryCounts> get(String skuCode, String warehouseId) {
+        try {
+            Preconditions.checkArgument(StringUtils.isNotBlank(skuCode), "skuCode cannot be blank or null");
+            Preconditions.checkArgument(StringUtils.isNotBlank(warehouseId), "warehouseId cannot be blank or null");
+            return Optional.ofNullable(inventoryCountsDynamoDbMapper.load(InventoryCounts.class, skuCode, warehouseId));
+        } catch (IllegalArgumentException e) {
+            throw (e);
+        } catch (InternalServerErrorException e) {
+            log.error("Retriable Error occured while getting inventory counts", e);
+            throw new RetriableException(e);
+        } catch (Exception e) {
+            log.error("Non Retriable Error occured while getting inventory counts", e);
+            throw new NonRetriableException(e);
+        }
+    }
+
+    @Override
+    public boolean putIfAbsent(InventoryCounts inventoryCounts) {
+        try {
+            Preconditions.checkArgument(inventoryCounts != null, "inventoryCounts cannot be null");
+            DynamoDBSaveExpression dynamoDBSaveExpression = new DynamoDBSaveExpression();
+            Map<String, ExpectedAttributeValue> expected = new HashMap<>();
+            expected.put("skuCode", new ExpectedAttributeValue().withExists(false));
+            dynamoDBSaveExpression.withExpected(expected);
+            inventoryCountsDynamoDbMapper.save(inventoryCounts, dynamoDBSaveExpression);
+            return true;
+        } catch (IllegalArgumentException e) {
+            throw (e);
+        } catch (ConditionalCheckFailedException e) {
+            log.info("inventory counts of sku {} in warehouse {} already exist, left untouched", inventoryCounts.getSkuCode(),
+                    inventoryCounts.getWarehouseId());
+            return false;
+        } catch (InternalServerErrorException e) {
+            log.error("Retriable Error occured while saving inventory counts", e);
+            throw new RetriableException(e);
+        } catch (Exception e) {
+            log.error("Non Retriable Error occured while saving inventory counts", e);
+            throw new NonRetriableException(e);
+        }
+    }
+
+    @Override
+    public void addAvailableInventory(String skuCode, String warehouseId, int availableDelta) {
+        try {
+            Preconditions.checkArgument(StringUtils.isNotBlank(skuCode), "skuCode cannot be blank or null");
+            Preconditions.checkArgument(StringUtils.isNotBlank(warehouseId), "warehouseId cannot be blank or null");
+            Map<String, AttributeValue> inventoryCountsKey = new HashMap<>();
+            inventoryCountsKey.put("skuCode", new AttributeValue().withS(skuCode));
+            inventoryCountsKey.put("warehouseId", new AttributeValue().withS(warehouseId));
+            UpdateItemRequest updateItemRequest = new UpdateItemRequest().withTableName(INVENTORY_COUNTS_TABLE_NAME)
+                    .withKey(inventoryCountsKey)
+                    .withUpdateExpression("ADD availableInventory :available_delta")
+                    .withExpressionAttributeValues(ImmutableMap.of(":available_delta", new AttributeValue().withN(String.valueOf(availableDelta))));
+            amazonDynamoDBClient.updateItem(updateItemRequest);
+        } catch (IllegalArgumentException e) {
+            throw (e);
+        } catch (InternalServerErrorException | ProvisionedThroughputExceededException e) {
+            log.error("Retriable Error occured while updating inventory counts", e);
+            throw new RetriableException(e);
+        } catch (Exception e) {
+            log.error("Non Retriable Error occured while updating inventory counts", e);
+            throw new NonRetriableException(e);
+        }
+    }
+
+    @Override
+    public List<InventoryCounts> countAvailableInventory(int totalSegments) {
+        Preconditions.checkArgument(totalSegments > 0, "totalSegments should be > 0");
+        ExecutorService executorService = Executors.newFixedThreadPool(totalSegments);
+        try {
+            List<CompletableFuture<Map<String, Integer>>> segmentCounts = IntStream.range(0, totalSegments)
+                    .mapToObj(segment -> CompletableFuture.supplyAsync(() -> countSegment(segment, totalSegments), executorService))
+                    .collect(toList());
+            Map<String, Integer> counts = new HashMap<>();
+            segmentCounts.forEach(segmentCount -> segmentCount.join().forEach((key, count) -> counts.merge(key, count, Integer::sum)));
+            return counts.entrySet().stream().map(entry -> {
+                String[] skuCodeAndWarehouseId = entry.getKey().split(DELIMITER);
+                return InventoryCounts.builder().skuCode(skuCodeAndWarehouseId[0]).warehouseId(skuCodeAndWarehouseId[1])
+                        .availableInventory(entry.getValue()).allocatedInventory(0).build();
+            }).collect(toList());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof InternalServerErrorException) {
+                log.error("Retriable Error occured while counting inventory", e.getCause());
+                throw new RetriableException(e.getCause());
+            }
+            log.error("Non Retriable Error occured while counting inventory", e.getCause());
+            throw new NonRetriableException(e.getCause());
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    private Map<String, Integer> countSegment(int segment, int totalSegments) {
+        Map<String, Integer> counts = new HashMap<>();
+        Map<String, AttributeValue> exclusiveStartKey = null;
+        do {
+            ScanRequest scanRequest = new ScanRequest().withTableName(INVENTORY_TABLE_NAME)
+                    .withSegment(segment).withTotalSegments(totalSegments)
+                    .withProjectionExpression("skuCode, warehouseId")
+                    .withFilterExpression("inventoryStatus = :inbound_status")
+                    .withExpressionAttributeValues(ImmutableMap.of(":inbound_status", new AttributeValue(new Inbound().getStatus())))
+                    .withExclusiveStartKey(exclusiveStartKey);
+            ScanResult scanResult = amazonDynamoDBClient.scan(scanRequest);
+            scanResult.getItems().forEach(item -> counts.merge(String.join(DELIMITER, item.get("skuCode").getS(),
+                    item.get("warehouseId").getS()), 1, Integer::sum));
+            exclusiveStartKey = scanResult.getLastEvaluatedKey();
+        } while (exclusiveStartKey != null && !exclusiveStartKey.isEmpty());
+        log.info("segment {} of {} counted {} sku warehouse pairs", segment, totalSegments, counts.size());
+        return counts;
+    }
+}
@@ -1,11 +1,15 @@
 package org.habitbev.warehousemanagement.dao;
 
+import org.habitbev.warehousemanagement.entities.PaginatedResponse;
+import org.habitbev.warehousemanagement.entities.dynamodb.Inventory;
+import org.habitbev.warehousemanagement.entities.inventory.GetContainerInventoryRequest;
 import org.habitbev.warehousemanagement.entities.inventory.InventoryAddRequest;
 import org.habitbev.warehousemanagement.entities.inventory.InventoryInboundRequestDTO;
 import org.habitbev.warehousemanagement.entities.inventory.InventoryOutboundRequestDTO;
 import org.habitbev.warehousemanagement.entities.inventory.MoveInventoryRequest;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface InventoryDAO {
 
@@ -18,19 +22,37 @@ public interface InventoryDAO {
      * transact write of adding inventory item and changing location capacity.
      *
      * @param inventoryInboundRequestDTO
+     * @return false when an earlier attempt with the same clientRequestToken already committed the sub batch
      */
-     void inbound(InventoryInboundRequestDTO inventoryInboundRequestDTO);
+     boolean inbound(InventoryInboundRequestDTO inventoryInboundRequestDTO);
 
     /**
      * idempotent for upi using InventoryStatus
      * transact write of adding inventory item and changing location capacity.
      *
      * @param inventoryOutboundRequestDTO
+     * @return false when an earlier attempt with the same clientRequestToken already committed the sub batch
      */
-     void outbound(InventoryOutboundRequestDTO inventoryOutboundRequestDTO);
+     boolean outbound(InventoryOutboundRequestDTO inventoryOutboundRequestDTO);
 
 
      void move(MoveInventoryRequest moveInventoryRequest);
 
+    /**
+     * items currently sitting in the container, read lazily page by page from the container contents index.
+     * The index is eventually consistent, so items moved in the last moment may be missing.
+     *
+     * @param warehouseId
+     * @param containerId
+     */
+     Stream<Inventory> queryByContainer(String warehouseId, String containerId);
+
+    /**
+     * single page of the items currently sitting in the container.
+     *
+     * @param getContainerInventoryRequest
+     */
+     PaginatedResponse<Inventory> queryByContainer(GetContainerInventoryRequest getContainerInventoryRequest);
+
 
 }
@@ -2,6 +2,10 @@ package org.habitbev.warehousemanagement.dao;
 
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBQueryExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.PaginatedQueryList;
+import com.amazonaws.services.dynamodbv2.datamodeling.QueryResultPage;
 import com.amazonaws.services.dynamodbv2.datamodeling.KeyPair;
 import com.amazonaws.services.dynamodbv2.model.*;
 import com.google.common.base.Preconditions;
@@ -10,24 +14,30 @@ import com.google.inject.Inject;
 import com.google.inject.name.Named;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
-import org.habitbev.warehousemanagement.entities.container.containerstatus.ContainerStatus;
+import org.habitbev.warehousemanagement.entities.PaginatedResponse;
 import org.habitbev.warehousemanagement.entities.exceptions.InconsistentStateException;
 import org.habitbev.warehousemanagement.entities.exceptions.NonRetriableException;
 import org.habitbev.warehousemanagement.entities.exceptions.RetriableException;
 import org.habitbev.warehousemanagement.entities.dynamodb.ContainerCapacity;
 import org.habitbev.warehousemanagement.entities.dynamodb.Inventory;
 import org.habitbev.warehousemanagement.entities.exceptions.ResourceAlreadyExistsException;
+import org.habitbev.warehousemanagement.entities.inventory.GetContainerInventoryRequest;
 import org.habitbev.warehousemanagement.entities.inventory.InventoryAddRequest;
 import org.habitbev.warehousemanagement.entities.inventory.InventoryInboundRequestDTO;
 import org.habitbev.warehousemanagement.entities.inventory.InventoryOutboundRequestDTO;
 import org.habitbev.warehousemanagement.entities.inventory.MoveInventoryRequest;
-import org.habitbev.warehousemanagement.entities.inventory.inventorystatus.InventoryStatus;
 import org.habitbev.warehousemanagement.entities.inventory.inventorystatus.Production;
+import org.habitbev.warehousemanagement.helpers.ContainerCapacityShards;
+import org.habitbev.warehousemanagement.helpers.ContainerLockRegistry;
 import org.habitbev.warehousemanagement.helpers.ContainerStatusDeterminer;
 
 import java.time.Clock;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static java.util.stream.Collectors.toList;
 
@@ -36,23 +46,36 @@ public class InventoryDynamoDAOImpl implements InventoryDAO {
 
     private static final String DELIMITER = "<%>";
     private static final String INVENTORY_TABLE_NAME = "inventory";
-    private static final String CONTAINER_CAPACITY_TABLE_NAME = "container-capacity";
     private static final String COMMA = ",";
+    private static final long TRANSACTION_RETRY_BASE_DELAY_MILLIS = 50;
     AmazonDynamoDB amazonDynamoDBClient;
     DynamoDBMapper inventoryDynamoDbMapper;
     ContainerCapacityDAO containerCapacityDAO;
 
-    ContainerStatusDeterminer containerStatusDeterminer;
+    InventoryTransactionBuilder inventoryTransactionBuilder;
+    ContainerLockRegistry containerLockRegistry;
+    BatchWriteRetryEngine batchWriteRetryEngine;
+    ContainerCapacityShards containerCapacityShards;
+    boolean deltaCapacityUpdates;
+    int transactionMaxAttempts;
     Clock clock;
 
     @Inject
     public InventoryDynamoDAOImpl(AmazonDynamoDB amazonDynamoDBClient, DynamoDBMapper inventoryDynamoDbMapper,
                                   ContainerStatusDeterminer containerStatusDeterminer, @Named("dynamoDbImpl") ContainerCapacityDAO containerCapacityDAO,
-                                  Clock clock) {
+                                  ContainerLockRegistry containerLockRegistry, BatchWriteRetryEngine batchWriteRetryEngine,
+                                  ContainerCapacityShards containerCapacityShards,
+                                  @Named("deltaContainerCapacityUpdates") boolean deltaCapacityUpdates,
+                                  @Named("transactionMaxAttempts") int transactionMaxAttempts, Clock clock) {
         this.amazonDynamoDBClient = amazonDynamoDBClient;
         this.inventoryDynamoDbMapper = inventoryDynamoDbMapper;
         this.containerCapacityDAO = containerCapacityDAO;
-        this.containerStatusDeterminer = containerStatusDeterminer;
+        this.inventoryTransactionBuilder = new InventoryTransactionBuilder(containerStatusDeterminer, containerCapacityShards, clock);
+        this.containerLockRegistry = containerLockRegistry;
+        this.batchWriteRetryEngine = batchWriteRetryEngine;
+        this.containerCapacityShards = containerCapacityShards;
+        this.deltaCapacityUpdates = deltaCapacityUpdates;
+        this.transactionMaxAttempts = transactionMaxAttempts;
         this.clock = clock;
     }
 
@@ -80,9 +103,15 @@ public class InventoryDynamoDAOImpl implements InventoryDAO {
                     .skuCategoryType(skuCategoryAndType).build()).collect(toList());
             List<DynamoDBMapper.FailedBatch> failedBatches = inventoryDynamoDbMapper.batchSave(newInventories);
             if (!failedBatches.isEmpty()) {
-                List<Inventory> failedItems = failedBatches.stream()
-                        .map(failedBatch -> getFailedBatchListItems(failedBatch)).collect(toList()).stream().flatMap(Collection::stream)
-                        .collect(toList());
+                Map<String, List<WriteRequest>> unprocessedItems = new HashMap<>();
+                failedBatches.forEach(failedBatch -> failedBatch.getUnprocessedItems().forEach((tableName, writeRequests) ->
+                        unprocessedItems.computeIfAbsent(tableName, key -> new ArrayList<>()).addAll(writeRequests)));
+                Map<String, List<WriteRequest>> stillUnprocessedItems = batchWriteRetryEngine.retryUnprocessed(unprocessedItems);
+                List<Inventory> failedItems = getUnprocessedListItems(stillUnprocessedItems);
+                if (!failedItems.isEmpty()) {
+                    log.error("{} ids could not be saved for companyId {} and warehouseId {} within the retry budget", failedItems.size(),
+                            companyId, addRequest.getWarehouseId());
+                }
                 List<String> failedIds = failedItems.stream().map(failedItem -> failedItem.getUniqueProductId()).collect(toList());
                 List<String> successfulProductIds = new ArrayList<>(uniqueProductIds);
                 successfulProductIds.removeAll(failedIds);
@@ -108,7 +137,7 @@ public class InventoryDynamoDAOImpl implements InventoryDAO {
      *
      * @param inboundRequest
      */
-    public void inbound(InventoryInboundRequestDTO inboundRequest) {
+    public boolean inbound(InventoryInboundRequestDTO inboundRequest) {
         try {
             Preconditions.checkArgument(inboundRequest != null, "inboundRequest cannot be null");
 
@@ -116,25 +145,31 @@ public class InventoryDynamoDAOImpl implements InventoryDAO {
             String warehouseId = inboundRequest.getWarehouseId();
 
             List<String> uniqueProductIds = inboundRequest.getUniqueProductIds();
-            synchronized (warehouseId + containerId) {
-                int existingCapacity = containerCapacityDAO.getExistingQuantity(warehouseId, containerId);
+            executeWithCapacityLock(warehouseId, containerId, inboundRequest.isCapacityPreReserved(), () -> {
+                List<TransactWriteItem> capacityWrites = new ArrayList<>();
+                if (!inboundRequest.isCapacityPreReserved()) {
+                    constructContainerCapacityUpdates(warehouseId, containerId, uniqueProductIds.size(), inboundRequest.getContainerMaxCapacity(),
+                            uniqueProductIds.get(0)).forEach(update -> capacityWrites.add(new TransactWriteItem().withUpdate(update)));
+                }
                 List<TransactWriteItem> transactWrites = uniqueProductIds.stream()
-                        .map(itemId -> new TransactWriteItem().withUpdate(constructUpdateExpression(itemId, inboundRequest))).collect(toList());
+                        .map(itemId -> new TransactWriteItem().withUpdate(inventoryTransactionBuilder.constructUpdateExpression(itemId, inboundRequest))).collect(toList());
 
-                int newCapacity = existingCapacity + uniqueProductIds.size();
-                Update updateCapacityExpression = constructUpdateContainerCapacityExpression(warehouseId, containerId, existingCapacity, newCapacity
-                        , inboundRequest.getContainerMaxCapacity());
-
-                transactWrites.add(new TransactWriteItem().withUpdate(updateCapacityExpression));
+                transactWrites.addAll(capacityWrites);
+                if (!inboundRequest.isCapacityPreReserved()) {
+                    transactWrites.add(new TransactWriteItem().withUpdate(inventoryTransactionBuilder.constructInventoryCountsExpression(
+                            inboundRequest.getSkuCode(), warehouseId, uniqueProductIds.size())));
+                }
 
 
                 TransactWriteItemsRequest inboundInventoryTransaction = new TransactWriteItemsRequest()
                         .withTransactItems(transactWrites)
-                        .withReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+                        .withReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL)
+                        .withClientRequestToken(inboundRequest.getClientRequestToken());
 
 
-                amazonDynamoDBClient.transactWriteItems(inboundInventoryTransaction);
-            }
+                transactWriteItems(inboundInventoryTransaction);
+            });
+            return true;
         } catch (TransactionCanceledException tce) {
             List<String> cancellationsReasons = tce.getCancellationReasons().stream().map(cr -> cr.toString()).collect(toList());
             log.error("transaction cancelled exception for inbounding ", inboundRequest.getInboundId(), " with cancellation reasons ",
@@ -145,8 +180,14 @@ public class InventoryDynamoDAOImpl implements InventoryDAO {
                             "3) ProductIds are not generated for the given companyId %s and warehouseId %s", inboundRequest.getContainerId(),
                     inboundRequest.getCompanyId(), inboundRequest.getWarehouseId());
             throw new InconsistentStateException(message, tce);
-        } catch (InternalServerErrorException e) {
+        } catch (IdempotentParameterMismatchException e) {
+            verifyAlreadyApplied(e, inboundRequest.getCompanyId(), inboundRequest.getUniqueProductIds(),
+                    inventoryTransactionBuilder.appliedBy(inboundRequest));
+            return false;
+        } catch (InternalServerErrorException | TransactionInProgressException e) {
             throw new RetriableException("Exception occurred", e);
+        } catch (RetriableException | InconsistentStateException e) {
+            throw e;
         } catch (Exception e) {
             throw new NonRetriableException("Exception occurred", e);
         }
@@ -159,32 +200,38 @@ public class InventoryDynamoDAOImpl implements InventoryDAO {
      *
      * @param outboundRequest
      */
-    public void outbound(InventoryOutboundRequestDTO outboundRequest) {
+    public boolean outbound(InventoryOutboundRequestDTO outboundRequest) {
         try {
             Preconditions.checkArgument(outboundRequest != null, "outboundRequest cannot be null");
             List<String> uniqueProductIds = outboundRequest.getUniqueProductIds();
             Preconditions.checkArgument(outboundRequest != null, "outboundRequest cannot be null");
             String containerId = outboundRequest.getContainerId();
             String warehouseId = outboundRequest.getWarehouseId();
-            synchronized (warehouseId + containerId) {
-                int existingQuantity = containerCapacityDAO.getExistingQuantity(warehouseId, containerId);
-
-                int newQuantity = existingQuantity - uniqueProductIds.size();
-                Update updateCapacityExpression = constructUpdateContainerCapacityExpression(warehouseId, containerId,
-                        existingQuantity, newQuantity, outboundRequest.getContainerMaxCapacity());
+            executeWithCapacityLock(warehouseId, containerId, outboundRequest.isCapacityPreReserved(), () -> {
+                List<TransactWriteItem> capacityWrites = new ArrayList<>();
+                if (!outboundRequest.isCapacityPreReserved()) {
+                    constructContainerCapacityUpdates(warehouseId, containerId, -uniqueProductIds.size(), outboundRequest.getContainerMaxCapacity(),
+                            uniqueProductIds.get(0)).forEach(update -> capacityWrites.add(new TransactWriteItem().withUpdate(update)));
+                }
                 List<TransactWriteItem> transactWrites = uniqueProductIds.stream()
-                        .map(itemId -> new TransactWriteItem().withUpdate(constructUpdateExpression(itemId, outboundRequest))).collect(toList());
-                transactWrites.add(new TransactWriteItem().withUpdate(updateCapacityExpression));
+                        .map(itemId -> new TransactWriteItem().withUpdate(inventoryTransactionBuilder.constructUpdateExpression(itemId, outboundRequest))).collect(toList());
+                transactWrites.addAll(capacityWrites);
+                if (!outboundRequest.isCapacityPreReserved()) {
+                    transactWrites.add(new TransactWriteItem().withUpdate(inventoryTransactionBuilder.constructInventoryCountsExpression(
+                            outboundRequest.getSkuCode(), warehouseId, -uniqueProductIds.size())));
+                }
 
 
                 TransactWriteItemsRequest outboundInventoryTransaction = new TransactWriteItemsRequest()
                         .withTransactItems(transactWrites)
-                        .withReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+                        .withReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL)
+                        .withClientRequestToken(outboundRequest.getClientRequestToken());
 
 
-                amazonDynamoDBClient.transactWriteItems(outboundInventoryTransaction);
+                transactWriteItems(outboundInventoryTransaction);
 
-            }
+            });
+            return true;
         } catch (TransactionCanceledException tce) {
             List<CancellationReason> cancellationReasons = tce.getCancellationReasons();
             log.error("transaction cancelled exception for outbounding ", outboundRequest.getOutboundId(), " with cancellation reasons ",
@@ -195,8 +242,14 @@ public class InventoryDynamoDAOImpl implements InventoryDAO {
                             "3) ProductIds are not generated for the given companyId %s and warehouseId %s", outboundRequest.getContainerId(),
                     outboundRequest.getCompanyId(), outboundRequest.getWarehouseId());
             throw new InconsistentStateException(message, tce);
-        } catch (InternalServerErrorException e) {
+        } catch (IdempotentParameterMismatchException e) {
+            verifyAlreadyApplied(e, outboundRequest.getCompanyId(), outboundRequest.getUniqueProductIds(),
+                    inventoryTransactionBuilder.appliedBy(outboundRequest));
+            return false;
+        } catch (InternalServerErrorException | TransactionInProgressException e) {
             throw new RetriableException("Exception occurred", e);
+        } catch (RetriableException | InconsistentStateException e) {
+            throw e;
         } catch (Exception e) {
             throw new NonRetriableException("Exception occurred", e);
         }
@@ -211,40 +264,51 @@ public class InventoryDynamoDAOImpl implements InventoryDAO {
             String sourceContainerId = moveRequest.getSourceContainerId();
             String warehouseId = moveRequest.getWarehouseId();
 
-            synchronized (warehouseId + sourceContainerId) {
-                synchronized (warehouseId + destinationContainerId) {
-
-                    List<TransactWriteItem> transactWrites = uniqueProductIds.stream()
-                            .map(itemId -> new TransactWriteItem().withUpdate(constructUpdateExpression(itemId, moveRequest)))
-                            .collect(toList());
-
-
-                    Optional<ContainerCapacity> sourceContainerCapacityOp = containerCapacityDAO.get(warehouseId, sourceContainerId);
-                    if (!sourceContainerCapacityOp.isPresent()) {
-                        throw new NonRetriableException("inconsistent source container state");
-                    }
-                    int existingSourceContainerCapacity = sourceContainerCapacityOp.get().getCurrentCapacity();
-                    int existingDestinationContainerCapacity = 0;
-                    Optional<ContainerCapacity> destinationContainerOp = containerCapacityDAO.get(warehouseId, destinationContainerId);
-                    if (destinationContainerOp.isPresent()) {
-                        existingDestinationContainerCapacity = destinationContainerOp.get().getCurrentCapacity();
-                    }
-                    int sourceContainerNewCapacity = existingSourceContainerCapacity - uniqueProductIds.size();
-                    int destinationContainerNewCapacity = existingDestinationContainerCapacity + uniqueProductIds.size();
-
-                    Update sourceContainerUpdate = constructUpdateContainerCapacityExpression(warehouseId, sourceContainerId, existingSourceContainerCapacity, sourceContainerNewCapacity, moveRequest.getSourceContainerMaxCapacity());
-                    Update destinationContainerUpdate = constructUpdateContainerCapacityExpression(warehouseId, destinationContainerId, existingDestinationContainerCapacity, destinationContainerNewCapacity, moveRequest.getDestinationContainerMaxCapacity());
-                    transactWrites.add(new TransactWriteItem().withUpdate(sourceContainerUpdate));
-                    transactWrites.add(new TransactWriteItem().withUpdate(destinationContainerUpdate));
-                    TransactWriteItemsRequest moveInventoryTransaction = new TransactWriteItemsRequest()
-                            .withTransactItems(transactWrites)
-                            .withReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+            executeWithCapacityLocks(warehouseId, sourceContainerId, destinationContainerId, () -> {
 
+                List<TransactWriteItem> transactWrites = uniqueProductIds.stream()
+                        .map(itemId -> new TransactWriteItem().withUpdate(inventoryTransactionBuilder.constructUpdateExpression(itemId, moveRequest)))
+                        .collect(toList());
 
-                    amazonDynamoDBClient.transactWriteItems(moveInventoryTransaction);
+                if (deltaCapacityUpdates || containerCapacityShards.isSharded(warehouseId, sourceContainerId)
+                        || containerCapacityShards.isSharded(warehouseId, destinationContainerId)) {
+                    constructContainerCapacityUpdates(warehouseId, sourceContainerId, -uniqueProductIds.size(), moveRequest.getSourceContainerMaxCapacity(),
+                            uniqueProductIds.get(0)).forEach(update -> transactWrites.add(new TransactWriteItem().withUpdate(update)));
+                    constructContainerCapacityUpdates(warehouseId, destinationContainerId, uniqueProductIds.size(), moveRequest.getDestinationContainerMaxCapacity(),
+                            uniqueProductIds.get(0)).forEach(update -> transactWrites.add(new TransactWriteItem().withUpdate(update)));
+                    transactWriteItems(new TransactWriteItemsRequest()
+                            .withTransactItems(transactWrites)
+                            .withReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL)
+                            .withClientRequestToken(moveRequest.getClientRequestToken()));
+                    return;
+                }
 
+                Optional<ContainerCapacity> sourceContainerCapacityOp = containerCapacityDAO.get(warehouseId, sourceContainerId);
+                if (!sourceContainerCapacityOp.isPresent()) {
+                    throw new NonRetriableException("inconsistent source container state");
                 }
-            }
+                int existingSourceContainerCapacity = sourceContainerCapacityOp.get().getCurrentCapacity();
+                int existingDestinationContainerCapacity = 0;
+                Optional<ContainerCapacity> destinationContainerOp = containerCapacityDAO.get(warehouseId, destinationContainerId);
+                if (destinationContainerOp.isPresent()) {
+                    existingDestinationContainerCapacity = destinationContainerOp.get().getCurrentCapacity();
+                }
+                int sourceContainerNewCapacity = existingSourceContainerCapacity - uniqueProductIds.size();
+                int destinationContainerNewCapacity = existingDestinationContainerCapacity + uniqueProductIds.size();
+
+                Update sourceContainerUpdate = inventoryTransactionBuilder.constructUpdateContainerCapacityExpression(warehouseId, sourceContainerId, existingSourceContainerCapacity, sourceContainerNewCapacity, moveRequest.getSourceContainerMaxCapacity());
+                Update destinationContainerUpdate = inventoryTransactionBuilder.constructUpdateContainerCapacityExpression(warehouseId, destinationContainerId, existingDestinationContainerCapacity, destinationContainerNewCapacity, moveRequest.getDestinationContainerMaxCapacity());
+                transactWrites.add(new TransactWriteItem().withUpdate(sourceContainerUpdate));
+                transactWrites.add(new TransactWriteItem().withUpdate(destinationContainerUpdate));
+                TransactWriteItemsRequest moveInventoryTransaction = new TransactWriteItemsRequest()
+                        .withTransactItems(transactWrites)
+                        .withReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL)
+                        .withClientRequestToken(moveRequest.getClientRequestToken());
+
+
+                transactWriteItems(moveInventoryTransaction);
+
+            });
         } catch (TransactionCanceledException tce) {
             List<CancellationReason> cancellationReasons = tce.getCancellationReasons();
             log.error("transaction cancelled exception for moving from container ", moveRequest.getSourceContainerId(), "to destination container id",
@@ -257,125 +321,196 @@ public class InventoryDynamoDAOImpl implements InventoryDAO {
                             "3) ProductIds are not generated for the given companyId %s and warehouseId %s", moveRequest.getSourceContainerId()
                     , moveRequest.getDestinationContainerId(), moveRequest.getCompanyId(), moveRequest.getWarehouseId());
             throw new InconsistentStateException(message, tce);
-        } catch (InternalServerErrorException e) {
+        } catch (IdempotentParameterMismatchException e) {
+            verifyAlreadyApplied(e, moveRequest.getCompanyId(), moveRequest.getUniqueProductIds(),
+                    inventoryTransactionBuilder.appliedBy(moveRequest));
+        } catch (InternalServerErrorException | TransactionInProgressException e) {
             throw new RetriableException("Exception occurred", e);
+        } catch (RetriableException | InconsistentStateException e) {
+            throw e;
         } catch (Exception e) {
             throw new NonRetriableException("Exception occurred", e);
         }
     }
 
 
-    private Update constructUpdateExpression(String itemId, InventoryInboundRequestDTO inventoryInboundRequestDTO) {
-
-        Map<String, AttributeValue> inventoryKey = new HashMap<>();
-        inventoryKey.put("uniqueProductId", new AttributeValue().withS(itemId));
-        inventoryKey.put("companyId", new AttributeValue().withS(inventoryInboundRequestDTO.getCompanyId()));
-
-        InventoryStatus newInventoryStatus = inventoryInboundRequestDTO.getInventoryStatus();
-        Map<String, AttributeValue> updatedAttributes = new HashMap<>();
-        long currentTime = clock.millis();
-        updatedAttributes.put(":new_status", new AttributeValue(newInventoryStatus.getStatus()));
-        updatedAttributes.put(":inbound_id", new AttributeValue(inventoryInboundRequestDTO.getInboundId()));
-        updatedAttributes.put(":container_id", new AttributeValue(inventoryInboundRequestDTO.getContainerId()));
-        updatedAttributes.put(":warehouse_id", new AttributeValue(inventoryInboundRequestDTO.getWarehouseId()));
-        updatedAttributes.put(":modified_time", new AttributeValue().withN(String.valueOf(currentTime)));
-
-        String previousStatus = getAppendedStatusString(newInventoryStatus, updatedAttributes);
-
-
-        Update update = new Update().withTableName(INVENTORY_TABLE_NAME).withKey(inventoryKey)
-                .withExpressionAttributeValues(updatedAttributes)
-                .withUpdateExpression("SET inventoryStatus = :new_status , inboundId = :inbound_id , containerId =:container_id , " +
-                        "modifiedTime= :modified_time")
-                .withConditionExpression("inventoryStatus IN (" + previousStatus + ") AND warehouseId = :warehouse_id");
-        return update;
+    /**
+     * a transaction carrying a clientRequestToken is retried on transient errors. If an earlier attempt already committed,
+     * dynamodb recognises the token and returns success without applying it again. Transactions without a token are not retried.
+     * A transaction cancelled only by a conflicting concurrent transaction did not apply anything and is retried with or without a token,
+     * the same way AsyncInventoryDynamoDAOImpl does.
+     */
+    private void transactWriteItems(TransactWriteItemsRequest transactWriteItemsRequest) {
+        int attempt = 1;
+        while (true) {
+            try {
+                amazonDynamoDBClient.transactWriteItems(transactWriteItemsRequest);
+                return;
+            } catch (InternalServerErrorException | TransactionInProgressException e) {
+                if (transactWriteItemsRequest.getClientRequestToken() == null || attempt >= transactionMaxAttempts) {
+                    throw e;
+                }
+                log.warn("transaction attempt {} with clientRequestToken {} failed, retrying", attempt,
+                        transactWriteItemsRequest.getClientRequestToken(), e);
+                backoff(attempt++);
+            } catch (TransactionCanceledException e) {
+                if (!InventoryTransactionBuilder.isConflictOnly(e)) {
+                    throw e;
+                }
+                if (attempt >= transactionMaxAttempts) {
+                    log.warn("transaction kept conflicting with concurrent transactions on the same items");
+                    throw new RetriableException("transaction conflicted with concurrent transactions, retry later", e);
+                }
+                log.warn("transaction attempt {} with clientRequestToken {} conflicted, retrying", attempt,
+                        transactWriteItemsRequest.getClientRequestToken());
+                backoff(attempt++);
+            }
+        }
     }
 
-
-    private Update constructUpdateExpression(String itemId, InventoryOutboundRequestDTO inventoryOutboundRequestDTO) {
-
-        Map<String, AttributeValue> inventoryKey = new HashMap<>();
-        inventoryKey.put("uniqueProductId", new AttributeValue().withS(itemId));
-        inventoryKey.put("companyId", new AttributeValue().withS(inventoryOutboundRequestDTO.getCompanyId()));
-
-        InventoryStatus newInventoryStatus = inventoryOutboundRequestDTO.getInventoryStatus();
-
-        Map<String, AttributeValue> updatedAttributes = new HashMap<>();
-
-        updatedAttributes.put(":new_status", new AttributeValue(newInventoryStatus.getStatus()));
-        updatedAttributes.put(":outbound_id", new AttributeValue(inventoryOutboundRequestDTO.getOutboundId()));
-        updatedAttributes.put(":order_id", new AttributeValue(inventoryOutboundRequestDTO.getOrderId()));
-        updatedAttributes.put(":container_id", new AttributeValue(inventoryOutboundRequestDTO.getContainerId()));
-        updatedAttributes.put(":warehouse_id", new AttributeValue(inventoryOutboundRequestDTO.getWarehouseId()));
-
-        long currentTime = clock.millis();
-        updatedAttributes.put(":modified_time", new AttributeValue().withN(String.valueOf(currentTime)));
-        String previousStatus = getAppendedStatusString(newInventoryStatus, updatedAttributes);
-
-        Update update = new Update().withTableName(INVENTORY_TABLE_NAME).withKey(inventoryKey)
-                .withExpressionAttributeValues(updatedAttributes)
-                .withUpdateExpression("SET inventoryStatus = :new_status , orderId = :order_id , outboundId =:outbound_id , " +
-                        "modifiedTime= :modified_time")
-                .withConditionExpression("inventoryStatus IN (" + previousStatus + ") AND containerId = :container_id " +
-                        "AND warehouseId = :warehouse_id");
-        return update;
+    /**
+     * a client retry of a committed sub batch carries the same clientRequestToken but a new modified time (and in absolute mode
+     * a re-read capacity), so dynamodb rejects it as a mismatch. The retry succeeds when every item already is in the state
+     * the sub batch sets, otherwise the token really was used for a different transaction.
+     */
+    private void verifyAlreadyApplied(IdempotentParameterMismatchException mismatch, String companyId, List<String> uniqueProductIds,
+                                      Predicate<Map<String, AttributeValue>> applied) {
+        BatchGetItemResult batchGetItemResult;
+        try {
+            batchGetItemResult = amazonDynamoDBClient.batchGetItem(new BatchGetItemRequest().withRequestItems(ImmutableMap.of(INVENTORY_TABLE_NAME,
+                    inventoryTransactionBuilder.constructInventoryKeys(companyId, uniqueProductIds))));
+        } catch (InternalServerErrorException | ProvisionedThroughputExceededException e) {
+            throw new RetriableException("could not verify whether the sub batch was already committed", e);
+        }
+        if (batchGetItemResult.getUnprocessedKeys() != null && !batchGetItemResult.getUnprocessedKeys().isEmpty()) {
+            throw new RetriableException("could not verify whether the sub batch was already committed", mismatch);
+        }
+        List<Map<String, AttributeValue>> items = batchGetItemResult.getResponses() == null ? Collections.emptyList()
+                : batchGetItemResult.getResponses().getOrDefault(INVENTORY_TABLE_NAME, Collections.emptyList());
+        if (!InventoryTransactionBuilder.allApplied(uniqueProductIds, items, applied)) {
+            throw new NonRetriableException("clientRequestToken was already used for a different transaction", mismatch);
+        }
+        log.info("sub batch of {} items was already committed by an earlier attempt", uniqueProductIds.size());
     }
 
-    private Update constructUpdateExpression(String itemId, MoveInventoryRequest moveInventoryRequest) {
+    private void backoff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong((TRANSACTION_RETRY_BASE_DELAY_MILLIS << Math.min(attempt, 10)) + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RetriableException("interrupted while retrying transaction", e);
+        }
+    }
 
-        Map<String, AttributeValue> inventoryKey = new HashMap<>();
-        inventoryKey.put("uniqueProductId", new AttributeValue().withS(itemId));
-        inventoryKey.put("companyId", new AttributeValue().withS(moveInventoryRequest.getCompanyId()));
+    /**
+     * absolute capacity updates are read-modify-write and need the container serialized,
+     * delta updates are guarded in the condition expression and commute, so they run without the lock.
+     * Pre reserved requests do not touch the container capacity at all.
+     */
+    private void executeWithCapacityLock(String warehouseId, String containerId, boolean capacityPreReserved, Runnable action) {
+        if (deltaCapacityUpdates || capacityPreReserved || containerCapacityShards.isSharded(warehouseId, containerId)) {
+            action.run();
+            return;
+        }
+        containerLockRegistry.executeWithContainerLock(warehouseId, containerId, action);
+    }
 
-        String destinationContainerId = moveInventoryRequest.getDestinationContainerId();
-        String sourceContainerId = moveInventoryRequest.getSourceContainerId();
+    private void executeWithCapacityLocks(String warehouseId, String sourceContainerId, String destinationContainerId, Runnable action) {
+        if (deltaCapacityUpdates) {
+            action.run();
+            return;
+        }
+        containerLockRegistry.executeWithContainerLocks(warehouseId, sourceContainerId, destinationContainerId, action);
+    }
 
-        Map<String, AttributeValue> updatedAttributes = new HashMap<>();
+    @Override
+    public Stream<Inventory> queryByContainer(String warehouseId, String containerId) {
+        Preconditions.checkArgument(StringUtils.isNotBlank(warehouseId), "warehouseId cannot be blank");
+        Preconditions.checkArgument(StringUtils.isNotBlank(containerId), "containerId cannot be blank");
+        DynamoDBQueryExpression<Inventory> queryExpression = constructContainerQueryExpression(warehouseId, containerId, null, null);
+        PaginatedQueryList<Inventory> inventories = inventoryDynamoDbMapper.query(Inventory.class, queryExpression,
+                DynamoDBMapperConfig.PaginationLoadingStrategy.ITERATION_ONLY.config());
+        //iteration only list keeps no page in memory once iterated, so the stream is built on its iterator and not on the list
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(inventories.iterator(),
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
 
-        updatedAttributes.put(":new_container_id", new AttributeValue(destinationContainerId));
-        long currentTime = clock.millis();
-        updatedAttributes.put(":modified_time", new AttributeValue().withN(String.valueOf(currentTime)));
-        updatedAttributes.put(":existing_container_id", new AttributeValue(sourceContainerId));
-        updatedAttributes.put(":warehouse_id", new AttributeValue(moveInventoryRequest.getWarehouseId()));
+    @Override
+    public PaginatedResponse<Inventory> queryByContainer(GetContainerInventoryRequest getContainerInventoryRequest) {
+        Preconditions.checkArgument(getContainerInventoryRequest != null, "getContainerInventoryRequest cannot be null");
+        DynamoDBQueryExpression<Inventory> queryExpression = constructContainerQueryExpression(getContainerInventoryRequest.getWarehouseId(),
+                getContainerInventoryRequest.getContainerId(), getContainerInventoryRequest.getFromModifiedTime().orElse(null),
+                getContainerInventoryRequest.getToModifiedTime().orElse(null)).withLimit(getContainerInventoryRequest.getLimit());
+        getContainerInventoryRequest.getPageToken().ifPresent(pageToken -> queryExpression.withExclusiveStartKey(PageTokens.decode(pageToken)));
+        try {
+            QueryResultPage<Inventory> inventoryQueryResultPage = inventoryDynamoDbMapper.queryPage(Inventory.class, queryExpression);
+            return PaginatedResponse.<Inventory>builder().items(inventoryQueryResultPage.getResults())
+                    .nextPageToken(PageTokens.encode(inventoryQueryResultPage.getLastEvaluatedKey())).build();
+        } catch (InternalServerErrorException e) {
+            log.error("Retriable Error occured while querying container {} contents", getContainerInventoryRequest.getContainerId(), e);
+            throw new RetriableException(e);
+        } catch (Exception e) {
+            log.error("Non Retriable Error occured while querying container {} contents", getContainerInventoryRequest.getContainerId(), e);
+            throw new NonRetriableException(e);
+        }
+    }
 
+    /**
+     * query on the container contents index in uniqueProductId order, optionally filtered on modifiedTime.
+     * The filter applies after the limit, so a filtered page can hold fewer items than the limit and still have a next page.
+     * Index reads cannot be strongly consistent.
+     */
+    private DynamoDBQueryExpression<Inventory> constructContainerQueryExpression(String warehouseId, String containerId,
+                                                                                 Long fromModifiedTime, Long toModifiedTime) {
+        Map<String, AttributeValue> eav = new HashMap<>();
+        eav.put(":warehouse_container_id", new AttributeValue(String.join(DELIMITER, warehouseId, containerId)));
+        String filterExpression = null;
+        if (fromModifiedTime != null && toModifiedTime != null) {
+            filterExpression = "modifiedTime BETWEEN :from_modified_time AND :to_modified_time";
+        } else if (fromModifiedTime != null) {
+            filterExpression = "modifiedTime >= :from_modified_time";
+        } else if (toModifiedTime != null) {
+            filterExpression = "modifiedTime <= :to_modified_time";
+        }
+        if (fromModifiedTime != null) {
+            eav.put(":from_modified_time", new AttributeValue().withN(String.valueOf(fromModifiedTime)));
+        }
+        if (toModifiedTime != null) {
+            eav.put(":to_modified_time", new AttributeValue().withN(String.valueOf(toModifiedTime)));
+        }
+        return new DynamoDBQueryExpression<Inventory>().withIndexName(Inventory.WAREHOUSE_CONTAINER_INDEX)
+                .withKeyConditionExpression("warehouseContainerId = :warehouse_container_id").withFilterExpression(filterExpression)
+                .withExpressionAttributeValues(eav)
+                .withConsistentRead(false);
+    }
 
-        Update update = new Update().withTableName(INVENTORY_TABLE_NAME).withKey(inventoryKey)
-                .withExpressionAttributeValues(updatedAttributes)
-                .withUpdateExpression("SET containerId = :new_container_id , modifiedTime= :modified_time")
-                .withConditionExpression("containerId = :existing_container_id AND warehouseId = :warehouse_id");
-        return update;
+    /**
+     * In delta mode the capacity change is applied with ADD and guarded by bounds, so no read is required.
+     * Otherwise the existing quantity is read and written back as an absolute value guarded by the read value.
+     */
+    private Update constructContainerCapacityUpdate(String warehouseId, String containerId, int delta, int maxCapacity) {
+        if (deltaCapacityUpdates) {
+            return inventoryTransactionBuilder.constructDeltaContainerCapacityExpression(warehouseId, containerId, delta, maxCapacity);
+        }
+        int existingCapacity = containerCapacityDAO.getExistingQuantity(warehouseId, containerId);
+        return inventoryTransactionBuilder.constructUpdateContainerCapacityExpression(warehouseId, containerId, existingCapacity, existingCapacity + delta, maxCapacity);
     }
 
-    private Update constructUpdateContainerCapacityExpression(String warehouseId, String containerId, int existingCapacity,
-                                                              int newCapacity, int maxCapacity) {
-
-        ContainerStatus newContainerStatus = containerStatusDeterminer.determineStatus(newCapacity, maxCapacity);
-        String warehouseContainerId = String.join(DELIMITER, warehouseId, containerId);
-        Map<String, AttributeValue> containerCapacityTableKey = new HashMap<>();
-        containerCapacityTableKey
-                .put("warehouseContainerId", new AttributeValue().withS(warehouseContainerId));
-        Map<String, AttributeValue> expressionAttributeValues = new HashMap<>();
-        expressionAttributeValues.put(":new_quantity",
-                new AttributeValue().withN(String.valueOf(newCapacity)));
-        expressionAttributeValues
-                .put(":existing_quantity", new AttributeValue().withN(String.valueOf(existingCapacity)));
-        expressionAttributeValues.put(":new_status", new AttributeValue().withS(newContainerStatus.toString()));
-        long modifiedTime = clock.millis();
-        expressionAttributeValues.put(":modified_time", new AttributeValue().withN(String.valueOf(modifiedTime)));
-        String previousStatus = getAppendedStatusString(newContainerStatus, expressionAttributeValues);
-
-
-        Update update = new Update()
-                .withTableName(CONTAINER_CAPACITY_TABLE_NAME)
-                .withKey(containerCapacityTableKey)
-                .withUpdateExpression("SET currentCapacity = :new_quantity , containerStatus= :new_status , modifiedTime = :modified_time")
-                .withExpressionAttributeValues(expressionAttributeValues)
-                .withConditionExpression("currentCapacity = :existing_quantity and containerStatus IN (" + previousStatus + ")");
-        return update;
+    /**
+     * sharded containers always take delta updates on the shards the delta is distributed to, starting at the shard picked by routingKey.
+     */
+    private List<Update> constructContainerCapacityUpdates(String warehouseId, String containerId, int delta, int maxCapacity, String routingKey) {
+        if (!containerCapacityShards.isSharded(warehouseId, containerId)) {
+            return Collections.singletonList(constructContainerCapacityUpdate(warehouseId, containerId, delta, maxCapacity));
+        }
+        int[] shardCapacities = containerCapacityDAO.getShardCapacities(warehouseId, containerId);
+        int[] shardDeltas = containerCapacityShards.distribute(delta, maxCapacity, shardCapacities,
+                containerCapacityShards.preferredShard(routingKey, shardCapacities.length));
+        return inventoryTransactionBuilder.constructDeltaContainerCapacityShardExpressions(warehouseId, containerId, shardDeltas, maxCapacity);
     }
 
-    private List<Inventory> getFailedBatchListItems(final DynamoDBMapper.FailedBatch failedBatch) {
-        return failedBatch.getUnprocessedItems()
+    private List<Inventory> getUnprocessedListItems(final Map<String, List<WriteRequest>> unprocessedItems) {
+        return unprocessedItems
                 .values()
                 .stream()
                 .flatMap(List::stream)
@@ -384,29 +519,4 @@ public class InventoryDynamoDAOImpl implements InventoryDAO {
                 .map(e -> inventoryDynamoDbMapper.marshallIntoObject(Inventory.class, e))
                 .collect(toList());
     }
-
-
-    private String getAppendedStatusString(InventoryStatus newInventoryStatus, Map<String, AttributeValue> updatedAttributes) {
-        List<String> previousValues = new ArrayList<>();
-        for (int i = 0; i < newInventoryStatus.previousStates().size(); i++) {
-            String key = ":is" + (i + 1);
-            updatedAttributes.put(key,
-                    new AttributeValue().withS(newInventoryStatus.previousStates().get(i).getStatus()));
-            previousValues.add(key);
-        }
-        String previousStatus = String.join(", ", previousValues);
-        return previousStatus;
-    }
-
-    private String getAppendedStatusString(ContainerStatus containerStatus, Map<String, AttributeValue> updatedAttributes) {
-        List<String> previousValues = new ArrayList<>();
-        for (int i = 0; i < containerStatus.previousStates().size(); i++) {
-            String key = ":is" + (i + 1);
-            updatedAttributes.put(key,
-                    new AttributeValue().withS(containerStatus.previousStates().get(i).toString()));
-            previousValues.add(key);
-        }
-        String previousStatus = String.join(", ", previousValues);
-        return previousStatus;
-    }
 }
@@ -0,0 +1,371 @@
+package org.habitbev.warehousemanagement.dao;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.CancellationReason;
+import com.amazonaws.services.dynamodbv2.model.KeysAndAttributes;
+import com.amazonaws.services.dynamodbv2.model.TransactionCanceledException;
+import com.amazonaws.services.dynamodbv2.model.Update;
+import org.habitbev.warehousemanagement.entities.container.containerstatus.ContainerStatus;
+import org.habitbev.warehousemanagement.entities.container.containerstatus.Discontinued;
+import org.habitbev.warehousemanagement.entities.inventory.InventoryInboundRequestDTO;
+import org.habitbev.warehousemanagement.entities.inventory.InventoryOutboundRequestDTO;
+import org.habitbev.warehousemanagement.entities.inventory.MoveInventoryRequest;
+import org.habitbev.warehousemanagement.entities.inventory.inventorystatus.InventoryStatus;
+import org.habitbev.warehousemanagement.helpers.ContainerCapacityShards;
+import org.habitbev.warehousemanagement.helpers.ContainerStatusDeterminer;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Builds the inventory, container capacity and inventory counts updates that go into inventory transactions.
+ * Shared by the blocking and the async inventory DAOs so both write exactly the same items.
+ */
+class InventoryTransactionBuilder {
+
+    private static final String DELIMITER = "<%>";
+    private static final String INVENTORY_TABLE_NAME = "inventory";
+    private static final String CONTAINER_CAPACITY_TABLE_NAME = "container-capacity";
+    private static final String INVENTORY_COUNTS_TABLE_NAME = "inventory-counts";
+    private static final String TRANSACTION_CONFLICT = "TransactionConflict";
+    private static final String NO_CANCELLATION = "None";
+
+    ContainerStatusDeterminer containerStatusDeterminer;
+    ContainerCapacityShards containerCapacityShards;
+    Clock clock;
+
+    InventoryTransactionBuilder(ContainerStatusDeterminer containerStatusDeterminer, ContainerCapacityShards containerCapacityShards, Clock clock) {
+        this.containerStatusDeterminer = containerStatusDeterminer;
+        this.containerCapacityShards = containerCapacityShards;
+        this.clock = clock;
+    }
+
+    Update constructUpdateExpression(String itemId, InventoryInboundRequestDTO inventoryInboundRequestDTO) {
+
+        Map<String, AttributeValue> inventoryKey = new HashMap<>();
+        inventoryKey.put("uniqueProductId", new AttributeValue().withS(itemId));
+        inventoryKey.put("companyId", new AttributeValue().withS(inventoryInboundRequestDTO.getCompanyId()));
+
+        InventoryStatus newInventoryStatus = inventoryInboundRequestDTO.getInventoryStatus();
+        Map<String, AttributeValue> updatedAttributes = new HashMap<>();
+        long currentTime = clock.millis();
+        updatedAttributes.put(":new_status", new AttributeValue(newInventoryStatus.getStatus()));
+        updatedAttributes.put(":inbound_id", new AttributeValue(inventoryInboundRequestDTO.getInboundId()));
+        updatedAttributes.put(":container_id", new AttributeValue(inventoryInboundRequestDTO.getContainerId()));
+        updatedAttributes.put(":warehouse_id", new AttributeValue(inventoryInboundRequestDTO.getWarehouseId()));
+        updatedAttributes.put(":warehouse_container_id", new AttributeValue(String.join(DELIMITER,
+                inventoryInboundRequestDTO.getWarehouseId(), inventoryInboundRequestDTO.getContainerId())));
+        updatedAttributes.put(":modified_time", new AttributeValue().withN(String.valueOf(currentTime)));
+
+        String previousStatus = getAppendedStatusString(newInventoryStatus, updatedAttributes);
+
+
+        Update update = new Update().withTableName(INVENTORY_TABLE_NAME).withKey(inventoryKey)
+                .withExpressionAttributeValues(updatedAttributes)
+                .withUpdateExpression("SET inventoryStatus = :new_status , inboundId = :inbound_id , containerId =:container_id , " +
+                        "warehouseContainerId = :warehouse_container_id , modifiedTime= :modified_time")
+                .withConditionExpression("inventoryStatus IN (" + previousStatus + ") AND warehouseId = :warehouse_id");
+        return update;
+    }
+
+
+    Update constructUpdateExpression(String itemId, InventoryOutboundRequestDTO inventoryOutboundRequestDTO) {
+
+        Map<String, AttributeValue> inventoryKey = new HashMap<>();
+        inventoryKey.put("uniqueProductId", new AttributeValue().withS(itemId));
+        inventoryKey.put("companyId", new AttributeValue().withS(inventoryOutboundRequestDTO.getCompanyId()));
+
+        InventoryStatus newInventoryStatus = inventoryOutboundRequestDTO.getInventoryStatus();
+
+        Map<String, AttributeValue> updatedAttributes = new HashMap<>();
+
+        updatedAttributes.put(":new_status", new AttributeValue(newInventoryStatus.getStatus()));
+        updatedAttributes.put(":outbound_id", new AttributeValue(inventoryOutboundRequestDTO.getOutboundId()));
+        updatedAttributes.put(":order_id", new AttributeValue(inventoryOutboundRequestDTO.getOrderId()));
+        updatedAttributes.put(":container_id", new AttributeValue(inventoryOutboundRequestDTO.getContainerId()));
+        updatedAttributes.put(":warehouse_id", new AttributeValue(inventoryOutboundRequestDTO.getWarehouseId()));
+
+        long currentTime = clock.millis();
+        updatedAttributes.put(":modified_time", new AttributeValue().withN(String.valueOf(currentTime)));
+        String previousStatus = getAppendedStatusString(newInventoryStatus, updatedAttributes);
+
+        Update update = new Update().withTableName(INVENTORY_TABLE_NAME).withKey(inventoryKey)
+                .withExpressionAttributeValues(updatedAttributes)
+                .withUpdateExpression("SET inventoryStatus = :new_status , orderId = :order_id , outboundId =:outbound_id , " +
+                        "modifiedTime= :modified_time REMOVE warehouseContainerId")
+                .withConditionExpression("inventoryStatus IN (" + previousStatus + ") AND containerId = :container_id " +
+                        "AND warehouseId = :warehouse_id");
+        return update;
+    }
+
+    Update constructUpdateExpression(String itemId, MoveInventoryRequest moveInventoryRequest) {
+
+        Map<String, AttributeValue> inventoryKey = new HashMap<>();
+        inventoryKey.put("uniqueProductId", new AttributeValue().withS(itemId));
+        inventoryKey.put("companyId", new AttributeValue().withS(moveInventoryRequest.getCompanyId()));
+
+        String destinationContainerId = moveInventoryRequest.getDestinationContainerId();
+        String sourceContainerId = moveInventoryRequest.getSourceContainerId();
+
+        Map<String, AttributeValue> updatedAttributes = new HashMap<>();
+
+        updatedAttributes.put(":new_container_id", new AttributeValue(destinationContainerId));
+        updatedAttributes.put(":new_warehouse_container_id", new AttributeValue(String.join(DELIMITER,
+                moveInventoryRequest.getWarehouseId(), destinationContainerId)));
+        long currentTime = clock.millis();
+        updatedAttributes.put(":modified_time", new AttributeValue().withN(String.valueOf(currentTime)));
+        updatedAttributes.put(":existing_container_id", new AttributeValue(sourceContainerId));
+        updatedAttributes.put(":warehouse_id", new AttributeValue(moveInventoryRequest.getWarehouseId()));
+
+
+        Update update = new Update().withTableName(INVENTORY_TABLE_NAME).withKey(inventoryKey)
+                .withExpressionAttributeValues(updatedAttributes)
+                .withUpdateExpression("SET containerId = :new_container_id , warehouseContainerId = :new_warehouse_container_id , " +
+                        "modifiedTime= :modified_time")
+                .withConditionExpression("containerId = :existing_container_id AND warehouseId = :warehouse_id");
+        return update;
+    }
+
+    /**
+     * currentCapacity + delta is kept within [0, maxCapacity] by conditioning on the pre update value,
+     * i.e currentCapacity <= maxCapacity - delta for additions and currentCapacity >= -delta for removals.
+     * Concurrent updates on the same container commute. The post update status cannot be computed in an ADD expression,
+     * so the stored occupancy status is removed and derived from currentCapacity and maxCapacity on read, only
+     * Discontinued stays stored. A container without a capacity row yet (e.g a move destination) counts as empty for
+     * additions and gets its row created.
+     */
+    Update constructDeltaContainerCapacityExpression(String warehouseId, String containerId, int delta, int maxCapacity) {
+        String warehouseContainerId = String.join(DELIMITER, warehouseId, containerId);
+        return constructDeltaContainerCapacityExpression(warehouseContainerId, delta, maxCapacity, maxCapacity, delta >= 0);
+    }
+
+    /**
+     * one delta update per shard with a non zero delta, each bounded by the shard allotment instead of the container max capacity.
+     * The container max capacity is still stored so the status of the summed shards can be derived on read.
+     * Shards are created by their first addition, so a missing shard counts as empty.
+     *
+     * @param shardDeltas delta per shard as distributed by ContainerCapacityShards
+     */
+    List<Update> constructDeltaContainerCapacityShardExpressions(String warehouseId, String containerId, int[] shardDeltas, int maxCapacity) {
+        List<Update> updates = new ArrayList<>();
+        for (int shard = 0; shard < shardDeltas.length; shard++) {
+            if (shardDeltas[shard] != 0) {
+                updates.add(constructDeltaContainerCapacityShardExpression(containerCapacityShards.shardKey(warehouseId, containerId, shard),
+                        shardDeltas[shard], containerCapacityShards.allotment(maxCapacity, shard, shardDeltas.length), maxCapacity));
+            }
+        }
+        return updates;
+    }
+
+    /**
+     * keys of every capacity shard of the container, read strongly consistent as shard deltas are planned on them.
+     */
+    KeysAndAttributes constructCapacityShardKeys(String warehouseId, String containerId) {
+        List<Map<String, AttributeValue>> keys = new ArrayList<>();
+        for (int shard = 0; shard < containerCapacityShards.shardCount(warehouseId, containerId); shard++) {
+            Map<String, AttributeValue> shardKey = new HashMap<>();
+            shardKey.put("warehouseContainerId", new AttributeValue().withS(containerCapacityShards.shardKey(warehouseId, containerId, shard)));
+            keys.add(shardKey);
+        }
+        return new KeysAndAttributes().withKeys(keys).withConsistentRead(true);
+    }
+
+    /**
+     * current capacity per shard from the loaded shard items, 0 for shards not written yet.
+     */
+    int[] readShardCapacities(String warehouseId, String containerId, List<Map<String, AttributeValue>> shardItems) {
+        int shardCount = containerCapacityShards.shardCount(warehouseId, containerId);
+        Map<String, Integer> shardIndexes = new HashMap<>();
+        for (int shard = 0; shard < shardCount; shard++) {
+            shardIndexes.put(containerCapacityShards.shardKey(warehouseId, containerId, shard), shard);
+        }
+        int[] shardCapacities = new int[shardCount];
+        for (Map<String, AttributeValue> shardItem : shardItems) {
+            Integer shard = shardIndexes.get(shardItem.get("warehouseContainerId").getS());
+            AttributeValue currentCapacity = shardItem.get("currentCapacity");
+            if (shard != null && currentCapacity != null) {
+                shardCapacities[shard] = Integer.parseInt(currentCapacity.getN());
+            }
+        }
+        return shardCapacities;
+    }
+
+    private Update constructDeltaContainerCapacityShardExpression(String shardKey, int delta, int allotment, int maxCapacity) {
+        return constructDeltaContainerCapacityExpression(shardKey, delta, allotment, maxCapacity, true);
+    }
+
+    private Update constructDeltaContainerCapacityExpression(String capacityKey, int delta, int capacityBound, int maxCapacity,
+                                                             boolean missingAsEmpty) {
+        Map<String, AttributeValue> containerCapacityTableKey = new HashMap<>();
+        containerCapacityTableKey
+                .put("warehouseContainerId", new AttributeValue().withS(capacityKey));
+        Map<String, AttributeValue> expressionAttributeValues = new HashMap<>();
+        expressionAttributeValues.put(":delta", new AttributeValue().withN(String.valueOf(delta)));
+        expressionAttributeValues.put(":max_capacity", new AttributeValue().withN(String.valueOf(maxCapacity)));
+        long modifiedTime = clock.millis();
+        expressionAttributeValues.put(":modified_time", new AttributeValue().withN(String.valueOf(modifiedTime)));
+        expressionAttributeValues.put(":discontinued_status", new AttributeValue().withS(new Discontinued().toString()));
+        String boundCondition;
+        if (delta >= 0) {
+            expressionAttributeValues.put(":capacity_bound", new AttributeValue().withN(String.valueOf(capacityBound - delta)));
+            boundCondition = "currentCapacity <= :capacity_bound";
+        } else {
+            expressionAttributeValues.put(":capacity_bound", new AttributeValue().withN(String.valueOf(-delta)));
+            boundCondition = "currentCapacity >= :capacity_bound";
+        }
+        if (missingAsEmpty) {
+            boundCondition = "(attribute_not_exists(currentCapacity) or " + boundCondition + ")";
+        }
+
+        Update update = new Update()
+                .withTableName(CONTAINER_CAPACITY_TABLE_NAME)
+                .withKey(containerCapacityTableKey)
+                .withUpdateExpression("ADD currentCapacity :delta SET maxCapacity = :max_capacity , modifiedTime = :modified_time , " +
+                        "creationTime = if_not_exists(creationTime, :modified_time) REMOVE containerStatus")
+                .withExpressionAttributeValues(expressionAttributeValues)
+                .withConditionExpression(boundCondition + " and (attribute_not_exists(containerStatus) or containerStatus <> :discontinued_status)");
+        return update;
+    }
+
+    /**
+     * adds availableDelta to the available inventory of the sku in the warehouse, the counts item is created on first use.
+     * Not guarded, counts written before the backfill ran may be off and must not fail inventory transactions.
+     */
+    Update constructInventoryCountsExpression(String skuCode, String warehouseId, int availableDelta) {
+        Map<String, AttributeValue> inventoryCountsKey = new HashMap<>();
+        inventoryCountsKey.put("skuCode", new AttributeValue().withS(skuCode));
+        inventoryCountsKey.put("warehouseId", new AttributeValue().withS(warehouseId));
+        Map<String, AttributeValue> expressionAttributeValues = new HashMap<>();
+        expressionAttributeValues.put(":available_delta", new AttributeValue().withN(String.valueOf(availableDelta)));
+        return new Update()
+                .withTableName(INVENTORY_COUNTS_TABLE_NAME)
+                .withKey(inventoryCountsKey)
+                .withUpdateExpression("ADD availableInventory :available_delta")
+                .withExpressionAttributeValues(expressionAttributeValues);
+    }
+
+    /**
+     * absolute update guarded by the read capacity, rows last written by a delta update carry no stored status.
+     */
+    Update constructUpdateContainerCapacityExpression(String warehouseId, String containerId, int existingCapacity,
+                                                              int newCapacity, int maxCapacity) {
+
+        ContainerStatus newContainerStatus = containerStatusDeterminer.determineStatus(newCapacity, maxCapacity);
+        String warehouseContainerId = String.join(DELIMITER, warehouseId, containerId);
+        Map<String, AttributeValue> containerCapacityTableKey = new HashMap<>();
+        containerCapacityTableKey
+                .put("warehouseContainerId", new AttributeValue().withS(warehouseContainerId));
+        Map<String, AttributeValue> expressionAttributeValues = new HashMap<>();
+        expressionAttributeValues.put(":new_quantity",
+                new AttributeValue().withN(String.valueOf(newCapacity)));
+        expressionAttributeValues
+                .put(":existing_quantity", new AttributeValue().withN(String.valueOf(existingCapacity)));
+        expressionAttributeValues.put(":new_status", new AttributeValue().withS(newContainerStatus.toString()));
+        long modifiedTime = clock.millis();
+        expressionAttributeValues.put(":modified_time", new AttributeValue().withN(String.valueOf(modifiedTime)));
+        String previousStatus = getAppendedStatusString(newContainerStatus, expressionAttributeValues);
+
+
+        Update update = new Update()
+                .withTableName(CONTAINER_CAPACITY_TABLE_NAME)
+                .withKey(containerCapacityTableKey)
+                .withUpdateExpression("SET currentCapacity = :new_quantity , containerStatus= :new_status , modifiedTime = :modified_time")
+                .withExpressionAttributeValues(expressionAttributeValues)
+                .withConditionExpression("currentCapacity = :existing_quantity and (attribute_not_exists(containerStatus) or " +
+                        "containerStatus IN (" + previousStatus + "))");
+        return update;
+    }
+
+    /**
+     * keys of the inventory items of a sub batch, read strongly consistent to tell whether an earlier attempt committed.
+     */
+    KeysAndAttributes constructInventoryKeys(String companyId, List<String> uniqueProductIds) {
+        List<Map<String, AttributeValue>> keys = new ArrayList<>();
+        for (String uniqueProductId : uniqueProductIds) {
+            Map<String, AttributeValue> inventoryKey = new HashMap<>();
+            inventoryKey.put("uniqueProductId", new AttributeValue().withS(uniqueProductId));
+            inventoryKey.put("companyId", new AttributeValue().withS(companyId));
+            keys.add(inventoryKey);
+        }
+        return new KeysAndAttributes().withKeys(keys).withConsistentRead(true);
+    }
+
+    /**
+     * an inventory item as left behind by the inbound sub batch.
+     */
+    Predicate<Map<String, AttributeValue>> appliedBy(InventoryInboundRequestDTO inventoryInboundRequestDTO) {
+        return item -> hasValue(item, "inventoryStatus", inventoryInboundRequestDTO.getInventoryStatus().getStatus())
+                && hasValue(item, "inboundId", inventoryInboundRequestDTO.getInboundId())
+                && hasValue(item, "containerId", inventoryInboundRequestDTO.getContainerId());
+    }
+
+    /**
+     * an inventory item as left behind by the outbound sub batch.
+     */
+    Predicate<Map<String, AttributeValue>> appliedBy(InventoryOutboundRequestDTO inventoryOutboundRequestDTO) {
+        return item -> hasValue(item, "inventoryStatus", inventoryOutboundRequestDTO.getInventoryStatus().getStatus())
+                && hasValue(item, "outboundId", inventoryOutboundRequestDTO.getOutboundId())
+                && hasValue(item, "orderId", inventoryOutboundRequestDTO.getOrderId());
+    }
+
+    /**
+     * an inventory item as left behind by the move sub batch.
+     */
+    Predicate<Map<String, AttributeValue>> appliedBy(MoveInventoryRequest moveInventoryRequest) {
+        return item -> hasValue(item, "containerId", moveInventoryRequest.getDestinationContainerId());
+    }
+
+    /**
+     * true when every item of the sub batch exists and is in the state the sub batch sets.
+     */
+    static boolean allApplied(List<String> uniqueProductIds, List<Map<String, AttributeValue>> items, Predicate<Map<String, AttributeValue>> applied) {
+        return items != null && items.size() == uniqueProductIds.size() && items.stream().allMatch(applied);
+    }
+
+    private static boolean hasValue(Map<String, AttributeValue> item, String attributeName, String value) {
+        AttributeValue attributeValue = item.get(attributeName);
+        return attributeValue != null && value != null && value.equals(attributeValue.getS());
+    }
+
+    /**
+     * true when the transaction was cancelled only because a concurrent transaction was writing one of its items,
+     * none of its conditions failed so the same transaction can be sent again.
+     */
+    static boolean isConflictOnly(TransactionCanceledException transactionCanceledException) {
+        List<CancellationReason> cancellationReasons = transactionCanceledException.getCancellationReasons();
+        if (cancellationReasons == null) {
+            return false;
+        }
+        return cancellationReasons.stream().anyMatch(reason -> TRANSACTION_CONFLICT.equals(reason.getCode()))
+                && cancellationReasons.stream().allMatch(reason -> TRANSACTION_CONFLICT.equals(reason.getCode())
+                || NO_CANCELLATION.equals(reason.getCode()));
+    }
+
+    private String getAppendedStatusString(InventoryStatus newInventoryStatus, Map<String, AttributeValue> updatedAttributes) {
+        List<String> previousValues = new ArrayList<>();
+        for (int i = 0; i < newInventoryStatus.previousStates().size(); i++) {
+            String key = ":is" + (i + 1);
+            updatedAttributes.put(key,
+                    new AttributeValue().withS(newInventoryStatus.previousStates().get(i).getStatus()));
+            previousValues.add(key);
+        }
+        String previousStatus = String.join(", ", previousValues);
+        return previousStatus;
+    }
+
+    private String getAppendedStatusString(ContainerStatus containerStatus, Map<String, AttributeValue> updatedAttributes) {
+        List<String> previousValues = new ArrayList<>();
+        for (int i = 0; i < containerStatus.previousStates().size(); i++) {
+            String key = ":is" + (i + 1);
+            updatedAttributes.put(key,
+                    new AttributeValue().withS(containerStatus.previousStates().get(i).toString()));
+            previousValues.add(key);
+        }
+        String previousStatus = String.join(", ", previousValues);
+        return previousStatus;
+    }
+}
@@ -114,13 +114,11 @@ public class OutboundDynamoDAOImpl implements OutboundDAO {
         Preconditions.checkArgument(StringUtils.isNotBlank(warehouseId), "warehouseId cannot be empty");
 
         try {
-            Map<String, AttributeValue> eav = new HashMap();
-            eav.put(":val1", new AttributeValue().withS(warehouseId));
-            DynamoDBQueryExpression<FinishedGoodsOutbound> dynamoDBQueryExpression = new DynamoDBQueryExpression<FinishedGoodsOutbound>()
-                    .withKeyConditionExpression("warehouseId = :val1").withExpressionAttributeValues(eav)
-                    .withScanIndexForward(false).withLimit(1).withConsistentRead(true);
-            PaginatedQueryList<FinishedGoodsOutbound> queryResponse = outboundDynamoDbMapper.query(FinishedGoodsOutbound.class, dynamoDBQueryExpression);
-            Optional<FinishedGoodsOutbound> latestOutbound = queryResponse.stream().findAny();
+            Optional<FinishedGoodsOutbound> latestOutbound = queryLast(warehouseId, FinishedGoodsOutbound.WAREHOUSE_SEQUENCE_INDEX);
+            if (!latestOutbound.isPresent()) {
+                // rows written before the sequence numbers were backfilled are not in the sparse index yet
+                latestOutbound = queryLast(warehouseId, null);
+            }
             if (latestOutbound.isPresent()) {
                 return latestOutbound;
             } else {
@@ -134,4 +132,19 @@ public class OutboundDynamoDAOImpl implements OutboundDAO {
             throw new NonRetriableException(e);
         }
     }
+
+    /**
+     * latest row of the warehouse, by sequenceNumber on the index or by the string range key on the table when indexName is null.
+     * Only the table read can be consistent.
+     */
+    private Optional<FinishedGoodsOutbound> queryLast(String warehouseId, String indexName) {
+        Map<String, AttributeValue> eav = new HashMap();
+        eav.put(":val1", new AttributeValue().withS(warehouseId));
+        DynamoDBQueryExpression<FinishedGoodsOutbound> dynamoDBQueryExpression = new DynamoDBQueryExpression<FinishedGoodsOutbound>()
+                .withIndexName(indexName)
+                .withKeyConditionExpression("warehouseId = :val1").withExpressionAttributeValues(eav)
+                .withScanIndexForward(false).withLimit(1).withConsistentRead(indexName == null);
+        PaginatedQueryList<FinishedGoodsOutbound> queryResponse = outboundDynamoDbMapper.query(FinishedGoodsOutbound.class, dynamoDBQueryExpression);
+        return queryResponse.stream().findAny();
+    }
 }
@@ -0,0 +1,38 @@
+package org.habitbev.warehousemanagement.dao;
+
+import com.amazonaws.services.dynamodbv2.document.Item;
+import com.amazonaws.services.dynamodbv2.document.ItemUtils;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * last evaluated keys of queries and scans as opaque tokens a caller passes back to continue.
+ */
+final class PageTokens {
+
+    private PageTokens() {
+    }
+
+    /**
+     * last evaluated key as url safe base64 of its json, null once the last page is read.
+     */
+    static String encode(Map<String, AttributeValue> lastEvaluatedKey) {
+        if (lastEvaluatedKey == null || lastEvaluatedKey.isEmpty()) {
+            return null;
+        }
+        String json = ItemUtils.toItem(lastEvaluatedKey).toJSON();
+        return Base64.getUrlEncoder().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Map<String, AttributeValue> decode(String pageToken) {
+        try {
+            String json = new String(Base64.getUrlDecoder().decode(pageToken), StandardCharsets.UTF_8);
+            return ItemUtils.toAttributeValues(Item.fromJSON(json));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException(String.format("invalid pageToken %s", pageToken), e);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.habitbev.warehousemanagement.dao;
+
+import org.habitbev.warehousemanagement.entities.SegmentBackfillProgress;
+
+public interface SequenceNumberBackfillDAO {
+
+    /**
+     * sets sequenceNumber on items of one scan segment which do not have it yet, from the numeric part of idAttributeName.
+     * Stops after the page in progress once deadlineMillis passes.
+     *
+     * @param startToken token of an earlier run of the segment, null to start from the beginning
+     */
+    SegmentBackfillProgress backfillSegment(String tableName, String idAttributeName, int segment, int totalSegments,
+                                            String startToken, long deadlineMillis);
+}
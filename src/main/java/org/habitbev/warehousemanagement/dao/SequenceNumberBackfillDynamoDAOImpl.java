@@ -0,0 +1,102 @@
+package org.habitbev.warehousemanagement.dao;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.InternalServerErrorException;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanResult;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.habitbev.warehousemanagement.entities.SegmentBackfillProgress;
+import org.habitbev.warehousemanagement.entities.exceptions.NonRetriableException;
+import org.habitbev.warehousemanagement.entities.exceptions.RetriableException;
+import org.habitbev.warehousemanagement.utils.Utilities;
+
+import java.time.Clock;
+import java.util.HashMap;
+import java.util.Map;
+
+@Slf4j
+public class SequenceNumberBackfillDynamoDAOImpl implements SequenceNumberBackfillDAO {
+
+    private static final String WAREHOUSE_ID = "warehouseId";
+    private static final int SCAN_PAGE_SIZE = 500;
+
+    AmazonDynamoDB amazonDynamoDBClient;
+    Clock clock;
+
+    @Inject
+    public SequenceNumberBackfillDynamoDAOImpl(AmazonDynamoDB amazonDynamoDBClient, Clock clock) {
+        this.amazonDynamoDBClient = amazonDynamoDBClient;
+        this.clock = clock;
+    }
+
+    @Override
+    public SegmentBackfillProgress backfillSegment(String tableName, String idAttributeName, int segment, int totalSegments,
+                                                   String startToken, long deadlineMillis) {
+        try {
+            Preconditions.checkArgument(StringUtils.isNotBlank(tableName), "tableName cannot be blank or null");
+            Preconditions.checkArgument(StringUtils.isNotBlank(idAttributeName), "idAttributeName cannot be blank or null");
+            Preconditions.checkArgument(segment >= 0 && segment < totalSegments, "segment out of range");
+            Map<String, AttributeValue> exclusiveStartKey = startToken == null ? null : PageTokens.decode(startToken);
+            int updatedItems = 0;
+            do {
+                ScanRequest scanRequest = new ScanRequest().withTableName(tableName)
+                        .withSegment(segment).withTotalSegments(totalSegments).withLimit(SCAN_PAGE_SIZE)
+                        .withProjectionExpression("warehouseId, #id")
+                        .withFilterExpression("attribute_not_exists(sequenceNumber)")
+                        .withExpressionAttributeNames(ImmutableMap.of("#id", idAttributeName))
+                        .withExclusiveStartKey(exclusiveStartKey);
+                ScanResult scanResult = amazonDynamoDBClient.scan(scanRequest);
+                for (Map<String, AttributeValue> item : scanResult.getItems()) {
+                    if (setSequenceNumber(tableName, idAttributeName, item)) {
+                        updatedItems++;
+                    }
+                }
+                exclusiveStartKey = scanResult.getLastEvaluatedKey();
+            } while (exclusiveStartKey != null && !exclusiveStartKey.isEmpty() && clock.millis() < deadlineMillis);
+            String nextToken = PageTokens.encode(exclusiveStartKey);
+            log.info("segment {} of {} of table {} set {} sequence numbers, finished {}", segment, totalSegments, tableName,
+                    updatedItems, nextToken == null);
+            return SegmentBackfillProgress.builder().segment(segment).updatedItems(updatedItems).nextToken(nextToken).build();
+        } catch (IllegalArgumentException e) {
+            throw (e);
+        } catch (InternalServerErrorException e) {
+            log.error("Retriable Error occured while backfilling sequence numbers", e);
+            throw new RetriableException(e);
+        } catch (Exception e) {
+            log.error("Non Retriable Error occured while backfilling sequence numbers", e);
+            throw new NonRetriableException(e);
+        }
+    }
+
+    /**
+     * conditional on the item still existing without a sequence number, so reruns and concurrent writers are left alone.
+     */
+    private boolean setSequenceNumber(String tableName, String idAttributeName, Map<String, AttributeValue> item) {
+        String id = item.get(idAttributeName).getS();
+        Long sequenceNumber = Utilities.sequenceNumberOf(id);
+        if (sequenceNumber == null) {
+            log.warn("id {} in table {} has no numeric part, left without sequence number", id, tableName);
+            return false;
+        }
+        Map<String, AttributeValue> key = new HashMap<>();
+        key.put(WAREHOUSE_ID, item.get(WAREHOUSE_ID));
+        key.put(idAttributeName, item.get(idAttributeName));
+        UpdateItemRequest updateItemRequest = new UpdateItemRequest().withTableName(tableName).withKey(key)
+                .withUpdateExpression("SET sequenceNumber = :sequence_number")
+                .withConditionExpression("attribute_exists(warehouseId) and attribute_not_exists(sequenceNumber)")
+                .withExpressionAttributeValues(ImmutableMap.of(":sequence_number", new AttributeValue().withN(String.valueOf(sequenceNumber))));
+        try {
+            amazonDynamoDBClient.updateItem(updateItemRequest);
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+}
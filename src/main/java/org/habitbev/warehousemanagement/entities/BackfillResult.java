@@ -0,0 +1,20 @@
+package org.habitbev.warehousemanagement.entities;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * outcome of one backfill run over the scan segments of a table. segmentTokens holds the segments left unfinished with their resume token,
+ * passing it back continues the backfill and an empty map means the table is done.
+ */
+@Value
+@Builder
+public class BackfillResult {
+
+    String tableName;
+    int totalSegments;
+    int updatedItems;
+    Map<Integer, String> segmentTokens;
+}
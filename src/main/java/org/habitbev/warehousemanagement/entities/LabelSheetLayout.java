@@ -0,0 +1,88 @@
+package org.habitbev.warehousemanagement.entities;
+
+import com.google.common.base.Preconditions;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * grid of rows x columns labels on a sheet of adhesive label stock, all sizes in millimetres as printed on the stock.
+ * Rows are counted from the top of the sheet, columns from the left.
+ */
+@Value
+public class LabelSheetLayout {
+
+    private static final float POINTS_PER_MM = 72f / 25.4f;
+
+    float pageWidthMm;
+    float pageHeightMm;
+    int rows;
+    int columns;
+    float labelWidthMm;
+    float labelHeightMm;
+    float marginTopMm;
+    float marginLeftMm;
+    float horizontalGapMm;
+    float verticalGapMm;
+
+    @Builder
+    private LabelSheetLayout(float pageWidthMm, float pageHeightMm, int rows, int columns, float labelWidthMm, float labelHeightMm,
+                             float marginTopMm, float marginLeftMm, float horizontalGapMm, float verticalGapMm) {
+        Preconditions.checkArgument(rows > 0, "rows should be > 0");
+        Preconditions.checkArgument(columns > 0, "columns should be > 0");
+        Preconditions.checkArgument(labelWidthMm > 0 && labelHeightMm > 0, "label size should be > 0");
+        Preconditions.checkArgument(marginLeftMm + columns * labelWidthMm + (columns - 1) * horizontalGapMm <= pageWidthMm,
+                "labels do not fit the page width");
+        Preconditions.checkArgument(marginTopMm + rows * labelHeightMm + (rows - 1) * verticalGapMm <= pageHeightMm,
+                "labels do not fit the page height");
+        this.pageWidthMm = pageWidthMm;
+        this.pageHeightMm = pageHeightMm;
+        this.rows = rows;
+        this.columns = columns;
+        this.labelWidthMm = labelWidthMm;
+        this.labelHeightMm = labelHeightMm;
+        this.marginTopMm = marginTopMm;
+        this.marginLeftMm = marginLeftMm;
+        this.horizontalGapMm = horizontalGapMm;
+        this.verticalGapMm = verticalGapMm;
+    }
+
+    public int labelsPerPage() {
+        return rows * columns;
+    }
+
+    public float pageWidth() {
+        return toPoints(pageWidthMm);
+    }
+
+    public float pageHeight() {
+        return toPoints(pageHeightMm);
+    }
+
+    public float labelWidth() {
+        return toPoints(labelWidthMm);
+    }
+
+    public float labelHeight() {
+        return toPoints(labelHeightMm);
+    }
+
+    /**
+     * x in points of the left edge of the label at slot index (0 until labelsPerPage) on its page.
+     */
+    public float labelX(int slot) {
+        int column = slot % columns;
+        return toPoints(marginLeftMm + column * (labelWidthMm + horizontalGapMm));
+    }
+
+    /**
+     * y in points of the bottom edge of the label at slot index, pdf y grows upwards from the page bottom.
+     */
+    public float labelY(int slot) {
+        int row = slot / columns;
+        return toPoints(pageHeightMm - marginTopMm - row * (labelHeightMm + verticalGapMm) - labelHeightMm);
+    }
+
+    private static float toPoints(float mm) {
+        return mm * POINTS_PER_MM;
+    }
+}
@@ -0,0 +1,16 @@
+package org.habitbev.warehousemanagement.entities;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * how far a backfill got through one scan segment. nextToken resumes the segment, null once the segment is done.
+ */
+@Value
+@Builder
+public class SegmentBackfillProgress {
+
+    int segment;
+    int updatedItems;
+    String nextToken;
+}
@@ -0,0 +1,45 @@
+package org.habitbev.warehousemanagement.entities;
+
+import com.google.common.base.Preconditions;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * roll of single labels fed through a thermal printer, one label across the roll with a gap between labels.
+ * Sizes in millimetres as printed on the roll, turned into printer dots at dotsPerMm.
+ */
+@Value
+public class ThermalLabelStock {
+
+    float labelWidthMm;
+    float labelHeightMm;
+    float gapMm;
+    int dotsPerMm;
+
+    @Builder
+    private ThermalLabelStock(float labelWidthMm, float labelHeightMm, float gapMm, int dotsPerMm) {
+        Preconditions.checkArgument(labelWidthMm > 0 && labelHeightMm > 0, "label size should be > 0");
+        Preconditions.checkArgument(gapMm >= 0, "gapMm should be >= 0");
+        Preconditions.checkArgument(dotsPerMm > 0, "dotsPerMm should be > 0");
+        this.labelWidthMm = labelWidthMm;
+        this.labelHeightMm = labelHeightMm;
+        this.gapMm = gapMm;
+        this.dotsPerMm = dotsPerMm;
+    }
+
+    public int labelWidthDots() {
+        return toDots(labelWidthMm);
+    }
+
+    public int labelHeightDots() {
+        return toDots(labelHeightMm);
+    }
+
+    public int gapDots() {
+        return toDots(gapMm);
+    }
+
+    private int toDots(float mm) {
+        return Math.round(mm * dotsPerMm);
+    }
+}
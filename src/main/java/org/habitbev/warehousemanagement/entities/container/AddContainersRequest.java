@@ -0,0 +1,46 @@
+package org.habitbev.warehousemanagement.entities.container;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Preconditions;
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.apache.commons.lang3.StringUtils;
+import org.habitbev.warehousemanagement.utils.Utilities;
+
+import java.util.Map;
+
+/**
+ * adds quantity containers with the same predefined capacity at a warehouse, e.g all the bins of a new rack.
+ */
+@Getter
+@Setter(AccessLevel.PRIVATE)
+@NoArgsConstructor
+public class AddContainersRequest {
+
+    public static final int MAX_QUANTITY = 1000;
+
+    @JsonProperty("warehouseId")
+    String warehouseId;
+
+    @JsonProperty("skuCodeWisePredefinedCapacity")
+    Map<String, Integer> skuCodeWisePredefinedCapacity;
+
+    @JsonProperty("quantity")
+    int quantity;
+
+    @Builder
+    private AddContainersRequest(String warehouseId, Map<String, Integer> skuCodeWisePredefinedCapacity, int quantity) {
+
+        Preconditions.checkArgument(StringUtils.isNotBlank(warehouseId), "warehouseid cannot be blank");
+        Preconditions.checkArgument(Utilities.validateContainerPredefinedCapacities(skuCodeWisePredefinedCapacity),
+                "total capacity cannot be zero or empty");
+        Preconditions.checkArgument(quantity > 0 && quantity <= MAX_QUANTITY, "quantity should be between 1 and " + MAX_QUANTITY);
+
+        this.warehouseId = warehouseId;
+        this.skuCodeWisePredefinedCapacity = skuCodeWisePredefinedCapacity;
+        this.quantity = quantity;
+    }
+}
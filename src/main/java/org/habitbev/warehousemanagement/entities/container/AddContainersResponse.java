@@ -0,0 +1,17 @@
+package org.habitbev.warehousemanagement.entities.container;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * ids of the added containers and the url of their barcode label sheet.
+ */
+@Value
+@Builder
+public class AddContainersResponse {
+
+    List<String> containerIds;
+    String barcodesUrl;
+}
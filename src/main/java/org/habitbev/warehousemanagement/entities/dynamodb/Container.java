@@ -16,7 +16,13 @@ import java.util.Map;
 @DynamoDBTable(tableName = "containers")
 public class Container {
 
+    /**
+     * latest ids of a warehouse by their numeric part, the string range key sorts CONTAINER-9 after CONTAINER-10.
+     */
+    public static final String WAREHOUSE_SEQUENCE_INDEX = "warehouseId-sequenceNumber-index";
+
     @DynamoDBHashKey
+    @DynamoDBIndexHashKey(globalSecondaryIndexName = WAREHOUSE_SEQUENCE_INDEX)
     String warehouseId;
     @DynamoDBRangeKey
     String containerId;
@@ -27,6 +33,8 @@ public class Container {
     long creationTime;
     @DynamoDBAttribute(attributeName = "modifiedTime")
     long modifiedTime;
+    @DynamoDBIndexRangeKey(globalSecondaryIndexName = WAREHOUSE_SEQUENCE_INDEX, attributeName = "sequenceNumber")
+    Long sequenceNumber;
 
 
     @Builder
@@ -38,6 +46,7 @@ public class Container {
 
         this.warehouseId = warehouseId;
         this.containerId = containerId;
+        this.sequenceNumber = Utilities.sequenceNumberOf(containerId);
         this.skuCodeWisePredefinedCapacity = skuCodeWisePredefinedCapacity;
         this.creationTime = creationTime;
         this.modifiedTime = modifiedTime;
@@ -35,9 +35,16 @@ public class ContainerCapacity {
     @DynamoDBAttribute(attributeName = "modifiedTime")
     long modifiedTime;
 
+    /**
+     * max capacity the container was last written with, maintained by delta capacity updates.
+     * null for items written only through absolute updates.
+     */
+    @DynamoDBAttribute(attributeName = "maxCapacity")
+    Integer maxCapacity;
+
     @Builder
     public ContainerCapacity(String warehouseContainerId, int currentCapacity,
-                             ContainerStatus containerStatus, Long creationTime, Long modifiedTime) {
+                             ContainerStatus containerStatus, Long creationTime, Long modifiedTime, Integer maxCapacity) {
 
         Preconditions.checkArgument(StringUtils.isNotBlank(warehouseContainerId), "warehouseContainerId cannot be blank");
         Preconditions.checkArgument(currentCapacity >= 0,
@@ -45,6 +52,7 @@ public class ContainerCapacity {
         Preconditions.checkArgument(containerStatus != null, "container capacity status cannot be null");
         Preconditions.checkArgument(creationTime != null, "creationTime cannot be null");
         Preconditions.checkArgument(modifiedTime != null, "modified cannot be null");
+        Preconditions.checkArgument(maxCapacity == null || maxCapacity >= 0, "maxCapacity not in range");
 
 
         this.warehouseContainerId = warehouseContainerId;
@@ -52,5 +60,6 @@ public class ContainerCapacity {
         this.containerStatus = containerStatus;
         this.creationTime = creationTime;
         this.modifiedTime = modifiedTime;
+        this.maxCapacity = maxCapacity;
     }
 }
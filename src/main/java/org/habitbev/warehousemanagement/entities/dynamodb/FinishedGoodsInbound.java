@@ -4,6 +4,7 @@ import com.amazonaws.services.dynamodbv2.datamodeling.*;
 import com.google.common.base.Preconditions;
 import lombok.*;
 import org.apache.commons.lang3.StringUtils;
+import org.habitbev.warehousemanagement.utils.Utilities;
 import org.habitbev.warehousemanagement.entities.dynamodb.typeconvertors.InboundStatusTypeConvertor;
 import org.habitbev.warehousemanagement.entities.inbound.inboundstatus.InboundStatus;
 
@@ -16,7 +17,14 @@ import org.habitbev.warehousemanagement.entities.inbound.inboundstatus.InboundSt
 @NoArgsConstructor
 public class FinishedGoodsInbound {
 
+    /**
+     * latest inbound of a warehouse by the numeric part of its inboundId, the string range key sorts INBOUND-9 after INBOUND-10.
+     * Sparse until the sequence numbers of older inbounds are backfilled.
+     */
+    public static final String WAREHOUSE_SEQUENCE_INDEX = "warehouseId-sequenceNumber-index";
+
     @DynamoDBHashKey
+    @DynamoDBIndexHashKey(globalSecondaryIndexName = WAREHOUSE_SEQUENCE_INDEX)
     private String warehouseId;
     @DynamoDBRangeKey
     private String inboundId;
@@ -31,6 +39,8 @@ public class FinishedGoodsInbound {
     private Long endTime;
     @DynamoDBAttribute
     private Long modifiedTime;
+    @DynamoDBIndexRangeKey(globalSecondaryIndexName = WAREHOUSE_SEQUENCE_INDEX)
+    private Long sequenceNumber;
 
     @Builder
     private FinishedGoodsInbound(String warehouseId, String inboundId, InboundStatus inboundStatus, String userId, Long startTime, Long endTime, Long modifiedTime) {
@@ -40,6 +50,7 @@ public class FinishedGoodsInbound {
 
         this.warehouseId = warehouseId;
         this.inboundId = inboundId;
+        this.sequenceNumber = Utilities.sequenceNumberOf(inboundId);
         this.inboundStatus = inboundStatus;
         this.userId = userId;
         this.startTime = startTime;
@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.apache.commons.lang3.StringUtils;
+import org.habitbev.warehousemanagement.utils.Utilities;
 import org.habitbev.warehousemanagement.entities.dynamodb.typeconvertors.OutboundStatusTypeConvertor;
 import org.habitbev.warehousemanagement.entities.outbound.outboundstatus.OutboundStatus;
 
@@ -19,7 +20,14 @@ import org.habitbev.warehousemanagement.entities.outbound.outboundstatus.Outboun
 @NoArgsConstructor
 public class FinishedGoodsOutbound {
 
+    /**
+     * latest outbound of a warehouse by the numeric part of its outboundId, the string range key sorts OUTBOUND-9 after OUTBOUND-10.
+     * Sparse until the sequence numbers of older outbounds are backfilled.
+     */
+    public static final String WAREHOUSE_SEQUENCE_INDEX = "warehouseId-sequenceNumber-index";
+
     @DynamoDBHashKey
+    @DynamoDBIndexHashKey(globalSecondaryIndexName = WAREHOUSE_SEQUENCE_INDEX)
     private String warehouseId;
     @DynamoDBRangeKey
     private String outboundId;
@@ -37,6 +45,8 @@ public class FinishedGoodsOutbound {
     private Long endTime;
     @DynamoDBAttribute
     private Long modifiedTime;
+    @DynamoDBIndexRangeKey(globalSecondaryIndexName = WAREHOUSE_SEQUENCE_INDEX)
+    private Long sequenceNumber;
 
     @Builder
     private FinishedGoodsOutbound(String warehouseId, String outboundId, String customerId, OutboundStatus outboundStatus, String userId, Long startTime, Long endTime, Long modifiedTime) {
@@ -46,6 +56,7 @@ public class FinishedGoodsOutbound {
 
         this.warehouseId = warehouseId;
         this.outboundId = outboundId;
+        this.sequenceNumber = Utilities.sequenceNumberOf(outboundId);
         this.customerId = customerId;
         this.outboundStatus = outboundStatus;
         this.userId = userId;
@@ -0,0 +1,38 @@
+package org.habitbev.warehousemanagement.entities.dynamodb;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBAttribute;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBHashKey;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTable;
+import com.google.common.base.Preconditions;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Atomic counter behind an id sequence (eg INBOUND<%>warehouseId). counterValue is the last id handed out in a lease,
+ * ids up to it belong to some instance already.
+ */
+@DynamoDBTable(tableName = "id-counter")
+@Data
+@NoArgsConstructor
+public class IdCounter {
+
+    @DynamoDBHashKey(attributeName = "counterName")
+    String counterName;
+
+    @DynamoDBAttribute(attributeName = "counterValue")
+    long counterValue;
+
+    @DynamoDBAttribute(attributeName = "modifiedTime")
+    long modifiedTime;
+
+    @Builder
+    public IdCounter(String counterName, long counterValue, long modifiedTime) {
+        Preconditions.checkArgument(StringUtils.isNotBlank(counterName), "counterName cannot be blank");
+        Preconditions.checkArgument(counterValue >= 0, "counterValue cannot be less than zero");
+        this.counterName = counterName;
+        this.counterValue = counterValue;
+        this.modifiedTime = modifiedTime;
+    }
+}
@@ -14,7 +14,15 @@ import org.habitbev.warehousemanagement.entities.inventory.inventorystatus.Inven
 @DynamoDBTable(tableName = "inventory")
 public class Inventory {
 
+    /**
+     * container contents index, projects all attributes so a container can be listed without reading the table.
+     * Sorted on uniqueProductId which never changes, so pages stay stable while items are moved or updated.
+     * Items already in a container when the index was added are only listed once BackfillContainerContentsHandler ran.
+     */
+    public static final String WAREHOUSE_CONTAINER_INDEX = "warehouseContainerId-uniqueProductId-index";
+
     @DynamoDBHashKey(attributeName = "uniqueProductId")
+    @DynamoDBIndexRangeKey(globalSecondaryIndexName = WAREHOUSE_CONTAINER_INDEX, attributeName = "uniqueProductId")
     private String uniqueProductId;
 
     @DynamoDBRangeKey(attributeName = "companyId")
@@ -26,6 +34,12 @@ public class Inventory {
 
     @DynamoDBAttribute(attributeName = "containerId")
     private String containerId;
+
+    /**
+     * warehouseId<%>containerId while the item sits in a container, removed on outbound so the container index only lists container contents.
+     */
+    @DynamoDBIndexHashKey(globalSecondaryIndexName = WAREHOUSE_CONTAINER_INDEX, attributeName = "warehouseContainerId")
+    private String warehouseContainerId;
     @DynamoDBAttribute(attributeName = "skuCode")
     private String skuCode;
 
@@ -58,7 +72,8 @@ public class Inventory {
 
     @Builder
     private Inventory(String uniqueProductId, String warehouseId, String containerId, String skuCode,  String skuCategoryType, String inboundId, String outboundId
-            , InventoryStatus inventoryStatus, String orderId, Long creationTime, Long modifiedTime, Long productionTime, String companyId) {
+            , InventoryStatus inventoryStatus, String orderId, Long creationTime, Long modifiedTime, Long productionTime, String companyId,
+                      String warehouseContainerId) {
         Preconditions.checkArgument(StringUtils.isNotBlank(uniqueProductId), "skuId cannot be blank");
         Preconditions.checkArgument(StringUtils.isNotBlank(warehouseId), "warehouseLocationId" +
                 " cannot be blank");
@@ -84,6 +99,7 @@ public class Inventory {
         this.companyId = companyId;
         this.inboundId = inboundId;
         this.outboundId = outboundId;
+        this.warehouseContainerId = warehouseContainerId;
 
     }
 }
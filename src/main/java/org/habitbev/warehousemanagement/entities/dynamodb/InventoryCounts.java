@@ -6,6 +6,8 @@ import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBRangeKey;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTable;
 import com.google.common.base.Preconditions;
 import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
 import org.apache.commons.lang3.StringUtils;
 
 /**
@@ -13,16 +15,18 @@ import org.apache.commons.lang3.StringUtils;
  * Counts table to maintainingg available vs allocated inventory. free inventory is calculated at runtime.
  */
 @DynamoDBTable(tableName = "inventory-counts")
+@Data
+@NoArgsConstructor
 public class InventoryCounts {
 
-    @DynamoDBHashKey
+    @DynamoDBHashKey(attributeName = "skuCode")
     String skuCode;
 
-    @DynamoDBRangeKey
+    @DynamoDBRangeKey(attributeName = "warehouseId")
     String warehouseId;
-    @DynamoDBAttribute
+    @DynamoDBAttribute(attributeName = "availableInventory")
     Integer availableInventory;
-    @DynamoDBAttribute
+    @DynamoDBAttribute(attributeName = "allocatedInventory")
     Integer allocatedInventory;
 
     /**
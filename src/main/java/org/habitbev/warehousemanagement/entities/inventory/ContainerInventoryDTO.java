@@ -0,0 +1,45 @@
+package org.habitbev.warehousemanagement.entities.inventory;
+
+import com.google.common.base.Preconditions;
+import lombok.Builder;
+import lombok.Value;
+import org.apache.commons.lang3.StringUtils;
+import org.habitbev.warehousemanagement.entities.dynamodb.Inventory;
+
+/**
+ * an item sitting in a container as listed by the container contents index.
+ */
+@Value
+public class ContainerInventoryDTO {
+
+    String uniqueProductId;
+    String companyId;
+    String skuCode;
+    String inventoryStatus;
+    String inboundId;
+    Long productionTime;
+    Long modifiedTime;
+
+    @Builder
+    private ContainerInventoryDTO(String uniqueProductId, String companyId, String skuCode, String inventoryStatus,
+                                  String inboundId, Long productionTime, Long modifiedTime) {
+        Preconditions.checkArgument(StringUtils.isNotBlank(uniqueProductId), "uniqueProductId cannot be blank");
+        Preconditions.checkArgument(StringUtils.isNotBlank(companyId), "companyId cannot be blank");
+        Preconditions.checkArgument(StringUtils.isNotBlank(skuCode), "skuCode cannot be blank");
+
+        this.uniqueProductId = uniqueProductId;
+        this.companyId = companyId;
+        this.skuCode = skuCode;
+        this.inventoryStatus = inventoryStatus;
+        this.inboundId = inboundId;
+        this.productionTime = productionTime;
+        this.modifiedTime = modifiedTime;
+    }
+
+    public static ContainerInventoryDTO fromInventory(Inventory inventory) {
+        return ContainerInventoryDTO.builder().uniqueProductId(inventory.getUniqueProductId()).companyId(inventory.getCompanyId())
+                .skuCode(inventory.getSkuCode()).inventoryStatus(inventory.getInventoryStatus().getStatus())
+                .inboundId(inventory.getInboundId()).productionTime(inventory.getProductionTime())
+                .modifiedTime(inventory.getModifiedTime()).build();
+    }
+}
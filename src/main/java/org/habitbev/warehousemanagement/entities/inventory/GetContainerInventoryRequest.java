@@ -0,0 +1,67 @@
+package org.habitbev.warehousemanagement.entities.inventory;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Preconditions;
+import lombok.Builder;
+import lombok.Value;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Optional;
+
+/**
+ * a page of the items sitting in a container, oldest modification first.
+ * Disjoint modifiedTime ranges can be fetched in parallel, e.g one range per counter during a cycle count.
+ */
+@Value
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class GetContainerInventoryRequest {
+
+    public static final int DEFAULT_LIMIT = 500;
+
+    String warehouseId;
+    String containerId;
+    String pageToken;
+    int limit;
+    Long fromModifiedTime;
+    Long toModifiedTime;
+
+    /**
+     * @param warehouseId      warehouseId
+     * @param containerId      containerId
+     * @param pageToken        next page token of the previous page
+     * @param limit            max items evaluated for the page, DEFAULT_LIMIT when not given
+     * @param fromModifiedTime inclusive lower bound of modifiedTime, optional
+     * @param toModifiedTime   inclusive upper bound of modifiedTime, optional
+     */
+    @Builder
+    @JsonCreator
+    public GetContainerInventoryRequest(@JsonProperty("warehouseId") String warehouseId, @JsonProperty("containerId") String containerId,
+                                        @JsonProperty("pageToken") String pageToken, @JsonProperty("limit") Integer limit,
+                                        @JsonProperty("fromModifiedTime") Long fromModifiedTime, @JsonProperty("toModifiedTime") Long toModifiedTime) {
+        Preconditions.checkArgument(StringUtils.isNotBlank(warehouseId), "warehouseId cannot be blank");
+        Preconditions.checkArgument(StringUtils.isNotBlank(containerId), "containerId cannot be blank");
+        Preconditions.checkArgument(limit == null || limit > 0, "limit should be > 0");
+        Preconditions.checkArgument(fromModifiedTime == null || toModifiedTime == null || fromModifiedTime <= toModifiedTime,
+                "fromModifiedTime should be <= toModifiedTime");
+        this.warehouseId = warehouseId;
+        this.containerId = containerId;
+        this.pageToken = pageToken;
+        this.limit = limit == null ? DEFAULT_LIMIT : limit;
+        this.fromModifiedTime = fromModifiedTime;
+        this.toModifiedTime = toModifiedTime;
+    }
+
+    public Optional<String> getPageToken() {
+        return Optional.ofNullable(pageToken);
+    }
+
+    public Optional<Long> getFromModifiedTime() {
+        return Optional.ofNullable(fromModifiedTime);
+    }
+
+    public Optional<Long> getToModifiedTime() {
+        return Optional.ofNullable(toModifiedTime);
+    }
+}
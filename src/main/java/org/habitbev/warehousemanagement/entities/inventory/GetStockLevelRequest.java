@@ -0,0 +1,32 @@
+package org.habitbev.warehousemanagement.entities.inventory;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Preconditions;
+import lombok.*;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * stock level query of a sku in a warehouse, read from the query string.
+ */
+@Getter
+@Setter(AccessLevel.PRIVATE)
+@ToString
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class GetStockLevelRequest {
+
+    @JsonProperty("skuCode")
+    private String skuCode;
+
+    @JsonProperty("warehouseId")
+    private String warehouseId;
+
+    @Builder
+    private GetStockLevelRequest(String skuCode, String warehouseId) {
+        Preconditions.checkArgument(StringUtils.isNotBlank(skuCode), "skuCode cannot be blank");
+        Preconditions.checkArgument(StringUtils.isNotBlank(warehouseId), "warehouseId cannot be blank");
+        this.skuCode = skuCode;
+        this.warehouseId = warehouseId;
+    }
+}
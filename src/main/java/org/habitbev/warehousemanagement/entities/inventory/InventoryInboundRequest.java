@@ -37,11 +37,18 @@ public class InventoryInboundRequest {
     @JsonProperty("companyId")
     String companyId;
 
+    /**
+     * optional, a client retrying the same request should send the same requestId so already applied batches are not applied twice.
+     * Without it one is derived from inboundId and containerId.
+     */
+    @JsonProperty("requestId")
+    String requestId;
+
 
 
     @Builder
     private InventoryInboundRequest(List<String> uniqueProductIds, String skuCode, String containerId, String inboundId,
-                                    String warehouseId, String companyId) {
+                                    String warehouseId, String companyId, String requestId) {
         Preconditions.checkArgument(CollectionUtils.isNotEmpty(uniqueProductIds), "uniqueProductIds cannot be blank");
         Preconditions.checkArgument(StringUtils.isNotBlank(skuCode), " sku code cannot be null");
         Preconditions.checkArgument(StringUtils.isNotBlank(containerId), "containerId cannot be blank");
@@ -55,5 +62,6 @@ public class InventoryInboundRequest {
         this.containerId = containerId;
         this.warehouseId = warehouseId;
         this.companyId = companyId;
+        this.requestId = requestId;
     }
 }
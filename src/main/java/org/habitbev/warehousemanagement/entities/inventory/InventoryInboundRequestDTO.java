@@ -28,9 +28,20 @@ public class InventoryInboundRequestDTO {
 
     int containerMaxCapacity;
 
+    /**
+     * capacity for these ids was already reserved on the container and the inventory counts are adjusted once for the whole
+     * request by the caller, neither is updated by the sub batch transaction.
+     */
+    boolean capacityPreReserved;
+
+    /**
+     * idempotency token of the transaction, retries of the same sub batch carry the same token.
+     */
+    String clientRequestToken;
+
     @Builder
     private InventoryInboundRequestDTO(List<String> uniqueProductIds, String skuCode, String containerId, String inboundId,
-                                       String warehouseId, String companyId, InventoryStatus inventoryStatus, int containerMaxCapacity) {
+                                       String warehouseId, String companyId, InventoryStatus inventoryStatus, int containerMaxCapacity, boolean capacityPreReserved, String clientRequestToken) {
         Preconditions.checkArgument(CollectionUtils.isNotEmpty(uniqueProductIds), "uniqueProductIds cannot be blank");
         Preconditions.checkArgument(StringUtils.isNotBlank(skuCode), " sku code cannot be null");
         Preconditions.checkArgument(StringUtils.isNotBlank(containerId), "containerId cannot be blank");
@@ -39,6 +50,7 @@ public class InventoryInboundRequestDTO {
         Preconditions.checkArgument(StringUtils.isNotBlank(companyId), "companyId cannot be blank");
         Preconditions.checkArgument(inventoryStatus != null, "inventoryStatus cannot be null");
         Preconditions.checkArgument(containerMaxCapacity >0, "max Capacity cannot be null");
+        Preconditions.checkArgument(clientRequestToken == null || clientRequestToken.length() <= 36, "clientRequestToken cannot be longer than 36 characters");
 
 
         this.uniqueProductIds = uniqueProductIds;
@@ -49,5 +61,7 @@ public class InventoryInboundRequestDTO {
         this.companyId = companyId;
         this.inventoryStatus = inventoryStatus;
         this.containerMaxCapacity = containerMaxCapacity;
+        this.capacityPreReserved = capacityPreReserved;
+        this.clientRequestToken = clientRequestToken;
     }
 }
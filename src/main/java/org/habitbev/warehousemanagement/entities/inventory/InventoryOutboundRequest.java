@@ -38,10 +38,17 @@ public class InventoryOutboundRequest {
     @JsonProperty("skuCode")
     String skuCode;
 
+    /**
+     * optional, a client retrying the same request should send the same requestId so already applied batches are not applied twice.
+     * Without it one is derived from outboundId, orderId and containerId.
+     */
+    @JsonProperty("requestId")
+    String requestId;
+
 
     @Builder
     private InventoryOutboundRequest(List<String> uniqueProductIds, String containerId, String warehouseId, String orderId, String companyId,
-                                     String outboundId, String skuCode) {
+                                     String outboundId, String skuCode, String requestId) {
         Preconditions.checkArgument(CollectionUtils.isNotEmpty(uniqueProductIds), "uniqueProductIds cannot be blank");
         Preconditions.checkArgument(StringUtils.isNotBlank(containerId), "containerId cannot be blank");
         Preconditions.checkArgument(StringUtils.isNotBlank(warehouseId), "warehouseId cannot be blank");
@@ -57,5 +64,6 @@ public class InventoryOutboundRequest {
         this.outboundId = outboundId;
         this.skuCode = skuCode;
         this.companyId = companyId;
+        this.requestId = requestId;
     }
 }
@@ -29,9 +29,20 @@ public class InventoryOutboundRequestDTO {
 
     int containerMaxCapacity;
 
+    /**
+     * capacity for these ids was already reserved on the container and the inventory counts are adjusted once for the whole
+     * request by the caller, neither is updated by the sub batch transaction.
+     */
+    boolean capacityPreReserved;
+
+    /**
+     * idempotency token of the transaction, retries of the same sub batch carry the same token.
+     */
+    String clientRequestToken;
+
     @Builder
     private InventoryOutboundRequestDTO(List<String> uniqueProductIds, String containerId, String warehouseId, String orderId, String companyId,
-                                        String outboundId, String skuCode, InventoryStatus inventoryStatus, Integer containerMaxCapacity) {
+                                        String outboundId, String skuCode, InventoryStatus inventoryStatus, Integer containerMaxCapacity, boolean capacityPreReserved, String clientRequestToken) {
         Preconditions.checkArgument(CollectionUtils.isNotEmpty(uniqueProductIds), "uniqueProductIds cannot be blank");
         Preconditions.checkArgument(StringUtils.isNotBlank(containerId), "containerId cannot be blank");
         Preconditions.checkArgument(StringUtils.isNotBlank(warehouseId), "warehouseId cannot be blank");
@@ -41,6 +52,7 @@ public class InventoryOutboundRequestDTO {
         Preconditions.checkArgument(StringUtils.isNotBlank(skuCode), "skuCode cannot be blank");
         Preconditions.checkArgument(inventoryStatus != null, "inventoryStatus cannot be null");
         Preconditions.checkArgument(containerMaxCapacity != null && containerMaxCapacity > 0, "containerMaxCapacity cannot be < 0");
+        Preconditions.checkArgument(clientRequestToken == null || clientRequestToken.length() <= 36, "clientRequestToken cannot be longer than 36 characters");
 
 
         this.uniqueProductIds = uniqueProductIds;
@@ -52,5 +64,7 @@ public class InventoryOutboundRequestDTO {
         this.skuCode = skuCode;
         this.companyId = companyId;
         this.containerMaxCapacity = containerMaxCapacity;
+        this.capacityPreReserved = capacityPreReserved;
+        this.clientRequestToken = clientRequestToken;
     }
 }
@@ -25,10 +25,22 @@ public class MoveInventoryRequest {
     int sourceContainerMaxCapacity;
     int destinationContainerMaxCapacity;
 
+    /**
+     * idempotency token of the transaction, retries of the same sub batch carry the same token.
+     */
+    String clientRequestToken;
+
+    /**
+     * optional, a client retrying the same move should send the same requestId so already applied batches are not applied twice.
+     * Without it one is derived from the source and destination container.
+     */
+    String requestId;
+
 
     @Builder
     private MoveInventoryRequest(List<String> uniqueProductIds, String sourceContainerId,String skuCode,String companyId,
-                                 String destinationContainerId, String warehouseId, Integer sourceContainerMaxCapacity, Integer destinationContainerMaxCapacity) {
+                                 String destinationContainerId, String warehouseId, Integer sourceContainerMaxCapacity, Integer destinationContainerMaxCapacity,
+                                 String clientRequestToken, String requestId) {
 
         Preconditions.checkArgument(CollectionUtils.isNotEmpty(uniqueProductIds), "uniqueProductIds cannot be blank");
         Preconditions.checkArgument(StringUtils.isNotBlank(sourceContainerId), "sourceLocationId cannot be blank");
@@ -38,6 +50,7 @@ public class MoveInventoryRequest {
         Preconditions.checkArgument(StringUtils.isNotBlank(warehouseId), "locationId cannot be blank");
         Preconditions.checkArgument(sourceContainerMaxCapacity != null && sourceContainerMaxCapacity> 0 , "sourceContainerMaxCapacity cannot be < 0");
         Preconditions.checkArgument(destinationContainerMaxCapacity != null && destinationContainerMaxCapacity> 0 , "destinationContainerMaxCapacity cannot be < 0");
+        Preconditions.checkArgument(clientRequestToken == null || clientRequestToken.length() <= 36, "clientRequestToken cannot be longer than 36 characters");
 
 
         this.uniqueProductIds = uniqueProductIds;
@@ -48,5 +61,7 @@ public class MoveInventoryRequest {
         this.skuCode = skuCode;
         this.sourceContainerMaxCapacity = sourceContainerMaxCapacity;
         this.destinationContainerMaxCapacity = destinationContainerMaxCapacity;
+        this.clientRequestToken = clientRequestToken;
+        this.requestId = requestId;
     }
 }
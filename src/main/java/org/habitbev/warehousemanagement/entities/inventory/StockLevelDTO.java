@@ -0,0 +1,29 @@
+package org.habitbev.warehousemanagement.entities.inventory;
+
+import com.google.common.base.Preconditions;
+import lombok.Builder;
+import lombok.Value;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * stock of a sku in a warehouse as maintained in the inventory counts table.
+ */
+@Value
+public class StockLevelDTO {
+
+    String skuCode;
+    String warehouseId;
+    int availableInventory;
+    int allocatedInventory;
+
+    @Builder
+    private StockLevelDTO(String skuCode, String warehouseId, int availableInventory, int allocatedInventory) {
+        Preconditions.checkArgument(StringUtils.isNotBlank(skuCode), "skuCode cannot be blank");
+        Preconditions.checkArgument(StringUtils.isNotBlank(warehouseId), "warehouseId cannot be blank");
+
+        this.skuCode = skuCode;
+        this.warehouseId = warehouseId;
+        this.availableInventory = availableInventory;
+        this.allocatedInventory = allocatedInventory;
+    }
+}
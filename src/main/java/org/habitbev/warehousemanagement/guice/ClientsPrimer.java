@@ -0,0 +1,57 @@
+package org.habitbev.warehousemanagement.guice;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTable;
+import com.amazonaws.services.dynamodbv2.model.DescribeTableRequest;
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+import lombok.extern.slf4j.Slf4j;
+import org.habitbev.warehousemanagement.entities.dynamodb.Container;
+import org.habitbev.warehousemanagement.entities.dynamodb.ContainerCapacity;
+import org.habitbev.warehousemanagement.entities.dynamodb.FinishedGoodsInbound;
+import org.habitbev.warehousemanagement.entities.dynamodb.FinishedGoodsOutbound;
+import org.habitbev.warehousemanagement.entities.dynamodb.IdCounter;
+import org.habitbev.warehousemanagement.entities.dynamodb.Inventory;
+import org.habitbev.warehousemanagement.entities.dynamodb.InventoryCounts;
+
+import java.util.List;
+
+/**
+ * Optionally warms up the shared clients while the container initialises instead of on the first request:
+ * builds the mapper table models of every entity and opens a dynamodb connection with a describe call.
+ * Failures are only logged, the first request then pays for the warm up as before.
+ */
+@Slf4j
+public class ClientsPrimer {
+
+    private static final List<Class<?>> ENTITIES = ImmutableList.of(Container.class, ContainerCapacity.class, FinishedGoodsInbound.class,
+            FinishedGoodsOutbound.class, IdCounter.class, Inventory.class, InventoryCounts.class);
+
+    DynamoDBMapper dynamoDBMapper;
+    AmazonDynamoDB amazonDynamoDB;
+    boolean primeClientsOnInit;
+
+    @Inject
+    public ClientsPrimer(DynamoDBMapper dynamoDBMapper, AmazonDynamoDB amazonDynamoDB,
+                         @Named("primeClientsOnInit") boolean primeClientsOnInit) {
+        this.dynamoDBMapper = dynamoDBMapper;
+        this.amazonDynamoDB = amazonDynamoDB;
+        this.primeClientsOnInit = primeClientsOnInit;
+    }
+
+    public void prime() {
+        if (!primeClientsOnInit) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            ENTITIES.forEach(dynamoDBMapper::getTableModel);
+            amazonDynamoDB.describeTable(new DescribeTableRequest(Container.class.getAnnotation(DynamoDBTable.class).tableName()));
+            log.info("primed clients in {} ms", System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.warn("priming clients failed, continuing without", e);
+        }
+    }
+}
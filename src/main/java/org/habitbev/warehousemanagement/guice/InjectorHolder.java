@@ -0,0 +1,32 @@
+package org.habitbev.warehousemanagement.guice;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * One injector per JVM shared by every handler, built the first time a handler asks for it.
+ * Handlers living in the same lambda container then share the aws clients, the mapper and the executors.
+ */
+@Slf4j
+public final class InjectorHolder {
+
+    private InjectorHolder() {
+    }
+
+    public static Injector getInjector() {
+        return Holder.INJECTOR;
+    }
+
+    private static class Holder {
+        private static final Injector INJECTOR = createInjector();
+    }
+
+    private static Injector createInjector() {
+        long start = System.currentTimeMillis();
+        Injector injector = Guice.createInjector(new MainModule());
+        injector.getInstance(ClientsPrimer.class).prime();
+        log.info("injector ready in {} ms", System.currentTimeMillis() - start);
+        return injector;
+    }
+}
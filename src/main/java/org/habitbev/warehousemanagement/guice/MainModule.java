@@ -1,7 +1,10 @@
 package org.habitbev.warehousemanagement.guice;
 
+import com.amazonaws.ClientConfiguration;
 import com.amazonaws.regions.Regions;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBAsync;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBAsyncClientBuilder;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
@@ -11,10 +14,16 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.inject.AbstractModule;
+import com.google.inject.Injector;
+import com.google.inject.Key;
 import com.google.inject.Provides;
+import com.google.inject.Singleton;
 import com.google.inject.TypeLiteral;
+import com.google.inject.name.Named;
 import com.google.inject.name.Names;
 import org.habitbev.warehousemanagement.dao.*;
+import org.habitbev.warehousemanagement.entities.LabelSheetLayout;
+import org.habitbev.warehousemanagement.entities.ThermalLabelStock;
 import org.habitbev.warehousemanagement.entities.UniqueProductIdsGenerationRequest;
 import org.habitbev.warehousemanagement.entities.container.AddContainerRequest;
 import org.habitbev.warehousemanagement.entities.inbound.StartInboundRequest;
@@ -22,7 +31,13 @@ import org.habitbev.warehousemanagement.entities.outbound.StartOutboundRequest;
 import org.habitbev.warehousemanagement.guice.providers.WarehouseActionValidatorChainProvider;
 import org.habitbev.warehousemanagement.helpers.BarcodesPersistor;
 import org.habitbev.warehousemanagement.helpers.S3BarcodesPersistor;
+import org.habitbev.warehousemanagement.helpers.S3StreamingBarcodesPersistor;
+import org.habitbev.warehousemanagement.helpers.StreamingBarcodesPersistor;
 import org.habitbev.warehousemanagement.helpers.idgenerators.*;
+import org.habitbev.warehousemanagement.helpers.labelrenderers.EplLabelRenderer;
+import org.habitbev.warehousemanagement.helpers.labelrenderers.LabelRenderer;
+import org.habitbev.warehousemanagement.helpers.labelrenderers.PdfLabelRenderer;
+import org.habitbev.warehousemanagement.helpers.labelrenderers.ZplLabelRenderer;
 import org.habitbev.warehousemanagement.helpers.validators.WarehouseActionValidatorChain;
 import org.habitbev.warehousemanagement.service.SKUService;
 
@@ -31,6 +46,7 @@ import java.time.Clock;
 import java.util.Properties;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 
 public class MainModule extends AbstractModule {
     @Override
@@ -38,18 +54,38 @@ public class MainModule extends AbstractModule {
         bindProperties();
         bind(ExecutorService.class).annotatedWith(Names.named("addInventoryExecutorService"))
                 .toInstance(Executors.newFixedThreadPool(50));
+        bind(ExecutorService.class).annotatedWith(Names.named("inventoryTransactionExecutorService"))
+                .toInstance(Executors.newFixedThreadPool(16));
+        bind(ExecutorService.class).annotatedWith(Names.named("capacityBatchGetExecutorService"))
+                .toInstance(Executors.newFixedThreadPool(8));
+        bind(ExecutorService.class).annotatedWith(Names.named("barcodeRenderingExecutorService"))
+                .toInstance(new ForkJoinPool(Runtime.getRuntime().availableProcessors()));
         bind(BarcodesPersistor.class).annotatedWith(Names.named("s3BarcodesPersistor")).to(S3BarcodesPersistor.class);
+        bind(StreamingBarcodesPersistor.class).annotatedWith(Names.named("s3StreamingBarcodesPersistor")).to(S3StreamingBarcodesPersistor.class);
         bindIdGenerators();
+        bindLabelRenderers();
         bindDAO();
         bind(WarehouseActionValidatorChain.class).toProvider(WarehouseActionValidatorChainProvider.class);
     }
 
+    private void bindLabelRenderers() {
+        bind(LabelRenderer.class).annotatedWith(Names.named("pdfLabelRenderer")).to(PdfLabelRenderer.class);
+        bind(LabelRenderer.class).annotatedWith(Names.named("zplLabelRenderer")).to(ZplLabelRenderer.class);
+        bind(LabelRenderer.class).annotatedWith(Names.named("eplLabelRenderer")).to(EplLabelRenderer.class);
+    }
+
     private void bindDAO() {
         bind(ContainerCapacityDAO.class).annotatedWith(Names.named("dynamoDbImpl")).to(ContainerCapacityDynamoDAOImpl.class);
         bind(ContainerDAO.class).annotatedWith(Names.named("dynamoDbImpl")).to(ContainerDynamoDAOImpl.class);
+        bind(ContainerDAO.class).annotatedWith(Names.named("cachingImpl")).to(CachingContainerDAO.class);
         bind(InboundDAO.class).annotatedWith(Names.named("dynamoDbImpl")).to(InboundDynamoDAOImpl.class);
         bind(OutboundDAO.class).annotatedWith(Names.named("dynamoDbImpl")).to(OutboundDynamoDAOImpl.class);
         bind(InventoryDAO.class).annotatedWith(Names.named("dynamoDbImpl")).to(InventoryDynamoDAOImpl.class);
+        bind(InventoryCountsDAO.class).annotatedWith(Names.named("dynamoDbImpl")).to(InventoryCountsDynamoDAOImpl.class);
+        bind(AsyncInventoryDAO.class).annotatedWith(Names.named("dynamoDbAsyncImpl")).to(AsyncInventoryDynamoDAOImpl.class);
+        bind(IdCounterDAO.class).annotatedWith(Names.named("dynamoDbImpl")).to(IdCounterDynamoDAOImpl.class);
+        bind(SequenceNumberBackfillDAO.class).annotatedWith(Names.named("dynamoDbImpl")).to(SequenceNumberBackfillDynamoDAOImpl.class);
+        bind(ContainerContentsBackfillDAO.class).annotatedWith(Names.named("dynamoDbImpl")).to(ContainerContentsBackfillDynamoDAOImpl.class);
         bind(SKUDAO.class).annotatedWith(Names.named("configSKUDAOImpl")).to(ConfigSKUDAOImpl.class);
         bind(CompanyDAO.class).annotatedWith(Names.named("configCompanyDAOImpl")).to(ConfigCompanyDAOImpl.class);
         bind(CustomerDAO.class).annotatedWith(Names.named("configCustomerDAOImpl")).to(ConfigCustomerDAOImpl.class);
@@ -65,6 +101,8 @@ public class MainModule extends AbstractModule {
         }).annotatedWith(Names.named("warehouseWiseIncrementalOutboundIdGenerator")).to(WarehouseWiseIncrementalOutboundIdGenerator.class);
         bind(new TypeLiteral<ProductIdGenerator<UniqueProductIdsGenerationRequest>>() {
         }).annotatedWith(Names.named("productionTimeBasedUniqueProductIdGenerator")).to(ProductionTimeBasedUniqueProductIdGenerator.class);
+        bind(new TypeLiteral<ProductIdGenerator<UniqueProductIdsGenerationRequest>>() {
+        }).annotatedWith(Names.named("compactUniqueProductIdGenerator")).to(CompactUniqueProductIdGenerator.class);
     }
 
     public static void main(String[] args) {
@@ -88,34 +126,104 @@ public class MainModule extends AbstractModule {
     }
 
     @Provides
+    @Singleton
     public Gson providesGson() {
         return new GsonBuilder().setPrettyPrinting().create();
     }
 
     @Provides
+    @Singleton
     public ObjectMapper providesObjectMapper() {
         return new ObjectMapper();
     }
 
+    /**
+     * product id generator picked by uniqueProductIdGeneratorImpl, the name one of the generators is bound with.
+     */
+    @Provides
+    @Named("uniqueProductIdGenerator")
+    public ProductIdGenerator<UniqueProductIdsGenerationRequest> providesUniqueProductIdGenerator(
+            @Named("uniqueProductIdGeneratorImpl") String uniqueProductIdGeneratorImpl, Injector injector) {
+        return injector.getInstance(Key.get(new TypeLiteral<ProductIdGenerator<UniqueProductIdsGenerationRequest>>() {
+        }, Names.named(uniqueProductIdGeneratorImpl)));
+    }
+
+    /**
+     * label renderer picked by labelRendererImpl, the name one of the renderers is bound with.
+     */
+    @Provides
+    @Named("labelRenderer")
+    public LabelRenderer providesLabelRenderer(@Named("labelRendererImpl") String labelRendererImpl, Injector injector) {
+        return injector.getInstance(Key.get(LabelRenderer.class, Names.named(labelRendererImpl)));
+    }
+
+    /**
+     * label stock the barcode sheets are printed on, sizes in millimetres.
+     */
     @Provides
+    public LabelSheetLayout providesLabelSheetLayout(@Named("labelSheetPageWidthMm") float pageWidthMm,
+                                                     @Named("labelSheetPageHeightMm") float pageHeightMm,
+                                                     @Named("labelSheetRows") int rows, @Named("labelSheetColumns") int columns,
+                                                     @Named("labelWidthMm") float labelWidthMm, @Named("labelHeightMm") float labelHeightMm,
+                                                     @Named("labelSheetMarginTopMm") float marginTopMm,
+                                                     @Named("labelSheetMarginLeftMm") float marginLeftMm,
+                                                     @Named("labelHorizontalGapMm") float horizontalGapMm,
+                                                     @Named("labelVerticalGapMm") float verticalGapMm) {
+        return LabelSheetLayout.builder().pageWidthMm(pageWidthMm).pageHeightMm(pageHeightMm).rows(rows).columns(columns)
+                .labelWidthMm(labelWidthMm).labelHeightMm(labelHeightMm).marginTopMm(marginTopMm).marginLeftMm(marginLeftMm)
+                .horizontalGapMm(horizontalGapMm).verticalGapMm(verticalGapMm).build();
+    }
+
+    /**
+     * label roll the zpl and epl labels are printed on, sizes in millimetres.
+     */
+    @Provides
+    public ThermalLabelStock providesThermalLabelStock(@Named("thermalLabelWidthMm") float labelWidthMm,
+                                                       @Named("thermalLabelHeightMm") float labelHeightMm,
+                                                       @Named("thermalLabelGapMm") float gapMm,
+                                                       @Named("thermalPrinterDotsPerMm") int dotsPerMm) {
+        return ThermalLabelStock.builder().labelWidthMm(labelWidthMm).labelHeightMm(labelHeightMm).gapMm(gapMm)
+                .dotsPerMm(dotsPerMm).build();
+    }
+
+    @Provides
+    @Singleton
     public Clock providesClock() {
         return Clock.systemUTC();
     }
 
+    /**
+     * aws clients and the mapper are shared by every DAO of the injector, so a JVM holds one connection pool per client
+     * and one mapper model cache.
+     */
     @Provides
+    @Singleton
     public AmazonS3 provideAmazonS3() {
         return AmazonS3ClientBuilder.standard().withRegion(Regions.AP_SOUTH_1).build();
     }
 
     @Provides
+    @Singleton
     public AmazonDynamoDB amazonDynamoDbClient() {
         AmazonDynamoDB amazonDynamoDBClient = AmazonDynamoDBClientBuilder.standard().withRegion(Regions.AP_SOUTH_1).build();
         return amazonDynamoDBClient;
     }
 
+    /**
+     * the v1 async client runs every call as a blocking request on its own executor, so at most asyncDynamoDbClientThreads
+     * calls are in flight. The sdk default is 50 threads and 50 connections, both are sized here from the config instead.
+     */
+    @Provides
+    @Singleton
+    public AmazonDynamoDBAsync amazonDynamoDbAsyncClient(@Named("asyncDynamoDbClientThreads") int clientThreads) {
+        return AmazonDynamoDBAsyncClientBuilder.standard().withRegion(Regions.AP_SOUTH_1)
+                .withClientConfiguration(new ClientConfiguration().withMaxConnections(clientThreads))
+                .withExecutorFactory(() -> Executors.newFixedThreadPool(clientThreads)).build();
+    }
+
     @Provides
-    public DynamoDBMapper dynamoDBMapper() {
-        AmazonDynamoDB amazonDynamoDB = AmazonDynamoDBClientBuilder.standard().withRegion(Regions.AP_SOUTH_1).build();
+    @Singleton
+    public DynamoDBMapper dynamoDBMapper(AmazonDynamoDB amazonDynamoDB) {
         DynamoDBMapperConfig dynamoDBMapperConfig = DynamoDBMapperConfig.builder().withConsistentReads(
                         DynamoDBMapperConfig.ConsistentReads.CONSISTENT)
                 .withSaveBehavior(DynamoDBMapperConfig.SaveBehavior.UPDATE_SKIP_NULL_ATTRIBUTES).build();
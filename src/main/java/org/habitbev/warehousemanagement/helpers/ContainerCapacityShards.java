@@ -0,0 +1,95 @@
+package org.habitbev.warehousemanagement.helpers;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+import org.apache.commons.lang3.StringUtils;
+import org.habitbev.warehousemanagement.entities.exceptions.InconsistentStateException;
+
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Write sharding of container capacity for the few hot containers listed in config (warehouseId<%>containerId, comma separated).
+ * The capacity of a sharded container is spread over shardCount items, shard 0 keeps the plain warehouseContainerId key
+ * and shard i is keyed warehouseId<%>containerId<%>i. The total is the sum of the shards.
+ * Max capacity is split into per shard allotments adding up to it, so guarding every shard on its allotment keeps the total exact.
+ * Containers not listed keep a single capacity item.
+ */
+@Singleton
+public class ContainerCapacityShards {
+
+    private static final String DELIMITER = "<%>";
+    private static final String COMMA = ",";
+
+    private final Set<String> shardedContainers;
+    private final int shardCount;
+
+    @Inject
+    public ContainerCapacityShards(@Named("shardedCapacityContainers") String shardedContainers,
+                                   @Named("capacityShardCount") int shardCount) {
+        Preconditions.checkArgument(shardedContainers != null, "shardedContainers cannot be null");
+        Preconditions.checkArgument(shardCount > 0, "shardCount should be > 0");
+        this.shardedContainers = Arrays.stream(shardedContainers.split(COMMA)).map(String::trim).filter(StringUtils::isNotBlank)
+                .collect(ImmutableSet.toImmutableSet());
+        this.shardCount = shardCount;
+    }
+
+    public boolean isSharded(String warehouseId, String containerId) {
+        return shardCount > 1 && shardedContainers.contains(String.join(DELIMITER, warehouseId, containerId));
+    }
+
+    /**
+     * @return number of capacity items of the container, 1 when it is not sharded
+     */
+    public int shardCount(String warehouseId, String containerId) {
+        return isSharded(warehouseId, containerId) ? shardCount : 1;
+    }
+
+    public String shardKey(String warehouseId, String containerId, int shard) {
+        Preconditions.checkArgument(shard >= 0 && shard < shardCount(warehouseId, containerId), "shard out of range");
+        String warehouseContainerId = String.join(DELIMITER, warehouseId, containerId);
+        return shard == 0 ? warehouseContainerId : String.join(DELIMITER, warehouseContainerId, String.valueOf(shard));
+    }
+
+    /**
+     * share of maxCapacity the shard may hold, the remainder of the split goes to the lower shards.
+     */
+    public int allotment(int maxCapacity, int shard, int shards) {
+        return maxCapacity / shards + (shard < maxCapacity % shards ? 1 : 0);
+    }
+
+    /**
+     * shard a write routed by the given key starts at, so concurrent writers land on different shards.
+     */
+    public int preferredShard(String routingKey, int shards) {
+        return Math.floorMod(routingKey.hashCode(), shards);
+    }
+
+    /**
+     * splits delta over the shards starting at the preferred shard and spilling over to the following ones.
+     * Additions are bounded by the room left in each allotment and removals by what each shard holds.
+     *
+     * @param shardCapacities current capacity of every shard as last read
+     * @return delta per shard, 0 for shards which are not written
+     */
+    public int[] distribute(int delta, int maxCapacity, int[] shardCapacities, int preferredShard) {
+        int shards = shardCapacities.length;
+        int[] shardDeltas = new int[shards];
+        int remaining = Math.abs(delta);
+        for (int i = 0; i < shards && remaining > 0; i++) {
+            int shard = (preferredShard + i) % shards;
+            int room = delta > 0 ? allotment(maxCapacity, shard, shards) - shardCapacities[shard] : shardCapacities[shard];
+            int taken = Math.max(0, Math.min(room, remaining));
+            shardDeltas[shard] = delta > 0 ? taken : -taken;
+            remaining -= taken;
+        }
+        if (remaining > 0) {
+            throw new InconsistentStateException(String.format("capacity shards %s cannot take delta %d within max capacity %d",
+                    Arrays.toString(shardCapacities), delta, maxCapacity));
+        }
+        return shardDeltas;
+    }
+}
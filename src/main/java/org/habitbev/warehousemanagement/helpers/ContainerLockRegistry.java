@@ -0,0 +1,148 @@
+package org.habitbev.warehousemanagement.helpers;
+
+import com.google.common.base.Preconditions;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.habitbev.warehousemanagement.entities.exceptions.RetriableException;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Process wide striped lock table for serializing capacity writes on a container.
+ * Keys are hashed onto a fixed number of fair locks, so waiting callers are served in arrival order
+ * and a busy container degrades into a queue. Acquisition is bounded by a timeout, after which a
+ * RetriableException is thrown instead of holding the caller forever.
+ * When more than one lock is needed, stripes are always acquired in ascending index order which keeps
+ * multi container operations like move deadlock free.
+ */
+@Slf4j
+@Singleton
+public class ContainerLockRegistry {
+
+    private static final String DELIMITER = "<%>";
+
+    private final ReentrantLock[] stripes;
+    private final long lockTimeoutMillis;
+
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder contendedAcquisitions = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAdder totalHoldNanos = new LongAdder();
+
+    @Inject
+    public ContainerLockRegistry(@Named("containerLockStripes") int stripeCount,
+                                 @Named("containerLockTimeoutMillis") long lockTimeoutMillis) {
+        Preconditions.checkArgument(stripeCount > 0, "stripeCount should be > 0");
+        Preconditions.checkArgument(lockTimeoutMillis > 0, "lockTimeoutMillis should be > 0");
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            this.stripes[i] = new ReentrantLock(true);
+        }
+        this.lockTimeoutMillis = lockTimeoutMillis;
+    }
+
+    public <T> T executeWithContainerLock(String warehouseId, String containerId, Supplier<T> action) {
+        Preconditions.checkArgument(StringUtils.isNotBlank(warehouseId), "warehouseId cannot be blank");
+        Preconditions.checkArgument(StringUtils.isNotBlank(containerId), "containerId cannot be blank");
+        return executeWithLocks(action, String.join(DELIMITER, warehouseId, containerId));
+    }
+
+    public void executeWithContainerLock(String warehouseId, String containerId, Runnable action) {
+        executeWithContainerLock(warehouseId, containerId, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Locks both containers before running the action. Locks are taken in stripe order irrespective of the
+     * argument order, so a move from A to B and a concurrent move from B to A cannot deadlock.
+     */
+    public void executeWithContainerLocks(String warehouseId, String firstContainerId, String secondContainerId, Runnable action) {
+        Preconditions.checkArgument(StringUtils.isNotBlank(warehouseId), "warehouseId cannot be blank");
+        Preconditions.checkArgument(StringUtils.isNotBlank(firstContainerId), "firstContainerId cannot be blank");
+        Preconditions.checkArgument(StringUtils.isNotBlank(secondContainerId), "secondContainerId cannot be blank");
+        executeWithLocks(() -> {
+            action.run();
+            return null;
+        }, String.join(DELIMITER, warehouseId, firstContainerId), String.join(DELIMITER, warehouseId, secondContainerId));
+    }
+
+    public LockMetrics getMetrics() {
+        return LockMetrics.builder().acquisitions(acquisitions.sum()).contendedAcquisitions(contendedAcquisitions.sum())
+                .timeouts(timeouts.sum()).totalWaitMillis(TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.sum()))
+                .totalHoldMillis(TimeUnit.NANOSECONDS.toMillis(totalHoldNanos.sum())).build();
+    }
+
+    private <T> T executeWithLocks(Supplier<T> action, String... keys) {
+        Preconditions.checkArgument(action != null, "action cannot be null");
+        int[] stripeIndexes = Arrays.stream(keys).mapToInt(this::stripeIndex).distinct().sorted().toArray();
+        int acquired = 0;
+        try {
+            for (int stripeIndex : stripeIndexes) {
+                acquire(stripes[stripeIndex], keys);
+                acquired++;
+            }
+            long holdStart = System.nanoTime();
+            try {
+                return action.get();
+            } finally {
+                totalHoldNanos.add(System.nanoTime() - holdStart);
+            }
+        } finally {
+            for (int i = acquired - 1; i >= 0; i--) {
+                stripes[stripeIndexes[i]].unlock();
+            }
+        }
+    }
+
+    private void acquire(ReentrantLock lock, String[] keys) {
+        acquisitions.increment();
+        try {
+            // the timed tryLock honours fairness, the untimed one would barge ahead of queued callers
+            if (lock.tryLock(0, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+            contendedAcquisitions.increment();
+            long waitStart = System.nanoTime();
+            boolean locked = lock.tryLock(lockTimeoutMillis, TimeUnit.MILLISECONDS);
+            totalWaitNanos.add(System.nanoTime() - waitStart);
+            if (!locked) {
+                timeouts.increment();
+                String message = String.format("timed out after %d ms waiting for lock on %s, queue length %d",
+                        lockTimeoutMillis, StringUtils.join(keys, ","), lock.getQueueLength());
+                log.warn(message);
+                throw new RetriableException(message);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RetriableException("interrupted while waiting for lock on " + StringUtils.join(keys, ","), e);
+        }
+    }
+
+    private int stripeIndex(String key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return Math.floorMod(hash, stripes.length);
+    }
+
+    @Value
+    @Builder
+    public static class LockMetrics {
+        long acquisitions;
+        long contendedAcquisitions;
+        long timeouts;
+        long totalWaitMillis;
+        long totalHoldMillis;
+    }
+}
@@ -8,6 +8,7 @@ import com.google.inject.Inject;
 import com.google.inject.name.Named;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.File;
 import java.io.FileInputStream;
 import java.util.UUID;
 
@@ -28,15 +29,16 @@ public class S3BarcodesPersistor implements BarcodesPersistor {
 
         try {
 
-            FileInputStream fileInputStream = new FileInputStream(filePath);
-
             String barcodesUniqueFileName = UUID.randomUUID().toString();
             System.out.println("bucket name " + barcodesBucketName);
             ObjectMetadata objectMetadata = new ObjectMetadata();
             objectMetadata.setContentType("application/pdf");
-            PutObjectRequest putObjectRequest = new PutObjectRequest(barcodesBucketName, barcodesUniqueFileName,
-                    fileInputStream, objectMetadata);
-            amazonS3.putObject(putObjectRequest);
+            objectMetadata.setContentLength(new File(filePath).length());
+            try (FileInputStream fileInputStream = new FileInputStream(filePath)) {
+                PutObjectRequest putObjectRequest = new PutObjectRequest(barcodesBucketName, barcodesUniqueFileName,
+                        fileInputStream, objectMetadata);
+                amazonS3.putObject(putObjectRequest);
+            }
             String resourceUrl = ((AmazonS3Client) amazonS3).getResourceUrl(barcodesBucketName, barcodesUniqueFileName);
             System.out.println("resource url" + resourceUrl);
             return resourceUrl;
@@ -0,0 +1,132 @@
+package org.habitbev.warehousemanagement.helpers;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.google.common.base.Preconditions;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * writes an s3 object through a single part sized buffer, so memory stays bounded by partSize whatever the object size.
+ * The multipart upload is started only once the first part fills up, smaller objects go in a single put on close.
+ * close completes the upload and is idempotent, abort drops whatever was uploaded.
+ */
+@Slf4j
+public class S3MultipartUploadOutputStream extends OutputStream {
+
+    /**
+     * s3 rejects parts other than the last below 5 MB.
+     */
+    public static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+
+    private final AmazonS3 amazonS3;
+    private final String bucketName;
+    private final String key;
+    private final String contentType;
+    private final byte[] buffer;
+    private final List<PartETag> partETags = new ArrayList<>();
+    private int position;
+    private String uploadId;
+    private boolean closed;
+    private boolean completed;
+
+    public S3MultipartUploadOutputStream(AmazonS3 amazonS3, String bucketName, String key, String contentType, int partSize) {
+        Preconditions.checkArgument(partSize >= MIN_PART_SIZE, "partSize should be >= " + MIN_PART_SIZE);
+        this.amazonS3 = amazonS3;
+        this.bucketName = bucketName;
+        this.key = key;
+        this.contentType = contentType;
+        this.buffer = new byte[partSize];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (position == buffer.length) {
+            uploadPart();
+        }
+        buffer[position++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        ensureOpen();
+        while (length > 0) {
+            if (position == buffer.length) {
+                uploadPart();
+            }
+            int copied = Math.min(length, buffer.length - position);
+            System.arraycopy(bytes, offset, buffer, position, copied);
+            position += copied;
+            offset += copied;
+            length -= copied;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (uploadId == null) {
+            ObjectMetadata objectMetadata = metadata();
+            objectMetadata.setContentLength(position);
+            amazonS3.putObject(new PutObjectRequest(bucketName, key, new ByteArrayInputStream(buffer, 0, position), objectMetadata));
+            completed = true;
+            return;
+        }
+        if (position > 0) {
+            uploadPart();
+        }
+        amazonS3.completeMultipartUpload(new CompleteMultipartUploadRequest(bucketName, key, uploadId, partETags));
+        completed = true;
+        log.info("uploaded {} in {} parts", key, partETags.size());
+    }
+
+    /**
+     * drops the upload, parts already sent are not kept (and not billed) by s3.
+     */
+    public void abort() {
+        if (completed) {
+            return;
+        }
+        closed = true;
+        if (uploadId != null) {
+            amazonS3.abortMultipartUpload(new AbortMultipartUploadRequest(bucketName, key, uploadId));
+        }
+    }
+
+    private void uploadPart() {
+        if (uploadId == null) {
+            uploadId = amazonS3.initiateMultipartUpload(new InitiateMultipartUploadRequest(bucketName, key, metadata())).getUploadId();
+        }
+        UploadPartRequest uploadPartRequest = new UploadPartRequest().withBucketName(bucketName).withKey(key).withUploadId(uploadId)
+                .withPartNumber(partETags.size() + 1).withInputStream(new ByteArrayInputStream(buffer, 0, position)).withPartSize(position);
+        partETags.add(amazonS3.uploadPart(uploadPartRequest).getPartETag());
+        position = 0;
+    }
+
+    private ObjectMetadata metadata() {
+        ObjectMetadata objectMetadata = new ObjectMetadata();
+        objectMetadata.setContentType(contentType);
+        return objectMetadata;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("stream closed");
+        }
+    }
+}
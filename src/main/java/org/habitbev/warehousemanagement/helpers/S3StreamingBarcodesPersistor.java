@@ -0,0 +1,46 @@
+package org.habitbev.warehousemanagement.helpers;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.AmazonS3Client;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+import lombok.extern.slf4j.Slf4j;
+import org.habitbev.warehousemanagement.entities.exceptions.NonRetriableException;
+
+import java.util.UUID;
+
+/**
+ * streams the barcodes file into a multipart upload with a single part sized buffer, so concurrent invocations
+ * share no file and large runs are not limited by /tmp.
+ */
+@Slf4j
+public class S3StreamingBarcodesPersistor implements StreamingBarcodesPersistor {
+
+    AmazonS3 amazonS3;
+    String barcodesBucketName;
+    int partSize;
+
+    @Inject
+    public S3StreamingBarcodesPersistor(AmazonS3 amazonS3, @Named("barcodesBucketName") String barcodesBucketName,
+                                        @Named("barcodesUploadPartSizeBytes") int partSize) {
+        this.amazonS3 = amazonS3;
+        this.barcodesBucketName = barcodesBucketName;
+        this.partSize = partSize;
+    }
+
+    @Override
+    public String persistBarcodes(String contentType, String fileExtension, BarcodesWriter barcodesWriter) {
+        String barcodesUniqueFileName = UUID.randomUUID() + "." + fileExtension;
+        S3MultipartUploadOutputStream outputStream = new S3MultipartUploadOutputStream(amazonS3, barcodesBucketName,
+                barcodesUniqueFileName, contentType, partSize);
+        try {
+            barcodesWriter.writeTo(outputStream);
+            outputStream.close();
+        } catch (Exception e) {
+            log.error("error while streaming barcodes file {} to bucket {}", barcodesUniqueFileName, barcodesBucketName, e);
+            outputStream.abort();
+            throw new NonRetriableException(e);
+        }
+        return ((AmazonS3Client) amazonS3).getResourceUrl(barcodesBucketName, barcodesUniqueFileName);
+    }
+}
@@ -0,0 +1,23 @@
+package org.habitbev.warehousemanagement.helpers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * persists a barcodes file while it is being written, without a local copy.
+ */
+public interface StreamingBarcodesPersistor {
+
+    /**
+     * @param contentType    media type the file is stored with
+     * @param fileExtension  extension of the stored file name, without the dot
+     * @param barcodesWriter writes the file to the given stream, the stream may be closed by the writer
+     * @return url of the persisted file
+     */
+    String persistBarcodes(String contentType, String fileExtension, BarcodesWriter barcodesWriter);
+
+    @FunctionalInterface
+    interface BarcodesWriter {
+        void writeTo(OutputStream outputStream) throws IOException;
+    }
+}
@@ -0,0 +1,73 @@
+package org.habitbev.warehousemanagement.helpers;
+
+import com.google.common.base.Preconditions;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Packs the items of a bulk action into as few TransactWriteItems requests as possible.
+ * A pack is closed when either the item count or the estimated request size would cross the configured limits.
+ * Callers reserve room for the extra items they add to every transaction (e.g container capacity updates).
+ */
+@Singleton
+public class TransactionPacker {
+
+    private final int maxItems;
+    private final long maxBytes;
+
+    @Inject
+    public TransactionPacker(@Named("transactionMaxItems") int maxItems, @Named("transactionMaxBytes") long maxBytes) {
+        Preconditions.checkArgument(maxItems > 0, "maxItems should be > 0");
+        Preconditions.checkArgument(maxBytes > 0, "maxBytes should be > 0");
+        this.maxItems = maxItems;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @param items             items to be packed, order is preserved across and within packs
+     * @param reservedItems     number of transaction items added by the caller to every pack
+     * @param reservedBytes     estimated size of the items added by the caller to every pack
+     * @param itemSizeEstimator estimated size of the transaction item written for a given item
+     * @return packs of items each fitting a single transaction
+     */
+    public <T> List<List<T>> pack(List<T> items, int reservedItems, long reservedBytes, ToLongFunction<T> itemSizeEstimator) {
+        Preconditions.checkArgument(items != null, "items cannot be null");
+        Preconditions.checkArgument(itemSizeEstimator != null, "itemSizeEstimator cannot be null");
+        Preconditions.checkArgument(reservedItems >= 0 && reservedItems < maxItems, "reservedItems should be in [0, maxItems)");
+        Preconditions.checkArgument(reservedBytes >= 0 && reservedBytes < maxBytes, "reservedBytes should be in [0, maxBytes)");
+
+        int itemsPerPack = maxItems - reservedItems;
+        long bytesPerPack = maxBytes - reservedBytes;
+        List<List<T>> packs = new ArrayList<>();
+        List<T> currentPack = new ArrayList<>();
+        long currentBytes = 0;
+        for (T item : items) {
+            long itemBytes = itemSizeEstimator.applyAsLong(item);
+            Preconditions.checkArgument(itemBytes <= bytesPerPack, "item of estimated size %s cannot fit in a transaction", itemBytes);
+            if (currentPack.size() == itemsPerPack || currentBytes + itemBytes > bytesPerPack) {
+                packs.add(currentPack);
+                currentPack = new ArrayList<>();
+                currentBytes = 0;
+            }
+            currentPack.add(item);
+            currentBytes += itemBytes;
+        }
+        if (!currentPack.isEmpty()) {
+            packs.add(currentPack);
+        }
+        return packs;
+    }
+
+    public int getMaxItems() {
+        return maxItems;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+}
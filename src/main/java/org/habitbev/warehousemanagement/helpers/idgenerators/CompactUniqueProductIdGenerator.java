@@ -0,0 +1,151 @@
+package org.habitbev.warehousemanagement.helpers.idgenerators;
+
+import com.google.common.base.Preconditions;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+import org.habitbev.warehousemanagement.dao.IdCounterDAO;
+import org.habitbev.warehousemanagement.entities.UniqueProductIdsGenerationRequest;
+import org.habitbev.warehousemanagement.entities.exceptions.InconsistentStateException;
+import org.habitbev.warehousemanagement.entities.exceptions.RetriableException;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 64 bit unique product ids laid out as 41 bits of millis since EPOCH_MILLIS, 10 bits of worker id and 12 bits of sequence,
+ * written as 13 characters of crockford base32 (digits and upper case letters without I L O U) which code128 scans reliably.
+ * Ids are fixed width, so they sort in generation order within a worker.
+ * Each of the 1024 worker ids is an expiring lease in the id-counter table. An instance takes a worker id only when its
+ * lease has expired and renews it before generating once less than WORKER_LEASE_RENEW_MILLIS of the lease is left,
+ * so two live instances never share one. An instance which lost its worker id (frozen past the expiry) takes another.
+ * The PRODUCT_ID_WORKER counter only spreads the instances over the worker ids they probe first.
+ * A quantity is reserved with a single compare and set. When the 4096 sequences of a millisecond are used up the ids borrow
+ * the following millisecond instead of waiting, and a clock moving back keeps counting from the last reserved id.
+ */
+@Singleton
+public class CompactUniqueProductIdGenerator implements ProductIdGenerator<UniqueProductIdsGenerationRequest> {
+
+    static final long EPOCH_MILLIS = 1640995200000L;
+    static final int WORKER_ID_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final int ENCODED_LENGTH = 13;
+    private static final long MAX_WORKER_ID = (1L << WORKER_ID_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final String WORKER_COUNTER_NAME = "PRODUCT_ID_WORKER";
+    private static final String WORKER_LEASE_PREFIX = "PRODUCT_ID_WORKER<%>";
+    static final long WORKER_LEASE_MILLIS = 15 * 60 * 1000L;
+    static final long WORKER_LEASE_RENEW_MILLIS = 5 * 60 * 1000L;
+
+    IdCounterDAO idCounterDAO;
+    Clock clock;
+    private final String leaseOwner = UUID.randomUUID().toString();
+    private volatile WorkerLease workerLease;
+    private final ReentrantLock workerLeaseLock = new ReentrantLock();
+    /**
+     * last reserved millis << SEQUENCE_BITS | sequence
+     */
+    private final AtomicLong lastReserved = new AtomicLong(-1);
+
+    @Inject
+    public CompactUniqueProductIdGenerator(@Named("dynamoDbImpl") IdCounterDAO idCounterDAO, Clock clock) {
+        this.idCounterDAO = idCounterDAO;
+        this.clock = clock;
+    }
+
+    @Override
+    public List<String> generate(UniqueProductIdsGenerationRequest input) {
+        Preconditions.checkArgument(input != null, "compactUniqueProductIdGenerator.input cannot be null");
+        int quantity = input.getQuantity();
+        long worker = workerId();
+        long first = reserve(quantity);
+        List<String> generatedIds = new ArrayList<>(quantity);
+        for (long reserved = first; reserved < first + quantity; reserved++) {
+            long id = (reserved >>> SEQUENCE_BITS) << (WORKER_ID_BITS + SEQUENCE_BITS) | worker << SEQUENCE_BITS | (reserved & SEQUENCE_MASK);
+            generatedIds.add(encode(id));
+        }
+        return generatedIds;
+    }
+
+    /**
+     * reserves quantity consecutive millis/sequence slots and returns the first.
+     */
+    private long reserve(int quantity) {
+        long now = (clock.millis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        while (true) {
+            long last = lastReserved.get();
+            long first = Math.max(last + 1, now);
+            if (lastReserved.compareAndSet(last, first + quantity - 1)) {
+                return first;
+            }
+        }
+    }
+
+    private long workerId() {
+        WorkerLease lease = workerLease;
+        if (lease != null && lease.isFresh(clock.millis())) {
+            return lease.workerId;
+        }
+        workerLeaseLock.lock();
+        try {
+            lease = workerLease;
+            if (lease != null && lease.isFresh(clock.millis())) {
+                return lease.workerId;
+            }
+            Optional<Long> renewedExpiry = lease == null ? Optional.empty()
+                    : idCounterDAO.acquireLease(WORKER_LEASE_PREFIX + lease.workerId, leaseOwner, WORKER_LEASE_MILLIS);
+            workerLease = renewedExpiry.isPresent() ? new WorkerLease(lease.workerId, renewedExpiry.get()) : leaseWorkerId();
+            return workerLease.workerId;
+        } finally {
+            workerLeaseLock.unlock();
+        }
+    }
+
+    /**
+     * probes the worker ids from the next one on the counter and leases the first whose lease expired.
+     */
+    private WorkerLease leaseWorkerId() {
+        long firstWorkerId = idCounterDAO.leaseBlock(WORKER_COUNTER_NAME, 1).orElseGet(() -> {
+            idCounterDAO.init(WORKER_COUNTER_NAME, 0);
+            return idCounterDAO.leaseBlock(WORKER_COUNTER_NAME, 1)
+                    .orElseThrow(() -> new InconsistentStateException("id counter " + WORKER_COUNTER_NAME + " missing after init"));
+        });
+        for (long i = 0; i <= MAX_WORKER_ID; i++) {
+            long worker = (firstWorkerId + i) & MAX_WORKER_ID;
+            Optional<Long> expiresAt = idCounterDAO.acquireLease(WORKER_LEASE_PREFIX + worker, leaseOwner, WORKER_LEASE_MILLIS);
+            if (expiresAt.isPresent()) {
+                return new WorkerLease(worker, expiresAt.get());
+            }
+        }
+        throw new RetriableException("all " + (MAX_WORKER_ID + 1) + " product id worker ids are leased, retry once a lease expires");
+    }
+
+    private static final class WorkerLease {
+        private final long workerId;
+        private final long expiresAt;
+
+        private WorkerLease(long workerId, long expiresAt) {
+            this.workerId = workerId;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isFresh(long now) {
+            return now < expiresAt - WORKER_LEASE_RENEW_MILLIS;
+        }
+    }
+
+    static String encode(long id) {
+        char[] chars = new char[ENCODED_LENGTH];
+        for (int i = ENCODED_LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+}
@@ -1,6 +1,13 @@
 package org.habitbev.warehousemanagement.helpers.idgenerators;
 
+import java.util.List;
+
 public interface ContainerIdGenerator<T> {
 
     String generate(T input);
+
+    /**
+     * generates quantity new container ids in one go.
+     */
+    List<String> generate(T input, int quantity);
 }
@@ -0,0 +1,86 @@
+package org.habitbev.warehousemanagement.helpers.idgenerators;
+
+import com.google.common.base.Preconditions;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+import org.apache.commons.lang3.StringUtils;
+import org.habitbev.warehousemanagement.dao.IdCounterDAO;
+import org.habitbev.warehousemanagement.entities.exceptions.InconsistentStateException;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Hands out ids of a counter from blocks leased off the id-counter table, so an id is a memory operation
+ * and a round trip is made only once per blockSize ids.
+ * Every block is taken with an atomic ADD and belongs to a single instance, so ids stay unique across lambda containers.
+ * Ids are not in order across instances and ids left in the block of an instance which goes away are never used.
+ */
+@Singleton
+public class LeasedIdBlockAllocator {
+
+    IdCounterDAO idCounterDAO;
+    private final int blockSize;
+    private final Map<String, IdBlock> idBlocks = new ConcurrentHashMap<>();
+
+    @Inject
+    public LeasedIdBlockAllocator(@Named("dynamoDbImpl") IdCounterDAO idCounterDAO, @Named("idLeaseBlockSize") int blockSize) {
+        Preconditions.checkArgument(blockSize > 0, "blockSize should be > 0");
+        this.idCounterDAO = idCounterDAO;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * @param lastIssuedId last id issued before the counter existed, used once to start a new counter past the existing ids
+     * @return next id of the counter
+     */
+    public long next(String counterName, LongSupplier lastIssuedId) {
+        Preconditions.checkArgument(StringUtils.isNotBlank(counterName), "counterName cannot be blank");
+        Preconditions.checkArgument(lastIssuedId != null, "lastIssuedId cannot be null");
+        IdBlock idBlock = idBlocks.computeIfAbsent(counterName, name -> new IdBlock());
+        // a lock rather than a monitor, the lease is a dynamodb round trip made while holding it
+        idBlock.lock.lock();
+        try {
+            if (idBlock.next > idBlock.end) {
+                long end = lease(counterName, blockSize, lastIssuedId);
+                idBlock.next = end - blockSize + 1;
+                idBlock.end = end;
+            }
+            return idBlock.next++;
+        } finally {
+            idBlock.lock.unlock();
+        }
+    }
+
+    /**
+     * leases count consecutive ids of the counter in a single round trip, past the block held by this instance.
+     *
+     * @return first id of the range
+     */
+    public long nextRange(String counterName, int count, LongSupplier lastIssuedId) {
+        Preconditions.checkArgument(StringUtils.isNotBlank(counterName), "counterName cannot be blank");
+        Preconditions.checkArgument(count > 0, "count should be > 0");
+        Preconditions.checkArgument(lastIssuedId != null, "lastIssuedId cannot be null");
+        return lease(counterName, count, lastIssuedId) - count + 1;
+    }
+
+    private long lease(String counterName, int size, LongSupplier lastIssuedId) {
+        Optional<Long> endOp = idCounterDAO.leaseBlock(counterName, size);
+        if (endOp.isPresent()) {
+            return endOp.get();
+        }
+        idCounterDAO.init(counterName, lastIssuedId.getAsLong());
+        return idCounterDAO.leaseBlock(counterName, size)
+                .orElseThrow(() -> new InconsistentStateException("id counter " + counterName + " missing after init"));
+    }
+
+    private static class IdBlock {
+        final ReentrantLock lock = new ReentrantLock();
+        long next = 1;
+        long end = 0;
+    }
+}
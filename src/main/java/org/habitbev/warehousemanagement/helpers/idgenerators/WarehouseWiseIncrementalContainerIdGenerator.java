@@ -7,19 +7,24 @@ import org.habitbev.warehousemanagement.dao.ContainerDAO;
 import org.habitbev.warehousemanagement.entities.container.ContainerDTO;
 import org.habitbev.warehousemanagement.entities.container.AddContainerRequest;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 /**
- * generates location id incrementally location wise
+ * generates location id incrementally location wise from leased id blocks, the last added container seeds the counter of a warehouse once.
  */
 public class WarehouseWiseIncrementalContainerIdGenerator implements ContainerIdGenerator<AddContainerRequest> {
     private static final String CONTAINER = "CONTAINER-";
-    private static final String FIRST_CONTAINER_ID = CONTAINER + 1;
+    private static final String COUNTER_PREFIX = "CONTAINER<%>";
     ContainerDAO containerDAO;
+    LeasedIdBlockAllocator leasedIdBlockAllocator;
 
     @Inject
-    public WarehouseWiseIncrementalContainerIdGenerator(@Named("dynamoDbImpl") ContainerDAO containerDAO) {
+    public WarehouseWiseIncrementalContainerIdGenerator(@Named("dynamoDbImpl") ContainerDAO containerDAO, LeasedIdBlockAllocator leasedIdBlockAllocator) {
         this.containerDAO = containerDAO;
+        this.leasedIdBlockAllocator = leasedIdBlockAllocator;
     }
 
     @Override
@@ -28,12 +33,26 @@ public class WarehouseWiseIncrementalContainerIdGenerator implements ContainerId
         Preconditions.checkArgument(addContainerRequest != null,
                 "warehouseWiseIncrementalContainerIdGenerator.input cannot be null");
         String warehouseId = addContainerRequest.getWarehouseId();
+        return CONTAINER + leasedIdBlockAllocator.next(COUNTER_PREFIX + warehouseId, () -> lastContainerNumber(warehouseId));
+    }
+
+    @Override
+    public List<String> generate(AddContainerRequest addContainerRequest, int quantity) {
+
+        Preconditions.checkArgument(addContainerRequest != null,
+                "warehouseWiseIncrementalContainerIdGenerator.input cannot be null");
+        Preconditions.checkArgument(quantity > 0, "quantity should be > 0");
+        String warehouseId = addContainerRequest.getWarehouseId();
+        long first = leasedIdBlockAllocator.nextRange(COUNTER_PREFIX + warehouseId, quantity, () -> lastContainerNumber(warehouseId));
+        return LongStream.range(first, first + quantity).mapToObj(number -> CONTAINER + number).collect(Collectors.toList());
+    }
+
+    private long lastContainerNumber(String warehouseId) {
         Optional<ContainerDTO> lastAddedContainer = containerDAO.getLastAddedContainer(warehouseId);
         if (lastAddedContainer.isPresent()) {
             String containerId = lastAddedContainer.get().getContainerId();
-            Integer number = Integer.valueOf(containerId.split(CONTAINER)[1]);
-            return CONTAINER + (number + 1);
+            return Long.parseLong(containerId.split(CONTAINER)[1]);
         }
-        return FIRST_CONTAINER_ID;
+        return 0;
     }
 }
@@ -9,15 +9,21 @@ import org.habitbev.warehousemanagement.entities.dynamodb.FinishedGoodsInbound;
 
 import java.util.Optional;
 
+/**
+ * generates inbound ids warehouse wise from leased id blocks, the last inbound seeds the counter of a warehouse once.
+ */
 public class WarehouseWiseIncrementalInboundIdGenerator implements InboundIdGenerator<StartInboundRequest> {
 
     public static final String INBOUND = "INBOUND-";
     public static final String FIRST_INBOUND_ID = "INBOUND-1";
+    private static final String COUNTER_PREFIX = "INBOUND<%>";
     InboundDAO inboundDAO;
+    LeasedIdBlockAllocator leasedIdBlockAllocator;
 
     @Inject
-    public WarehouseWiseIncrementalInboundIdGenerator(@Named("dynamoDbImpl") InboundDAO inboundDAO) {
+    public WarehouseWiseIncrementalInboundIdGenerator(@Named("dynamoDbImpl") InboundDAO inboundDAO, LeasedIdBlockAllocator leasedIdBlockAllocator) {
         this.inboundDAO = inboundDAO;
+        this.leasedIdBlockAllocator = leasedIdBlockAllocator;
     }
 
     @Override
@@ -25,13 +31,15 @@ public class WarehouseWiseIncrementalInboundIdGenerator implements InboundIdGene
 
         Preconditions.checkArgument(startInboundRequest != null, "startInboudrequest cannot be null");
         String warehouseId = startInboundRequest.getWarehouseId();
+        return INBOUND + leasedIdBlockAllocator.next(COUNTER_PREFIX + warehouseId, () -> lastInboundNumber(warehouseId));
+    }
+
+    private long lastInboundNumber(String warehouseId) {
         Optional<FinishedGoodsInbound> lastInbound = inboundDAO.getLastInbound(warehouseId);
         if (lastInbound.isPresent()) {
             String locationId = lastInbound.get().getInboundId();
-            Integer number = Integer.valueOf(locationId.split(INBOUND)[1]);
-            return INBOUND + (number + 1);
+            return Long.parseLong(locationId.split(INBOUND)[1]);
         }
-        return FIRST_INBOUND_ID;
-
+        return 0;
     }
 }
@@ -9,15 +9,21 @@ import org.habitbev.warehousemanagement.entities.outbound.StartOutboundRequest;
 
 import java.util.Optional;
 
+/**
+ * generates outbound ids warehouse wise from leased id blocks, the last outbound seeds the counter of a warehouse once.
+ */
 public class WarehouseWiseIncrementalOutboundIdGenerator implements OutboundIdGenerator<StartOutboundRequest> {
 
     public static final String OUTBOUND = "OUTBOUND-";
     public static final String FIRST_OUTBOUND_ID = "OUTBOUND-1";
+    private static final String COUNTER_PREFIX = "OUTBOUND<%>";
     OutboundDAO outboundDAO;
+    LeasedIdBlockAllocator leasedIdBlockAllocator;
 
     @Inject
-    public WarehouseWiseIncrementalOutboundIdGenerator(@Named("dynamoDbImpl") OutboundDAO outboundDAO) {
+    public WarehouseWiseIncrementalOutboundIdGenerator(@Named("dynamoDbImpl") OutboundDAO outboundDAO, LeasedIdBlockAllocator leasedIdBlockAllocator) {
         this.outboundDAO = outboundDAO;
+        this.leasedIdBlockAllocator = leasedIdBlockAllocator;
     }
 
     @Override
@@ -26,13 +32,15 @@ public class WarehouseWiseIncrementalOutboundIdGenerator implements OutboundIdGe
         Preconditions.checkArgument(startOutboundRequest != null,
                 "warehouseWiseIncrementalOutboundIdGenerator.startOutboundRequest cannot be null");
         String warehouseId = startOutboundRequest.getWarehouseId();
+        return OUTBOUND + leasedIdBlockAllocator.next(COUNTER_PREFIX + warehouseId, () -> lastOutboundNumber(warehouseId));
+    }
+
+    private long lastOutboundNumber(String warehouseId) {
         Optional<FinishedGoodsOutbound> lastOutbound = outboundDAO.getLastOutbound(warehouseId);
         if (lastOutbound.isPresent()) {
             String locationId = lastOutbound.get().getOutboundId();
-            Integer number = Integer.valueOf(locationId.split(OUTBOUND)[1]);
-            return OUTBOUND + (number + 1);
+            return Long.parseLong(locationId.split(OUTBOUND)[1]);
         }
-        return FIRST_OUTBOUND_ID;
-
+        return 0;
     }
 }
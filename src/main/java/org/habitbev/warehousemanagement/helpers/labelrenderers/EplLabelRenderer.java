@@ -0,0 +1,76 @@
+package org.habitbev.warehousemanagement.helpers.labelrenderers;
+
+import com.google.common.base.Preconditions;
+import com.google.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.habitbev.warehousemanagement.entities.ThermalLabelStock;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * EPL2 for older zebra/eltron thermal printers. Label size and gap are set once, then every label is a four line block.
+ * Label size and gap come from the thermal label roll in ThermalLabelStock, not from the sheet layout of the pdf labels.
+ */
+@Slf4j
+public class EplLabelRenderer implements LabelRenderer {
+
+    private static final String CONTENT_TYPE = "text/plain";
+    private static final String FILE_EXTENSION = "epl";
+
+    int labelWidthDots;
+    int labelHeightDots;
+    int gapDots;
+
+    @Inject
+    public EplLabelRenderer(ThermalLabelStock thermalLabelStock) {
+        Preconditions.checkArgument(thermalLabelStock != null, "thermalLabelStock cannot be null");
+        this.labelWidthDots = thermalLabelStock.labelWidthDots();
+        this.labelHeightDots = thermalLabelStock.labelHeightDots();
+        this.gapDots = thermalLabelStock.gapDots();
+    }
+
+    @Override
+    public void render(List<String> valuesToEncode, String altText, OutputStream outputStream) throws IOException {
+        Preconditions.checkArgument(valuesToEncode != null, "valuesToEncode cannot be null");
+        Preconditions.checkArgument(outputStream != null, "outputStream cannot be null");
+        int x = labelWidthDots / 20;
+        int barcodeY = labelHeightDots / 10;
+        int barcodeHeight = labelHeightDots / 2;
+        int textY = labelHeightDots * 3 / 4;
+        String barcodePrefix = "B" + x + "," + barcodeY + ",0,1,2,4," + barcodeHeight + ",B,\"";
+        String textLine = "A" + x + "," + textY + ",0,3,1,1,N,\"" + quoted(altText == null ? "" : altText) + "\"\n";
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.ISO_8859_1));
+        writer.write("\nq" + labelWidthDots + "\nQ" + labelHeightDots + "," + gapDots + "\n");
+        for (String valueToEncode : valuesToEncode) {
+            writer.write("N\n");
+            writer.write(barcodePrefix);
+            writer.write(quoted(valueToEncode));
+            writer.write("\"\n");
+            writer.write(textLine);
+            writer.write("P1\n");
+        }
+        writer.flush();
+        log.info("rendered {} epl labels", valuesToEncode.size());
+    }
+
+    @Override
+    public String contentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    public String fileExtension() {
+        return FILE_EXTENSION;
+    }
+
+    private static String quoted(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
@@ -0,0 +1,21 @@
+package org.habitbev.warehousemanagement.helpers.labelrenderers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * writes one printable barcode label per value in a printer or document format.
+ */
+public interface LabelRenderer {
+
+    /**
+     * @param valuesToEncode values encoded in the barcodes, one label each, in print order
+     * @param altText        text printed on every label along with the barcode
+     */
+    void render(List<String> valuesToEncode, String altText, OutputStream outputStream) throws IOException;
+
+    String contentType();
+
+    String fileExtension();
+}
@@ -0,0 +1,172 @@
+package org.habitbev.warehousemanagement.helpers.labelrenderers;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+import com.itextpdf.barcodes.Barcode128;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import lombok.extern.slf4j.Slf4j;
+import org.habitbev.warehousemanagement.entities.BarcodeDataDTO;
+import org.habitbev.warehousemanagement.entities.LabelSheetLayout;
+import org.habitbev.warehousemanagement.utils.Utilities;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Renders code128 barcodes onto label sheets laid out by LabelSheetLayout. The ids are split into chunks of whole pages,
+ * each chunk is drawn into its own in memory pdf on the rendering pool and the chunk pages are copied into the output in id order.
+ * At most maxInFlightChunks chunks are rendering or waiting to be copied at a time, the next chunk is submitted as the oldest
+ * one is taken, so memory stays bounded by the window and not by the quantity asked for.
+ */
+@Slf4j
+public class PdfLabelRenderer implements LabelRenderer {
+
+    private static final float LABEL_FILL = 0.9f;
+    private static final String CONTENT_TYPE = "application/pdf";
+    private static final String FILE_EXTENSION = "pdf";
+
+    ExecutorService barcodeRenderingExecutorService;
+    LabelSheetLayout labelSheetLayout;
+    PageSize pageSize;
+    int chunkSize;
+    int maxInFlightChunks;
+
+    @Inject
+    public PdfLabelRenderer(@Named("barcodeRenderingExecutorService") ExecutorService barcodeRenderingExecutorService,
+                               LabelSheetLayout labelSheetLayout, @Named("barcodeRenderingChunkSize") int chunkSize,
+                               @Named("barcodeRenderingMaxInFlightChunks") int maxInFlightChunks) {
+        Preconditions.checkArgument(labelSheetLayout != null, "labelSheetLayout cannot be null");
+        Preconditions.checkArgument(chunkSize > 0, "chunkSize should be > 0");
+        Preconditions.checkArgument(maxInFlightChunks > 0, "maxInFlightChunks should be > 0");
+        this.barcodeRenderingExecutorService = barcodeRenderingExecutorService;
+        this.labelSheetLayout = labelSheetLayout;
+        this.pageSize = new PageSize(labelSheetLayout.pageWidth(), labelSheetLayout.pageHeight());
+        int labelsPerPage = labelSheetLayout.labelsPerPage();
+        this.chunkSize = (chunkSize + labelsPerPage - 1) / labelsPerPage * labelsPerPage;
+        this.maxInFlightChunks = maxInFlightChunks;
+    }
+
+    @Override
+    public void render(List<String> valuesToEncode, String altText, OutputStream outputStream) throws IOException {
+        Preconditions.checkArgument(valuesToEncode != null, "valuesToEncode cannot be null");
+        Preconditions.checkArgument(outputStream != null, "outputStream cannot be null");
+        Iterator<List<String>> chunks = Lists.partition(valuesToEncode, chunkSize).iterator();
+        Deque<CompletableFuture<byte[]>> inFlightChunks = new ArrayDeque<>(maxInFlightChunks);
+        int renderedChunks = 0;
+
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(outputStream));
+        try {
+            submitChunks(chunks, altText, inFlightChunks);
+            while (!inFlightChunks.isEmpty()) {
+                byte[] chunkPdf = join(inFlightChunks.poll());
+                submitChunks(chunks, altText, inFlightChunks);
+                copyPages(chunkPdf, pdfDoc);
+                renderedChunks++;
+            }
+        } catch (RuntimeException | IOException e) {
+            inFlightChunks.forEach(inFlightChunk -> inFlightChunk.cancel(false));
+            throw e;
+        }
+        if (pdfDoc.getNumberOfPages() == 0) {
+            pdfDoc.addNewPage(pageSize);
+        }
+        pdfDoc.close();
+        log.info("rendered {} barcodes in {} chunks", valuesToEncode.size(), renderedChunks);
+    }
+
+    @Override
+    public String contentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    public String fileExtension() {
+        return FILE_EXTENSION;
+    }
+
+    /**
+     * tops the window up to maxInFlightChunks, chunks are queued in id order.
+     */
+    private void submitChunks(Iterator<List<String>> chunks, String altText, Deque<CompletableFuture<byte[]>> inFlightChunks) {
+        while (inFlightChunks.size() < maxInFlightChunks && chunks.hasNext()) {
+            List<String> chunk = chunks.next();
+            inFlightChunks.add(CompletableFuture.supplyAsync(() -> renderChunk(chunk, altText), barcodeRenderingExecutorService));
+        }
+    }
+
+    /**
+     * one Barcode128 is reused for every label of the chunk so its font and resources are written once per chunk,
+     * each label is drawn at its slot directly on the page canvas.
+     */
+    private byte[] renderChunk(List<String> chunk, String altText) {
+        ByteArrayOutputStream chunkOutputStream = new ByteArrayOutputStream();
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(chunkOutputStream));
+        Barcode128 barcode128 = Utilities.createBarcode128(BarcodeDataDTO.builder().valueToEncode(chunk.get(0)).altText(altText)
+                .pdfDocument(pdfDoc).build());
+        PdfCanvas canvas = null;
+        for (int i = 0; i < chunk.size(); i++) {
+            int slot = i % labelSheetLayout.labelsPerPage();
+            if (slot == 0) {
+                canvas = new PdfCanvas(pdfDoc.addNewPage(pageSize));
+            }
+            barcode128.setCode(chunk.get(i));
+            placeLabel(barcode128, canvas, slot);
+        }
+        pdfDoc.close();
+        return chunkOutputStream.toByteArray();
+    }
+
+    /**
+     * scales the barcode to fit the label with some padding and centers it.
+     */
+    private void placeLabel(Barcode128 barcode128, PdfCanvas canvas, int slot) {
+        Rectangle barcodeSize = barcode128.getBarcodeSize();
+        float labelWidth = labelSheetLayout.labelWidth();
+        float labelHeight = labelSheetLayout.labelHeight();
+        float scale = Math.min(labelWidth * LABEL_FILL / barcodeSize.getWidth(), labelHeight * LABEL_FILL / barcodeSize.getHeight());
+        float x = labelSheetLayout.labelX(slot) + (labelWidth - barcodeSize.getWidth() * scale) / 2;
+        float y = labelSheetLayout.labelY(slot) + (labelHeight - barcodeSize.getHeight() * scale) / 2;
+        canvas.saveState().concatMatrix(scale, 0, 0, scale, x, y);
+        barcode128.placeBarcode(canvas, null, null);
+        canvas.restoreState();
+    }
+
+    /**
+     * copied pages are flushed right away so the merged document does not hold every page until close.
+     */
+    private void copyPages(byte[] chunkPdf, PdfDocument pdfDoc) throws IOException {
+        PdfDocument chunkDoc = new PdfDocument(new PdfReader(new ByteArrayInputStream(chunkPdf)));
+        List<PdfPage> copiedPages = chunkDoc.copyPagesTo(1, chunkDoc.getNumberOfPages(), pdfDoc);
+        chunkDoc.close();
+        copiedPages.forEach(PdfPage::flush);
+    }
+
+    private byte[] join(CompletableFuture<byte[]> renderedChunk) {
+        try {
+            return renderedChunk.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
+        }
+    }
+}
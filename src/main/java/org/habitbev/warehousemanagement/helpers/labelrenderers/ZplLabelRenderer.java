@@ -0,0 +1,110 @@
+package org.habitbev.warehousemanagement.helpers.labelrenderers;
+
+import com.google.common.base.Preconditions;
+import com.google.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.habitbev.warehousemanagement.entities.ThermalLabelStock;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * ZPL for zebra thermal printers. The label is stored once on the printer as a format with the barcode as field 1 and the
+ * alt text baked in, every label after that is a one line recall of the format with its value, about 50 bytes each.
+ * Label size comes from the thermal label roll in ThermalLabelStock, not from the sheet layout of the pdf labels.
+ */
+@Slf4j
+public class ZplLabelRenderer implements LabelRenderer {
+
+    private static final String CONTENT_TYPE = "text/plain";
+    private static final String FILE_EXTENSION = "zpl";
+    private static final String FORMAT_NAME = "R:BARCODE.ZPL";
+    private static final char HEX_INDICATOR = '_';
+
+    int labelWidthDots;
+    int labelHeightDots;
+
+    @Inject
+    public ZplLabelRenderer(ThermalLabelStock thermalLabelStock) {
+        Preconditions.checkArgument(thermalLabelStock != null, "thermalLabelStock cannot be null");
+        this.labelWidthDots = thermalLabelStock.labelWidthDots();
+        this.labelHeightDots = thermalLabelStock.labelHeightDots();
+    }
+
+    @Override
+    public void render(List<String> valuesToEncode, String altText, OutputStream outputStream) throws IOException {
+        Preconditions.checkArgument(valuesToEncode != null, "valuesToEncode cannot be null");
+        Preconditions.checkArgument(outputStream != null, "outputStream cannot be null");
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.US_ASCII));
+        writer.write(format(altText));
+        StringBuilder label = new StringBuilder(64);
+        for (String valueToEncode : valuesToEncode) {
+            label.setLength(0);
+            label.append("^XA^XF").append(FORMAT_NAME).append("^FN1");
+            appendFieldData(label, valueToEncode);
+            label.append("^FS^XZ\n");
+            writer.append(label);
+        }
+        writer.flush();
+        log.info("rendered {} zpl labels", valuesToEncode.size());
+    }
+
+    @Override
+    public String contentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    public String fileExtension() {
+        return FILE_EXTENSION;
+    }
+
+    private String format(String altText) {
+        int x = labelWidthDots / 20;
+        int barcodeY = labelHeightDots / 10;
+        int barcodeHeight = labelHeightDots / 2;
+        int textY = labelHeightDots * 3 / 4;
+        int fontHeight = Math.max(labelHeightDots / 8, 10);
+        StringBuilder format = new StringBuilder();
+        format.append("^XA^DF").append(FORMAT_NAME).append("^FS\n");
+        format.append("^CI28^PW").append(labelWidthDots).append("^LL").append(labelHeightDots).append("^LH0,0\n");
+        format.append("^FO").append(x).append(',').append(barcodeY).append("^BY2^BCN,").append(barcodeHeight).append(",Y,N,N^FN1^FS\n");
+        format.append("^FO").append(x).append(',').append(textY).append("^A0N,").append(fontHeight).append(',').append(fontHeight);
+        appendFieldData(format, altText == null ? "" : altText);
+        format.append("^FS\n^XZ\n");
+        return format.toString();
+    }
+
+    /**
+     * plain ^FD when the value is safe, otherwise ^FH^FD with ^ ~ _ and non ascii utf-8 bytes written as _XX hex.
+     */
+    static void appendFieldData(StringBuilder label, String value) {
+        if (isPlain(value)) {
+            label.append("^FD").append(value);
+            return;
+        }
+        label.append("^FH^FD");
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            if (b >= 0x20 && b < 0x7f && b != '^' && b != '~' && b != HEX_INDICATOR) {
+                label.append((char) b);
+            } else {
+                label.append(HEX_INDICATOR).append(String.format("%02X", b & 0xff));
+            }
+        }
+    }
+
+    private static boolean isPlain(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x20 || c >= 0x7f || c == '^' || c == '~' || c == HEX_INDICATOR) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,63 @@
+package org.habitbev.warehousemanagement.lambda;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Preconditions;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Base64;
+
+/**
+ * Reads the body of an api gateway proxy event and writes a proxy response straight off the lambda streams.
+ * The envelope is walked with the streaming parser skipping everything but body and isBase64Encoded, so no map of the
+ * event is built. A body sent as a json object (direct invocation) is bound in the same pass, a body string is bound
+ * from the string without an intermediate tree.
+ */
+public final class ApiGatewayStreams {
+
+    private static final String BODY = "body";
+    private static final String IS_BASE64_ENCODED = "isBase64Encoded";
+
+    private ApiGatewayStreams() {
+    }
+
+    public static <T> T readBody(ObjectMapper objectMapper, InputStream inputStream, Class<T> bodyType) throws IOException {
+        String body = null;
+        boolean base64Encoded = false;
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            Preconditions.checkArgument(parser.nextToken() == JsonToken.START_OBJECT, "event should be a json object");
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                JsonToken valueToken = parser.nextToken();
+                if (BODY.equals(fieldName) && valueToken == JsonToken.START_OBJECT) {
+                    return objectMapper.readValue(parser, bodyType);
+                } else if (BODY.equals(fieldName) && valueToken == JsonToken.VALUE_STRING) {
+                    body = parser.getText();
+                } else if (IS_BASE64_ENCODED.equals(fieldName) && valueToken == JsonToken.VALUE_TRUE) {
+                    base64Encoded = true;
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        Preconditions.checkArgument(body != null, "body cannot be null");
+        if (base64Encoded) {
+            return objectMapper.readValue(Base64.getDecoder().decode(body), bodyType);
+        }
+        return objectMapper.readValue(body, bodyType);
+    }
+
+    public static void writeResponse(ObjectMapper objectMapper, OutputStream outputStream, int statusCode, String body) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.writeStartObject();
+            generator.writeNumberField("statusCode", statusCode);
+            generator.writeStringField(BODY, body);
+            generator.writeBooleanField(IS_BASE64_ENCODED, false);
+            generator.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.habitbev.warehousemanagement.lambda;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableMap;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.habitbev.warehousemanagement.guice.InjectorHolder;
+import org.habitbev.warehousemanagement.lambda.barcodes.BulkContainerBarcodesHandler;
+import org.habitbev.warehousemanagement.lambda.barcodes.SKUBulkBarcodesGenerationHandler;
+import org.habitbev.warehousemanagement.lambda.container.AddContainerHandler;
+import org.habitbev.warehousemanagement.lambda.container.GetContainerIdsHandler;
+import org.habitbev.warehousemanagement.lambda.inbound.EndInboundHandler;
+import org.habitbev.warehousemanagement.lambda.inbound.StartInboundHandler;
+import org.habitbev.warehousemanagement.lambda.inventory.GetContainerInventoryHandler;
+import org.habitbev.warehousemanagement.lambda.inventory.GetStockLevelHandler;
+import org.habitbev.warehousemanagement.lambda.inventory.InboundInventoryHandler;
+import org.habitbev.warehousemanagement.lambda.inventory.OutboundInventoryHandler;
+import org.habitbev.warehousemanagement.lambda.outbound.EndOutboundHandler;
+import org.habitbev.warehousemanagement.lambda.outbound.StartOutboundHandler;
+
+import java.util.Map;
+
+/**
+ * Single entry point for all warehouse operations, so one warm pool of containers serves every route.
+ * The action is read from the {action} path parameter, or from a top level "action" key for direct invocations,
+ * and the request is handed to the per operation handler unchanged. Handlers are built on first use over the
+ * shared injector, the per operation functions keep working as before.
+ */
+@Slf4j
+public class WarehouseRouterHandler implements RequestHandler<Map<String, Object>, APIGatewayProxyResponseEvent> {
+
+    private static final String ACTION = "action";
+    private static final String PATH_PARAMETERS = "pathParameters";
+
+    private final Map<String, Supplier<RequestHandler<Map<String, Object>, APIGatewayProxyResponseEvent>>> routes;
+
+    public WarehouseRouterHandler() {
+        this(operationRoutes());
+    }
+
+    WarehouseRouterHandler(Map<String, Supplier<RequestHandler<Map<String, Object>, APIGatewayProxyResponseEvent>>> routes) {
+        this.routes = ImmutableMap.copyOf(routes);
+    }
+
+    private static Map<String, Supplier<RequestHandler<Map<String, Object>, APIGatewayProxyResponseEvent>>> operationRoutes() {
+        InjectorHolder.getInjector();
+        return ImmutableMap.<String, Supplier<RequestHandler<Map<String, Object>, APIGatewayProxyResponseEvent>>>builder()
+                .put("startInbound", Suppliers.memoize(StartInboundHandler::new))
+                .put("endInbound", Suppliers.memoize(EndInboundHandler::new))
+                .put("inboundInventory", Suppliers.memoize(InboundInventoryHandler::new))
+                .put("outboundInventory", Suppliers.memoize(OutboundInventoryHandler::new))
+                .put("getStockLevel", Suppliers.memoize(GetStockLevelHandler::new))
+                .put("getContainerInventory", Suppliers.memoize(GetContainerInventoryHandler::new))
+                .put("startOutbound", Suppliers.memoize(StartOutboundHandler::new))
+                .put("endOutbound", Suppliers.memoize(EndOutboundHandler::new))
+                .put("addContainer", Suppliers.memoize(AddContainerHandler::new))
+                .put("getContainerIds", Suppliers.memoize(GetContainerIdsHandler::new))
+                .put("skuBarcodes", Suppliers.memoize(SKUBulkBarcodesGenerationHandler::new))
+                .put("containerBarcodes", Suppliers.memoize(BulkContainerBarcodesHandler::new))
+                .build();
+    }
+
+    @Override
+    public APIGatewayProxyResponseEvent handleRequest(Map<String, Object> input, Context context) {
+
+        String action = action(input);
+        Supplier<RequestHandler<Map<String, Object>, APIGatewayProxyResponseEvent>> route = action == null ? null : routes.get(action);
+        if (route == null) {
+            log.error("no route for action {}", action);
+            return new APIGatewayProxyResponseEvent()
+                    .withStatusCode(404)
+                    .withBody("unknown action " + action)
+                    .withIsBase64Encoded(false);
+        }
+        return route.get().handleRequest(input, context);
+    }
+
+    private String action(Map<String, Object> input) {
+        if (input == null) {
+            return null;
+        }
+        Object pathParameters = input.get(PATH_PARAMETERS);
+        if (pathParameters instanceof Map && ((Map<?, ?>) pathParameters).get(ACTION) != null) {
+            return String.valueOf(((Map<?, ?>) pathParameters).get(ACTION));
+        }
+        Object action = input.get(ACTION);
+        return action == null || StringUtils.isBlank(String.valueOf(action)) ? null : String.valueOf(action);
+    }
+}
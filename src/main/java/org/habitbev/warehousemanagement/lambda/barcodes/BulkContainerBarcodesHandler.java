@@ -3,12 +3,56 @@ package org.habitbev.warehousemanagement.lambda.barcodes;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.Injector;
+import lombok.extern.slf4j.Slf4j;
+import org.habitbev.warehousemanagement.entities.container.AddContainersRequest;
+import org.habitbev.warehousemanagement.entities.container.AddContainersResponse;
+import org.habitbev.warehousemanagement.guice.InjectorHolder;
+import org.habitbev.warehousemanagement.service.BulkContainerBarcodesCreationService;
 
 import java.util.Map;
 
+/**
+ * Takes in a bulk add containers request, adds the containers and returns their ids with the url of their barcode labels.
+ */
+@Slf4j
 public class BulkContainerBarcodesHandler implements RequestHandler<Map<String, Object>, APIGatewayProxyResponseEvent> {
+
+    private BulkContainerBarcodesCreationService bulkContainerBarcodesCreationService;
+    private ObjectMapper objectMapper;
+    private Injector injector;
+
+    public BulkContainerBarcodesHandler() {
+        this.injector = InjectorHolder.getInjector();
+        this.bulkContainerBarcodesCreationService = injector.getInstance(BulkContainerBarcodesCreationService.class);
+        this.objectMapper = injector.getInstance(ObjectMapper.class);
+    }
+
     @Override
-    public APIGatewayProxyResponseEvent handleRequest(Map<String, Object> stringObjectMap, Context context) {
-        return null;
+    public APIGatewayProxyResponseEvent handleRequest(Map<String, Object> input, Context context) {
+
+        try {
+            AddContainersRequest addContainersRequest = objectMapper.readValue(String.valueOf(input.get("body")),
+                    AddContainersRequest.class);
+            AddContainersResponse addContainersResponse = bulkContainerBarcodesCreationService.generate(addContainersRequest);
+            return new APIGatewayProxyResponseEvent()
+                    .withStatusCode(200)
+                    .withBody(objectMapper.writeValueAsString(addContainersResponse))
+                    .withIsBase64Encoded(false);
+        } catch (IllegalArgumentException e) {
+            log.error("invalid input for bulk add containers request", e);
+            return new APIGatewayProxyResponseEvent()
+                    .withStatusCode(400)
+                    .withBody(e.getMessage())
+                    .withIsBase64Encoded(false);
+        } catch (Exception e) {
+            log.error("Exception occurred while adding containers", e);
+            String causeMessage = e.getCause() != null ? e.getCause().getMessage() : "";
+            return new APIGatewayProxyResponseEvent()
+                    .withStatusCode(500)
+                    .withBody(e.getMessage() + causeMessage)
+                    .withIsBase64Encoded(false);
+        }
     }
 }
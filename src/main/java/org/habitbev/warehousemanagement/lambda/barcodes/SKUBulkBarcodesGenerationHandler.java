@@ -5,12 +5,11 @@ import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Preconditions;
-import com.google.inject.Guice;
 import com.google.inject.Injector;
 import lombok.extern.slf4j.Slf4j;
 import org.habitbev.warehousemanagement.entities.SKUBarcodesGenerationRequest;
 import org.habitbev.warehousemanagement.service.SKUBulkBarcodesCreationService;
-import org.habitbev.warehousemanagement.guice.MainModule;
+import org.habitbev.warehousemanagement.guice.InjectorHolder;
 
 import java.util.Map;
 
@@ -23,7 +22,7 @@ public class SKUBulkBarcodesGenerationHandler implements RequestHandler<Map<Stri
 
 
     public SKUBulkBarcodesGenerationHandler() {
-        this.injector = Guice.createInjector(new MainModule());
+        this.injector = InjectorHolder.getInjector();
         this.SKUBulkBarcodesCreationService = injector.getInstance(SKUBulkBarcodesCreationService.class);
         this.objectMapper = injector.getInstance(ObjectMapper.class);
 
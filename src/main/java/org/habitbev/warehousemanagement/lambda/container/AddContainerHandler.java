@@ -4,12 +4,11 @@ import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.inject.Guice;
 import com.google.inject.Injector;
 import lombok.extern.slf4j.Slf4j;
 import org.habitbev.warehousemanagement.service.ContainerService;
 import org.habitbev.warehousemanagement.entities.container.AddContainerRequest;
-import org.habitbev.warehousemanagement.guice.MainModule;
+import org.habitbev.warehousemanagement.guice.InjectorHolder;
 
 import java.util.Map;
 
@@ -26,7 +25,7 @@ public class AddContainerHandler implements RequestHandler<Map<String, Object>,
     private Injector injector;
 
     public AddContainerHandler() {
-        this.injector = Guice.createInjector(new MainModule());
+        this.injector = InjectorHolder.getInjector();
         System.out.println("injection started1");
         this.containerService = injector.getInstance(ContainerService.class);
         System.out.println("injection started2");
@@ -0,0 +1,72 @@
+package org.habitbev.warehousemanagement.lambda.container;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.Injector;
+import lombok.extern.slf4j.Slf4j;
+import org.habitbev.warehousemanagement.entities.BackfillResult;
+import org.habitbev.warehousemanagement.guice.InjectorHolder;
+import org.habitbev.warehousemanagement.service.SequenceNumberBackfillService;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * one off job setting sequenceNumber on existing containers / fg-inbounds / fg-outbounds items.
+ * input: tableName, optional totalSegments (defaults to DEFAULT_TOTAL_SEGMENTS) and segmentTokens of the previous run.
+ * The run stops shortly before the lambda times out, invoke it again with the returned segmentTokens until they are empty.
+ */
+@Slf4j
+public class BackfillSequenceNumbersHandler implements RequestHandler<Map<String, Object>, APIGatewayProxyResponseEvent> {
+
+    public static final String EMPTY_STRING = "";
+    public static final int DEFAULT_TOTAL_SEGMENTS = 8;
+    private static final long TIMEOUT_MARGIN_MILLIS = 30000;
+    private SequenceNumberBackfillService sequenceNumberBackfillService;
+    private ObjectMapper objectMapper;
+
+    private Injector injector;
+
+    public BackfillSequenceNumbersHandler() {
+        this.injector = InjectorHolder.getInjector();
+        this.sequenceNumberBackfillService = injector.getInstance(SequenceNumberBackfillService.class);
+        this.objectMapper = injector.getInstance(ObjectMapper.class);
+    }
+
+    @Override
+    public APIGatewayProxyResponseEvent handleRequest(Map<String, Object> input, Context context) {
+        try {
+            String tableName = (String) input.get("tableName");
+            Object totalSegmentsInput = input.get("totalSegments");
+            int totalSegments = totalSegmentsInput == null ? DEFAULT_TOTAL_SEGMENTS : Integer.parseInt(String.valueOf(totalSegmentsInput));
+            Map<Integer, String> segmentTokens = null;
+            if (input.get("segmentTokens") != null) {
+                segmentTokens = new HashMap<>();
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) input.get("segmentTokens")).entrySet()) {
+                    segmentTokens.put(Integer.parseInt(String.valueOf(entry.getKey())), (String) entry.getValue());
+                }
+            }
+            long deadlineMillis = System.currentTimeMillis() + context.getRemainingTimeInMillis() - TIMEOUT_MARGIN_MILLIS;
+            BackfillResult result = sequenceNumberBackfillService.backfill(tableName, totalSegments, segmentTokens, deadlineMillis);
+            return new APIGatewayProxyResponseEvent()
+                    .withStatusCode(200)
+                    .withBody(objectMapper.writeValueAsString(result))
+                    .withIsBase64Encoded(false);
+        } catch (IllegalArgumentException e) {
+            log.error("invalid input", e);
+            return new APIGatewayProxyResponseEvent()
+                    .withStatusCode(400)
+                    .withBody(e.getMessage())
+                    .withIsBase64Encoded(false);
+        } catch (Exception e) {
+            log.error("Exception occurred while backfilling sequence numbers", e);
+            String causeMessage = e.getCause() != null ? e.getCause().getMessage() : EMPTY_STRING;
+            return new APIGatewayProxyResponseEvent()
+                    .withStatusCode(500)
+                    .withBody(e.getMessage() + causeMessage)
+                    .withIsBase64Encoded(false);
+        }
+    }
+}
@@ -4,9 +4,8 @@ import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.inject.Guice;
 import com.google.inject.Injector;
-import org.habitbev.warehousemanagement.guice.MainModule;
+import org.habitbev.warehousemanagement.guice.InjectorHolder;
 import org.habitbev.warehousemanagement.service.ContainerService;
 
 import java.util.Map;
@@ -19,7 +18,7 @@ public class GetContainerIdsHandler implements RequestHandler<Map<String, Object
     private Injector injector;
 
     public GetContainerIdsHandler(ContainerService containerService, ObjectMapper objectMapper, Injector injector) {
-        this.injector = Guice.createInjector(new MainModule());
+        this.injector = InjectorHolder.getInjector();
         this.containerService = injector.getInstance(ContainerService.class);
         this.objectMapper = injector.getInstance(ObjectMapper.class);
     }
@@ -5,11 +5,10 @@ import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Preconditions;
-import com.google.inject.Guice;
 import com.google.inject.Injector;
 import lombok.extern.slf4j.Slf4j;
 import org.habitbev.warehousemanagement.entities.inbound.EndInboundRequest;
-import org.habitbev.warehousemanagement.guice.MainModule;
+import org.habitbev.warehousemanagement.guice.InjectorHolder;
 import org.habitbev.warehousemanagement.service.InboundService;
 
 import java.util.HashMap;
@@ -23,7 +22,7 @@ public class EndInboundHandler implements RequestHandler<Map<String, Object>, AP
     private Injector injector;
 
     public EndInboundHandler() {
-        this.injector = Guice.createInjector(new MainModule());
+        this.injector = InjectorHolder.getInjector();
         this.inboundService = injector.getInstance(InboundService.class);
         this.objectMapper = injector.getInstance(ObjectMapper.class);
     }
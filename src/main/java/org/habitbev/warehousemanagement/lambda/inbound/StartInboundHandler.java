@@ -5,12 +5,11 @@ import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Preconditions;
-import com.google.inject.Guice;
 import com.google.inject.Injector;
 import lombok.extern.slf4j.Slf4j;
 import org.habitbev.warehousemanagement.entities.container.AddContainerRequest;
 import org.habitbev.warehousemanagement.entities.inbound.StartInboundRequest;
-import org.habitbev.warehousemanagement.guice.MainModule;
+import org.habitbev.warehousemanagement.guice.InjectorHolder;
 import org.habitbev.warehousemanagement.service.InboundService;
 
 import java.util.HashMap;
@@ -23,7 +22,7 @@ public class StartInboundHandler implements RequestHandler<Map<String, Object>,
     private Injector injector;
 
     public StartInboundHandler() {
-        this.injector = Guice.createInjector(new MainModule());
+        this.injector = InjectorHolder.getInjector();
         this.inboundService = injector.getInstance(InboundService.class);
         this.objectMapper = injector.getInstance(ObjectMapper.class);
     }
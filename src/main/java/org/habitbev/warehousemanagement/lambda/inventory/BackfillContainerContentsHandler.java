@@ -0,0 +1,71 @@
+package org.habitbev.warehousemanagement.lambda.inventory;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.Injector;
+import lombok.extern.slf4j.Slf4j;
+import org.habitbev.warehousemanagement.entities.BackfillResult;
+import org.habitbev.warehousemanagement.guice.InjectorHolder;
+import org.habitbev.warehousemanagement.service.ContainerContentsBackfillService;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * one off job setting warehouseContainerId on inventory items already in a container when the container contents index was added.
+ * input: optional totalSegments (defaults to DEFAULT_TOTAL_SEGMENTS) and segmentTokens of the previous run.
+ * The run stops shortly before the lambda times out, invoke it again with the returned segmentTokens until they are empty.
+ */
+@Slf4j
+public class BackfillContainerContentsHandler implements RequestHandler<Map<String, Object>, APIGatewayProxyResponseEvent> {
+
+    public static final String EMPTY_STRING = "";
+    public static final int DEFAULT_TOTAL_SEGMENTS = 8;
+    private static final long TIMEOUT_MARGIN_MILLIS = 30000;
+    private ContainerContentsBackfillService containerContentsBackfillService;
+    private ObjectMapper objectMapper;
+
+    private Injector injector;
+
+    public BackfillContainerContentsHandler() {
+        this.injector = InjectorHolder.getInjector();
+        this.containerContentsBackfillService = injector.getInstance(ContainerContentsBackfillService.class);
+        this.objectMapper = injector.getInstance(ObjectMapper.class);
+    }
+
+    @Override
+    public APIGatewayProxyResponseEvent handleRequest(Map<String, Object> input, Context context) {
+        try {
+            Object totalSegmentsInput = input.get("totalSegments");
+            int totalSegments = totalSegmentsInput == null ? DEFAULT_TOTAL_SEGMENTS : Integer.parseInt(String.valueOf(totalSegmentsInput));
+            Map<Integer, String> segmentTokens = null;
+            if (input.get("segmentTokens") != null) {
+                segmentTokens = new HashMap<>();
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) input.get("segmentTokens")).entrySet()) {
+                    segmentTokens.put(Integer.parseInt(String.valueOf(entry.getKey())), (String) entry.getValue());
+                }
+            }
+            long deadlineMillis = System.currentTimeMillis() + context.getRemainingTimeInMillis() - TIMEOUT_MARGIN_MILLIS;
+            BackfillResult result = containerContentsBackfillService.backfill(totalSegments, segmentTokens, deadlineMillis);
+            return new APIGatewayProxyResponseEvent()
+                    .withStatusCode(200)
+                    .withBody(objectMapper.writeValueAsString(result))
+                    .withIsBase64Encoded(false);
+        } catch (IllegalArgumentException e) {
+            log.error("invalid input", e);
+            return new APIGatewayProxyResponseEvent()
+                    .withStatusCode(400)
+                    .withBody(e.getMessage())
+                    .withIsBase64Encoded(false);
+        } catch (Exception e) {
+            log.error("Exception occurred while backfilling container contents", e);
+            String causeMessage = e.getCause() != null ? e.getCause().getMessage() : EMPTY_STRING;
+            return new APIGatewayProxyResponseEvent()
+                    .withStatusCode(500)
+                    .withBody(e.getMessage() + causeMessage)
+                    .withIsBase64Encoded(false);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.habitbev.warehousemanagement.lambda.inventory;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.google.inject.Injector;
+import lombok.extern.slf4j.Slf4j;
+import org.habitbev.warehousemanagement.guice.InjectorHolder;
+import org.habitbev.warehousemanagement.service.InventoryCountsService;
+
+import java.util.Map;
+
+/**
+ * one off job seeding the inventory counts table from the inventory table with a parallel scan.
+ * Only sku warehouse pairs without a counts item are written, counts already kept by inventory transactions stay as they are.
+ * totalSegments can be passed in the input, defaults to DEFAULT_TOTAL_SEGMENTS.
+ */
+@Slf4j
+public class BackfillInventoryCountsHandler implements RequestHandler<Map<String, Object>, APIGatewayProxyResponseEvent> {
+
+    public static final String EMPTY_STRING = "";
+    public static final int DEFAULT_TOTAL_SEGMENTS = 8;
+    private InventoryCountsService inventoryCountsService;
+
+    private Injector injector;
+
+    public BackfillInventoryCountsHandler() {
+        this.injector = InjectorHolder.getInjector();
+        this.inventoryCountsService = injector.getInstance(InventoryCountsService.class);
+    }
+
+    @Override
+    public APIGatewayProxyResponseEvent handleRequest(Map<String, Object> input, Context context) {
+        try {
+            Object totalSegmentsInput = input.get("totalSegments");
+            int totalSegments = totalSegmentsInput == null ? DEFAULT_TOTAL_SEGMENTS : Integer.parseInt(String.valueOf(totalSegmentsInput));
+            int backfilledCounts = inventoryCountsService.backfill(totalSegments);
+            return new APIGatewayProxyResponseEvent()
+                    .withStatusCode(200)
+                    .withBody(String.valueOf(backfilledCounts))
+                    .withIsBase64Encoded(false);
+        } catch (IllegalArgumentException e) {
+            log.error("invalid input", e);
+            return new APIGatewayProxyResponseEvent()
+                    .withStatusCode(400)
+                    .withBody(e.getMessage())
+                    .withIsBase64Encoded(false);
+        } catch (Exception e) {
+            log.error("Exception occurred while backfilling inventory counts", e);
+            String causeMessage = e.getCause() != null ? e.getCause().getMessage() : EMPTY_STRING;
+            return new APIGatewayProxyResponseEvent()
+                    .withStatusCode(500)
+                    .withBody(e.getMessage() + causeMessage)
+                    .withIsBase64Encoded(false);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package org.habitbev.warehousemanagement.lambda.inventory;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.Injector;
+import lombok.extern.slf4j.Slf4j;
+import org.habitbev.warehousemanagement.entities.PaginatedResponse;
+import org.habitbev.warehousemanagement.entities.inventory.ContainerInventoryDTO;
+import org.habitbev.warehousemanagement.entities.inventory.GetContainerInventoryRequest;
+import org.habitbev.warehousemanagement.guice.InjectorHolder;
+import org.habitbev.warehousemanagement.service.InventoryService;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * paginated contents of a container. warehouseId, containerId, pageToken, limit and the optional
+ * fromModifiedTime/toModifiedTime filters are read from the query string. Items come in uniqueProductId order.
+ */
+@Slf4j
+public class GetContainerInventoryHandler implements RequestHandler<Map<String, Object>, APIGatewayProxyResponseEvent> {
+
+    public static final String EMPTY_STRING = "";
+    private InventoryService inventoryService;
+    private ObjectMapper objectMapper;
+
+    private Injector injector;
+
+    public GetContainerInventoryHandler() {
+        this.injector = InjectorHolder.getInjector();
+        this.inventoryService = injector.getInstance(InventoryService.class);
+        this.objectMapper = injector.getInstance(ObjectMapper.class);
+    }
+
+    @Override
+    public APIGatewayProxyResponseEvent handleRequest(Map<String, Object> input, Context context) {
+        try {
+            Object queryParameters = input.get("queryStringParameters") == null ? Collections.emptyMap() : input.get("queryStringParameters");
+            GetContainerInventoryRequest getContainerInventoryRequest = objectMapper.convertValue(queryParameters, GetContainerInventoryRequest.class);
+            PaginatedResponse<ContainerInventoryDTO> containerInventory = inventoryService.getContainerInventory(getContainerInventoryRequest);
+            return new APIGatewayProxyResponseEvent()
+                    .withStatusCode(200)
+                    .withBody(objectMapper.writeValueAsString(containerInventory))
+                    .withIsBase64Encoded(false);
+        } catch (IllegalArgumentException e) {
+            log.error("invalid input", e);
+            return new APIGatewayProxyResponseEvent()
+                    .withStatusCode(400)
+                    .withBody(e.getMessage())
+                    .withIsBase64Encoded(false);
+        } catch (Exception e) {
+            log.error("Exception occurred while getting container inventory", e);
+            String causeMessage = e.getCause() != null ? e.getCause().getMessage() : EMPTY_STRING;
+            return new APIGatewayProxyResponseEvent()
+                    .withStatusCode(500)
+                    .withBody(e.getMessage() + causeMessage)
+                    .withIsBase64Encoded(false);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.habitbev.warehousemanagement.lambda.inventory;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.Injector;
+import lombok.extern.slf4j.Slf4j;
+import org.habitbev.warehousemanagement.entities.inventory.GetStockLevelRequest;
+import org.habitbev.warehousemanagement.entities.inventory.StockLevelDTO;
+import org.habitbev.warehousemanagement.guice.InjectorHolder;
+import org.habitbev.warehousemanagement.service.InventoryCountsService;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * stock level of a sku in a warehouse, skuCode and warehouseId are read from the query string.
+ */
+@Slf4j
+public class GetStockLevelHandler implements RequestHandler<Map<String, Object>, APIGatewayProxyResponseEvent> {
+
+    public static final String EMPTY_STRING = "";
+    private InventoryCountsService inventoryCountsService;
+    private ObjectMapper objectMapper;
+
+    private Injector injector;
+
+    public GetStockLevelHandler() {
+        this.injector = InjectorHolder.getInjector();
+        this.inventoryCountsService = injector.getInstance(InventoryCountsService.class);
+        this.objectMapper = injector.getInstance(ObjectMapper.class);
+    }
+
+    @Override
+    public APIGatewayProxyResponseEvent handleRequest(Map<String, Object> input, Context context) {
+        try {
+            Object queryParameters = input.get("queryStringParameters") == null ? Collections.emptyMap() : input.get("queryStringParameters");
+            GetStockLevelRequest getStockLevelRequest = objectMapper.convertValue(queryParameters, GetStockLevelRequest.class);
+            StockLevelDTO stockLevel = inventoryCountsService.getStockLevel(getStockLevelRequest.getSkuCode(), getStockLevelRequest.getWarehouseId());
+            return new APIGatewayProxyResponseEvent()
+                    .withStatusCode(200)
+                    .withBody(objectMapper.writeValueAsString(stockLevel))
+                    .withIsBase64Encoded(false);
+        } catch (IllegalArgumentException e) {
+            log.error("invalid input", e);
+            return new APIGatewayProxyResponseEvent()
+                    .withStatusCode(400)
+                    .withBody(e.getMessage())
+                    .withIsBase64Encoded(false);
+        } catch (Exception e) {
+            log.error("Exception occurred while getting stock level", e);
+            String causeMessage = e.getCause() != null ? e.getCause().getMessage() : EMPTY_STRING;
+            return new APIGatewayProxyResponseEvent()
+                    .withStatusCode(500)
+                    .withBody(e.getMessage() + causeMessage)
+                    .withIsBase64Encoded(false);
+        }
+    }
+}
@@ -4,12 +4,11 @@ import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.inject.Guice;
 import com.google.inject.Injector;
 import lombok.extern.slf4j.Slf4j;
 import org.habitbev.warehousemanagement.entities.inventory.InventoryInboundRequest;
 import org.habitbev.warehousemanagement.entities.inventory.InventoryInboundRequestDTO;
-import org.habitbev.warehousemanagement.guice.MainModule;
+import org.habitbev.warehousemanagement.guice.InjectorHolder;
 import org.habitbev.warehousemanagement.service.InventoryService;
 
 import java.util.Map;
@@ -24,7 +23,7 @@ public class InboundInventoryHandler implements RequestHandler<Map<String, Objec
     private Injector injector;
 
     public InboundInventoryHandler() {
-        this.injector = Guice.createInjector(new MainModule());
+        this.injector = InjectorHolder.getInjector();
         this.inventoryService = injector.getInstance(InventoryService.class);
         this.objectMapper = injector.getInstance(ObjectMapper.class);
 
@@ -0,0 +1,51 @@
+package org.habitbev.warehousemanagement.lambda.inventory;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.Injector;
+import lombok.extern.slf4j.Slf4j;
+import org.habitbev.warehousemanagement.entities.inventory.InventoryInboundRequest;
+import org.habitbev.warehousemanagement.guice.InjectorHolder;
+import org.habitbev.warehousemanagement.lambda.ApiGatewayStreams;
+import org.habitbev.warehousemanagement.service.InventoryService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * InboundInventoryHandler reading the api gateway event off the input stream, for large scan payloads.
+ */
+@Slf4j
+public class InboundInventoryStreamHandler implements RequestStreamHandler {
+
+    public static final String EMPTY_STRING = "";
+    private InventoryService inventoryService;
+    private ObjectMapper objectMapper;
+
+    private Injector injector;
+
+    public InboundInventoryStreamHandler() {
+        this.injector = InjectorHolder.getInjector();
+        this.inventoryService = injector.getInstance(InventoryService.class);
+        this.objectMapper = injector.getInstance(ObjectMapper.class);
+    }
+
+    @Override
+    public void handleRequest(InputStream inputStream, OutputStream outputStream, Context context) throws IOException {
+        try {
+            InventoryInboundRequest inventoryInboundRequest = ApiGatewayStreams.readBody(objectMapper, inputStream,
+                    InventoryInboundRequest.class);
+            inventoryService.inbound(inventoryInboundRequest);
+            ApiGatewayStreams.writeResponse(objectMapper, outputStream, 200, "success");
+        } catch (IllegalArgumentException e) {
+            log.error("invalid input", e);
+            ApiGatewayStreams.writeResponse(objectMapper, outputStream, 400, e.getMessage());
+        } catch (Exception e) {
+            log.error("Exception occurred while inbounding", e);
+            String causeMessage = e.getCause() != null ? e.getCause().getMessage() : EMPTY_STRING;
+            ApiGatewayStreams.writeResponse(objectMapper, outputStream, 500, e.getMessage() + causeMessage);
+        }
+    }
+}
@@ -4,11 +4,10 @@ import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.inject.Guice;
 import com.google.inject.Injector;
 import lombok.extern.slf4j.Slf4j;
 import org.habitbev.warehousemanagement.entities.inventory.InventoryOutboundRequest;
-import org.habitbev.warehousemanagement.guice.MainModule;
+import org.habitbev.warehousemanagement.guice.InjectorHolder;
 import org.habitbev.warehousemanagement.service.InventoryService;
 
 import java.util.Map;
@@ -23,7 +22,7 @@ public class OutboundInventoryHandler implements RequestHandler<Map<String, Obje
     private Injector injector;
 
     public OutboundInventoryHandler() {
-        this.injector = Guice.createInjector(new MainModule());
+        this.injector = InjectorHolder.getInjector();
         this.inventoryService = injector.getInstance(InventoryService.class);
         this.objectMapper = injector.getInstance(ObjectMapper.class);
 
@@ -5,11 +5,10 @@ import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Preconditions;
-import com.google.inject.Guice;
 import com.google.inject.Injector;
 import lombok.extern.slf4j.Slf4j;
 import org.habitbev.warehousemanagement.entities.outbound.EndOutboundRequest;
-import org.habitbev.warehousemanagement.guice.MainModule;
+import org.habitbev.warehousemanagement.guice.InjectorHolder;
 import org.habitbev.warehousemanagement.service.OutboundService;
 
 import java.util.HashMap;
@@ -23,7 +22,7 @@ public class EndOutboundHandler implements RequestHandler<Map<String, Object>, A
     private Injector injector;
 
     public EndOutboundHandler() {
-        this.injector = Guice.createInjector(new MainModule());
+        this.injector = InjectorHolder.getInjector();
         this.outboundService = injector.getInstance(OutboundService.class);
         this.objectMapper = injector.getInstance(ObjectMapper.class);
     }
@@ -0,0 +1,59 @@
+package org.habitbev.warehousemanagement.lambda.runtime;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Preconditions;
+import org.apache.commons.lang3.StringUtils;
+import org.habitbev.warehousemanagement.guice.InjectorHolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Builds one of the lambda handlers by class name and feeds it raw invocation events, the part of the managed java
+ * runtime the custom bootstrap has to do itself. Every RequestHandler here takes the api gateway event as a map,
+ * RequestStreamHandlers get the event bytes as is.
+ */
+class HandlerInvoker {
+
+    static final String NATIVE_IMAGE_CODE_PROPERTY = "org.graalvm.nativeimage.imagecode";
+
+    private final Object handler;
+    private final ObjectMapper objectMapper;
+
+    HandlerInvoker(String handlerName) throws ReflectiveOperationException {
+        Preconditions.checkArgument(StringUtils.isNotBlank(handlerName), "handler cannot be blank");
+        if (System.getProperty(NATIVE_IMAGE_CODE_PROPERTY) != null) {
+            // no class definition at run time in a native image, guice has to stay on plain reflection,
+            // and there are no class files to read source line numbers from
+            System.setProperty("guice_bytecode_gen_option", "DISABLED");
+            System.setProperty("guice_include_stack_traces", "OFF");
+        }
+        Class<?> handlerClass = Class.forName(StringUtils.substringBefore(handlerName, "::"));
+        Preconditions.checkArgument(RequestHandler.class.isAssignableFrom(handlerClass)
+                || RequestStreamHandler.class.isAssignableFrom(handlerClass), handlerName + " is not a lambda handler");
+        this.handler = handlerClass.getDeclaredConstructor().newInstance();
+        this.objectMapper = InjectorHolder.getInjector().getInstance(ObjectMapper.class).copy()
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    }
+
+    @SuppressWarnings("unchecked")
+    byte[] invoke(byte[] event, Context context) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        if (handler instanceof RequestStreamHandler) {
+            ((RequestStreamHandler) handler).handleRequest(new ByteArrayInputStream(event), outputStream, context);
+            return outputStream.toByteArray();
+        }
+        Map<String, Object> input = objectMapper.readValue(event, new TypeReference<Map<String, Object>>() {
+        });
+        Object output = ((RequestHandler<Map<String, Object>, Object>) handler).handleRequest(input, context);
+        objectMapper.writeValue(outputStream, output);
+        return outputStream.toByteArray();
+    }
+}
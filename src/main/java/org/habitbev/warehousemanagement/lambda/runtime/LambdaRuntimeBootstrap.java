@@ -0,0 +1,145 @@
+package org.habitbev.warehousemanagement.lambda.runtime;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.habitbev.warehousemanagement.lambda.WarehouseRouterHandler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Arrays;
+
+/**
+ * Entry point of the native image for the provided.al2 custom runtime, built as the bootstrap executable by the native
+ * maven profile. Builds the handler named by the function's handler setting (the router by default) once and then
+ * serves invocations off the lambda runtime api until the container is frozen for good.
+ * An invocation whose headers cannot be used is answered with an invocation error. A failing runtime api ends the
+ * process, so lambda replaces the container.
+ * Run with --benchmark event.json [handler] to time startup instead, see {@link StartupBenchmark}.
+ */
+@Slf4j
+public final class LambdaRuntimeBootstrap {
+
+    static final String BENCHMARK = "--benchmark";
+    static final String DEFAULT_HANDLER = WarehouseRouterHandler.class.getName();
+
+    private static final String API_VERSION = "/2018-06-01";
+    private static final String REQUEST_ID_HEADER = "Lambda-Runtime-Aws-Request-Id";
+    private static final String DEADLINE_HEADER = "Lambda-Runtime-Deadline-Ms";
+    private static final String FUNCTION_ARN_HEADER = "Lambda-Runtime-Invoked-Function-Arn";
+    private static final String TRACE_ID_HEADER = "Lambda-Runtime-Trace-Id";
+
+    private final String runtimeApi;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    LambdaRuntimeBootstrap(String runtimeApi) {
+        this.runtimeApi = runtimeApi;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && BENCHMARK.equals(args[0])) {
+            StartupBenchmark.run(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        String runtimeApi = System.getenv("AWS_LAMBDA_RUNTIME_API");
+        Preconditions.checkState(StringUtils.isNotBlank(runtimeApi), "AWS_LAMBDA_RUNTIME_API not set, not running in a lambda custom runtime");
+        new LambdaRuntimeBootstrap(runtimeApi).run(handlerName());
+    }
+
+    static String handlerName() {
+        String handler = System.getenv("_HANDLER");
+        return StringUtils.isBlank(handler) ? DEFAULT_HANDLER : handler;
+    }
+
+    void run(String handlerName) throws IOException {
+        HandlerInvoker handlerInvoker;
+        long start = System.currentTimeMillis();
+        try {
+            handlerInvoker = new HandlerInvoker(handlerName);
+        } catch (Exception e) {
+            log.error("could not initialise handler {}", handlerName, e);
+            post("/runtime/init/error", error(e));
+            return;
+        }
+        log.info("handler {} initialised in {} ms", handlerName, System.currentTimeMillis() - start);
+        serve(handlerInvoker);
+    }
+
+    /**
+     * @throws IOException when the runtime api fails or hands out an invocation without a request id, which cannot be answered
+     */
+    void serve(HandlerInvoker handlerInvoker) throws IOException {
+        while (true) {
+            HttpURLConnection next = open("/runtime/invocation/next");
+            int status = next.getResponseCode();
+            if (status != HttpURLConnection.HTTP_OK) {
+                close(next.getErrorStream());
+                throw new IOException("runtime api returned " + status + " for the next invocation");
+            }
+            String requestId = next.getHeaderField(REQUEST_ID_HEADER);
+            if (StringUtils.isBlank(requestId)) {
+                close(next.getInputStream());
+                throw new IOException("runtime api returned an invocation without " + REQUEST_ID_HEADER);
+            }
+            byte[] event;
+            try (InputStream inputStream = next.getInputStream()) {
+                event = inputStream.readAllBytes();
+            }
+            try {
+                post("/runtime/invocation/" + requestId + "/response", handlerInvoker.invoke(event, context(requestId, next)));
+            } catch (Exception e) {
+                log.error("invocation {} failed", requestId, e);
+                post("/runtime/invocation/" + requestId + "/error", error(e));
+            }
+        }
+    }
+
+    private RuntimeContext context(String requestId, HttpURLConnection next) {
+        String deadline = next.getHeaderField(DEADLINE_HEADER);
+        Preconditions.checkArgument(StringUtils.isNumeric(deadline), "invocation " + requestId + " has no valid "
+                + DEADLINE_HEADER + " header: " + deadline);
+        String traceId = next.getHeaderField(TRACE_ID_HEADER);
+        if (traceId != null) {
+            System.setProperty("com.amazonaws.xray.traceHeader", traceId);
+        }
+        return new RuntimeContext(requestId, next.getHeaderField(FUNCTION_ARN_HEADER), Long.parseLong(deadline));
+    }
+
+    private byte[] error(Exception e) throws IOException {
+        return objectMapper.writeValueAsBytes(ImmutableMap.of("errorMessage", String.valueOf(e.getMessage()),
+                "errorType", e.getClass().getName()));
+    }
+
+    private HttpURLConnection open(String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://" + runtimeApi + API_VERSION + path).openConnection();
+        // next blocks until an invocation arrives, however long the container stays idle
+        connection.setReadTimeout(0);
+        return connection;
+    }
+
+    private void post(String path, byte[] body) throws IOException {
+        HttpURLConnection connection = open(path);
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setFixedLengthStreamingMode(body.length);
+        try (OutputStream outputStream = connection.getOutputStream()) {
+            outputStream.write(body);
+        }
+        int status = connection.getResponseCode();
+        if (status != HttpURLConnection.HTTP_ACCEPTED) {
+            log.warn("runtime api returned {} for {}", status, path);
+        }
+        close(status >= HttpURLConnection.HTTP_BAD_REQUEST ? connection.getErrorStream() : connection.getInputStream());
+    }
+
+    private static void close(InputStream responseStream) throws IOException {
+        if (responseStream != null) {
+            responseStream.close();
+        }
+    }
+}
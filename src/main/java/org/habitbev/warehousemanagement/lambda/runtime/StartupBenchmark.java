@@ -0,0 +1,54 @@
+package org.habitbev.warehousemanagement.lambda.runtime;
+
+import com.google.common.base.Preconditions;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Instant;
+
+/**
+ * Times what a cold start costs on the running image: process start to main, handler and injector init, the first
+ * request on the cold handler and a second warm one, printed as one key=value line per run.
+ * The same class runs on the jvm and inside the native image so startup-benchmark.sh can compare the two.
+ */
+final class StartupBenchmark {
+
+    private StartupBenchmark() {
+    }
+
+    static void run(String[] args) throws Exception {
+        long mainStartNanos = System.nanoTime();
+        long mainStartMillis = System.currentTimeMillis();
+        Preconditions.checkArgument(args.length >= 1, "usage: --benchmark event.json [handler]");
+        byte[] event = Files.readAllBytes(Paths.get(args[0]));
+        String handlerName = args.length > 1 ? args[1] : LambdaRuntimeBootstrap.DEFAULT_HANDLER;
+
+        long processStartMillis = ProcessHandle.current().info().startInstant().map(Instant::toEpochMilli).orElse(mainStartMillis);
+
+        HandlerInvoker handlerInvoker = new HandlerInvoker(handlerName);
+        long initNanos = System.nanoTime();
+        byte[] firstResponse = invoke(handlerInvoker, event, "benchmark-1");
+        long firstRequestNanos = System.nanoTime();
+        invoke(handlerInvoker, event, "benchmark-2");
+        long secondRequestNanos = System.nanoTime();
+
+        System.out.println(String.format("runtime=%s process_to_main_ms=%d init_ms=%d first_request_ms=%d second_request_ms=%d cold_start_ms=%d response=%s",
+                System.getProperty(HandlerInvoker.NATIVE_IMAGE_CODE_PROPERTY) != null ? "native" : "jvm",
+                mainStartMillis - processStartMillis,
+                millis(mainStartNanos, initNanos),
+                millis(initNanos, firstRequestNanos),
+                millis(firstRequestNanos, secondRequestNanos),
+                mainStartMillis - processStartMillis + millis(mainStartNanos, firstRequestNanos),
+                new String(firstResponse, 0, Math.min(firstResponse.length, 120), StandardCharsets.UTF_8).replaceAll("\\s+", " ")));
+    }
+
+    private static byte[] invoke(HandlerInvoker handlerInvoker, byte[] event, String requestId) throws IOException {
+        return handlerInvoker.invoke(event, new RuntimeContext(requestId, "benchmark", System.currentTimeMillis() + 60_000));
+    }
+
+    private static long millis(long fromNanos, long toNanos) {
+        return (toNanos - fromNanos) / 1_000_000;
+    }
+}
@@ -0,0 +1,158 @@
+package org.habitbev.warehousemanagement.server;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.google.common.base.Preconditions;
+import com.google.common.io.ByteStreams;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.habitbev.warehousemanagement.guice.InjectorHolder;
+import org.habitbev.warehousemanagement.lambda.WarehouseRouterHandler;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Embedded http server for running the service on a box next to the scanners instead of behind api gateway.
+ * POST/GET /{action} is turned into the api gateway proxy event the lambda handlers expect and dispatched through
+ * WarehouseRouterHandler over the same injector, so both deployments run the same code.
+ * Responses carry a content length so connections are kept alive. At most maxConcurrentRequests are served at a time,
+ * requests beyond that get a 503 right away instead of queueing.
+ * Every request runs on its own virtual thread when the runtime has them (java 21+), on a cached platform thread otherwise.
+ */
+@Slf4j
+public class WarehouseHttpServer {
+
+    private static final int STOP_DELAY_SECONDS = 5;
+
+    WarehouseRouterHandler warehouseRouterHandler;
+    int port;
+    int backlog;
+    private final Semaphore concurrencyLimit;
+    private HttpServer httpServer;
+    private ExecutorService requestExecutor;
+
+    @Inject
+    public WarehouseHttpServer(WarehouseRouterHandler warehouseRouterHandler, @Named("httpServerPort") int port,
+                               @Named("httpServerBacklog") int backlog,
+                               @Named("httpServerMaxConcurrentRequests") int maxConcurrentRequests) {
+        Preconditions.checkArgument(maxConcurrentRequests > 0, "maxConcurrentRequests should be > 0");
+        this.warehouseRouterHandler = warehouseRouterHandler;
+        this.port = port;
+        this.backlog = backlog;
+        this.concurrencyLimit = new Semaphore(maxConcurrentRequests);
+    }
+
+    public static void main(String[] args) throws IOException {
+        WarehouseHttpServer warehouseHttpServer = InjectorHolder.getInjector().getInstance(WarehouseHttpServer.class);
+        warehouseHttpServer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(warehouseHttpServer::stop));
+    }
+
+    public void start() throws IOException {
+        httpServer = HttpServer.create(new InetSocketAddress(port), backlog);
+        httpServer.createContext("/", this::handle);
+        requestExecutor = requestExecutor();
+        httpServer.setExecutor(requestExecutor);
+        httpServer.start();
+        log.info("warehouse http server listening on {}", httpServer.getAddress());
+    }
+
+    public void stop() {
+        if (httpServer != null) {
+            httpServer.stop(STOP_DELAY_SECONDS);
+            requestExecutor.shutdown();
+        }
+    }
+
+    /**
+     * port the server is bound to, the ephemeral one picked when started on port 0.
+     */
+    int getPort() {
+        Preconditions.checkState(httpServer != null, "server not started");
+        return httpServer.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        if (!concurrencyLimit.tryAcquire()) {
+            respond(exchange, 503, "too many concurrent requests");
+            return;
+        }
+        try {
+            APIGatewayProxyResponseEvent response = warehouseRouterHandler.handleRequest(toEvent(exchange), null);
+            if (response == null) {
+                respond(exchange, 501, "not implemented");
+            } else {
+                respond(exchange, response.getStatusCode() == null ? 200 : response.getStatusCode(), response.getBody());
+            }
+        } catch (Exception e) {
+            log.error("Exception occurred while serving {}", exchange.getRequestURI(), e);
+            respond(exchange, 500, e.getMessage());
+        } finally {
+            concurrencyLimit.release();
+        }
+    }
+
+    private Map<String, Object> toEvent(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        Map<String, Object> event = new HashMap<>();
+        event.put("httpMethod", exchange.getRequestMethod());
+        event.put("path", path);
+        event.put("body", new String(ByteStreams.toByteArray(exchange.getRequestBody()), StandardCharsets.UTF_8));
+        event.put("queryStringParameters", queryParameters(exchange.getRequestURI().getRawQuery()));
+        Map<String, String> pathParameters = new HashMap<>();
+        pathParameters.put("action", StringUtils.substringBefore(StringUtils.removeStart(path, "/"), "/"));
+        event.put("pathParameters", pathParameters);
+        return event;
+    }
+
+    private Map<String, String> queryParameters(String rawQuery) throws UnsupportedEncodingException {
+        Map<String, String> queryParameters = new HashMap<>();
+        if (StringUtils.isBlank(rawQuery)) {
+            return queryParameters;
+        }
+        for (String parameter : rawQuery.split("&")) {
+            String name = StringUtils.substringBefore(parameter, "=");
+            String value = parameter.contains("=") ? StringUtils.substringAfter(parameter, "=") : "";
+            queryParameters.put(URLDecoder.decode(name, "UTF-8"), URLDecoder.decode(value, "UTF-8"));
+        }
+        return queryParameters;
+    }
+
+    private void respond(HttpExchange exchange, int statusCode, String body) throws IOException {
+        byte[] bytes = body == null ? new byte[0] : body.getBytes(StandardCharsets.UTF_8);
+        String trimmedBody = StringUtils.trimToEmpty(body);
+        boolean json = trimmedBody.startsWith("{") || trimmedBody.startsWith("[");
+        exchange.getResponseHeaders().set("Content-Type", json ? "application/json; charset=utf-8" : "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(statusCode, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(bytes);
+        }
+    }
+
+    /**
+     * looked up reflectively as the build targets java 11.
+     */
+    private static ExecutorService requestExecutor() {
+        try {
+            ExecutorService virtualThreadExecutor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            log.info("serving requests on virtual threads");
+            return virtualThreadExecutor;
+        } catch (ReflectiveOperationException e) {
+            log.info("virtual threads not available, serving requests on platform threads");
+            return Executors.newCachedThreadPool();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package org.habitbev.warehousemanagement.service;
+
+import com.google.common.base.Preconditions;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+import lombok.extern.slf4j.Slf4j;
+import org.habitbev.warehousemanagement.entities.container.AddContainersRequest;
+import org.habitbev.warehousemanagement.entities.container.AddContainersResponse;
+import org.habitbev.warehousemanagement.helpers.StreamingBarcodesPersistor;
+import org.habitbev.warehousemanagement.helpers.labelrenderers.LabelRenderer;
+
+import java.util.List;
+
+/**
+ * provisions a batch of containers and prints one label sheet with a barcode per container.
+ */
+@Slf4j
+public class BulkContainerBarcodesCreationService {
+
+    ContainerService containerService;
+    StreamingBarcodesPersistor barcodesPersistor;
+    LabelRenderer labelRenderer;
+
+    @Inject
+    public BulkContainerBarcodesCreationService(ContainerService containerService,
+                                                @Named("s3StreamingBarcodesPersistor") StreamingBarcodesPersistor barcodesPersistor,
+                                                @Named("labelRenderer") LabelRenderer labelRenderer) {
+        this.containerService = containerService;
+        this.barcodesPersistor = barcodesPersistor;
+        this.labelRenderer = labelRenderer;
+    }
+
+    public AddContainersResponse generate(AddContainersRequest addContainersRequest) {
+        Preconditions.checkArgument(addContainersRequest != null, "addContainersRequest cannot be null");
+        String warehouseId = addContainersRequest.getWarehouseId();
+        List<String> containerIds = containerService.addAll(addContainersRequest);
+        log.info("added {} containers at warehouse {}", containerIds.size(), warehouseId);
+        String barcodesUrl = barcodesPersistor.persistBarcodes(labelRenderer.contentType(), labelRenderer.fileExtension(),
+                outputStream -> labelRenderer.render(containerIds, warehouseId, outputStream));
+        return AddContainersResponse.builder().containerIds(containerIds).barcodesUrl(barcodesUrl).build();
+    }
+}
@@ -7,6 +7,8 @@ import org.apache.commons.lang3.StringUtils;
 import org.habitbev.warehousemanagement.dao.ContainerCapacityDAO;
 import org.habitbev.warehousemanagement.entities.dynamodb.ContainerCapacity;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public class ContainerCapacityService {
@@ -24,11 +26,35 @@ public class ContainerCapacityService {
         return containerCapacityDAO.get(warehouseId, containerId);
     }
 
+    public Map<String, ContainerCapacity> batchGet(String warehouseId, List<String> containerIds) {
+        Preconditions.checkArgument(StringUtils.isNotBlank(warehouseId), "warehouseId cannot be blank");
+        Preconditions.checkArgument(containerIds != null, "containerIds cannot be null");
+        return containerCapacityDAO.batchGet(warehouseId, containerIds);
+    }
+
     public void initialize(String warehouseId, String containerId) {
         Preconditions.checkArgument(StringUtils.isNotBlank(warehouseId), "warehouseId cannot be blank");
         Preconditions.checkArgument(StringUtils.isNotBlank(containerId), "containerId cannot be blank");
         containerCapacityDAO.init(warehouseId, containerId);
     }
 
+    /**
+     * reserves delta (positive for inbound, negative for outbound) on the container ahead of the inventory transactions.
+     */
+    public void reserve(String warehouseId, String containerId, int delta, int maxCapacity) {
+        Preconditions.checkArgument(StringUtils.isNotBlank(warehouseId), "warehouseId cannot be blank");
+        Preconditions.checkArgument(StringUtils.isNotBlank(containerId), "containerId cannot be blank");
+        containerCapacityDAO.adjustCapacity(warehouseId, containerId, delta, maxCapacity);
+    }
+
+    /**
+     * gives back a part of an earlier reservation of delta which was not used.
+     */
+    public void release(String warehouseId, String containerId, int unusedDelta, int maxCapacity) {
+        Preconditions.checkArgument(StringUtils.isNotBlank(warehouseId), "warehouseId cannot be blank");
+        Preconditions.checkArgument(StringUtils.isNotBlank(containerId), "containerId cannot be blank");
+        containerCapacityDAO.adjustCapacity(warehouseId, containerId, -unusedDelta, maxCapacity);
+    }
+
 
 }
@@ -0,0 +1,32 @@
+package org.habitbev.warehousemanagement.service;
+
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+import org.habitbev.warehousemanagement.dao.ContainerContentsBackfillDAO;
+import org.habitbev.warehousemanagement.entities.BackfillResult;
+
+import java.util.Map;
+
+/**
+ * one off migration setting warehouseContainerId on inventory items which were already in a container before the
+ * container contents index existed, until it ran those items are missing from container listings. See {@link SegmentedBackfill}.
+ */
+public class ContainerContentsBackfillService {
+
+    private static final String INVENTORY_TABLE_NAME = "inventory";
+
+    ContainerContentsBackfillDAO containerContentsBackfillDAO;
+
+    @Inject
+    public ContainerContentsBackfillService(@Named("dynamoDbImpl") ContainerContentsBackfillDAO containerContentsBackfillDAO) {
+        this.containerContentsBackfillDAO = containerContentsBackfillDAO;
+    }
+
+    /**
+     * @param segmentTokens unfinished segments of an earlier run with their resume tokens, null to start every segment afresh
+     */
+    public BackfillResult backfill(int totalSegments, Map<Integer, String> segmentTokens, long deadlineMillis) {
+        return SegmentedBackfill.run(INVENTORY_TABLE_NAME, totalSegments, segmentTokens, (segment, startToken) ->
+                containerContentsBackfillDAO.backfillSegment(segment, totalSegments, startToken, deadlineMillis));
+    }
+}
@@ -3,6 +3,7 @@ package org.habitbev.warehousemanagement.service;
 import com.google.common.base.Preconditions;
 import com.google.inject.Inject;
 import com.google.inject.name.Named;
+import lombok.extern.slf4j.Slf4j;
 import org.habitbev.warehousemanagement.entities.PaginatedResponse;
 import org.habitbev.warehousemanagement.entities.container.GetContainerRequest;
 import org.habitbev.warehousemanagement.entities.container.GetContainersRequest;
@@ -10,13 +11,16 @@ import org.habitbev.warehousemanagement.helpers.idgenerators.ContainerIdGenerato
 import org.habitbev.warehousemanagement.dao.ContainerDAO;
 import org.habitbev.warehousemanagement.entities.dynamodb.ContainerCapacity;
 import org.habitbev.warehousemanagement.entities.container.AddContainerRequest;
+import org.habitbev.warehousemanagement.entities.container.AddContainersRequest;
 import org.habitbev.warehousemanagement.entities.container.ContainerDTO;
 import org.habitbev.warehousemanagement.entities.exceptions.ResourceNotAvailableException;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
+@Slf4j
 public class ContainerService {
 
     private static final int RETRY_ATTEMPTS = 3;
@@ -26,7 +30,7 @@ public class ContainerService {
     ContainerIdGenerator<AddContainerRequest> containerIdGenerator;
 
     @Inject
-    public ContainerService(@Named("dynamoDbImpl") ContainerDAO containerDAO, ContainerCapacityService containerCapacityService,
+    public ContainerService(@Named("cachingImpl") ContainerDAO containerDAO, ContainerCapacityService containerCapacityService,
                             @Named("warehouseWiseIncrementalContainerIdGenerator") ContainerIdGenerator<AddContainerRequest> containerIdGenerator) {
         this.containerDAO = containerDAO;
         this.containerCapacityService = containerCapacityService;
@@ -38,23 +42,54 @@ public class ContainerService {
         Preconditions.checkArgument(addContainerRequest != null, "addContainerRequest cannot be null");
 
         String warehouseId = addContainerRequest.getWarehouseId();
-        synchronized (warehouseId) {
-            String newContainerId = containerIdGenerator.generate(addContainerRequest);
-            ContainerDTO containerDTO = new ContainerDTO.Builder().containerId(newContainerId).warehouseId(warehouseId)
-                    .predefinedCapacity(addContainerRequest.getSkuCodeWisePredefinedCapacity()).build();
-            containerCapacityService.initialize(warehouseId, newContainerId);
-            containerDAO.add(containerDTO);
-            return newContainerId;
+        String newContainerId = containerIdGenerator.generate(addContainerRequest);
+        ContainerDTO containerDTO = new ContainerDTO.Builder().containerId(newContainerId).warehouseId(warehouseId)
+                .predefinedCapacity(addContainerRequest.getSkuCodeWisePredefinedCapacity()).build();
+        containerCapacityService.initialize(warehouseId, newContainerId);
+        containerDAO.add(containerDTO);
+        return newContainerId;
+    }
+
+    /**
+     * allocates all the container ids in one lease and writes the containers with their capacity in bulk.
+     *
+     * @return ids of the added containers in allocation order, fewer than the requested quantity when a later write
+     * transaction failed. The ids not returned were leased but never written.
+     */
+    public List<String> addAll(AddContainersRequest addContainersRequest) {
+
+        Preconditions.checkArgument(addContainersRequest != null, "addContainersRequest cannot be null");
+        int quantity = addContainersRequest.getQuantity();
+        Preconditions.checkArgument(quantity > 0 && quantity <= AddContainersRequest.MAX_QUANTITY,
+                "quantity should be between 1 and " + AddContainersRequest.MAX_QUANTITY);
+
+        String warehouseId = addContainersRequest.getWarehouseId();
+        Map<String, Integer> predefinedCapacity = addContainersRequest.getSkuCodeWisePredefinedCapacity();
+        AddContainerRequest addContainerRequest = AddContainerRequest.builder().warehouseId(warehouseId)
+                .skuCodeWisePredefinedCapacity(predefinedCapacity).build();
+        List<String> newContainerIds = containerIdGenerator.generate(addContainerRequest, quantity);
+        List<ContainerDTO> containerDTOs = newContainerIds.stream().map(containerId -> new ContainerDTO.Builder()
+                .containerId(containerId).warehouseId(warehouseId).predefinedCapacity(predefinedCapacity).build())
+                .collect(Collectors.toList());
+        List<ContainerDTO> addedContainers = containerDAO.addAll(containerDTOs);
+        if (addedContainers.size() < newContainerIds.size()) {
+            log.warn("only {} of {} containers added at warehouse {}", addedContainers.size(), newContainerIds.size(), warehouseId);
         }
+        return addedContainers.stream().map(ContainerDTO::getContainerId).collect(Collectors.toList());
     }
 
     public PaginatedResponse<ContainerDTO> getContainers(GetContainersRequest getContainersRequest) {
         PaginatedResponse<ContainerDTO> containers = containerDAO.getContainers(getContainersRequest);
         String warehouseId = getContainersRequest.getWarehouseId();
+        Map<String, ContainerCapacity> containerCapacities = containerCapacityService.batchGet(warehouseId,
+                containers.getItems().stream().map(ContainerDTO::getContainerId).collect(Collectors.toList()));
         List<ContainerDTO> enrichedContainers = containers.getItems().stream().map(containerDTO -> {
-            Optional<ContainerCapacity> containerCapacity = containerCapacityService.get(warehouseId, containerDTO.getContainerId());
+            ContainerCapacity containerCapacity = containerCapacities.get(containerDTO.getContainerId());
+            if (containerCapacity == null) {
+                return containerDTO;
+            }
             return new ContainerDTO.Builder()
-                    .currentCapacityDetails(containerCapacity.get()).containerId(containerDTO.getContainerId())
+                    .currentCapacityDetails(containerCapacity).containerId(containerDTO.getContainerId())
                     .warehouseId(warehouseId).predefinedCapacity(containerDTO.getSkuCodeWisePredefinedCapacity()).build();
         }).collect(Collectors.toList());
         PaginatedResponse<ContainerDTO> enrichedData = PaginatedResponse.<ContainerDTO>builder().items(enrichedContainers).nextPageToken(containers.getNextPageToken()).build();
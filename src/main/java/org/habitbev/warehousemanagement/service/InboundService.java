@@ -46,14 +46,12 @@ public class InboundService {
         WarehouseActionValidationRequest warehouseActionValidationRequest = WarehouseActionValidationRequest.builder()
                 .userId(userId).warehouseId(warehouseId).warehouseAction(WarehouseAction.START_INBOUND).build();
         WarehouseValidatedEntities validatedEntities = warehouseActionValidatorChain.execute(warehouseActionValidationRequest);
-        synchronized (warehouseId) {
-            String newInboundId = inboundIdGenerator.generate(startInboundRequest);
-            FGInboundDTO FGInboundDTO = org.habitbev.warehousemanagement.entities.inbound.FGInboundDTO.builder().inboundId(newInboundId)
-                    .warehouseId(warehouseId).status(new Active()).userId(userId)
-                    .startTime(clock.millis()).build();
-            inboundDAO.add(FGInboundDTO);
-            return newInboundId;
-        }
+        String newInboundId = inboundIdGenerator.generate(startInboundRequest);
+        FGInboundDTO FGInboundDTO = org.habitbev.warehousemanagement.entities.inbound.FGInboundDTO.builder().inboundId(newInboundId)
+                .warehouseId(warehouseId).status(new Active()).userId(userId)
+                .startTime(clock.millis()).build();
+        inboundDAO.add(FGInboundDTO);
+        return newInboundId;
     }
 
     public void endInbound(EndInboundRequest endInboundRequest) {
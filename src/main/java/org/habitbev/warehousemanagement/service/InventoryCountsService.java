@@ -0,0 +1,60 @@
+package org.habitbev.warehousemanagement.service;
+
+import com.google.common.base.Preconditions;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.habitbev.warehousemanagement.dao.InventoryCountsDAO;
+import org.habitbev.warehousemanagement.entities.dynamodb.InventoryCounts;
+import org.habitbev.warehousemanagement.entities.inventory.StockLevelDTO;
+
+import java.util.List;
+import java.util.Optional;
+
+@Slf4j
+public class InventoryCountsService {
+
+    InventoryCountsDAO inventoryCountsDAO;
+
+    @Inject
+    public InventoryCountsService(@Named("dynamoDbImpl") InventoryCountsDAO inventoryCountsDAO) {
+        this.inventoryCountsDAO = inventoryCountsDAO;
+    }
+
+    /**
+     * single item read of the counts maintained by inbound/outbound transactions, zero when the sku was never inbounded.
+     */
+    public StockLevelDTO getStockLevel(String skuCode, String warehouseId) {
+        Preconditions.checkArgument(StringUtils.isNotBlank(skuCode), "skuCode cannot be blank");
+        Preconditions.checkArgument(StringUtils.isNotBlank(warehouseId), "warehouseId cannot be blank");
+        Optional<InventoryCounts> inventoryCountsOp = inventoryCountsDAO.get(skuCode, warehouseId);
+        int availableInventory = inventoryCountsOp.map(InventoryCounts::getAvailableInventory).orElse(0);
+        int allocatedInventory = inventoryCountsOp.map(InventoryCounts::getAllocatedInventory).orElse(0);
+        return StockLevelDTO.builder().skuCode(skuCode).warehouseId(warehouseId)
+                .availableInventory(availableInventory).allocatedInventory(allocatedInventory).build();
+    }
+
+    /**
+     * seeds the counts of every sku warehouse pair which has no counts item yet from the inventory table.
+     * Counts items already kept up to date by inventory transactions are never overwritten.
+     *
+     * @return number of sku warehouse pairs written
+     */
+    public int backfill(int totalSegments) {
+        Preconditions.checkArgument(totalSegments > 0, "totalSegments should be > 0");
+        List<InventoryCounts> inventoryCounts = inventoryCountsDAO.countAvailableInventory(totalSegments);
+        int backfilledCounts = (int) inventoryCounts.stream().filter(counts -> inventoryCountsDAO.putIfAbsent(counts)).count();
+        log.info("backfilled inventory counts for {} of {} sku warehouse pairs", backfilledCounts, inventoryCounts.size());
+        return backfilledCounts;
+    }
+
+    /**
+     * adds availableDelta to the available inventory of the sku in the warehouse outside of any inventory transaction.
+     */
+    public void addAvailableInventory(String skuCode, String warehouseId, int availableDelta) {
+        Preconditions.checkArgument(StringUtils.isNotBlank(skuCode), "skuCode cannot be blank");
+        Preconditions.checkArgument(StringUtils.isNotBlank(warehouseId), "warehouseId cannot be blank");
+        inventoryCountsDAO.addAvailableInventory(skuCode, warehouseId, availableDelta);
+    }
+}
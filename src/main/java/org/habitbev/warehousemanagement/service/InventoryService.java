@@ -4,56 +4,105 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
 import com.google.inject.Inject;
 import com.google.inject.name.Named;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.habitbev.warehousemanagement.dao.AsyncInventoryDAO;
 import org.habitbev.warehousemanagement.dao.InventoryDAO;
+import org.habitbev.warehousemanagement.entities.PaginatedResponse;
 import org.habitbev.warehousemanagement.entities.WarehouseValidatedEntities;
 import org.habitbev.warehousemanagement.entities.container.ContainerDTO;
 import org.habitbev.warehousemanagement.entities.container.GetContainerRequest;
+import org.habitbev.warehousemanagement.entities.dynamodb.Inventory;
 import org.habitbev.warehousemanagement.entities.exceptions.NonRetriableException;
 import org.habitbev.warehousemanagement.entities.exceptions.RetriableException;
 import org.habitbev.warehousemanagement.entities.inventory.*;
 import org.habitbev.warehousemanagement.entities.inventory.inventorystatus.Inbound;
 import org.habitbev.warehousemanagement.entities.inventory.inventorystatus.Outbound;
 import org.habitbev.warehousemanagement.entities.inventory.inventorystatus.Production;
+import org.habitbev.warehousemanagement.helpers.ContainerCapacityShards;
+import org.habitbev.warehousemanagement.helpers.TransactionPacker;
 import org.habitbev.warehousemanagement.helpers.validators.WarehouseActionValidatorChain;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.habitbev.warehousemanagement.helpers.validators.WarehouseAction.INVENTORY_INBOUND;
 import static org.habitbev.warehousemanagement.helpers.validators.WarehouseAction.INVENTORY_OUTBOUND;
+import static org.habitbev.warehousemanagement.helpers.validators.WarehouseAction.MOVE_INVENTORY;
 
+@Slf4j
 public class InventoryService {
 
     public static final int ADD_SUBLIST_SIZE = 25;
 
-    public static final int INBOUND_SUBLIST_SIZE = 24;
-    public static final int FULFILL_SUBLIST_SIZE = 24;
-    public static final int MOVE_SUBLIST_SIZE = 23;
+    /**
+     * container capacity and inventory counts updates written alongside the inventory updates in every transaction.
+     * Sharded containers may take one capacity update per shard, see reservedItems.
+     */
+    public static final int INBOUND_RESERVED_ITEMS = 2;
+    public static final int FULFILL_RESERVED_ITEMS = 2;
+    public static final int MOVE_RESERVED_ITEMS = 2;
+
+    /**
+     * upper bound estimates of a single Update in a TransactWriteItems request, excluding the unique product id.
+     */
+    public static final long CONTAINER_CAPACITY_UPDATE_ESTIMATED_BYTES = 512;
+    public static final long INVENTORY_UPDATE_ESTIMATED_BYTES = 512;
 
     InventoryDAO inventoryDAO;
+    AsyncInventoryDAO asyncInventoryDAO;
+    boolean asyncInventoryTransactions;
     ExecutorService addInventoryExecutorService;
+    ExecutorService inventoryTransactionExecutorService;
+    boolean parallelInventoryTransactions;
     ContainerService containerService;
+    ContainerCapacityService containerCapacityService;
     InboundService inboundService;
     OutboundService outboundService;
 
     WarehouseActionValidatorChain warehouseActionValidatorChain;
+    TransactionPacker transactionPacker;
+    ContainerCapacityShards containerCapacityShards;
+    InventoryCountsService inventoryCountsService;
 
 
     @Inject
     public InventoryService(@Named("dynamoDbImpl") InventoryDAO inventoryDAO, ContainerService containerService,
                             InboundService inboundService, OutboundService outboundService,
                             WarehouseActionValidatorChain warehouseActionValidatorChain,
-                            @Named("addInventoryExecutorService") ExecutorService addInventoryExecutorService) {
+                            @Named("addInventoryExecutorService") ExecutorService addInventoryExecutorService,
+                            TransactionPacker transactionPacker, ContainerCapacityService containerCapacityService,
+                            @Named("inventoryTransactionExecutorService") ExecutorService inventoryTransactionExecutorService,
+                            @Named("parallelInventoryTransactions") boolean parallelInventoryTransactions,
+                            @Named("dynamoDbAsyncImpl") AsyncInventoryDAO asyncInventoryDAO,
+                            @Named("asyncInventoryTransactions") boolean asyncInventoryTransactions,
+                            ContainerCapacityShards containerCapacityShards, InventoryCountsService inventoryCountsService) {
         this.inventoryDAO = inventoryDAO;
+        this.inventoryCountsService = inventoryCountsService;
+        this.asyncInventoryDAO = asyncInventoryDAO;
+        this.asyncInventoryTransactions = asyncInventoryTransactions;
+        this.containerCapacityShards = containerCapacityShards;
         this.containerService = containerService;
+        this.containerCapacityService = containerCapacityService;
+        this.inventoryTransactionExecutorService = inventoryTransactionExecutorService;
+        this.parallelInventoryTransactions = parallelInventoryTransactions;
         this.addInventoryExecutorService = addInventoryExecutorService;
         this.inboundService = inboundService;
         this.outboundService = outboundService;
         this.warehouseActionValidatorChain = warehouseActionValidatorChain;
+        this.transactionPacker = transactionPacker;
     }
 
 
@@ -66,6 +115,12 @@ public class InventoryService {
                     .skuCategory(addRequest.getSkuCategory()).skuCode(addRequest.getSkuCode())
                     .skuType(addRequest.getSkuType()).warehouseId(addRequest.getWarehouseId())
                     .companyId(addRequest.getCompanyId()).build()).collect(Collectors.toList());
+            if (asyncInventoryTransactions) {
+                List<CompletableFuture<List<String>>> asyncFutures = partitionedInventoryInventoryAddRequests.stream()
+                        .map(inventoryAddRequest -> asyncInventoryDAO.add(inventoryAddRequest)).collect(Collectors.toList());
+                joinAll(asyncFutures);
+                return asyncFutures.stream().flatMap(completableFuture -> completableFuture.join().stream()).collect(Collectors.toList());
+            }
             List<CompletableFuture<List<String>>> completableFutures = partitionedInventoryInventoryAddRequests.stream()
                     .map(inventoryAddRequest -> CompletableFuture.supplyAsync(() -> inventoryDAO.add(inventoryAddRequest), addInventoryExecutorService)).collect(Collectors.toList());
             CompletableFuture.allOf(completableFutures.toArray(new CompletableFuture[0])).join();
@@ -82,7 +137,11 @@ public class InventoryService {
 
     }
 
-    //TODO USING SEQUENTIAL . CHECK PERF AND DECIDE MULTI THREADING
+    /**
+     * sub batches are committed one after the other, or when parallelInventoryTransactions or asyncInventoryTransactions is enabled
+     * and there is more than one, the whole capacity is reserved up front and the sub batches are committed concurrently
+     * without touching the container capacity item, so they do not conflict on it.
+     */
     public void inbound(InventoryInboundRequest inboundReq) {
 
         Preconditions.checkArgument(inboundReq != null, "inboundReq cannot be null");
@@ -98,11 +157,27 @@ public class InventoryService {
         String inboundId = warehouseValidatedEntities.getFgInboundDTO().getInboundId();
         Integer maxCapacity = validatedContainerDTO.getSkuCodeWisePredefinedCapacity().get(inboundReq.getSkuCode());
 
-        List<List<String>> uniqueProductIdsSubList = Lists.partition(uniqueProductIdsToInbound, INBOUND_SUBLIST_SIZE);
-        List<InventoryInboundRequestDTO> partitionedInventoryInboundRequestDTOS = uniqueProductIdsSubList.stream().map(list -> InventoryInboundRequestDTO.builder().uniqueProductIds(list)
+        List<List<String>> uniqueProductIdsSubList = packUniqueProductIds(uniqueProductIdsToInbound,
+                reservedItems(INBOUND_RESERVED_ITEMS, warehouseId, containerId));
+        boolean capacityPreReserved = (asyncInventoryTransactions || parallelInventoryTransactions) && uniqueProductIdsSubList.size() > 1;
+        String requestId = requestIdOrDerived(inboundReq.getRequestId(), INVENTORY_INBOUND.name(), inboundId, containerId);
+        List<InventoryInboundRequestDTO> partitionedInventoryInboundRequestDTOS = IntStream.range(0, uniqueProductIdsSubList.size()).mapToObj(batchIndex -> InventoryInboundRequestDTO.builder()
+                .uniqueProductIds(uniqueProductIdsSubList.get(batchIndex))
                 .inventoryStatus(new Inbound()).containerId(containerId).companyId(inboundReq.getCompanyId())
                 .warehouseId(warehouseId).containerMaxCapacity(maxCapacity).inboundId(inboundId)
-                .skuCode(warehouseValidatedEntities.getSkuDTO().getSkuCode()).build()).collect(Collectors.toList());
+                .skuCode(warehouseValidatedEntities.getSkuDTO().getSkuCode()).capacityPreReserved(capacityPreReserved)
+                .clientRequestToken(clientRequestToken(requestId, batchIndex, uniqueProductIdsSubList.get(batchIndex))).build()).collect(Collectors.toList());
+        if (capacityPreReserved) {
+            executeWithReservedCapacity(warehouseId, containerId, warehouseValidatedEntities.getSkuDTO().getSkuCode(), uniqueProductIdsToInbound.size(),
+                    maxCapacity, partitionedInventoryInboundRequestDTOS,
+                    asyncInventoryTransactions ? asyncInventoryDAO::inbound : onTransactionExecutor(inventoryDAO::inbound),
+                    partitionedInventoryInboundRequest -> partitionedInventoryInboundRequest.getUniqueProductIds().size());
+            return;
+        }
+        if (asyncInventoryTransactions) {
+            joinAll(Collections.singletonList(asyncInventoryDAO.inbound(partitionedInventoryInboundRequestDTOS.get(0))));
+            return;
+        }
         partitionedInventoryInboundRequestDTOS.forEach(partitionedInventoryInboundRequest -> inventoryDAO.inbound(partitionedInventoryInboundRequest));
     }
 
@@ -121,15 +196,43 @@ public class InventoryService {
         Integer maxCapacity = validatedContainerDTO.getSkuCodeWisePredefinedCapacity().get(warehouseValidatedEntities.getSkuDTO().getSkuCode());
         String warehouseId = validatedContainerDTO.getWarehouseId();
 
-        List<List<String>> uniqueProductIdsSubList = Lists.partition(uniqueProductIdsToOutbound, FULFILL_SUBLIST_SIZE);
-        List<InventoryOutboundRequestDTO> partitionedInventoryOutboundRequestDTOS = uniqueProductIdsSubList.stream().map(list -> InventoryOutboundRequestDTO.builder()
-                .uniqueProductIds(list)
+        List<List<String>> uniqueProductIdsSubList = packUniqueProductIds(uniqueProductIdsToOutbound,
+                reservedItems(FULFILL_RESERVED_ITEMS, warehouseId, containerId));
+        boolean capacityPreReserved = (asyncInventoryTransactions || parallelInventoryTransactions) && uniqueProductIdsSubList.size() > 1;
+        String requestId = requestIdOrDerived(outboundReq.getRequestId(), INVENTORY_OUTBOUND.name(), outboundReq.getOutboundId(),
+                outboundReq.getOrderId(), containerId);
+        List<InventoryOutboundRequestDTO> partitionedInventoryOutboundRequestDTOS = IntStream.range(0, uniqueProductIdsSubList.size()).mapToObj(batchIndex -> InventoryOutboundRequestDTO.builder()
+                .uniqueProductIds(uniqueProductIdsSubList.get(batchIndex))
                 .inventoryStatus(new Outbound()).containerId(containerId).companyId(outboundReq.getCompanyId())
                 .warehouseId(warehouseId).containerMaxCapacity(maxCapacity).outboundId(outboundReq.getOutboundId())
-                .orderId(outboundReq.getOrderId()).skuCode(outboundReq.getSkuCode()).build()).collect(Collectors.toList());
+                .orderId(outboundReq.getOrderId()).skuCode(outboundReq.getSkuCode()).capacityPreReserved(capacityPreReserved)
+                .clientRequestToken(clientRequestToken(requestId, batchIndex, uniqueProductIdsSubList.get(batchIndex))).build()).collect(Collectors.toList());
+        if (capacityPreReserved) {
+            executeWithReservedCapacity(warehouseId, containerId, outboundReq.getSkuCode(), -uniqueProductIdsToOutbound.size(),
+                    maxCapacity, partitionedInventoryOutboundRequestDTOS,
+                    asyncInventoryTransactions ? asyncInventoryDAO::outbound : onTransactionExecutor(inventoryDAO::outbound),
+                    partitionedInventoryOutboundRequest -> -partitionedInventoryOutboundRequest.getUniqueProductIds().size());
+            return;
+        }
+        if (asyncInventoryTransactions) {
+            joinAll(Collections.singletonList(asyncInventoryDAO.outbound(partitionedInventoryOutboundRequestDTOS.get(0))));
+            return;
+        }
         partitionedInventoryOutboundRequestDTOS.forEach(partitionedInventoryOutboundRequest -> inventoryDAO.outbound(partitionedInventoryOutboundRequest));
     }
 
+    /**
+     * page of the items sitting in a container, read from the container contents index instead of scanning the inventory table.
+     */
+    public PaginatedResponse<ContainerInventoryDTO> getContainerInventory(GetContainerInventoryRequest getContainerInventoryRequest) {
+        Preconditions.checkArgument(getContainerInventoryRequest != null, "getContainerInventoryRequest cannot be null");
+        PaginatedResponse<Inventory> inventories = inventoryDAO.queryByContainer(getContainerInventoryRequest);
+        List<ContainerInventoryDTO> containerInventoryDTOS = inventories.getItems().stream().map(ContainerInventoryDTO::fromInventory)
+                .collect(Collectors.toList());
+        return PaginatedResponse.<ContainerInventoryDTO>builder().items(containerInventoryDTOS)
+                .nextPageToken(inventories.getNextPageToken()).build();
+    }
+
     public void move(MoveInventoryRequest moveInventoryRequest) {
         String sourceContainerId = moveInventoryRequest.getSourceContainerId();
         String destinationContainerId = moveInventoryRequest.getDestinationContainerId();
@@ -152,12 +255,154 @@ public class InventoryService {
         if (destinationExistingCapacity + deltaCapacity > destinationMaxCapacity) {
             throw new NonRetriableException("trying to move more than destination container capacity");
         }
-        List<List<String>> uniqueProductIdsSubList = Lists.partition(moveInventoryRequest.getUniqueProductIds(), MOVE_SUBLIST_SIZE);
-        List<MoveInventoryRequest> partitionedMoveInventoryRequests = uniqueProductIdsSubList.stream().map(list -> MoveInventoryRequest.builder()
-                .uniqueProductIds(list).sourceContainerMaxCapacity(sourceMaxCapacity).skuCode(moveInventoryRequest.getSkuCode())
+        List<List<String>> uniqueProductIdsSubList = packUniqueProductIds(moveInventoryRequest.getUniqueProductIds(),
+                reservedItems(MOVE_RESERVED_ITEMS, warehouseId, sourceContainerId, destinationContainerId));
+        String requestId = requestIdOrDerived(moveInventoryRequest.getRequestId(), MOVE_INVENTORY.name(), sourceContainerId, destinationContainerId);
+        List<MoveInventoryRequest> partitionedMoveInventoryRequests = IntStream.range(0, uniqueProductIdsSubList.size()).mapToObj(batchIndex -> MoveInventoryRequest.builder()
+                .uniqueProductIds(uniqueProductIdsSubList.get(batchIndex)).sourceContainerMaxCapacity(sourceMaxCapacity).skuCode(moveInventoryRequest.getSkuCode())
                 .sourceContainerId(sourceContainerId).destinationContainerId(destinationContainerId).destinationContainerMaxCapacity(destinationMaxCapacity)
-                .warehouseId(warehouseId).build()).collect(Collectors.toList());
+                .warehouseId(warehouseId).companyId(moveInventoryRequest.getCompanyId())
+                .clientRequestToken(clientRequestToken(requestId, batchIndex, uniqueProductIdsSubList.get(batchIndex)))
+                .build()).collect(Collectors.toList());
+        if (asyncInventoryTransactions) {
+            // every sub batch writes both container capacity items, chained so only one of them is in flight at a time
+            CompletableFuture<Void> moved = CompletableFuture.completedFuture(null);
+            for (MoveInventoryRequest partitionedMoveInventoryRequest : partitionedMoveInventoryRequests) {
+                moved = moved.thenCompose(ignored -> asyncInventoryDAO.move(partitionedMoveInventoryRequest));
+            }
+            joinAll(Collections.singletonList(moved));
+            return;
+        }
         partitionedMoveInventoryRequests.forEach(partitionedMoveInventoryRequest -> inventoryDAO.move(partitionedMoveInventoryRequest));
 
     }
+
+    /**
+     * reserves delta on the container and adds it to the inventory counts of the sku once, commits all requests concurrently
+     * and gives back the delta of the requests which did not commit, the sub batches touch neither item.
+     * A client retry reserves the whole delta again, so requests an earlier attempt already committed are given back as well.
+     * Counts are adjusted before the inventory like the capacity, so a failed counts update fails the request before anything
+     * is committed instead of leaving the counts behind the inventory. The first failure is rethrown after every request has completed.
+     */
+    private <T> void executeWithReservedCapacity(String warehouseId, String containerId, String skuCode, int delta, int maxCapacity, List<T> requests,
+                                                 Function<T, CompletableFuture<Boolean>> transaction, ToIntFunction<T> requestDelta) {
+        containerCapacityService.reserve(warehouseId, containerId, delta, maxCapacity);
+        try {
+            inventoryCountsService.addAvailableInventory(skuCode, warehouseId, delta);
+        } catch (RuntimeException e) {
+            throw releaseCapacity(e, warehouseId, containerId, delta, maxCapacity);
+        }
+        List<CompletableFuture<Integer>> completableFutures = requests.stream().map(request -> transaction.apply(request)
+                .thenApply(applied -> applied ? requestDelta.applyAsInt(request) : 0)).collect(Collectors.toList());
+
+        int committedDelta = 0;
+        RuntimeException failure = null;
+        for (CompletableFuture<Integer> completableFuture : completableFutures) {
+            try {
+                committedDelta += completableFuture.join();
+            } catch (CompletionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new RetriableException(e.getCause());
+                }
+            }
+        }
+        if (committedDelta != delta) {
+            failure = releaseCapacity(failure, warehouseId, containerId, delta - committedDelta, maxCapacity);
+            failure = releaseCounts(failure, skuCode, warehouseId, delta - committedDelta);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * gives back the unused delta of the container capacity. A failure to give it back is added to failure, or becomes the failure,
+     * so the drift is never silent.
+     */
+    private RuntimeException releaseCapacity(RuntimeException failure, String warehouseId, String containerId, int unusedDelta, int maxCapacity) {
+        try {
+            containerCapacityService.release(warehouseId, containerId, unusedDelta, maxCapacity);
+            return failure;
+        } catch (RuntimeException e) {
+            log.error("could not give back {} to the capacity of container {} in warehouse {}", unusedDelta, containerId, warehouseId, e);
+            return addFailure(failure, e);
+        }
+    }
+
+    /**
+     * gives back the unused delta of the inventory counts, failing the same way as releaseCapacity.
+     */
+    private RuntimeException releaseCounts(RuntimeException failure, String skuCode, String warehouseId, int unusedDelta) {
+        try {
+            inventoryCountsService.addAvailableInventory(skuCode, warehouseId, -unusedDelta);
+            return failure;
+        } catch (RuntimeException e) {
+            log.error("could not give back {} to the available inventory of sku {} in warehouse {}", unusedDelta, skuCode, warehouseId, e);
+            return addFailure(failure, e);
+        }
+    }
+
+    private static RuntimeException addFailure(RuntimeException failure, RuntimeException next) {
+        if (failure == null) {
+            return next;
+        }
+        failure.addSuppressed(next);
+        return failure;
+    }
+
+    /**
+     * runs a blocking transaction on the inventory transaction executor.
+     */
+    private <T> Function<T, CompletableFuture<Boolean>> onTransactionExecutor(Predicate<T> transaction) {
+        return request -> CompletableFuture.supplyAsync(() -> transaction.test(request), inventoryTransactionExecutorService);
+    }
+
+    /**
+     * waits for every future and rethrows the first failure unwrapped.
+     */
+    private void joinAll(List<? extends CompletableFuture<?>> completableFutures) {
+        try {
+            CompletableFuture.allOf(completableFutures.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new RetriableException(e.getCause());
+        }
+    }
+
+    /**
+     * a request without requestId gets one derived from the fields a client retry repeats, so the retry still carries the same
+     * tokens. Together with the ids in the token that only clashes with a genuinely new request for the same ids within the
+     * token window of dynamodb, which then fails as a token reused for a different transaction.
+     */
+    private static String requestIdOrDerived(String requestId, String... stableFields) {
+        if (StringUtils.isNotBlank(requestId)) {
+            return requestId;
+        }
+        String derivedRequestId = String.join(":", stableFields);
+        log.info("request without requestId, clientRequestTokens derived from {}", derivedRequestId);
+        return derivedRequestId;
+    }
+
+    /**
+     * same request, batch and ids always give the same token, so a retried sub batch is recognised by dynamodb as already applied.
+     */
+    private static String clientRequestToken(String requestId, int batchIndex, List<String> uniqueProductIds) {
+        String tokenSource = String.join(":", requestId, String.valueOf(batchIndex), String.join(",", uniqueProductIds));
+        return UUID.nameUUIDFromBytes(tokenSource.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    /**
+     * a delta on a sharded container can spill over to every shard, each extra shard is one more transaction item.
+     */
+    private int reservedItems(int baseReservedItems, String warehouseId, String... containerIds) {
+        int extraShardItems = 0;
+        for (String containerId : containerIds) {
+            extraShardItems += containerCapacityShards.shardCount(warehouseId, containerId) - 1;
+        }
+        return baseReservedItems + extraShardItems;
+    }
+
+    private List<List<String>> packUniqueProductIds(List<String> uniqueProductIds, int reservedItems) {
+        return transactionPacker.pack(uniqueProductIds, reservedItems, reservedItems * CONTAINER_CAPACITY_UPDATE_ESTIMATED_BYTES,
+                uniqueProductId -> INVENTORY_UPDATE_ESTIMATED_BYTES + uniqueProductId.length());
+    }
 }
@@ -49,13 +49,11 @@ public class OutboundService {
                 .userId(userId).warehouseId(warehouseId).customerId(customerId).companyId(companyId).warehouseAction(WarehouseAction.START_OUTBOUND).build();
         WarehouseValidatedEntities validatedEntities = warehouseActionValidatorChain.execute(warehouseActionValidationRequest);
 
-        synchronized (warehouseId) {
-            String newOutboundId = outboundIdGenerator.generate(startOutboundRequest);
-            OutboundDTO outboundDTO = OutboundDTO.builder().outboundId(newOutboundId).startTime(clock.millis())
-                    .warehouseId(warehouseId).customerId(customerId).status(new Active()).userId(userId).build();
-            outboundDAO.add(outboundDTO);
-            return newOutboundId;
-        }
+        String newOutboundId = outboundIdGenerator.generate(startOutboundRequest);
+        OutboundDTO outboundDTO = OutboundDTO.builder().outboundId(newOutboundId).startTime(clock.millis())
+                .warehouseId(warehouseId).customerId(customerId).status(new Active()).userId(userId).build();
+        outboundDAO.add(outboundDTO);
+        return newOutboundId;
     }
 
     public void endOutbound(EndOutboundRequest endOutboundRequest) {
@@ -0,0 +1,74 @@
+package org.habitbev.warehousemanagement.service;
+
+import com.google.common.base.Preconditions;
+import lombok.extern.slf4j.Slf4j;
+import org.habitbev.warehousemanagement.entities.BackfillResult;
+import org.habitbev.warehousemanagement.entities.SegmentBackfillProgress;
+import org.habitbev.warehousemanagement.entities.exceptions.NonRetriableException;
+import org.habitbev.warehousemanagement.entities.exceptions.RetriableException;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+/**
+ * runs the scan segments of a one off backfill in parallel, one thread per segment, and collects where each segment stopped
+ * so the next run resumes the unfinished ones.
+ */
+@Slf4j
+final class SegmentedBackfill {
+
+    private SegmentedBackfill() {
+    }
+
+    /**
+     * @param segmentTokens   unfinished segments of an earlier run with their resume tokens, null to start every segment afresh
+     * @param segmentBackfill backfills one segment from its resume token, null for the start of the segment
+     */
+    static BackfillResult run(String tableName, int totalSegments, Map<Integer, String> segmentTokens,
+                              BiFunction<Integer, String, SegmentBackfillProgress> segmentBackfill) {
+        Preconditions.checkArgument(totalSegments > 0, "totalSegments should be > 0");
+        Map<Integer, String> segmentsToRun = segmentTokens;
+        if (segmentsToRun == null) {
+            segmentsToRun = new HashMap<>();
+            for (int segment = 0; segment < totalSegments; segment++) {
+                segmentsToRun.put(segment, null);
+            }
+        }
+        Preconditions.checkArgument(segmentsToRun.keySet().stream().allMatch(segment -> segment >= 0 && segment < totalSegments),
+                "segments should be within totalSegments");
+        if (segmentsToRun.isEmpty()) {
+            return BackfillResult.builder().tableName(tableName).totalSegments(totalSegments)
+                    .updatedItems(0).segmentTokens(new TreeMap<>()).build();
+        }
+        ExecutorService executorService = Executors.newFixedThreadPool(segmentsToRun.size());
+        try {
+            List<CompletableFuture<SegmentBackfillProgress>> segmentFutures = segmentsToRun.entrySet().stream()
+                    .map(entry -> CompletableFuture.supplyAsync(() -> segmentBackfill.apply(entry.getKey(), entry.getValue()), executorService))
+                    .collect(Collectors.toList());
+            List<SegmentBackfillProgress> progresses = segmentFutures.stream().map(CompletableFuture::join).collect(Collectors.toList());
+            Map<Integer, String> unfinishedSegments = new TreeMap<>();
+            progresses.stream().filter(progress -> progress.getNextToken() != null)
+                    .forEach(progress -> unfinishedSegments.put(progress.getSegment(), progress.getNextToken()));
+            int updatedItems = progresses.stream().mapToInt(SegmentBackfillProgress::getUpdatedItems).sum();
+            log.info("backfilled {} items of {}, {} of {} segments left", updatedItems, tableName, unfinishedSegments.size(), totalSegments);
+            return BackfillResult.builder().tableName(tableName).totalSegments(totalSegments)
+                    .updatedItems(updatedItems).segmentTokens(unfinishedSegments).build();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RetriableException || e.getCause() instanceof NonRetriableException
+                    || e.getCause() instanceof IllegalArgumentException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new NonRetriableException(e.getCause());
+        } finally {
+            executorService.shutdown();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package org.habitbev.warehousemanagement.service;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+import org.habitbev.warehousemanagement.dao.SequenceNumberBackfillDAO;
+import org.habitbev.warehousemanagement.entities.BackfillResult;
+
+import java.util.Map;
+
+/**
+ * one off migration setting sequenceNumber on container, inbound and outbound items written before the
+ * warehouseId-sequenceNumber-index existed, see {@link SegmentedBackfill}.
+ */
+public class SequenceNumberBackfillService {
+
+    private static final Map<String, String> TABLE_ID_ATTRIBUTES = ImmutableMap.of(
+            "containers", "containerId", "fg-inbounds", "inboundId", "fg-outbounds", "outboundId");
+
+    SequenceNumberBackfillDAO sequenceNumberBackfillDAO;
+
+    @Inject
+    public SequenceNumberBackfillService(@Named("dynamoDbImpl") SequenceNumberBackfillDAO sequenceNumberBackfillDAO) {
+        this.sequenceNumberBackfillDAO = sequenceNumberBackfillDAO;
+    }
+
+    /**
+     * @param segmentTokens unfinished segments of an earlier run with their resume tokens, null to start every segment afresh
+     */
+    public BackfillResult backfill(String tableName, int totalSegments, Map<Integer, String> segmentTokens, long deadlineMillis) {
+        Preconditions.checkArgument(TABLE_ID_ATTRIBUTES.containsKey(tableName), "tableName should be one of " + TABLE_ID_ATTRIBUTES.keySet());
+        String idAttributeName = TABLE_ID_ATTRIBUTES.get(tableName);
+        return SegmentedBackfill.run(tableName, totalSegments, segmentTokens, (segment, startToken) ->
+                sequenceNumberBackfillDAO.backfillSegment(tableName, idAttributeName, segment, totalSegments, startToken, deadlineMillis));
+    }
+}
@@ -21,6 +21,22 @@ public class Utilities {
     }
 
 
+    /**
+     * numeric part of an id like CONTAINER-12 / INBOUND-12 / OUTBOUND-12, stored alongside the id so the latest id sorts numerically.
+     *
+     * @return null when the id does not end in a number
+     */
+    public static Long sequenceNumberOf(String id) {
+        if (id == null) {
+            return null;
+        }
+        String suffix = id.substring(id.lastIndexOf('-') + 1);
+        if (suffix.isEmpty() || suffix.length() > 18 || !suffix.chars().allMatch(Character::isDigit)) {
+            return null;
+        }
+        return Long.valueOf(suffix);
+    }
+
     public static Barcode128 createBarcode128(BarcodeDataDTO barcodeDataDTO) {
         Barcode128 barcode = new Barcode128(barcodeDataDTO.getPdfDocument());
         barcode.setAltText(barcodeDataDTO.getAltText());
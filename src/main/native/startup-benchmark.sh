@@ -0,0 +1,41 @@
+#!/bin/sh
+# Compares cold start of the handlers on the jvm (the fat jar as the java11 runtime runs it) and as a native image.
+# Build both first from the project root:
+#   mvn package && mvn -Pnative -DskipTests package
+# then run:
+#   src/main/native/startup-benchmark.sh [event.json] [runs] [handler]
+# Every run is a fresh process hitting the tables of the configured account, so aws credentials have to be set.
+set -e
+
+EVENT=${1:-src/main/native/events/get-stock-level.json}
+RUNS=${2:-5}
+HANDLER=${3:-org.habitbev.warehousemanagement.lambda.WarehouseRouterHandler}
+MAIN=org.habitbev.warehousemanagement.lambda.runtime.LambdaRuntimeBootstrap
+JAR=target/WarehouseManagement-1.0-SNAPSHOT-jar-with-dependencies.jar
+NATIVE=target/bootstrap
+
+[ -f "$JAR" ] || { echo "$JAR missing, run mvn package"; exit 1; }
+[ -x "$NATIVE" ] || { echo "$NATIVE missing, run mvn -Pnative package"; exit 1; }
+
+bench() {
+  name=$1
+  shift
+  i=0
+  while [ "$i" -lt "$RUNS" ]; do
+    "$@" --benchmark "$EVENT" "$HANDLER" 2>/dev/null | grep '^runtime='
+    i=$((i + 1))
+  done | awk -v name="$name" '
+    {
+      for (f = 2; f <= 6; f++) { split($f, kv, "="); sum[kv[1]] += kv[2]; key[f] = kv[1] }
+      n++
+    }
+    END {
+      printf "%-7s runs=%d", name, n
+      for (f = 2; f <= 6; f++) printf " %s=%.0f", key[f], sum[key[f]] / n
+      printf "\n"
+    }'
+}
+
+# same jit settings the managed java runtime starts the jvm with
+bench jvm java -XX:+TieredCompilation -XX:TieredStopAtLevel=1 -cp "$JAR" "$MAIN"
+bench native "$NATIVE"
@@ -0,0 +1,334 @@
+package org.habitbev.warehousemanagement.dao;
+
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.handlers.AsyncHandler;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBAsync;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.model.*;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.IntegerAssert;
+import org.assertj.core.api.ListAssert;
+import org.assertj.core.api.ObjectAssert;
+import org.habitbev.warehousemanagement.entities.exceptions.InconsistentStateException;
+import org.habitbev.warehousemanagement.entities.exceptions.NonRetriableException;
+import org.habitbev.warehousemanagement.entities.exceptions.ResourceAlreadyExistsException;
+import org.habitbev.warehousemanagement.entities.exceptions.RetriableException;
+import org.habitbev.warehousemanagement.entities.inventory.InventoryAddRequest;
+import org.habitbev.warehousemanagement.entities.inventory.InventoryInboundRequestDTO;
+import org.habitbev.warehousemanagement.entities.inventory.MoveInventoryRequest;
+import org.habitbev.warehousemanagement.entities.inventory.inventorystatus.Inbound;
+import org.habitbev.warehousemanagement.entities.inventory.inventorystatus.Production;
+import org.habitbev.warehousemanagement.helpers.ContainerCapacityShards;
+import org.habitbev.warehousemanagement.helpers.ContainerStatusDeterminer;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static java.util.stream.Collectors.toList;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TestAsyncInventoryDynamoDAOImpl {
+
+    private static final String WAREHOUSE_1 = "WAREHOUSE-1";
+    private static final String COMPANY_1 = "COMPANY-1";
+    private static final String CONTAINER_1 = "CONTAINER-1";
+    private static final String CONTAINER_2 = "CONTAINER-2";
+    private static final String INBOUND_1 = "INBOUND-1";
+    private static final String SKU_CODE = "sku-code";
+    private static final String SKU_TYPE = "sku-type";
+    private static final String SKU_CATEGORY = "sku-category";
+    private static final String INVENTORY_TABLE_NAME = "inventory";
+    private static final int CONTAINER_MAX_CAPACITY = 5;
+    private static final long EPOCH_MILLI = Instant.now().toEpochMilli();
+    private static final ImmutableList<String> UNIQUE_PRODUCT_IDS_1 = ImmutableList.of("1", "2", "3", "4");
+
+    AsyncInventoryDynamoDAOImpl asyncInventoryDynamoDAO;
+
+    InventoryTransactionBuilder inventoryTransactionBuilder;
+
+    @Mock
+    AmazonDynamoDBAsync amazonDynamoDBAsyncClient;
+
+    @Mock
+    AmazonDynamoDB amazonDynamoDB;
+
+    @Mock
+    Clock clock;
+
+    @Captor
+    ArgumentCaptor<TransactWriteItemsRequest> transactWriteItemsRequestArgumentCaptor;
+
+    @Captor
+    ArgumentCaptor<BatchWriteItemRequest> batchWriteItemRequestArgumentCaptor;
+
+    @Before
+    public void setupClass() {
+        MockitoAnnotations.initMocks(this);
+        when(clock.millis()).thenReturn(EPOCH_MILLI);
+        ContainerStatusDeterminer containerStatusDeterminer = new ContainerStatusDeterminer();
+        ContainerCapacityShards containerCapacityShards = new ContainerCapacityShards("", 4);
+        inventoryTransactionBuilder = new InventoryTransactionBuilder(containerStatusDeterminer, containerCapacityShards, clock);
+        asyncInventoryDynamoDAO = new AsyncInventoryDynamoDAOImpl(amazonDynamoDBAsyncClient, new DynamoDBMapper(amazonDynamoDB),
+                containerStatusDeterminer, containerCapacityShards, 1, 5, 1000, 3, clock);
+    }
+
+    @Test
+    public void test_inbound_success() {
+        InventoryInboundRequestDTO inboundRequest = getInboundRequest(false);
+        succeed(TransactWriteItemsRequest.class, new TransactWriteItemsResult());
+        asyncInventoryDynamoDAO.inbound(inboundRequest).join();
+        verify(amazonDynamoDBAsyncClient).transactWriteItemsAsync(transactWriteItemsRequestArgumentCaptor.capture(), any(AsyncHandler.class));
+        List<TransactWriteItem> expectedTransactWrites = inboundRequest.getUniqueProductIds().stream()
+                .map(itemId -> new TransactWriteItem().withUpdate(inventoryTransactionBuilder.constructUpdateExpression(itemId, inboundRequest))).collect(toList());
+        expectedTransactWrites.add(new TransactWriteItem().withUpdate(inventoryTransactionBuilder.constructDeltaContainerCapacityExpression(WAREHOUSE_1,
+                CONTAINER_1, UNIQUE_PRODUCT_IDS_1.size(), CONTAINER_MAX_CAPACITY)));
+        expectedTransactWrites.add(new TransactWriteItem().withUpdate(inventoryTransactionBuilder.constructInventoryCountsExpression(SKU_CODE,
+                WAREHOUSE_1, UNIQUE_PRODUCT_IDS_1.size())));
+        TransactWriteItemsRequest expectedTransactWriteItemsRequest = new TransactWriteItemsRequest().withTransactItems(expectedTransactWrites)
+                .withReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+        new ObjectAssert(expectedTransactWriteItemsRequest).usingRecursiveComparison().isEqualTo(transactWriteItemsRequestArgumentCaptor.getValue());
+        verifyNoMoreInteractions(amazonDynamoDBAsyncClient);
+        verifyZeroInteractions(amazonDynamoDB);
+    }
+
+    @Test
+    public void test_inbound_capacity_pre_reserved_success() {
+        InventoryInboundRequestDTO inboundRequest = getInboundRequest(true);
+        succeed(TransactWriteItemsRequest.class, new TransactWriteItemsResult());
+        asyncInventoryDynamoDAO.inbound(inboundRequest).join();
+        verify(amazonDynamoDBAsyncClient).transactWriteItemsAsync(transactWriteItemsRequestArgumentCaptor.capture(), any(AsyncHandler.class));
+        List<TransactWriteItem> transactItems = transactWriteItemsRequestArgumentCaptor.getValue().getTransactItems();
+        new IntegerAssert(transactItems.size()).isEqualTo(UNIQUE_PRODUCT_IDS_1.size());
+        new ListAssert<>(transactItems.stream().map(transactItem -> transactItem.getUpdate().getTableName()).distinct().collect(toList()))
+                .containsExactly(INVENTORY_TABLE_NAME);
+    }
+
+    @Test
+    public void test_inbound_transaction_cancelled() {
+        TransactionCanceledException transactionCanceledException = new TransactionCanceledException("exception");
+        transactionCanceledException.setCancellationReasons(ImmutableList.of());
+        fail(TransactWriteItemsRequest.class, transactionCanceledException);
+        CompletableFuture<Boolean> inboundFuture = asyncInventoryDynamoDAO.inbound(getInboundRequest(false));
+        Assertions.assertThatExceptionOfType(CompletionException.class).isThrownBy(inboundFuture::join)
+                .withCauseExactlyInstanceOf(InconsistentStateException.class);
+    }
+
+    @Test
+    public void test_inbound_conflicting_transaction_retried() {
+        int[] call = {0};
+        stubAsyncCall(TransactWriteItemsRequest.class).thenAnswer(invocation -> {
+            AsyncHandler handler = (AsyncHandler) invocation.getArguments()[1];
+            if (call[0]++ == 0) {
+                handler.onError(transactionConflict());
+            } else {
+                handler.onSuccess((AmazonWebServiceRequest) invocation.getArguments()[0], new TransactWriteItemsResult());
+            }
+            return null;
+        });
+        asyncInventoryDynamoDAO.inbound(getInboundRequest(false)).join();
+        verify(amazonDynamoDBAsyncClient, times(2)).transactWriteItemsAsync(transactWriteItemsRequestArgumentCaptor.capture(), any(AsyncHandler.class));
+        new ObjectAssert(transactWriteItemsRequestArgumentCaptor.getAllValues().get(0)).usingRecursiveComparison()
+                .isEqualTo(transactWriteItemsRequestArgumentCaptor.getAllValues().get(1));
+    }
+
+    @Test
+    public void test_inbound_conflicting_transaction_retries_exhausted() {
+        fail(TransactWriteItemsRequest.class, transactionConflict());
+        CompletableFuture<Boolean> inboundFuture = asyncInventoryDynamoDAO.inbound(getInboundRequest(false));
+        Assertions.assertThatExceptionOfType(CompletionException.class).isThrownBy(inboundFuture::join)
+                .withCauseExactlyInstanceOf(RetriableException.class);
+        verify(amazonDynamoDBAsyncClient, times(3)).transactWriteItemsAsync(any(TransactWriteItemsRequest.class), any(AsyncHandler.class));
+    }
+
+    @Test
+    public void test_inbound_conflict_with_failed_condition_not_retried() {
+        TransactionCanceledException transactionCanceledException = new TransactionCanceledException("exception");
+        transactionCanceledException.setCancellationReasons(ImmutableList.of(new CancellationReason().withCode("ConditionalCheckFailed"),
+                new CancellationReason().withCode("TransactionConflict")));
+        fail(TransactWriteItemsRequest.class, transactionCanceledException);
+        CompletableFuture<Boolean> inboundFuture = asyncInventoryDynamoDAO.inbound(getInboundRequest(false));
+        Assertions.assertThatExceptionOfType(CompletionException.class).isThrownBy(inboundFuture::join)
+                .withCauseExactlyInstanceOf(InconsistentStateException.class);
+        verify(amazonDynamoDBAsyncClient).transactWriteItemsAsync(any(TransactWriteItemsRequest.class), any(AsyncHandler.class));
+    }
+
+    @Test
+    public void test_inbound_internal_server_exception() {
+        fail(TransactWriteItemsRequest.class, new InternalServerErrorException("exception"));
+        CompletableFuture<Boolean> inboundFuture = asyncInventoryDynamoDAO.inbound(getInboundRequest(false));
+        Assertions.assertThatExceptionOfType(CompletionException.class).isThrownBy(inboundFuture::join)
+                .withCauseExactlyInstanceOf(RetriableException.class);
+    }
+
+    @Test
+    public void test_move_success() {
+        MoveInventoryRequest moveRequest = MoveInventoryRequest.builder().uniqueProductIds(UNIQUE_PRODUCT_IDS_1).sourceContainerId(CONTAINER_1)
+                .destinationContainerId(CONTAINER_2).sourceContainerMaxCapacity(CONTAINER_MAX_CAPACITY).destinationContainerMaxCapacity(CONTAINER_MAX_CAPACITY)
+                .skuCode(SKU_CODE).companyId(COMPANY_1).warehouseId(WAREHOUSE_1).build();
+        succeed(TransactWriteItemsRequest.class, new TransactWriteItemsResult());
+        asyncInventoryDynamoDAO.move(moveRequest).join();
+        verify(amazonDynamoDBAsyncClient).transactWriteItemsAsync(transactWriteItemsRequestArgumentCaptor.capture(), any(AsyncHandler.class));
+        List<TransactWriteItem> transactItems = transactWriteItemsRequestArgumentCaptor.getValue().getTransactItems();
+        new IntegerAssert(transactItems.size()).isEqualTo(UNIQUE_PRODUCT_IDS_1.size() + 2);
+        new ObjectAssert(inventoryTransactionBuilder.constructDeltaContainerCapacityExpression(WAREHOUSE_1, CONTAINER_1, -UNIQUE_PRODUCT_IDS_1.size(), CONTAINER_MAX_CAPACITY))
+                .usingRecursiveComparison().isEqualTo(transactItems.get(UNIQUE_PRODUCT_IDS_1.size()).getUpdate());
+        new ObjectAssert(inventoryTransactionBuilder.constructDeltaContainerCapacityExpression(WAREHOUSE_1, CONTAINER_2, UNIQUE_PRODUCT_IDS_1.size(), CONTAINER_MAX_CAPACITY))
+                .usingRecursiveComparison().isEqualTo(transactItems.get(UNIQUE_PRODUCT_IDS_1.size() + 1).getUpdate());
+    }
+
+    @Test
+    public void test_move_replay_of_committed_sub_batch_success() {
+        MoveInventoryRequest moveRequest = MoveInventoryRequest.builder().uniqueProductIds(UNIQUE_PRODUCT_IDS_1).sourceContainerId(CONTAINER_1)
+                .destinationContainerId(CONTAINER_2).sourceContainerMaxCapacity(CONTAINER_MAX_CAPACITY).destinationContainerMaxCapacity(CONTAINER_MAX_CAPACITY)
+                .skuCode(SKU_CODE).companyId(COMPANY_1).warehouseId(WAREHOUSE_1).clientRequestToken("request-1").build();
+        fail(TransactWriteItemsRequest.class, new IdempotentParameterMismatchException("exception"));
+        succeed(BatchGetItemRequest.class, inventoryItems(CONTAINER_2));
+        asyncInventoryDynamoDAO.move(moveRequest).join();
+        verify(amazonDynamoDBAsyncClient).transactWriteItemsAsync(any(TransactWriteItemsRequest.class), any(AsyncHandler.class));
+        verify(amazonDynamoDBAsyncClient).batchGetItemAsync(any(BatchGetItemRequest.class), any(AsyncHandler.class));
+    }
+
+    @Test
+    public void test_move_token_reused_for_different_transaction_non_retriable() {
+        MoveInventoryRequest moveRequest = MoveInventoryRequest.builder().uniqueProductIds(UNIQUE_PRODUCT_IDS_1).sourceContainerId(CONTAINER_1)
+                .destinationContainerId(CONTAINER_2).sourceContainerMaxCapacity(CONTAINER_MAX_CAPACITY).destinationContainerMaxCapacity(CONTAINER_MAX_CAPACITY)
+                .skuCode(SKU_CODE).companyId(COMPANY_1).warehouseId(WAREHOUSE_1).clientRequestToken("request-1").build();
+        fail(TransactWriteItemsRequest.class, new IdempotentParameterMismatchException("exception"));
+        succeed(BatchGetItemRequest.class, inventoryItems(CONTAINER_1));
+        CompletableFuture<Void> moveFuture = asyncInventoryDynamoDAO.move(moveRequest);
+        Assertions.assertThatExceptionOfType(CompletionException.class).isThrownBy(moveFuture::join)
+                .withCauseExactlyInstanceOf(NonRetriableException.class);
+    }
+
+    @Test
+    public void test_add_success() {
+        succeed(BatchGetItemRequest.class, new BatchGetItemResult().withResponses(ImmutableMap.of(INVENTORY_TABLE_NAME, ImmutableList.of())));
+        succeed(BatchWriteItemRequest.class, new BatchWriteItemResult().withUnprocessedItems(ImmutableMap.of()));
+        List<String> successfulProductIds = asyncInventoryDynamoDAO.add(getAddRequest()).join();
+        new ListAssert<>(successfulProductIds).containsExactlyElementsOf(UNIQUE_PRODUCT_IDS_1);
+        verify(amazonDynamoDBAsyncClient).batchWriteItemAsync(batchWriteItemRequestArgumentCaptor.capture(), any(AsyncHandler.class));
+        List<WriteRequest> writeRequests = batchWriteItemRequestArgumentCaptor.getValue().getRequestItems().get(INVENTORY_TABLE_NAME);
+        new ListAssert<>(writeRequests.stream().map(writeRequest -> writeRequest.getPutRequest().getItem().get("uniqueProductId").getS()).collect(toList()))
+                .containsExactlyElementsOf(UNIQUE_PRODUCT_IDS_1);
+    }
+
+    @Test
+    public void test_add_resource_already_exists() {
+        Map<String, AttributeValue> existingItem = ImmutableMap.of("uniqueProductId", new AttributeValue("1"));
+        succeed(BatchGetItemRequest.class, new BatchGetItemResult().withResponses(ImmutableMap.of(INVENTORY_TABLE_NAME, ImmutableList.of(existingItem))));
+        CompletableFuture<List<String>> addFuture = asyncInventoryDynamoDAO.add(getAddRequest());
+        Assertions.assertThatExceptionOfType(CompletionException.class).isThrownBy(addFuture::join)
+                .withCauseExactlyInstanceOf(ResourceAlreadyExistsException.class);
+        verify(amazonDynamoDBAsyncClient, never()).batchWriteItemAsync(any(BatchWriteItemRequest.class), any(AsyncHandler.class));
+    }
+
+    @Test
+    public void test_add_unprocessed_items_written_on_retry() {
+        succeed(BatchGetItemRequest.class, new BatchGetItemResult().withResponses(ImmutableMap.of(INVENTORY_TABLE_NAME, ImmutableList.of())));
+        WriteRequest unprocessedWrite = new WriteRequest().withPutRequest(new PutRequest().withItem(ImmutableMap.of("uniqueProductId", new AttributeValue("4"))));
+        succeed(BatchWriteItemRequest.class, new BatchWriteItemResult().withUnprocessedItems(ImmutableMap.of(INVENTORY_TABLE_NAME, ImmutableList.of(unprocessedWrite))),
+                new BatchWriteItemResult().withUnprocessedItems(ImmutableMap.of()));
+        List<String> successfulProductIds = asyncInventoryDynamoDAO.add(getAddRequest()).join();
+        new ListAssert<>(successfulProductIds).containsExactlyElementsOf(UNIQUE_PRODUCT_IDS_1);
+        verify(amazonDynamoDBAsyncClient, times(2)).batchWriteItemAsync(batchWriteItemRequestArgumentCaptor.capture(), any(AsyncHandler.class));
+        new ListAssert<>(batchWriteItemRequestArgumentCaptor.getAllValues().get(1).getRequestItems().get(INVENTORY_TABLE_NAME)).containsExactly(unprocessedWrite);
+    }
+
+    @Test
+    public void test_add_unprocessed_keys_retried() {
+        Map<String, KeysAndAttributes> unprocessedKeys = ImmutableMap.of(INVENTORY_TABLE_NAME, new KeysAndAttributes()
+                .withKeys(ImmutableMap.of("uniqueProductId", new AttributeValue("4"))));
+        succeed(BatchGetItemRequest.class, new BatchGetItemResult().withResponses(ImmutableMap.of(INVENTORY_TABLE_NAME, ImmutableList.of()))
+                .withUnprocessedKeys(unprocessedKeys), new BatchGetItemResult().withResponses(ImmutableMap.of(INVENTORY_TABLE_NAME, ImmutableList.of())));
+        succeed(BatchWriteItemRequest.class, new BatchWriteItemResult().withUnprocessedItems(ImmutableMap.of()));
+        List<String> successfulProductIds = asyncInventoryDynamoDAO.add(getAddRequest()).join();
+        new ListAssert<>(successfulProductIds).containsExactlyElementsOf(UNIQUE_PRODUCT_IDS_1);
+        verify(amazonDynamoDBAsyncClient, times(2)).batchGetItemAsync(any(BatchGetItemRequest.class), any(AsyncHandler.class));
+    }
+
+    @Test
+    public void test_add_unprocessed_keys_past_time_budget_retriable_exception() {
+        Map<String, KeysAndAttributes> unprocessedKeys = ImmutableMap.of(INVENTORY_TABLE_NAME, new KeysAndAttributes()
+                .withKeys(ImmutableMap.of("uniqueProductId", new AttributeValue("4"))));
+        succeed(BatchGetItemRequest.class, new BatchGetItemResult().withResponses(ImmutableMap.of(INVENTORY_TABLE_NAME, ImmutableList.of()))
+                .withUnprocessedKeys(unprocessedKeys));
+        // the deadline is taken at the first read, the second read is already past the 1000 ms budget
+        when(clock.millis()).thenReturn(EPOCH_MILLI, EPOCH_MILLI + 2000);
+        CompletableFuture<List<String>> addFuture = asyncInventoryDynamoDAO.add(getAddRequest());
+        Assertions.assertThatExceptionOfType(CompletionException.class).isThrownBy(addFuture::join)
+                .withCauseExactlyInstanceOf(RetriableException.class)
+                .withMessageContaining("1 keys still unprocessed after 1 batch get attempts");
+        verify(amazonDynamoDBAsyncClient).batchGetItemAsync(any(BatchGetItemRequest.class), any(AsyncHandler.class));
+        verify(amazonDynamoDBAsyncClient, never()).batchWriteItemAsync(any(BatchWriteItemRequest.class), any(AsyncHandler.class));
+    }
+
+    private InventoryInboundRequestDTO getInboundRequest(boolean capacityPreReserved) {
+        return InventoryInboundRequestDTO.builder().inboundId(INBOUND_1).inventoryStatus(new Inbound()).skuCode(SKU_CODE)
+                .containerId(CONTAINER_1).containerMaxCapacity(CONTAINER_MAX_CAPACITY).uniqueProductIds(UNIQUE_PRODUCT_IDS_1)
+                .companyId(COMPANY_1).warehouseId(WAREHOUSE_1).capacityPreReserved(capacityPreReserved).build();
+    }
+
+    private TransactionCanceledException transactionConflict() {
+        TransactionCanceledException transactionCanceledException = new TransactionCanceledException("exception");
+        transactionCanceledException.setCancellationReasons(ImmutableList.of(new CancellationReason().withCode("None"),
+                new CancellationReason().withCode("TransactionConflict")));
+        return transactionCanceledException;
+    }
+
+    private BatchGetItemResult inventoryItems(String containerId) {
+        List<Map<String, AttributeValue>> items = UNIQUE_PRODUCT_IDS_1.stream().<Map<String, AttributeValue>>map(uniqueProductId -> ImmutableMap.of(
+                "uniqueProductId", new AttributeValue(uniqueProductId), "companyId", new AttributeValue(COMPANY_1),
+                "containerId", new AttributeValue(containerId))).collect(toList());
+        return new BatchGetItemResult().withResponses(ImmutableMap.of(INVENTORY_TABLE_NAME, items));
+    }
+
+    private InventoryAddRequest getAddRequest() {
+        return InventoryAddRequest.builder().warehouseId(WAREHOUSE_1).companyId(COMPANY_1)
+                .inventoryStatus(new Production()).skuType(SKU_TYPE).skuCode(SKU_CODE).skuCategory(SKU_CATEGORY)
+                .uniqueProductIds(UNIQUE_PRODUCT_IDS_1).productionTime(EPOCH_MILLI).build();
+    }
+
+    /**
+     * completes the client callback of the given request type with the given results, one per call.
+     */
+    private <REQUEST extends AmazonWebServiceRequest> void succeed(Class<REQUEST> requestClass, Object... results) {
+        int[] call = {0};
+        stubAsyncCall(requestClass).thenAnswer(invocation -> {
+            AsyncHandler handler = (AsyncHandler) invocation.getArguments()[1];
+            handler.onSuccess((AmazonWebServiceRequest) invocation.getArguments()[0], results[Math.min(call[0]++, results.length - 1)]);
+            return null;
+        });
+    }
+
+    private <REQUEST extends AmazonWebServiceRequest> void fail(Class<REQUEST> requestClass, Exception exception) {
+        stubAsyncCall(requestClass).thenAnswer(invocation -> {
+            ((AsyncHandler) invocation.getArguments()[1]).onError(exception);
+            return null;
+        });
+    }
+
+    private org.mockito.stubbing.OngoingStubbing<?> stubAsyncCall(Class<?> requestClass) {
+        if (requestClass == TransactWriteItemsRequest.class) {
+            return when(amazonDynamoDBAsyncClient.transactWriteItemsAsync(any(TransactWriteItemsRequest.class), any(AsyncHandler.class)));
+        } else if (requestClass == BatchGetItemRequest.class) {
+            return when(amazonDynamoDBAsyncClient.batchGetItemAsync(any(BatchGetItemRequest.class), any(AsyncHandler.class)));
+        }
+        return when(amazonDynamoDBAsyncClient.batchWriteItemAsync(any(BatchWriteItemRequest.class), any(AsyncHandler.class)));
+    }
+}
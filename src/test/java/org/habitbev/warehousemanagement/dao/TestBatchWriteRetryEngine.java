@@ -0,0 +1,123 @@
+package org.habitbev.warehousemanagement.dao;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.*;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.LongAssert;
+import org.habitbev.warehousemanagement.entities.exceptions.RetriableException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TestBatchWriteRetryEngine {
+
+    private static final String INVENTORY_TABLE_NAME = "inventory";
+
+    private static final Map<String, List<WriteRequest>> UNPROCESSED_ITEMS = ImmutableMap.of(INVENTORY_TABLE_NAME,
+            ImmutableList.of(writeRequest("1"), writeRequest("2")));
+
+    @Mock
+    AmazonDynamoDB amazonDynamoDB;
+
+    BatchWriteRetryEngine batchWriteRetryEngine;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+        batchWriteRetryEngine = new BatchWriteRetryEngine(amazonDynamoDB, 1, 5, 2000, Clock.systemUTC());
+    }
+
+    @Test
+    public void test_retry_unprocessed_written_on_second_attempt() {
+        when(amazonDynamoDB.batchWriteItem(any(BatchWriteItemRequest.class)))
+                .thenReturn(new BatchWriteItemResult().withUnprocessedItems(ImmutableMap.of(INVENTORY_TABLE_NAME, ImmutableList.of(writeRequest("2")))))
+                .thenReturn(new BatchWriteItemResult().withUnprocessedItems(ImmutableMap.of()));
+        Map<String, List<WriteRequest>> stillUnprocessed = batchWriteRetryEngine.retryUnprocessed(UNPROCESSED_ITEMS);
+        Assertions.assertThat(stillUnprocessed).isEmpty();
+        verify(amazonDynamoDB, times(2)).batchWriteItem(any(BatchWriteItemRequest.class));
+        new LongAssert(batchWriteRetryEngine.getMetrics().getAttempts()).isEqualTo(2);
+        new LongAssert(batchWriteRetryEngine.getMetrics().getRetriedItems()).isEqualTo(3);
+    }
+
+    @Test
+    public void test_retry_unprocessed_throttled_then_written() {
+        when(amazonDynamoDB.batchWriteItem(any(BatchWriteItemRequest.class)))
+                .thenThrow(new ProvisionedThroughputExceededException("throttled"))
+                .thenReturn(new BatchWriteItemResult());
+        Map<String, List<WriteRequest>> stillUnprocessed = batchWriteRetryEngine.retryUnprocessed(UNPROCESSED_ITEMS);
+        Assertions.assertThat(stillUnprocessed).isEmpty();
+        new LongAssert(batchWriteRetryEngine.getMetrics().getThrottledAttempts()).isEqualTo(1);
+    }
+
+    @Test
+    public void test_retry_unprocessed_budget_exhausted() {
+        BatchWriteRetryEngine engine = new BatchWriteRetryEngine(amazonDynamoDB, 1, 5, 50, Clock.systemUTC());
+        when(amazonDynamoDB.batchWriteItem(any(BatchWriteItemRequest.class)))
+                .thenReturn(new BatchWriteItemResult().withUnprocessedItems(UNPROCESSED_ITEMS));
+        Map<String, List<WriteRequest>> stillUnprocessed = engine.retryUnprocessed(UNPROCESSED_ITEMS);
+        Assertions.assertThat(stillUnprocessed.get(INVENTORY_TABLE_NAME)).hasSize(2);
+        new LongAssert(engine.getMetrics().getExhaustedItems()).isEqualTo(2);
+    }
+
+    @Test
+    public void test_retry_unprocessed_empty() {
+        Assertions.assertThat(batchWriteRetryEngine.retryUnprocessed(ImmutableMap.of())).isEmpty();
+        verifyZeroInteractions(amazonDynamoDB);
+    }
+
+    @Test
+    public void test_retry_unprocessed_non_retriable_exception() {
+        when(amazonDynamoDB.batchWriteItem(any(BatchWriteItemRequest.class))).thenThrow(new ResourceNotFoundException("table missing"));
+        Assertions.assertThatExceptionOfType(ResourceNotFoundException.class).isThrownBy(() -> batchWriteRetryEngine.retryUnprocessed(UNPROCESSED_ITEMS));
+    }
+
+    @Test
+    public void test_retry_unprocessed_keys_read_on_second_attempt() {
+        Map<String, KeysAndAttributes> unprocessedKeys = ImmutableMap.of(INVENTORY_TABLE_NAME, keysAndAttributes("1", "2"));
+        when(amazonDynamoDB.batchGetItem(any(BatchGetItemRequest.class)))
+                .thenReturn(new BatchGetItemResult().withResponses(ImmutableMap.of(INVENTORY_TABLE_NAME, ImmutableList.of(key("1"))))
+                        .withUnprocessedKeys(ImmutableMap.of(INVENTORY_TABLE_NAME, keysAndAttributes("2"))))
+                .thenReturn(new BatchGetItemResult().withResponses(ImmutableMap.of(INVENTORY_TABLE_NAME, ImmutableList.of(key("2")))));
+        Map<String, List<Map<String, AttributeValue>>> items = batchWriteRetryEngine.retryUnprocessedKeys(unprocessedKeys);
+        Assertions.assertThat(items.get(INVENTORY_TABLE_NAME)).containsExactly(key("1"), key("2"));
+        verify(amazonDynamoDB, times(2)).batchGetItem(any(BatchGetItemRequest.class));
+        new LongAssert(batchWriteRetryEngine.getMetrics().getRetriedItems()).isEqualTo(3);
+    }
+
+    @Test
+    public void test_retry_unprocessed_keys_budget_exhausted_retriable_exception() {
+        BatchWriteRetryEngine engine = new BatchWriteRetryEngine(amazonDynamoDB, 1, 5, 50, Clock.systemUTC());
+        Map<String, KeysAndAttributes> unprocessedKeys = ImmutableMap.of(INVENTORY_TABLE_NAME, keysAndAttributes("1", "2"));
+        when(amazonDynamoDB.batchGetItem(any(BatchGetItemRequest.class)))
+                .thenReturn(new BatchGetItemResult().withUnprocessedKeys(unprocessedKeys));
+        Assertions.assertThatExceptionOfType(RetriableException.class).isThrownBy(() -> engine.retryUnprocessedKeys(unprocessedKeys))
+                .withMessageContaining("2 keys still unprocessed");
+        new LongAssert(engine.getMetrics().getExhaustedItems()).isEqualTo(2);
+    }
+
+    private static KeysAndAttributes keysAndAttributes(String... uniqueProductIds) {
+        return new KeysAndAttributes().withKeys(Arrays.stream(uniqueProductIds).map(TestBatchWriteRetryEngine::key).collect(Collectors.toList()));
+    }
+
+    private static Map<String, AttributeValue> key(String uniqueProductId) {
+        return ImmutableMap.of("uniqueProductId", new AttributeValue(uniqueProductId));
+    }
+
+    private static WriteRequest writeRequest(String uniqueProductId) {
+        return new WriteRequest().withPutRequest(new PutRequest().withItem(ImmutableMap.of("uniqueProductId", new AttributeValue(uniqueProductId))));
+    }
+}
@@ -0,0 +1,101 @@
+package org.habitbev.warehousemanagement.dao;
+
+import com.google.common.collect.ImmutableMap;
+import org.assertj.core.api.Assertions;
+import org.habitbev.warehousemanagement.entities.container.ContainerDTO;
+import org.habitbev.warehousemanagement.entities.container.GetContainerRequest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.time.Clock;
+import java.util.Optional;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TestCachingContainerDAO {
+
+    private static final String WAREHOUSE_1 = "WAREHOUSE-1";
+    private static final String CONTAINER_1 = "CONTAINER-1";
+    private static final String CONTAINER_2 = "CONTAINER-2";
+    private static final long TTL_MILLIS = 1000;
+    private static final long TIME_NOW = 1_000_000L;
+
+    @Mock
+    ContainerDAO containerDAO;
+
+    @Mock
+    Clock clock;
+
+    CachingContainerDAO cachingContainerDAO;
+
+    @Before
+    public void setup() {
+        Mockito.when(clock.millis()).thenReturn(TIME_NOW);
+        cachingContainerDAO = new CachingContainerDAO(containerDAO, 1, TTL_MILLIS, clock);
+    }
+
+    @Test
+    public void test_get_container_served_from_cache() {
+        GetContainerRequest request = GetContainerRequest.builder().warehouseId(WAREHOUSE_1).containerId(CONTAINER_1).build();
+        ContainerDTO containerDTO = containerDTO(CONTAINER_1);
+        Mockito.when(containerDAO.getContainer(request)).thenReturn(Optional.of(containerDTO));
+
+        Assertions.assertThat(cachingContainerDAO.getContainer(request)).contains(containerDTO);
+        Assertions.assertThat(cachingContainerDAO.getContainer(request)).contains(containerDTO);
+
+        verify(containerDAO, times(1)).getContainer(request);
+        CachingContainerDAO.CacheMetrics metrics = cachingContainerDAO.getMetrics();
+        Assertions.assertThat(metrics.getHits()).isEqualTo(1);
+        Assertions.assertThat(metrics.getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    public void test_get_container_reloaded_after_ttl() {
+        GetContainerRequest request = GetContainerRequest.builder().warehouseId(WAREHOUSE_1).containerId(CONTAINER_1).build();
+        Mockito.when(containerDAO.getContainer(request)).thenReturn(Optional.of(containerDTO(CONTAINER_1)));
+
+        cachingContainerDAO.getContainer(request);
+        Mockito.when(clock.millis()).thenReturn(TIME_NOW + TTL_MILLIS);
+        cachingContainerDAO.getContainer(request);
+
+        verify(containerDAO, times(2)).getContainer(request);
+    }
+
+    @Test
+    public void test_get_container_absent_not_cached() {
+        GetContainerRequest request = GetContainerRequest.builder().warehouseId(WAREHOUSE_1).containerId(CONTAINER_1).build();
+        Mockito.when(containerDAO.getContainer(request)).thenReturn(Optional.empty());
+
+        Assertions.assertThat(cachingContainerDAO.getContainer(request)).isEmpty();
+        Assertions.assertThat(cachingContainerDAO.getContainer(request)).isEmpty();
+
+        verify(containerDAO, times(2)).getContainer(request);
+        Assertions.assertThat(cachingContainerDAO.getMetrics().getSize()).isEqualTo(0);
+    }
+
+    @Test
+    public void test_get_container_evicted_over_max_size() {
+        GetContainerRequest request1 = GetContainerRequest.builder().warehouseId(WAREHOUSE_1).containerId(CONTAINER_1).build();
+        GetContainerRequest request2 = GetContainerRequest.builder().warehouseId(WAREHOUSE_1).containerId(CONTAINER_2).build();
+        Mockito.when(containerDAO.getContainer(request1)).thenReturn(Optional.of(containerDTO(CONTAINER_1)));
+        Mockito.when(containerDAO.getContainer(request2)).thenReturn(Optional.of(containerDTO(CONTAINER_2)));
+
+        cachingContainerDAO.getContainer(request1);
+        cachingContainerDAO.getContainer(request2);
+
+        CachingContainerDAO.CacheMetrics metrics = cachingContainerDAO.getMetrics();
+        Assertions.assertThat(metrics.getEvictions()).isEqualTo(1);
+        Assertions.assertThat(metrics.getSize()).isEqualTo(1);
+    }
+
+    private ContainerDTO containerDTO(String containerId) {
+        return new ContainerDTO.Builder().warehouseId(WAREHOUSE_1).containerId(containerId)
+                .predefinedCapacity(ImmutableMap.of("sku1", 20)).creationTime(TIME_NOW).modifiedTime(TIME_NOW).build();
+    }
+}
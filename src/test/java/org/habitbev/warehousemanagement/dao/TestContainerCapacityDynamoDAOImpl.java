@@ -1,12 +1,17 @@
 package org.habitbev.warehousemanagement.dao;
 
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBSaveExpression;
 import com.amazonaws.services.dynamodbv2.model.*;
+import com.google.common.util.concurrent.MoreExecutors;
 import org.assertj.core.api.Assertions;
 import org.assertj.core.api.BooleanAssert;
 import org.assertj.core.api.IntegerAssert;
 import org.habitbev.warehousemanagement.entities.container.containerstatus.Available;
+import org.habitbev.warehousemanagement.entities.container.containerstatus.Filled;
+import org.habitbev.warehousemanagement.entities.container.containerstatus.PartiallyFilled;
+import org.habitbev.warehousemanagement.entities.exceptions.InconsistentStateException;
 import org.habitbev.warehousemanagement.entities.exceptions.NonRetriableException;
 import org.habitbev.warehousemanagement.entities.exceptions.RetriableException;
 import org.junit.Before;
@@ -16,9 +21,12 @@ import org.mockito.*;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.habitbev.warehousemanagement.entities.dynamodb.ContainerCapacity;
 import org.habitbev.warehousemanagement.entities.exceptions.ResourceAlreadyExistsException;
+import org.habitbev.warehousemanagement.helpers.ContainerCapacityShards;
+import org.habitbev.warehousemanagement.helpers.ContainerStatusDeterminer;
 
 import java.time.Clock;
 import java.time.Instant;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -40,6 +48,12 @@ public class TestContainerCapacityDynamoDAOImpl {
     @Mock
     DynamoDBMapper dynamoDBMapper;
 
+    @Mock
+    AmazonDynamoDB amazonDynamoDB;
+
+    @Captor
+    ArgumentCaptor<UpdateItemRequest> updateItemRequestCaptor;
+
     @Captor
     ArgumentCaptor<DynamoDBSaveExpression> dynamoDBSaveExpressionCaptor;
 
@@ -49,11 +63,13 @@ public class TestContainerCapacityDynamoDAOImpl {
     @Mock
     Clock clock;
 
+    BatchWriteRetryEngine batchWriteRetryEngine;
 
     @Before
     public void setupClass() {
         MockitoAnnotations.initMocks(this);
-        containerCapacityDynamoDAO = new ContainerCapacityDynamoDAOImpl(dynamoDBMapper, clock);
+        batchWriteRetryEngine = new BatchWriteRetryEngine(amazonDynamoDB, 1, 5, 50, Clock.systemUTC());
+        containerCapacityDynamoDAO = new ContainerCapacityDynamoDAOImpl(amazonDynamoDB, dynamoDBMapper, new ContainerStatusDeterminer(), new ContainerCapacityShards("", 4), MoreExecutors.newDirectExecutorService(), batchWriteRetryEngine, clock);
         Mockito.when(clock.millis()).thenReturn(TIME_NOW);
     }
 
@@ -73,6 +89,81 @@ public class TestContainerCapacityDynamoDAOImpl {
     }
 
 
+    @Test
+    public void test_get_exists_with_max_capacity_derives_status() {
+        String hashKey = String.join(DELIMITER, WAREHOUSE_1, CONTAINER_1);
+
+        ContainerCapacity storedEntity = ContainerCapacity.builder().warehouseContainerId(hashKey).currentCapacity(5).maxCapacity(5)
+                .creationTime(TIME_NOW).modifiedTime(TIME_NOW).containerStatus(new Available()).build();
+        Mockito.when(dynamoDBMapper.load(ContainerCapacity.class, hashKey)).thenReturn(storedEntity);
+        Optional<ContainerCapacity> containerCapacityOp = containerCapacityDynamoDAO.get(WAREHOUSE_1, CONTAINER_1);
+        new BooleanAssert(containerCapacityOp.isPresent()).isEqualTo(true);
+        Assertions.assertThat(containerCapacityOp.get().getContainerStatus()).isEqualTo(new Filled());
+        Mockito.verify(dynamoDBMapper).load(Mockito.any(), Mockito.eq(hashKey));
+        Mockito.verifyNoMoreInteractions(dynamoDBMapper);
+        Mockito.verifyZeroInteractions(clock);
+    }
+
+
+    @Test
+    public void test_get_delta_updated_without_status_derives_status() {
+        String hashKey = String.join(DELIMITER, WAREHOUSE_1, CONTAINER_1);
+
+        ContainerCapacity storedEntity = ContainerCapacity.builder().warehouseContainerId(hashKey).currentCapacity(2).maxCapacity(5)
+                .creationTime(TIME_NOW).modifiedTime(TIME_NOW).containerStatus(new Available()).build();
+        storedEntity.setContainerStatus(null);
+        Mockito.when(dynamoDBMapper.load(ContainerCapacity.class, hashKey)).thenReturn(storedEntity);
+        Optional<ContainerCapacity> containerCapacityOp = containerCapacityDynamoDAO.get(WAREHOUSE_1, CONTAINER_1);
+        new BooleanAssert(containerCapacityOp.isPresent()).isEqualTo(true);
+        Assertions.assertThat(containerCapacityOp.get().getContainerStatus()).isEqualTo(new PartiallyFilled());
+        Mockito.verify(dynamoDBMapper).load(Mockito.any(), Mockito.eq(hashKey));
+        Mockito.verifyNoMoreInteractions(dynamoDBMapper);
+        Mockito.verifyZeroInteractions(clock);
+    }
+
+
+    @Test
+    public void test_adjust_capacity_reserve_success() {
+        containerCapacityDynamoDAO.adjustCapacity(WAREHOUSE_1, CONTAINER_1, 3, 10);
+        Mockito.verify(amazonDynamoDB).updateItem(updateItemRequestCaptor.capture());
+        UpdateItemRequest updateItemRequest = updateItemRequestCaptor.getValue();
+        Assertions.assertThat(updateItemRequest.getKey().get("warehouseContainerId").getS()).isEqualTo(String.join(DELIMITER, WAREHOUSE_1, CONTAINER_1));
+        Assertions.assertThat(updateItemRequest.getUpdateExpression()).startsWith("ADD currentCapacity :delta")
+                .contains("creationTime = if_not_exists(creationTime, :modified_time)").endsWith("REMOVE containerStatus");
+        Assertions.assertThat(updateItemRequest.getConditionExpression()).contains("(attribute_not_exists(currentCapacity) or currentCapacity <= :capacity_bound)")
+                .contains("(attribute_not_exists(containerStatus) or containerStatus <> :discontinued_status)");
+        Assertions.assertThat(updateItemRequest.getExpressionAttributeValues().get(":delta").getN()).isEqualTo("3");
+        Assertions.assertThat(updateItemRequest.getExpressionAttributeValues().get(":capacity_bound").getN()).isEqualTo("7");
+        Mockito.verify(clock).millis();
+        Mockito.verifyZeroInteractions(dynamoDBMapper);
+    }
+
+    @Test
+    public void test_adjust_capacity_release_success() {
+        containerCapacityDynamoDAO.adjustCapacity(WAREHOUSE_1, CONTAINER_1, -3, 10);
+        Mockito.verify(amazonDynamoDB).updateItem(updateItemRequestCaptor.capture());
+        UpdateItemRequest updateItemRequest = updateItemRequestCaptor.getValue();
+        Assertions.assertThat(updateItemRequest.getConditionExpression()).startsWith("currentCapacity >= :capacity_bound")
+                .doesNotContain("attribute_not_exists(currentCapacity)");
+        Assertions.assertThat(updateItemRequest.getExpressionAttributeValues().get(":capacity_bound").getN()).isEqualTo("3");
+    }
+
+    @Test
+    public void test_adjust_capacity_out_of_bounds() {
+        Mockito.when(amazonDynamoDB.updateItem(Mockito.any(UpdateItemRequest.class))).thenThrow(new ConditionalCheckFailedException("condition failed"));
+        Assertions.assertThatExceptionOfType(InconsistentStateException.class)
+                .isThrownBy(() -> containerCapacityDynamoDAO.adjustCapacity(WAREHOUSE_1, CONTAINER_1, 3, 10))
+                .withCauseExactlyInstanceOf(ConditionalCheckFailedException.class);
+    }
+
+    @Test
+    public void test_adjust_capacity_internal_server_exception() {
+        Mockito.when(amazonDynamoDB.updateItem(Mockito.any(UpdateItemRequest.class))).thenThrow(new InternalServerErrorException("internal server exception"));
+        Assertions.assertThatExceptionOfType(RetriableException.class)
+                .isThrownBy(() -> containerCapacityDynamoDAO.adjustCapacity(WAREHOUSE_1, CONTAINER_1, 3, 10))
+                .withCauseExactlyInstanceOf(InternalServerErrorException.class);
+    }
+
     @Test
     public void test_get_internal_server_exception() {
         String hashKey = String.join(DELIMITER, WAREHOUSE_1, CONTAINER_1);
@@ -211,6 +302,39 @@ public class TestContainerCapacityDynamoDAOImpl {
         Assertions.assertThat(actualEntity).usingRecursiveComparison().isEqualTo(expectedEntity);
     }
 
+    @Test
+    public void test_get_shard_capacities_unprocessed_keys_retried() {
+        String hashKey = String.join(DELIMITER, WAREHOUSE_1, CONTAINER_1);
+        ContainerCapacityDynamoDAOImpl shardedDAO = new ContainerCapacityDynamoDAOImpl(amazonDynamoDB, dynamoDBMapper, new ContainerStatusDeterminer(),
+                new ContainerCapacityShards(hashKey, 2), MoreExecutors.newDirectExecutorService(), batchWriteRetryEngine, clock);
+        String secondShardKey = String.join(DELIMITER, hashKey, "1");
+        Mockito.when(amazonDynamoDB.batchGetItem(Mockito.any(BatchGetItemRequest.class)))
+                .thenReturn(new BatchGetItemResult().withResponses(Collections.singletonMap("container-capacity",
+                                Collections.singletonList(shardItem(hashKey, 3))))
+                        .withUnprocessedKeys(Collections.singletonMap("container-capacity", new KeysAndAttributes()
+                                .withKeys(Collections.singletonMap("warehouseContainerId", new AttributeValue(secondShardKey))))))
+                .thenReturn(new BatchGetItemResult().withResponses(Collections.singletonMap("container-capacity",
+                        Collections.singletonList(shardItem(secondShardKey, 4)))));
+        int[] shardCapacities = shardedDAO.getShardCapacities(WAREHOUSE_1, CONTAINER_1);
+        Assertions.assertThat(shardCapacities).containsExactly(3, 4);
+        Mockito.verify(amazonDynamoDB, Mockito.times(2)).batchGetItem(Mockito.any(BatchGetItemRequest.class));
+    }
 
-}
+    @Test
+    public void test_get_shard_capacities_keys_unprocessed_past_budget_retriable_exception() {
+        String hashKey = String.join(DELIMITER, WAREHOUSE_1, CONTAINER_1);
+        Mockito.when(amazonDynamoDB.batchGetItem(Mockito.any(BatchGetItemRequest.class)))
+                .thenReturn(new BatchGetItemResult().withUnprocessedKeys(Collections.singletonMap("container-capacity", new KeysAndAttributes()
+                        .withKeys(Collections.singletonMap("warehouseContainerId", new AttributeValue(hashKey))))));
+        Assertions.assertThatExceptionOfType(RetriableException.class)
+                .isThrownBy(() -> containerCapacityDynamoDAO.getShardCapacities(WAREHOUSE_1, CONTAINER_1))
+                .withMessageContaining("still unprocessed");
+    }
 
+    private static Map<String, AttributeValue> shardItem(String warehouseContainerId, int currentCapacity) {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("warehouseContainerId", new AttributeValue(warehouseContainerId));
+        item.put("currentCapacity", new AttributeValue().withN(String.valueOf(currentCapacity)));
+        return item;
+    }
+}
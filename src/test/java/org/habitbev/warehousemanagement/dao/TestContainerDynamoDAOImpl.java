@@ -4,6 +4,7 @@ import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBQueryExpression;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBSaveExpression;
 import com.amazonaws.services.dynamodbv2.datamodeling.PaginatedQueryList;
+import com.amazonaws.services.dynamodbv2.datamodeling.TransactionWriteRequest;
 import com.amazonaws.services.dynamodbv2.model.*;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableList;
@@ -28,8 +29,11 @@ import java.time.Clock;
 import java.time.Instant;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.verify;
@@ -113,6 +117,48 @@ public class TestContainerDynamoDAOImpl {
         verifyZeroInteractions(objectMapper);
     }
 
+    @Test
+    public void test_add_all_success() {
+        List<ContainerDTO> containerDTOs = containerDTOs(120);
+
+        List<ContainerDTO> addedContainers = containerDynamoDAO.addAll(containerDTOs);
+
+        Assertions.assertThat(addedContainers).containsExactlyElementsOf(containerDTOs);
+        verify(dynamoDBMapper, Mockito.times(3)).transactionWrite(Mockito.any(TransactionWriteRequest.class));
+        verify(clock).millis();
+        Mockito.verifyNoMoreInteractions(dynamoDBMapper);
+    }
+
+    @Test
+    public void test_add_all_later_transaction_fails_returns_committed_containers() {
+        List<ContainerDTO> containerDTOs = containerDTOs(120);
+        Mockito.doNothing().doThrow(new InternalServerErrorException("internal server exception")).when(dynamoDBMapper)
+                .transactionWrite(Mockito.any(TransactionWriteRequest.class));
+
+        List<ContainerDTO> addedContainers = containerDynamoDAO.addAll(containerDTOs);
+
+        Assertions.assertThat(addedContainers).containsExactlyElementsOf(containerDTOs.subList(0, 50));
+        verify(dynamoDBMapper, Mockito.times(2)).transactionWrite(Mockito.any(TransactionWriteRequest.class));
+        Mockito.verifyNoMoreInteractions(dynamoDBMapper);
+    }
+
+    @Test
+    public void test_add_all_first_transaction_fails_retriable_exception() {
+        Mockito.doThrow(new InternalServerErrorException("internal server exception")).when(dynamoDBMapper)
+                .transactionWrite(Mockito.any(TransactionWriteRequest.class));
+
+        Assertions.assertThatExceptionOfType(RetriableException.class)
+                .isThrownBy(() -> containerDynamoDAO.addAll(containerDTOs(120)))
+                .withCauseExactlyInstanceOf(InternalServerErrorException.class);
+        verify(dynamoDBMapper).transactionWrite(Mockito.any(TransactionWriteRequest.class));
+        Mockito.verifyNoMoreInteractions(dynamoDBMapper);
+    }
+
+    private List<ContainerDTO> containerDTOs(int quantity) {
+        return IntStream.rangeClosed(1, quantity).mapToObj(index -> new ContainerDTO.Builder().containerId("CONTAINER-" + index)
+                .warehouseId(WAREHOUSE_1).predefinedCapacity(PREDEFINED_CAPACITY).build()).collect(Collectors.toList());
+    }
+
     @Test
     public void test_add_input_null_non_retriable_exception() {
         Assertions.assertThatExceptionOfType(NonRetriableException.class)
@@ -176,15 +222,33 @@ public class TestContainerDynamoDAOImpl {
         ContainerDTO containerDTO = new ContainerDTO.Builder().containerId(CONTAINER_1).warehouseId(WAREHOUSE_1)
                 .creationTime(TIME_NOW).modifiedTime(TIME_NOW).predefinedCapacity(PREDEFINED_CAPACITY).build();
         Mockito.when(dynamoDBMapper.query(Mockito.any(), Mockito.any(DynamoDBQueryExpression.class))).thenReturn(paginatedQueryList);
-        Mockito.when(paginatedQueryList.stream()).thenReturn(Collections.EMPTY_LIST.stream());
+        Mockito.when(paginatedQueryList.stream()).thenReturn(Collections.EMPTY_LIST.stream(), Collections.EMPTY_LIST.stream());
         Optional<ContainerDTO> lastAddedContainerOp = containerDynamoDAO.getLastAddedContainer(containerDTO.getWarehouseId());
-        verify(dynamoDBMapper).query(eq(Container.class), dynamoDBQueryExpressionCaptor.capture());
-        verify(paginatedQueryList).stream();
+        verify(dynamoDBMapper, Mockito.times(2)).query(eq(Container.class), dynamoDBQueryExpressionCaptor.capture());
+        verify(paginatedQueryList, Mockito.times(2)).stream();
         new BooleanAssert(lastAddedContainerOp.isPresent()).isEqualTo(false);
         Mockito.verifyNoMoreInteractions(dynamoDBMapper);
         Mockito.verifyNoMoreInteractions(paginatedQueryList);
     }
 
+    @Test
+    public void test_get_last_container_not_yet_indexed_success() {
+        ContainerDTO containerDTO = new ContainerDTO.Builder().containerId(CONTAINER_1).warehouseId(WAREHOUSE_1)
+                .creationTime(TIME_NOW).modifiedTime(TIME_NOW).predefinedCapacity(PREDEFINED_CAPACITY).build();
+        Container expectedEntity = containerDTO.toDbEntity();
+        Mockito.when(dynamoDBMapper.query(Mockito.any(), Mockito.any(DynamoDBQueryExpression.class))).thenReturn(paginatedQueryList);
+        Mockito.when(paginatedQueryList.stream()).thenReturn(Collections.EMPTY_LIST.stream(), ImmutableList.of(expectedEntity).stream());
+        Optional<ContainerDTO> lastAddedContainerOp = containerDynamoDAO.getLastAddedContainer(containerDTO.getWarehouseId());
+        verify(dynamoDBMapper, Mockito.times(2)).query(eq(Container.class), dynamoDBQueryExpressionCaptor.capture());
+        new BooleanAssert(lastAddedContainerOp.isPresent()).isEqualTo(true);
+        Assertions.assertThat(lastAddedContainerOp.get().getContainerId()).isEqualTo(CONTAINER_1);
+        DynamoDBQueryExpression indexQuery = dynamoDBQueryExpressionCaptor.getAllValues().get(0);
+        DynamoDBQueryExpression tableQuery = dynamoDBQueryExpressionCaptor.getAllValues().get(1);
+        Assertions.assertThat(indexQuery.getIndexName()).isEqualTo(Container.WAREHOUSE_SEQUENCE_INDEX);
+        Assertions.assertThat(tableQuery.getIndexName()).isNull();
+        Assertions.assertThat(tableQuery.isConsistentRead()).isTrue();
+    }
+
     @Test
     public void test_get_last_container_internal_server_exception() {
         ContainerDTO containerDTO = new ContainerDTO.Builder().containerId(CONTAINER_1).warehouseId(WAREHOUSE_1)
@@ -235,8 +299,9 @@ public class TestContainerDynamoDAOImpl {
         Map<String, AttributeValue> eav = new HashMap();
         eav.put(":val1", new AttributeValue().withS(containerDTO.getWarehouseId()));
         DynamoDBQueryExpression<FinishedGoodsInbound> expectedDynamoDBQueryExpression = new DynamoDBQueryExpression<FinishedGoodsInbound>()
+                .withIndexName(Container.WAREHOUSE_SEQUENCE_INDEX)
                 .withKeyConditionExpression("warehouseId = :val1").withExpressionAttributeValues(eav)
-                .withScanIndexForward(false).withLimit(1).withConsistentRead(true);
+                .withScanIndexForward(false).withLimit(1).withConsistentRead(false);
 
         Assertions.assertThat(actualDdbQueryExpression).usingRecursiveComparison().isEqualTo(expectedDynamoDBQueryExpression);
     }
@@ -300,12 +300,14 @@ public class TestInboundDynamoDAOImpl {
         FGInboundDTO fgInboundDTO = FGInboundDTO.builder().inboundId(INBOUND_1).status(new Closed()).warehouseId(WAREHOUSE_1)
                 .startTime(startTime).modifiedTime(modifiedTime).endTime(modifiedTime).userId(USER_ID).build();
         when(dynamoDBMapper.query(any(), any(DynamoDBQueryExpression.class))).thenReturn(paginatedQueryList);
-        when(paginatedQueryList.stream()).thenReturn(Collections.EMPTY_LIST.stream());
+        when(paginatedQueryList.stream()).thenReturn(Collections.EMPTY_LIST.stream(), Collections.EMPTY_LIST.stream());
         Optional<FinishedGoodsInbound> lastInboundOp = inboundDynamoDAO.getLastInbound(fgInboundDTO.getWarehouseId());
-        Mockito.verify(dynamoDBMapper).query(eq(FinishedGoodsInbound.class), dynamoDBQueryExpressionCaptor.capture());
-        Mockito.verify(paginatedQueryList).stream();
+        Mockito.verify(dynamoDBMapper, Mockito.times(2)).query(eq(FinishedGoodsInbound.class), dynamoDBQueryExpressionCaptor.capture());
+        Mockito.verify(paginatedQueryList, Mockito.times(2)).stream();
         new BooleanAssert(lastInboundOp.isPresent()).isEqualTo(false);
-        captorVerifyQuery(fgInboundDTO);
+        // nothing in the sequence index, the table itself is read consistently by its range key
+        Assertions.assertThat(dynamoDBQueryExpressionCaptor.getAllValues().get(1).getIndexName()).isNull();
+        Assertions.assertThat(dynamoDBQueryExpressionCaptor.getAllValues().get(1).isConsistentRead()).isTrue();
         Mockito.verifyNoMoreInteractions(dynamoDBMapper);
         Mockito.verifyNoMoreInteractions(paginatedQueryList);
     }
@@ -383,8 +385,9 @@ public class TestInboundDynamoDAOImpl {
         Map<String, AttributeValue> eav = new HashMap();
         eav.put(":val1", new AttributeValue().withS(fgInboundDTO.getWarehouseId()));
         DynamoDBQueryExpression<FinishedGoodsInbound> expectedDynamoDBQueryExpression = new DynamoDBQueryExpression<FinishedGoodsInbound>()
+                .withIndexName(FinishedGoodsInbound.WAREHOUSE_SEQUENCE_INDEX)
                 .withKeyConditionExpression("warehouseId = :val1").withExpressionAttributeValues(eav)
-                .withScanIndexForward(false).withLimit(1).withConsistentRead(true);
+                .withScanIndexForward(false).withLimit(1).withConsistentRead(false);
 
         Assertions.assertThat(actualDdbQueryExpression).usingRecursiveComparison().isEqualTo(expectedDynamoDBQueryExpression);
     }
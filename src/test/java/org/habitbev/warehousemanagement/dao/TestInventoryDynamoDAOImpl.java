@@ -33,7 +33,9 @@ import org.habitbev.warehousemanagement.entities.inventory.inventorystatus.Inbou
 import org.habitbev.warehousemanagement.entities.inventory.inventorystatus.InventoryStatus;
 import org.habitbev.warehousemanagement.entities.inventory.inventorystatus.Outbound;
 import org.habitbev.warehousemanagement.entities.inventory.inventorystatus.Production;
+import org.habitbev.warehousemanagement.helpers.ContainerCapacityShards;
 import org.habitbev.warehousemanagement.helpers.ContainerStatusDeterminer;
+import org.habitbev.warehousemanagement.helpers.ContainerLockRegistry;
 
 import java.time.Clock;
 import java.time.Instant;
@@ -83,9 +85,12 @@ public class TestInventoryDynamoDAOImpl {
     private static final String OUTBOUND_1 = "OUTBOUND-1";
     private static final int CONTAINER_MAX_CAPACITY = 5;
     private static final String ORDER_1 = "ORDER-1";
+    private static final String CLIENT_REQUEST_TOKEN = "7b4f2c1e-3d5a-3c8b-9e6f-0a1b2c3d4e5f";
 
 
     InventoryDynamoDAOImpl inventoryDynamoDAO;
+
+    InventoryDynamoDAOImpl deltaInventoryDynamoDAO;
     @Mock
     DynamoDBMapper inventoryDynamoDbMapper;
 
@@ -98,6 +103,11 @@ public class TestInventoryDynamoDAOImpl {
     @Mock
     ContainerStatusDeterminer containerStatusDeterminer;
 
+    @Mock
+    BatchWriteRetryEngine batchWriteRetryEngine;
+
+    ContainerCapacityShards containerCapacityShards = new ContainerCapacityShards("", 4);
+
 
     @Captor
     ArgumentCaptor<ImmutableMap<Class<?>, List<KeyPair>>> batchLoadArgumentCaptor;
@@ -109,6 +119,9 @@ public class TestInventoryDynamoDAOImpl {
     @Captor
     ArgumentCaptor<TransactWriteItemsRequest> transactWriteItemsRequestArgumentCaptor;
 
+    @Captor
+    ArgumentCaptor<Map<String, List<WriteRequest>>> unprocessedItemsCaptor;
+
     @Captor
     ArgumentCaptor<FinishedGoodsInbound> finishedGoodsInboundCaptor;
 
@@ -120,7 +133,8 @@ public class TestInventoryDynamoDAOImpl {
     public void setupClass() {
         MockitoAnnotations.initMocks(this);
         when(clock.millis()).thenReturn(EPOCH_MILLI);
-        inventoryDynamoDAO = new InventoryDynamoDAOImpl(amazonDynamoDBClient, inventoryDynamoDbMapper, containerStatusDeterminer, containerCapacityDAO, clock);
+        inventoryDynamoDAO = new InventoryDynamoDAOImpl(amazonDynamoDBClient, inventoryDynamoDbMapper, containerStatusDeterminer, containerCapacityDAO, new ContainerLockRegistry(16, 1000), batchWriteRetryEngine, containerCapacityShards, false, 3, clock);
+        deltaInventoryDynamoDAO = new InventoryDynamoDAOImpl(amazonDynamoDBClient, inventoryDynamoDbMapper, containerStatusDeterminer, containerCapacityDAO, new ContainerLockRegistry(16, 1000), batchWriteRetryEngine, containerCapacityShards, true, 3, clock);
     }
 
     @Test
@@ -177,11 +191,13 @@ public class TestInventoryDynamoDAOImpl {
         ImmutableList<String> failedIds = ImmutableList.of("1");
         when(inventoryDynamoDbMapper.marshallIntoObject(any(), anyMap())).thenReturn(INVENTORY);
         when(inventoryDynamoDbMapper.batchSave(anyList())).thenReturn(getFailedBatches(failedIds));
+        when(batchWriteRetryEngine.retryUnprocessed(anyMap())).thenAnswer(invocation -> invocation.getArguments()[0]);
 
         List<String> successfulProductIds = inventoryDynamoDAO.add(addRequest);
 
         verify(inventoryDynamoDbMapper).batchLoad(batchLoadArgumentCaptor.capture());
         verify(inventoryDynamoDbMapper).batchSave(batchSaveArgumentCaptor.capture());
+        verify(batchWriteRetryEngine).retryUnprocessed(anyMap());
         verify(inventoryDynamoDbMapper).marshallIntoObject(any(), anyMap());
         assertInventoryBatchLoadArguments(addRequest);
         assertInventoryBatchSaveArguments(addRequest);
@@ -192,6 +208,23 @@ public class TestInventoryDynamoDAOImpl {
         new ListAssert<String>(successfulProductIds).doesNotContainAnyElementsOf(failedIds);
     }
 
+    @Test
+    public void test_add_success_failed_items_written_on_retry() {
+        InventoryAddRequest addRequest = InventoryAddRequest.builder().warehouseId(WAREHOUSE_1).companyId(COMPANY_1)
+                .inventoryStatus(new Production()).skuType(SKU_TYPE).skuCode(SKU_CODE).skuCategory(SKU_CATEGORY)
+                .uniqueProductIds(UNIQUE_PRODUCT_IDS_1).productionTime(EPOCH_MILLI).build();
+        when(inventoryDynamoDbMapper.batchLoad(anyMap())).thenReturn(EMPTY_INVENTORY_OBJECTS);
+        when(inventoryDynamoDbMapper.batchSave(anyList())).thenReturn(getFailedBatches(ImmutableList.of("1", "2")));
+        when(batchWriteRetryEngine.retryUnprocessed(anyMap())).thenReturn(ImmutableMap.of());
+
+        List<String> successfulProductIds = inventoryDynamoDAO.add(addRequest);
+
+        verify(batchWriteRetryEngine).retryUnprocessed(unprocessedItemsCaptor.capture());
+        new IntegerAssert(unprocessedItemsCaptor.getValue().get(INVENTORY_TABLE_NAME).size()).isEqualTo(2);
+        verify(inventoryDynamoDbMapper, never()).marshallIntoObject(any(), anyMap());
+        new ListAssert<String>(successfulProductIds).containsExactlyInAnyOrderElementsOf(addRequest.getUniqueProductIds());
+    }
+
     @Test
     public void test_add_internal_server_exception() {
         InventoryAddRequest addRequest = InventoryAddRequest.builder().warehouseId(WAREHOUSE_1).companyId(COMPANY_1)
@@ -401,6 +434,201 @@ public class TestInventoryDynamoDAOImpl {
         verifyZeroInteractions(inventoryDynamoDbMapper);
     }
 
+    @Test
+    public void test_inbound_delta_capacity_success() {
+        InventoryInboundRequestDTO inboundRequest = InventoryInboundRequestDTO.builder().inboundId(INBOUND_1).inventoryStatus(new Inbound())
+                .skuCode(SKU_CODE).containerId(CONTAINER_1).containerMaxCapacity(CONTAINER_MAX_CAPACITY).uniqueProductIds(UNIQUE_PRODUCT_IDS_1).companyId(COMPANY_1).warehouseId(WAREHOUSE_1).build();
+        TransactWriteItemsRequest expectedTransactWriteItemsRequest = getExpectedDeltaTransactWriteItemsRequest(inboundRequest);
+        Assertions.assertThat(deltaInventoryDynamoDAO.inbound(inboundRequest)).isTrue();
+        verify(amazonDynamoDBClient).transactWriteItems(transactWriteItemsRequestArgumentCaptor.capture());
+        TransactWriteItemsRequest actualTransactWriteItemsRequest = transactWriteItemsRequestArgumentCaptor.getValue();
+        new ObjectAssert(expectedTransactWriteItemsRequest).usingRecursiveComparison().isEqualTo(actualTransactWriteItemsRequest);
+        verify(clock, times(5)).millis();
+        verifyNoMoreInteractions(clock, amazonDynamoDBClient);
+        verifyZeroInteractions(inventoryDynamoDbMapper, containerCapacityDAO, containerStatusDeterminer);
+    }
+
+    @Test
+    public void test_inbound_delta_capacity_transaction_cancelled() {
+        InventoryInboundRequestDTO inboundRequest = InventoryInboundRequestDTO.builder().inboundId(INBOUND_1).inventoryStatus(new Inbound())
+                .skuCode(SKU_CODE).containerId(CONTAINER_1).containerMaxCapacity(CONTAINER_MAX_CAPACITY).uniqueProductIds(UNIQUE_PRODUCT_IDS_1).companyId(COMPANY_1).warehouseId(WAREHOUSE_1).build();
+        TransactionCanceledException transactionCanceledException = new TransactionCanceledException("exception");
+        transactionCanceledException.setCancellationReasons(ImmutableList.of());
+        when(amazonDynamoDBClient.transactWriteItems(any(TransactWriteItemsRequest.class))).thenThrow(transactionCanceledException);
+        Assertions.assertThatExceptionOfType(InconsistentStateException.class).isThrownBy(() -> deltaInventoryDynamoDAO.inbound(inboundRequest))
+                .withCauseExactlyInstanceOf(TransactionCanceledException.class);
+        verify(amazonDynamoDBClient).transactWriteItems(any(TransactWriteItemsRequest.class));
+        verifyZeroInteractions(inventoryDynamoDbMapper, containerCapacityDAO, containerStatusDeterminer);
+    }
+
+    @Test
+    public void test_inbound_internal_server_exception_retried_with_client_request_token() {
+        InventoryInboundRequestDTO inboundRequest = InventoryInboundRequestDTO.builder().inboundId(INBOUND_1).inventoryStatus(new Inbound())
+                .skuCode(SKU_CODE).containerId(CONTAINER_1).containerMaxCapacity(CONTAINER_MAX_CAPACITY).uniqueProductIds(UNIQUE_PRODUCT_IDS_1).companyId(COMPANY_1)
+                .warehouseId(WAREHOUSE_1).clientRequestToken(CLIENT_REQUEST_TOKEN).build();
+        when(amazonDynamoDBClient.transactWriteItems(any(TransactWriteItemsRequest.class))).thenThrow(new InternalServerErrorException("exception"))
+                .thenReturn(new TransactWriteItemsResult());
+        deltaInventoryDynamoDAO.inbound(inboundRequest);
+        verify(amazonDynamoDBClient, times(2)).transactWriteItems(transactWriteItemsRequestArgumentCaptor.capture());
+        List<TransactWriteItemsRequest> attempts = transactWriteItemsRequestArgumentCaptor.getAllValues();
+        new ObjectAssert(attempts.get(0).getClientRequestToken()).isEqualTo(CLIENT_REQUEST_TOKEN);
+        new ObjectAssert(attempts.get(0)).usingRecursiveComparison().isEqualTo(attempts.get(1));
+    }
+
+    @Test
+    public void test_inbound_internal_server_exception_retries_exhausted() {
+        InventoryInboundRequestDTO inboundRequest = InventoryInboundRequestDTO.builder().inboundId(INBOUND_1).inventoryStatus(new Inbound())
+                .skuCode(SKU_CODE).containerId(CONTAINER_1).containerMaxCapacity(CONTAINER_MAX_CAPACITY).uniqueProductIds(UNIQUE_PRODUCT_IDS_1).companyId(COMPANY_1)
+                .warehouseId(WAREHOUSE_1).clientRequestToken(CLIENT_REQUEST_TOKEN).build();
+        when(amazonDynamoDBClient.transactWriteItems(any(TransactWriteItemsRequest.class))).thenThrow(new InternalServerErrorException("exception"));
+        Assertions.assertThatExceptionOfType(RetriableException.class).isThrownBy(() -> deltaInventoryDynamoDAO.inbound(inboundRequest))
+                .withCauseExactlyInstanceOf(InternalServerErrorException.class);
+        verify(amazonDynamoDBClient, times(3)).transactWriteItems(any(TransactWriteItemsRequest.class));
+    }
+
+    @Test
+    public void test_inbound_internal_server_exception_without_client_request_token_not_retried() {
+        InventoryInboundRequestDTO inboundRequest = InventoryInboundRequestDTO.builder().inboundId(INBOUND_1).inventoryStatus(new Inbound())
+                .skuCode(SKU_CODE).containerId(CONTAINER_1).containerMaxCapacity(CONTAINER_MAX_CAPACITY).uniqueProductIds(UNIQUE_PRODUCT_IDS_1).companyId(COMPANY_1).warehouseId(WAREHOUSE_1).build();
+        when(amazonDynamoDBClient.transactWriteItems(any(TransactWriteItemsRequest.class))).thenThrow(new InternalServerErrorException("exception"));
+        Assertions.assertThatExceptionOfType(RetriableException.class).isThrownBy(() -> deltaInventoryDynamoDAO.inbound(inboundRequest))
+                .withCauseExactlyInstanceOf(InternalServerErrorException.class);
+        verify(amazonDynamoDBClient).transactWriteItems(any(TransactWriteItemsRequest.class));
+    }
+
+    @Test
+    public void test_inbound_conflicting_transaction_retried_without_client_request_token() {
+        InventoryInboundRequestDTO inboundRequest = InventoryInboundRequestDTO.builder().inboundId(INBOUND_1).inventoryStatus(new Inbound())
+                .skuCode(SKU_CODE).containerId(CONTAINER_1).containerMaxCapacity(CONTAINER_MAX_CAPACITY).uniqueProductIds(UNIQUE_PRODUCT_IDS_1).companyId(COMPANY_1).warehouseId(WAREHOUSE_1).build();
+        when(amazonDynamoDBClient.transactWriteItems(any(TransactWriteItemsRequest.class))).thenThrow(transactionConflict())
+                .thenReturn(new TransactWriteItemsResult());
+        Assertions.assertThat(deltaInventoryDynamoDAO.inbound(inboundRequest)).isTrue();
+        verify(amazonDynamoDBClient, times(2)).transactWriteItems(transactWriteItemsRequestArgumentCaptor.capture());
+        new ObjectAssert(transactWriteItemsRequestArgumentCaptor.getAllValues().get(0)).usingRecursiveComparison()
+                .isEqualTo(transactWriteItemsRequestArgumentCaptor.getAllValues().get(1));
+    }
+
+    @Test
+    public void test_inbound_conflicting_transaction_retries_exhausted() {
+        InventoryInboundRequestDTO inboundRequest = InventoryInboundRequestDTO.builder().inboundId(INBOUND_1).inventoryStatus(new Inbound())
+                .skuCode(SKU_CODE).containerId(CONTAINER_1).containerMaxCapacity(CONTAINER_MAX_CAPACITY).uniqueProductIds(UNIQUE_PRODUCT_IDS_1).companyId(COMPANY_1)
+                .warehouseId(WAREHOUSE_1).clientRequestToken(CLIENT_REQUEST_TOKEN).build();
+        when(amazonDynamoDBClient.transactWriteItems(any(TransactWriteItemsRequest.class))).thenThrow(transactionConflict());
+        Assertions.assertThatExceptionOfType(RetriableException.class).isThrownBy(() -> deltaInventoryDynamoDAO.inbound(inboundRequest))
+                .withCauseExactlyInstanceOf(TransactionCanceledException.class);
+        verify(amazonDynamoDBClient, times(3)).transactWriteItems(any(TransactWriteItemsRequest.class));
+    }
+
+    @Test
+    public void test_inbound_conflict_with_failed_condition_not_retried() {
+        InventoryInboundRequestDTO inboundRequest = InventoryInboundRequestDTO.builder().inboundId(INBOUND_1).inventoryStatus(new Inbound())
+                .skuCode(SKU_CODE).containerId(CONTAINER_1).containerMaxCapacity(CONTAINER_MAX_CAPACITY).uniqueProductIds(UNIQUE_PRODUCT_IDS_1).companyId(COMPANY_1)
+                .warehouseId(WAREHOUSE_1).clientRequestToken(CLIENT_REQUEST_TOKEN).build();
+        TransactionCanceledException transactionCanceledException = new TransactionCanceledException("exception");
+        transactionCanceledException.setCancellationReasons(ImmutableList.of(new CancellationReason().withCode("ConditionalCheckFailed"),
+                new CancellationReason().withCode("TransactionConflict")));
+        when(amazonDynamoDBClient.transactWriteItems(any(TransactWriteItemsRequest.class))).thenThrow(transactionCanceledException);
+        Assertions.assertThatExceptionOfType(InconsistentStateException.class).isThrownBy(() -> deltaInventoryDynamoDAO.inbound(inboundRequest))
+                .withCauseExactlyInstanceOf(TransactionCanceledException.class);
+        verify(amazonDynamoDBClient).transactWriteItems(any(TransactWriteItemsRequest.class));
+    }
+
+    @Test
+    public void test_inbound_idempotent_parameter_mismatch() {
+        InventoryInboundRequestDTO inboundRequest = InventoryInboundRequestDTO.builder().inboundId(INBOUND_1).inventoryStatus(new Inbound())
+                .skuCode(SKU_CODE).containerId(CONTAINER_1).containerMaxCapacity(CONTAINER_MAX_CAPACITY).uniqueProductIds(UNIQUE_PRODUCT_IDS_1).companyId(COMPANY_1)
+                .warehouseId(WAREHOUSE_1).clientRequestToken(CLIENT_REQUEST_TOKEN).build();
+        when(amazonDynamoDBClient.transactWriteItems(any(TransactWriteItemsRequest.class))).thenThrow(new IdempotentParameterMismatchException("exception"));
+        when(amazonDynamoDBClient.batchGetItem(any(BatchGetItemRequest.class))).thenReturn(inventoryItems(UNIQUE_PRODUCT_IDS_1, new Production(), null));
+        Assertions.assertThatExceptionOfType(NonRetriableException.class).isThrownBy(() -> deltaInventoryDynamoDAO.inbound(inboundRequest))
+                .withCauseExactlyInstanceOf(IdempotentParameterMismatchException.class);
+        verify(amazonDynamoDBClient).transactWriteItems(any(TransactWriteItemsRequest.class));
+    }
+
+    @Test
+    public void test_inbound_replay_of_committed_sub_batch_success() {
+        InventoryInboundRequestDTO inboundRequest = InventoryInboundRequestDTO.builder().inboundId(INBOUND_1).inventoryStatus(new Inbound())
+                .skuCode(SKU_CODE).containerId(CONTAINER_1).containerMaxCapacity(CONTAINER_MAX_CAPACITY).uniqueProductIds(UNIQUE_PRODUCT_IDS_1).companyId(COMPANY_1)
+                .warehouseId(WAREHOUSE_1).clientRequestToken(CLIENT_REQUEST_TOKEN).build();
+        when(amazonDynamoDBClient.transactWriteItems(any(TransactWriteItemsRequest.class))).thenThrow(new IdempotentParameterMismatchException("exception"));
+        when(amazonDynamoDBClient.batchGetItem(any(BatchGetItemRequest.class))).thenReturn(inventoryItems(UNIQUE_PRODUCT_IDS_1, new Inbound(), INBOUND_1));
+        // already committed by the earlier attempt, so the caller does not count it again
+        Assertions.assertThat(deltaInventoryDynamoDAO.inbound(inboundRequest)).isFalse();
+        ArgumentCaptor<BatchGetItemRequest> batchGetItemRequestCaptor = ArgumentCaptor.forClass(BatchGetItemRequest.class);
+        verify(amazonDynamoDBClient).transactWriteItems(any(TransactWriteItemsRequest.class));
+        verify(amazonDynamoDBClient).batchGetItem(batchGetItemRequestCaptor.capture());
+        KeysAndAttributes keysAndAttributes = batchGetItemRequestCaptor.getValue().getRequestItems().get(INVENTORY_TABLE_NAME);
+        new IntegerAssert(keysAndAttributes.getKeys().size()).isEqualTo(UNIQUE_PRODUCT_IDS_1.size());
+        Assertions.assertThat(keysAndAttributes.getConsistentRead()).isTrue();
+    }
+
+    @Test
+    public void test_inbound_replay_unprocessed_keys_retriable_exception() {
+        InventoryInboundRequestDTO inboundRequest = InventoryInboundRequestDTO.builder().inboundId(INBOUND_1).inventoryStatus(new Inbound())
+                .skuCode(SKU_CODE).containerId(CONTAINER_1).containerMaxCapacity(CONTAINER_MAX_CAPACITY).uniqueProductIds(UNIQUE_PRODUCT_IDS_1).companyId(COMPANY_1)
+                .warehouseId(WAREHOUSE_1).clientRequestToken(CLIENT_REQUEST_TOKEN).build();
+        BatchGetItemResult partialResult = inventoryItems(UNIQUE_PRODUCT_IDS_1.subList(0, 2), new Inbound(), INBOUND_1)
+                .withUnprocessedKeys(ImmutableMap.of(INVENTORY_TABLE_NAME, new KeysAndAttributes()));
+        when(amazonDynamoDBClient.transactWriteItems(any(TransactWriteItemsRequest.class))).thenThrow(new IdempotentParameterMismatchException("exception"));
+        when(amazonDynamoDBClient.batchGetItem(any(BatchGetItemRequest.class))).thenReturn(partialResult);
+        Assertions.assertThatExceptionOfType(RetriableException.class).isThrownBy(() -> deltaInventoryDynamoDAO.inbound(inboundRequest));
+    }
+
+    private TransactionCanceledException transactionConflict() {
+        TransactionCanceledException transactionCanceledException = new TransactionCanceledException("exception");
+        transactionCanceledException.setCancellationReasons(ImmutableList.of(new CancellationReason().withCode("None"),
+                new CancellationReason().withCode("TransactionConflict")));
+        return transactionCanceledException;
+    }
+
+    private BatchGetItemResult inventoryItems(List<String> uniqueProductIds, InventoryStatus inventoryStatus, String inboundId) {
+        List<Map<String, AttributeValue>> items = new ArrayList<>();
+        for (String uniqueProductId : uniqueProductIds) {
+            Map<String, AttributeValue> item = new HashMap<>();
+            item.put("uniqueProductId", new AttributeValue().withS(uniqueProductId));
+            item.put("companyId", new AttributeValue().withS(COMPANY_1));
+            item.put("inventoryStatus", new AttributeValue().withS(inventoryStatus.getStatus()));
+            item.put("containerId", new AttributeValue().withS(CONTAINER_1));
+            if (inboundId != null) {
+                item.put("inboundId", new AttributeValue().withS(inboundId));
+            }
+            items.add(item);
+        }
+        return new BatchGetItemResult().withResponses(ImmutableMap.of(INVENTORY_TABLE_NAME, items));
+    }
+
+    @Test
+    public void test_inbound_capacity_pre_reserved_success() {
+        InventoryInboundRequestDTO inboundRequest = InventoryInboundRequestDTO.builder().inboundId(INBOUND_1).inventoryStatus(new Inbound())
+                .skuCode(SKU_CODE).containerId(CONTAINER_1).containerMaxCapacity(CONTAINER_MAX_CAPACITY).uniqueProductIds(UNIQUE_PRODUCT_IDS_1)
+                .companyId(COMPANY_1).warehouseId(WAREHOUSE_1).capacityPreReserved(true).build();
+        List<TransactWriteItem> expectedTransactWrites = inboundRequest.getUniqueProductIds().stream()
+                .map(itemId -> new TransactWriteItem().withUpdate(constructUpdateExpression(itemId, inboundRequest))).collect(toList());
+        TransactWriteItemsRequest expectedTransactWriteItemsRequest = new TransactWriteItemsRequest().withTransactItems(expectedTransactWrites)
+                .withReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+        inventoryDynamoDAO.inbound(inboundRequest);
+        verify(amazonDynamoDBClient).transactWriteItems(transactWriteItemsRequestArgumentCaptor.capture());
+        new ObjectAssert(expectedTransactWriteItemsRequest).usingRecursiveComparison().isEqualTo(transactWriteItemsRequestArgumentCaptor.getValue());
+        verify(clock, times(4)).millis();
+        verifyNoMoreInteractions(clock, amazonDynamoDBClient);
+        verifyZeroInteractions(inventoryDynamoDbMapper, containerCapacityDAO, containerStatusDeterminer);
+    }
+
+    @Test
+    public void test_outbound_delta_capacity_success() {
+        InventoryOutboundRequestDTO outboundRequest = InventoryOutboundRequestDTO.builder().outboundId(OUTBOUND_1).inventoryStatus(new Outbound())
+                .skuCode(SKU_CODE).containerId(CONTAINER_1).orderId(ORDER_1).containerMaxCapacity(CONTAINER_MAX_CAPACITY)
+                .uniqueProductIds(UNIQUE_PRODUCT_IDS_1).companyId(COMPANY_1).warehouseId(WAREHOUSE_1).build();
+        TransactWriteItemsRequest expectedTransactWriteItemsRequest = getExpectedDeltaTransactWriteItemsRequest(outboundRequest);
+        deltaInventoryDynamoDAO.outbound(outboundRequest);
+        verify(amazonDynamoDBClient).transactWriteItems(transactWriteItemsRequestArgumentCaptor.capture());
+        TransactWriteItemsRequest actualTransactWriteItemsRequest = transactWriteItemsRequestArgumentCaptor.getValue();
+        new ObjectAssert(expectedTransactWriteItemsRequest).usingRecursiveComparison().isEqualTo(actualTransactWriteItemsRequest);
+        verify(clock, times(5)).millis();
+        verifyNoMoreInteractions(clock, amazonDynamoDBClient);
+        verifyZeroInteractions(inventoryDynamoDbMapper, containerCapacityDAO, containerStatusDeterminer);
+    }
+
     @Test
     public void test_move_inventory_input_null() {
 
@@ -478,6 +706,8 @@ public class TestInventoryDynamoDAOImpl {
         Update updateCapacityExpression = constructUpdateContainerCapacityExpression(inboundRequest.getWarehouseId(), inboundRequest.getContainerId(), existingCapacity, newCapacity
                 , inboundRequest.getContainerMaxCapacity());
         transactWrites.add(new TransactWriteItem().withUpdate(updateCapacityExpression));
+        transactWrites.add(new TransactWriteItem().withUpdate(constructInventoryCountsExpression(inboundRequest.getSkuCode(), inboundRequest.getWarehouseId(),
+                inboundRequest.getUniqueProductIds().size())));
         TransactWriteItemsRequest addInventoryTransaction = new TransactWriteItemsRequest()
                 .withTransactItems(transactWrites)
                 .withReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
@@ -490,12 +720,72 @@ public class TestInventoryDynamoDAOImpl {
         Update updateCapacityExpression = constructUpdateContainerCapacityExpression(outboundRequest.getWarehouseId(), outboundRequest.getContainerId(), existingCapacity, newCapacity
                 , outboundRequest.getContainerMaxCapacity());
         transactWrites.add(new TransactWriteItem().withUpdate(updateCapacityExpression));
+        transactWrites.add(new TransactWriteItem().withUpdate(constructInventoryCountsExpression(outboundRequest.getSkuCode(), outboundRequest.getWarehouseId(),
+                -outboundRequest.getUniqueProductIds().size())));
         TransactWriteItemsRequest addInventoryTransaction = new TransactWriteItemsRequest()
                 .withTransactItems(transactWrites)
                 .withReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
         return addInventoryTransaction;
     }
 
+    private TransactWriteItemsRequest getExpectedDeltaTransactWriteItemsRequest(InventoryInboundRequestDTO inboundRequest) {
+        List<TransactWriteItem> transactWrites = inboundRequest.getUniqueProductIds().stream()
+                .map(itemId -> new TransactWriteItem().withUpdate(constructUpdateExpression(itemId, inboundRequest))).collect(toList());
+        Update updateCapacityExpression = constructDeltaContainerCapacityExpression(inboundRequest.getWarehouseId(), inboundRequest.getContainerId(),
+                inboundRequest.getUniqueProductIds().size(), inboundRequest.getContainerMaxCapacity());
+        transactWrites.add(new TransactWriteItem().withUpdate(updateCapacityExpression));
+        transactWrites.add(new TransactWriteItem().withUpdate(constructInventoryCountsExpression(inboundRequest.getSkuCode(), inboundRequest.getWarehouseId(),
+                inboundRequest.getUniqueProductIds().size())));
+        return new TransactWriteItemsRequest()
+                .withTransactItems(transactWrites)
+                .withReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+    }
+
+    private TransactWriteItemsRequest getExpectedDeltaTransactWriteItemsRequest(InventoryOutboundRequestDTO outboundRequest) {
+        List<TransactWriteItem> transactWrites = outboundRequest.getUniqueProductIds().stream()
+                .map(itemId -> new TransactWriteItem().withUpdate(constructUpdateExpression(itemId, outboundRequest))).collect(toList());
+        Update updateCapacityExpression = constructDeltaContainerCapacityExpression(outboundRequest.getWarehouseId(), outboundRequest.getContainerId(),
+                -outboundRequest.getUniqueProductIds().size(), outboundRequest.getContainerMaxCapacity());
+        transactWrites.add(new TransactWriteItem().withUpdate(updateCapacityExpression));
+        transactWrites.add(new TransactWriteItem().withUpdate(constructInventoryCountsExpression(outboundRequest.getSkuCode(), outboundRequest.getWarehouseId(),
+                -outboundRequest.getUniqueProductIds().size())));
+        return new TransactWriteItemsRequest()
+                .withTransactItems(transactWrites)
+                .withReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+    }
+
+    private Update constructInventoryCountsExpression(String skuCode, String warehouseId, int availableDelta) {
+        Map<String, AttributeValue> inventoryCountsKey = new HashMap<>();
+        inventoryCountsKey.put("skuCode", new AttributeValue().withS(skuCode));
+        inventoryCountsKey.put("warehouseId", new AttributeValue().withS(warehouseId));
+        Map<String, AttributeValue> expressionAttributeValues = new HashMap<>();
+        expressionAttributeValues.put(":available_delta", new AttributeValue().withN(String.valueOf(availableDelta)));
+        return new Update()
+                .withTableName("inventory-counts")
+                .withKey(inventoryCountsKey)
+                .withUpdateExpression("ADD availableInventory :available_delta")
+                .withExpressionAttributeValues(expressionAttributeValues);
+    }
+
+    private Update constructDeltaContainerCapacityExpression(String warehouseId, String containerId, int delta, int maxCapacity) {
+        Map<String, AttributeValue> containerCapacityTableKey = new HashMap<>();
+        containerCapacityTableKey.put("warehouseContainerId", new AttributeValue().withS(String.join(DELIMITER, warehouseId, containerId)));
+        Map<String, AttributeValue> expressionAttributeValues = new HashMap<>();
+        expressionAttributeValues.put(":delta", new AttributeValue().withN(String.valueOf(delta)));
+        expressionAttributeValues.put(":max_capacity", new AttributeValue().withN(String.valueOf(maxCapacity)));
+        expressionAttributeValues.put(":modified_time", new AttributeValue().withN(String.valueOf(EPOCH_MILLI)));
+        expressionAttributeValues.put(":discontinued_status", new AttributeValue().withS("DISCONTINUED"));
+        String boundCondition = delta >= 0 ? "(attribute_not_exists(currentCapacity) or currentCapacity <= :capacity_bound)" : "currentCapacity >= :capacity_bound";
+        expressionAttributeValues.put(":capacity_bound", new AttributeValue().withN(String.valueOf(delta >= 0 ? maxCapacity - delta : -delta)));
+        return new Update()
+                .withTableName(CONTAINER_CAPACITY_TABLE_NAME)
+                .withKey(containerCapacityTableKey)
+                .withUpdateExpression("ADD currentCapacity :delta SET maxCapacity = :max_capacity , modifiedTime = :modified_time , " +
+                        "creationTime = if_not_exists(creationTime, :modified_time) REMOVE containerStatus")
+                .withExpressionAttributeValues(expressionAttributeValues)
+                .withConditionExpression(boundCondition + " and (attribute_not_exists(containerStatus) or containerStatus <> :discontinued_status)");
+    }
+
     private Update constructUpdateExpression(String itemId, InventoryOutboundRequestDTO inventoryOutboundRequestDTO) {
 
         Map<String, AttributeValue> inventoryKey = new HashMap<>();
@@ -519,7 +809,7 @@ public class TestInventoryDynamoDAOImpl {
         Update update = new Update().withTableName(INVENTORY_TABLE_NAME).withKey(inventoryKey)
                 .withExpressionAttributeValues(updatedAttributes)
                 .withUpdateExpression("SET inventoryStatus = :new_status , orderId = :order_id , outboundId =:outbound_id , " +
-                        "modifiedTime= :modified_time")
+                        "modifiedTime= :modified_time REMOVE warehouseContainerId")
                 .withConditionExpression("inventoryStatus IN (" + previousStatus + ") AND containerId = :container_id" +
                         " AND warehouseId = :warehouse_id");
         return update;
@@ -548,7 +838,8 @@ public class TestInventoryDynamoDAOImpl {
                 .withKey(containerCapacityTableKey)
                 .withUpdateExpression("SET currentCapacity = :new_quantity , containerStatus= :new_status , modifiedTime = :modified_time")
                 .withExpressionAttributeValues(expressionAttributeValues)
-                .withConditionExpression("currentCapacity = :existing_quantity and containerStatus IN (" + previousStatus + ")");
+                .withConditionExpression("currentCapacity = :existing_quantity and (attribute_not_exists(containerStatus) or " +
+                        "containerStatus IN (" + previousStatus + "))");
         return update;
     }
 
@@ -564,6 +855,8 @@ public class TestInventoryDynamoDAOImpl {
         updatedAttributes.put(":inbound_id", new AttributeValue(inventoryInboundRequestDTO.getInboundId()));
         updatedAttributes.put(":container_id", new AttributeValue(inventoryInboundRequestDTO.getContainerId()));
         updatedAttributes.put(":warehouse_id", new AttributeValue(inventoryInboundRequestDTO.getWarehouseId()));
+        updatedAttributes.put(":warehouse_container_id", new AttributeValue(String.join(DELIMITER,
+                inventoryInboundRequestDTO.getWarehouseId(), inventoryInboundRequestDTO.getContainerId())));
         updatedAttributes.put(":modified_time", new AttributeValue().withN(String.valueOf(EPOCH_MILLI)));
 
         String previousStatus = getAppendedStatusString(newInventoryStatus, updatedAttributes);
@@ -572,7 +865,7 @@ public class TestInventoryDynamoDAOImpl {
         Update update = new Update().withTableName(INVENTORY_TABLE_NAME).withKey(inventoryKey)
                 .withExpressionAttributeValues(updatedAttributes)
                 .withUpdateExpression("SET inventoryStatus = :new_status , inboundId = :inbound_id , containerId =:container_id , " +
-                        "modifiedTime= :modified_time")
+                        "warehouseContainerId = :warehouse_container_id , modifiedTime= :modified_time")
                 .withConditionExpression("inventoryStatus IN (" + previousStatus + ") AND warehouseId = :warehouse_id");
         return update;
     }
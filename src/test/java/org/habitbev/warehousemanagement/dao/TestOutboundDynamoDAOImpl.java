@@ -361,12 +361,14 @@ public class TestOutboundDynamoDAOImpl {
         OutboundDTO outboundDTO = OutboundDTO.builder().outboundId(OUTBOUND_1).status(new Closed()).warehouseId(WAREHOUSE_1)
                 .startTime(startTime).modifiedTime(modifiedTime).endTime(modifiedTime).userId(USER_ID).build();
         Mockito.when(dynamoDBMapper.query(Mockito.any(), Mockito.any(DynamoDBQueryExpression.class))).thenReturn(paginatedQueryList);
-        Mockito.when(paginatedQueryList.stream()).thenReturn(Collections.EMPTY_LIST.stream());
+        Mockito.when(paginatedQueryList.stream()).thenReturn(Collections.EMPTY_LIST.stream(), Collections.EMPTY_LIST.stream());
         Optional<FinishedGoodsOutbound> lastOutboundOp = outboundDynamoDAO.getLastOutbound(outboundDTO.getWarehouseId());
-        Mockito.verify(dynamoDBMapper).query(eq(FinishedGoodsOutbound.class), dynamoDBQueryExpressionCaptor.capture());
-        Mockito.verify(paginatedQueryList).stream();
+        Mockito.verify(dynamoDBMapper, Mockito.times(2)).query(eq(FinishedGoodsOutbound.class), dynamoDBQueryExpressionCaptor.capture());
+        Mockito.verify(paginatedQueryList, Mockito.times(2)).stream();
         new BooleanAssert(lastOutboundOp.isPresent()).isEqualTo(false);
-        captorVerifyQuery(outboundDTO);
+        // nothing in the sequence index, the table itself is read consistently by its range key
+        Assertions.assertThat(dynamoDBQueryExpressionCaptor.getAllValues().get(1).getIndexName()).isNull();
+        Assertions.assertThat(dynamoDBQueryExpressionCaptor.getAllValues().get(1).isConsistentRead()).isTrue();
         Mockito.verifyNoMoreInteractions(dynamoDBMapper);
         Mockito.verifyNoMoreInteractions(paginatedQueryList);
     }
@@ -445,8 +447,9 @@ public class TestOutboundDynamoDAOImpl {
         Map<String, AttributeValue> eav = new HashMap();
         eav.put(":val1", new AttributeValue().withS(outboundDTO.getWarehouseId()));
         DynamoDBQueryExpression<FinishedGoodsInbound> expectedDynamoDBQueryExpression = new DynamoDBQueryExpression<FinishedGoodsInbound>()
+                .withIndexName(FinishedGoodsOutbound.WAREHOUSE_SEQUENCE_INDEX)
                 .withKeyConditionExpression("warehouseId = :val1").withExpressionAttributeValues(eav)
-                .withScanIndexForward(false).withLimit(1).withConsistentRead(true);
+                .withScanIndexForward(false).withLimit(1).withConsistentRead(false);
 
         Assertions.assertThat(actualDdbQueryExpression).usingRecursiveComparison().isEqualTo(expectedDynamoDBQueryExpression);
     }
@@ -6,20 +6,29 @@ import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClient;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
 import com.amazonaws.services.dynamodbv2.model.*;
+import com.google.common.util.concurrent.MoreExecutors;
 import org.assertj.core.api.*;
 import org.habitbev.warehousemanagement.entities.container.containerstatus.Available;
 import org.habitbev.warehousemanagement.entities.container.containerstatus.PartiallyFilled;
+import org.habitbev.warehousemanagement.entities.exceptions.InconsistentStateException;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.ClassRule;
 import org.junit.Test;
+import org.habitbev.warehousemanagement.dao.BatchWriteRetryEngine;
 import org.habitbev.warehousemanagement.dao.ContainerCapacityDynamoDAOImpl;
 import org.habitbev.warehousemanagement.entities.dynamodb.ContainerCapacity;
 import org.habitbev.warehousemanagement.entities.exceptions.ResourceAlreadyExistsException;
+import org.habitbev.warehousemanagement.helpers.ContainerCapacityShards;
+import org.habitbev.warehousemanagement.helpers.ContainerStatusDeterminer;
 import org.habitbev.warehousemanagement.testutils.LocalDbCreationRule;
 import org.habitbev.warehousemanagement.testutils.Utilities;
 
 import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
 
@@ -42,6 +51,7 @@ public class TestInmemoryDbContainerCapacityDynamoDAOImpl {
     AmazonDynamoDB amazonDynamoDB;
 
     Clock clock;
+    BatchWriteRetryEngine batchWriteRetryEngine;
 
     DynamoDBMapperConfig dynamoDBMapperConfig;
 
@@ -59,7 +69,8 @@ public class TestInmemoryDbContainerCapacityDynamoDAOImpl {
                 .withConsistentReads(DynamoDBMapperConfig.ConsistentReads.CONSISTENT).withSaveBehavior(DynamoDBMapperConfig.SaveBehavior.UPDATE_SKIP_NULL_ATTRIBUTES).build();
         dynamoDBMapper = new DynamoDBMapper(amazonDynamoDB, dynamoDBMapperConfig);
         clock = Clock.systemUTC();
-        containerCapacityDynamoDAO = new ContainerCapacityDynamoDAOImpl(dynamoDBMapper, clock);
+        batchWriteRetryEngine = new BatchWriteRetryEngine(amazonDynamoDB, 10, 100, 1000, clock);
+        containerCapacityDynamoDAO = new ContainerCapacityDynamoDAOImpl(amazonDynamoDB, dynamoDBMapper, new ContainerStatusDeterminer(), new ContainerCapacityShards("", 4), MoreExecutors.newDirectExecutorService(), batchWriteRetryEngine, clock);
 
         try {
             CreateTableRequest tableRequest = dynamoDBMapper.generateCreateTableRequest(ContainerCapacity.class);
@@ -115,4 +126,50 @@ public class TestInmemoryDbContainerCapacityDynamoDAOImpl {
         Assertions.assertThatExceptionOfType(ResourceAlreadyExistsException.class).isThrownBy(() ->
                 containerCapacityDynamoDAO.init(WAREHOUSE_1, CONTAINER_1)).withCauseExactlyInstanceOf(ConditionalCheckFailedException.class);
     }
+
+    @Test
+    public void test_sharded_capacity_is_summed_over_shards() {
+        ContainerCapacityDynamoDAOImpl shardedContainerCapacityDynamoDAO = new ContainerCapacityDynamoDAOImpl(amazonDynamoDB, dynamoDBMapper,
+                new ContainerStatusDeterminer(), new ContainerCapacityShards(String.join(DELIMITER, WAREHOUSE_1, CONTAINER_1), 4), MoreExecutors.newDirectExecutorService(), batchWriteRetryEngine, clock);
+        shardedContainerCapacityDynamoDAO.init(WAREHOUSE_1, CONTAINER_1);
+
+        shardedContainerCapacityDynamoDAO.adjustCapacity(WAREHOUSE_1, CONTAINER_1, 5, 10);
+        shardedContainerCapacityDynamoDAO.adjustCapacity(WAREHOUSE_1, CONTAINER_1, 4, 10);
+        shardedContainerCapacityDynamoDAO.adjustCapacity(WAREHOUSE_1, CONTAINER_1, -2, 10);
+
+        Optional<ContainerCapacity> containerCapacityOp = shardedContainerCapacityDynamoDAO.get(WAREHOUSE_1, CONTAINER_1);
+        new BooleanAssert(containerCapacityOp.isPresent()).isEqualTo(true);
+        new StringAssert(containerCapacityOp.get().getWarehouseContainerId()).isEqualTo(String.join(DELIMITER, WAREHOUSE_1, CONTAINER_1));
+        new IntegerAssert(containerCapacityOp.get().getCurrentCapacity()).isEqualTo(7);
+        new StringAssert(containerCapacityOp.get().getContainerStatus().toString()).isEqualTo(new PartiallyFilled().toString());
+        new IntegerAssert(shardedContainerCapacityDynamoDAO.getExistingQuantity(WAREHOUSE_1, CONTAINER_1)).isEqualTo(7);
+        new IntegerAssert(Arrays.stream(shardedContainerCapacityDynamoDAO.getShardCapacities(WAREHOUSE_1, CONTAINER_1)).sum()).isEqualTo(7);
+
+        Assertions.assertThatExceptionOfType(InconsistentStateException.class).isThrownBy(() ->
+                shardedContainerCapacityDynamoDAO.adjustCapacity(WAREHOUSE_1, CONTAINER_1, 4, 10));
+    }
+
+    @Test
+    public void test_batch_get_across_chunks_and_shards() {
+        ContainerCapacityDynamoDAOImpl shardedContainerCapacityDynamoDAO = new ContainerCapacityDynamoDAOImpl(amazonDynamoDB, dynamoDBMapper,
+                new ContainerStatusDeterminer(), new ContainerCapacityShards(String.join(DELIMITER, WAREHOUSE_1, CONTAINER_1), 4),
+                MoreExecutors.newDirectExecutorService(), batchWriteRetryEngine, clock);
+        List<String> containerIds = new ArrayList<>();
+        containerIds.add(CONTAINER_1);
+        shardedContainerCapacityDynamoDAO.init(WAREHOUSE_1, CONTAINER_1);
+        shardedContainerCapacityDynamoDAO.adjustCapacity(WAREHOUSE_1, CONTAINER_1, 6, 10);
+        for (int i = 2; i <= 120; i++) {
+            String containerId = "CONTAINER-" + i;
+            shardedContainerCapacityDynamoDAO.init(WAREHOUSE_1, containerId);
+            containerIds.add(containerId);
+        }
+        containerIds.add("CONTAINER-MISSING");
+
+        Map<String, ContainerCapacity> containerCapacities = shardedContainerCapacityDynamoDAO.batchGet(WAREHOUSE_1, containerIds);
+
+        new IntegerAssert(containerCapacities.size()).isEqualTo(120);
+        new IntegerAssert(containerCapacities.get(CONTAINER_1).getCurrentCapacity()).isEqualTo(6);
+        new IntegerAssert(containerCapacities.get("CONTAINER-120").getCurrentCapacity()).isEqualTo(0);
+        new BooleanAssert(containerCapacities.containsKey("CONTAINER-MISSING")).isEqualTo(false);
+    }
 }
@@ -17,6 +17,7 @@ import org.habitbev.warehousemanagement.entities.container.ContainerDTO;
 import org.habitbev.warehousemanagement.entities.container.GetContainerRequest;
 import org.habitbev.warehousemanagement.entities.container.GetContainersRequest;
 import org.habitbev.warehousemanagement.entities.dynamodb.Container;
+import org.habitbev.warehousemanagement.entities.dynamodb.ContainerCapacity;
 import org.habitbev.warehousemanagement.entities.exceptions.ResourceAlreadyExistsException;
 import org.habitbev.warehousemanagement.testutils.LocalDbCreationRule;
 import org.habitbev.warehousemanagement.testutils.Utilities;
@@ -74,16 +75,57 @@ public class TestInmemoryDbContainerDynamoDAOImpl {
             CreateTableRequest tableRequest = dynamoDBMapper.generateCreateTableRequest(Container.class);
 
             tableRequest.setProvisionedThroughput(new ProvisionedThroughput(1L, 1L));
+            tableRequest.getGlobalSecondaryIndexes().forEach(index -> index.withProvisionedThroughput(new ProvisionedThroughput(1L, 1L))
+                    .withProjection(new Projection().withProjectionType(ProjectionType.ALL)));
 
             amazonDynamoDB.createTable(tableRequest);
         } catch (ResourceInUseException e) {
         }
+        try {
+            CreateTableRequest capacityTableRequest = dynamoDBMapper.generateCreateTableRequest(ContainerCapacity.class);
+            capacityTableRequest.setProvisionedThroughput(new ProvisionedThroughput(1L, 1L));
+            amazonDynamoDB.createTable(capacityTableRequest);
+        } catch (ResourceInUseException e) {
+        }
     }
 
     @After
     public void teardown() {
         DeleteTableRequest deleteTableRequest = dynamoDBMapper.generateDeleteTableRequest(Container.class, dynamoDBMapperConfig);
         amazonDynamoDB.deleteTable(deleteTableRequest);
+        amazonDynamoDB.deleteTable(dynamoDBMapper.generateDeleteTableRequest(ContainerCapacity.class, dynamoDBMapperConfig));
+    }
+
+    @Test
+    public void test_add_all_success_across_transactions() {
+
+        List<ContainerDTO> containerDTOs = new ArrayList<>();
+        for (int i = 1; i <= 60; i++) {
+            containerDTOs.add(new ContainerDTO.Builder().containerId("CONTAINER-" + i).warehouseId(WAREHOUSE_1)
+                    .predefinedCapacity(PREDEFINED_CAPACITY).build());
+        }
+        containerDynamoDAO.addAll(containerDTOs);
+
+        for (int i = 1; i <= 60; i++) {
+            Container actualContainer = dynamoDBMapper.load(Container.class, WAREHOUSE_1, "CONTAINER-" + i);
+            new MapAssert<String, Integer>(actualContainer.getSkuCodeWisePredefinedCapacity()).isEqualTo(PREDEFINED_CAPACITY);
+            ContainerCapacity actualCapacity = dynamoDBMapper.load(ContainerCapacity.class, WAREHOUSE_1 + "<%>CONTAINER-" + i);
+            new IntegerAssert(actualCapacity.getCurrentCapacity()).isEqualTo(0);
+        }
+    }
+
+    @Test
+    public void test_add_all_already_existing() {
+
+        ContainerDTO containerDTO = new ContainerDTO.Builder().containerId(CONTAINER_1).warehouseId(WAREHOUSE_1)
+                .predefinedCapacity(PREDEFINED_CAPACITY).build();
+        containerDynamoDAO.add(containerDTO);
+        ContainerDTO newContainerDTO = new ContainerDTO.Builder().containerId(CONTAINER_2).warehouseId(WAREHOUSE_1)
+                .predefinedCapacity(PREDEFINED_CAPACITY).build();
+
+        Assertions.assertThatExceptionOfType(ResourceAlreadyExistsException.class)
+                .isThrownBy(() -> containerDynamoDAO.addAll(Arrays.asList(newContainerDTO, containerDTO)));
+        Assertions.assertThat(dynamoDBMapper.load(Container.class, WAREHOUSE_1, CONTAINER_2)).isNull();
     }
 
     @Test
@@ -208,4 +250,14 @@ public class TestInmemoryDbContainerDynamoDAOImpl {
         new BooleanAssert(containerOp.isPresent()).isEqualTo(false);
     }
 
+    @Test
+    public void test_get_last_container_ordered_numerically() {
+        containerDynamoDAO.add(new ContainerDTO.Builder().containerId("CONTAINER-9").warehouseId(WAREHOUSE_1)
+                .predefinedCapacity(PREDEFINED_CAPACITY).build());
+        containerDynamoDAO.add(new ContainerDTO.Builder().containerId("CONTAINER-10").warehouseId(WAREHOUSE_1)
+                .predefinedCapacity(PREDEFINED_CAPACITY).build());
+        Optional<ContainerDTO> containerOp = containerDynamoDAO.getLastAddedContainer(WAREHOUSE_1);
+        new StringAssert(containerOp.get().getContainerId()).isEqualTo("CONTAINER-10");
+    }
+
 }
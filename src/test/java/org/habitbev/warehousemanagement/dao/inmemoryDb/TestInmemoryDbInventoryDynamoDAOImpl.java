@@ -7,20 +7,29 @@ import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
 import com.amazonaws.services.dynamodbv2.datamodeling.KeyPair;
 import com.amazonaws.services.dynamodbv2.model.CreateTableRequest;
 import com.amazonaws.services.dynamodbv2.model.DeleteTableRequest;
+import com.amazonaws.services.dynamodbv2.model.Projection;
+import com.amazonaws.services.dynamodbv2.model.ProjectionType;
 import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughput;
 import com.amazonaws.services.dynamodbv2.model.ResourceInUseException;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.MoreExecutors;
 import org.assertj.core.api.*;
 import org.assertj.core.api.recursive.comparison.RecursiveComparisonConfiguration;
 import org.habitbev.warehousemanagement.dao.ContainerCapacityDynamoDAOImpl;
+import org.habitbev.warehousemanagement.dao.BatchWriteRetryEngine;
+import org.habitbev.warehousemanagement.dao.InventoryCountsDAO;
+import org.habitbev.warehousemanagement.dao.InventoryCountsDynamoDAOImpl;
 import org.habitbev.warehousemanagement.dao.InventoryDynamoDAOImpl;
+import org.habitbev.warehousemanagement.entities.PaginatedResponse;
 import org.habitbev.warehousemanagement.entities.container.containerstatus.Available;
 import org.habitbev.warehousemanagement.entities.container.containerstatus.Filled;
 import org.habitbev.warehousemanagement.entities.container.containerstatus.PartiallyFilled;
 import org.habitbev.warehousemanagement.entities.dynamodb.Inventory;
+import org.habitbev.warehousemanagement.entities.dynamodb.InventoryCounts;
 import org.habitbev.warehousemanagement.entities.exceptions.InconsistentStateException;
 import org.habitbev.warehousemanagement.entities.exceptions.ResourceAlreadyExistsException;
+import org.habitbev.warehousemanagement.entities.inventory.GetContainerInventoryRequest;
 import org.habitbev.warehousemanagement.entities.inventory.InventoryInboundRequestDTO;
 import org.habitbev.warehousemanagement.entities.inventory.inventorystatus.Inbound;
 import org.habitbev.warehousemanagement.entities.inventory.inventorystatus.Outbound;
@@ -35,7 +44,9 @@ import org.habitbev.warehousemanagement.entities.dynamodb.ContainerCapacity;
 import org.habitbev.warehousemanagement.entities.inventory.InventoryAddRequest;
 import org.habitbev.warehousemanagement.entities.inventory.InventoryOutboundRequestDTO;
 import org.habitbev.warehousemanagement.entities.inventory.inventorystatus.Production;
+import org.habitbev.warehousemanagement.helpers.ContainerCapacityShards;
 import org.habitbev.warehousemanagement.helpers.ContainerStatusDeterminer;
+import org.habitbev.warehousemanagement.helpers.ContainerLockRegistry;
 
 import java.time.Clock;
 import java.util.*;
@@ -71,9 +82,12 @@ public class TestInmemoryDbInventoryDynamoDAOImpl {
 
     ContainerCapacityDAO containerCapacityDAO;
 
+    InventoryCountsDAO inventoryCountsDAO;
+
     Clock clock;
 
     ContainerStatusDeterminer containerStatusDeterminer;
+    ContainerCapacityShards containerCapacityShards;
 
     DynamoDBMapperConfig dynamoDBMapperConfig;
 
@@ -92,13 +106,19 @@ public class TestInmemoryDbInventoryDynamoDAOImpl {
         dynamoDBMapper = new DynamoDBMapper(amazonDynamoDB, dynamoDBMapperConfig);
         containerStatusDeterminer = new ContainerStatusDeterminer();
         clock = Clock.systemUTC();
-        containerCapacityDAO = new ContainerCapacityDynamoDAOImpl(dynamoDBMapper, clock);
-        inventoryDynamoDAO = new InventoryDynamoDAOImpl(amazonDynamoDB, dynamoDBMapper, containerStatusDeterminer, containerCapacityDAO, clock);
+        BatchWriteRetryEngine batchWriteRetryEngine = new BatchWriteRetryEngine(amazonDynamoDB, 10, 100, 1000, clock);
+        containerCapacityShards = new ContainerCapacityShards("", 4);
+        containerCapacityDAO = new ContainerCapacityDynamoDAOImpl(amazonDynamoDB, dynamoDBMapper, containerStatusDeterminer, containerCapacityShards, MoreExecutors.newDirectExecutorService(), batchWriteRetryEngine, clock);
+        inventoryCountsDAO = new InventoryCountsDynamoDAOImpl(amazonDynamoDB, dynamoDBMapper);
+        inventoryDynamoDAO = new InventoryDynamoDAOImpl(amazonDynamoDB, dynamoDBMapper, containerStatusDeterminer, containerCapacityDAO, new ContainerLockRegistry(16, 1000),
+                batchWriteRetryEngine, containerCapacityShards, false, 3, clock);
 
         try {
             CreateTableRequest tableRequestInventory = dynamoDBMapper.generateCreateTableRequest(Inventory.class);
 
             tableRequestInventory.setProvisionedThroughput(new ProvisionedThroughput(10L, 10L));
+            tableRequestInventory.getGlobalSecondaryIndexes().forEach(index -> index.withProvisionedThroughput(new ProvisionedThroughput(10L, 10L))
+                    .withProjection(new Projection().withProjectionType(ProjectionType.ALL)));
 
             amazonDynamoDB.createTable(tableRequestInventory);
 
@@ -107,6 +127,12 @@ public class TestInmemoryDbInventoryDynamoDAOImpl {
             tableRequestContainerCapacity.setProvisionedThroughput(new ProvisionedThroughput(10L, 10L));
 
             amazonDynamoDB.createTable(tableRequestContainerCapacity);
+
+            CreateTableRequest tableRequestInventoryCounts = dynamoDBMapper.generateCreateTableRequest(InventoryCounts.class);
+
+            tableRequestInventoryCounts.setProvisionedThroughput(new ProvisionedThroughput(10L, 10L));
+
+            amazonDynamoDB.createTable(tableRequestInventoryCounts);
         } catch (ResourceInUseException e) {
         }
         containerCapacityDAO.init(WAREHOUSE_1, CONTAINER_1);
@@ -119,6 +145,9 @@ public class TestInmemoryDbInventoryDynamoDAOImpl {
 
         DeleteTableRequest deleteTableRequestContainerCapacity = dynamoDBMapper.generateDeleteTableRequest(ContainerCapacity.class, dynamoDBMapperConfig);
         amazonDynamoDB.deleteTable(deleteTableRequestContainerCapacity);
+
+        DeleteTableRequest deleteTableRequestInventoryCounts = dynamoDBMapper.generateDeleteTableRequest(InventoryCounts.class, dynamoDBMapperConfig);
+        amazonDynamoDB.deleteTable(deleteTableRequestInventoryCounts);
     }
 
     @Test
@@ -178,7 +207,8 @@ public class TestInmemoryDbInventoryDynamoDAOImpl {
         List<Inventory> expectedInventory = UNIQUE_PRODUCT_IDS_1.stream().map(id -> Inventory.builder().uniqueProductId(id)
                 .warehouseId(addRequest.getWarehouseId()).companyId(addRequest.getCompanyId()).containerId(inventoryInboundRequestDTO.getContainerId())
                 .inboundId(inventoryInboundRequestDTO.getInboundId()).skuCategoryType(skuCategoryAndType).skuCode(addRequest.getSkuCode()).creationTime(clock.millis()).modifiedTime(clock.millis())
-                .productionTime(addRequest.getProductionTime()).inventoryStatus(inventoryInboundRequestDTO.getInventoryStatus()).build()).collect(Collectors.toList());
+                .productionTime(addRequest.getProductionTime()).inventoryStatus(inventoryInboundRequestDTO.getInventoryStatus())
+                .warehouseContainerId(String.join(DELIMITER, WAREHOUSE_1, CONTAINER_1)).build()).collect(Collectors.toList());
         new ListAssert(actualInventory).usingRecursiveFieldByFieldElementComparatorIgnoringFields("creationTime", "modifiedTime")
                 .containsExactlyInAnyOrderElementsOf(expectedInventory);
 
@@ -190,6 +220,8 @@ public class TestInmemoryDbInventoryDynamoDAOImpl {
                 .creationTime(clock.millis()).modifiedTime(clock.millis()).build();
         RecursiveComparisonConfiguration ignoreFields = RecursiveComparisonConfiguration.builder().withIgnoredFields("creationTime", "modifiedTime").build();
         new ObjectAssert<ContainerCapacity>(containerCapacityActualOp.get()).usingRecursiveComparison(ignoreFields).isEqualTo(containerCapacityExpected);
+
+        new IntegerAssert(inventoryCountsDAO.get(SKU_CODE, WAREHOUSE_1).get().getAvailableInventory()).isEqualTo(UNIQUE_PRODUCT_IDS_1.size());
     }
 
     @Test
@@ -284,7 +316,8 @@ public class TestInmemoryDbInventoryDynamoDAOImpl {
         expectedInventory.add(Inventory.builder().uniqueProductId("4")
                 .warehouseId(request.getWarehouseId()).companyId(request.getCompanyId()).containerId(inboundRequest.getContainerId())
                 .inboundId(inboundRequest.getInboundId()).skuCategoryType(skuCategoryAndType).skuCode(request.getSkuCode()).creationTime(clock.millis()).modifiedTime(clock.millis())
-                .productionTime(request.getProductionTime()).inventoryStatus(inboundRequest.getInventoryStatus()).build());
+                .productionTime(request.getProductionTime()).inventoryStatus(inboundRequest.getInventoryStatus())
+                .warehouseContainerId(String.join(DELIMITER, WAREHOUSE_1, CONTAINER_1)).build());
         new ListAssert(actualInventory).usingRecursiveFieldByFieldElementComparatorIgnoringFields("creationTime", "modifiedTime")
                 .containsExactlyInAnyOrderElementsOf(expectedInventory);
 
@@ -296,6 +329,27 @@ public class TestInmemoryDbInventoryDynamoDAOImpl {
                 .creationTime(clock.millis()).modifiedTime(clock.millis()).build();
         RecursiveComparisonConfiguration ignoreFields = RecursiveComparisonConfiguration.builder().withIgnoredFields("creationTime", "modifiedTime").build();
         new ObjectAssert<ContainerCapacity>(containerCapacityActualOp.get()).usingRecursiveComparison(ignoreFields).isEqualTo(containerCapacityExpected);
+
+        new IntegerAssert(inventoryCountsDAO.get(SKU_CODE, WAREHOUSE_1).get().getAvailableInventory())
+                .isEqualTo(inboundRequest.getUniqueProductIds().size() - outboundRequest.getUniqueProductIds().size());
+    }
+
+    @Test
+    public void test_count_available_inventory_matches_maintained_counts() {
+        InventoryAddRequest addRequest = InventoryAddRequest.builder().warehouseId(WAREHOUSE_1).companyId(COMPANY_1)
+                .inventoryStatus(new Production()).skuType(SKU_TYPE).skuCode(SKU_CODE).skuCategory(SKU_CATEGORY)
+                .uniqueProductIds(UNIQUE_PRODUCT_IDS_1).productionTime(clock.millis()).build();
+        inventoryDynamoDAO.add(addRequest);
+        InventoryInboundRequestDTO inboundRequest = InventoryInboundRequestDTO.builder().inboundId(INBOUND_1).inventoryStatus(new Inbound())
+                .skuCode(SKU_CODE).containerId(CONTAINER_1).containerMaxCapacity(CONTAINER_MAX_CAPACITY).uniqueProductIds(UNIQUE_PRODUCT_IDS_1.subList(0, 3))
+                .companyId(COMPANY_1).warehouseId(WAREHOUSE_1).build();
+        inventoryDynamoDAO.inbound(inboundRequest);
+
+        List<InventoryCounts> inventoryCounts = inventoryCountsDAO.countAvailableInventory(4);
+        InventoryCounts expectedInventoryCounts = InventoryCounts.builder().skuCode(SKU_CODE).warehouseId(WAREHOUSE_1)
+                .availableInventory(3).allocatedInventory(0).build();
+        new ListAssert<InventoryCounts>(inventoryCounts).usingRecursiveFieldByFieldElementComparator().containsExactly(expectedInventoryCounts);
+        new IntegerAssert(inventoryCountsDAO.get(SKU_CODE, WAREHOUSE_1).get().getAvailableInventory()).isEqualTo(3);
     }
 
     @Test
@@ -360,7 +414,8 @@ public class TestInmemoryDbInventoryDynamoDAOImpl {
         List<Inventory> expectedInventory = UNIQUE_PRODUCT_IDS_1.stream().map(id -> Inventory.builder().uniqueProductId(id).containerId(inboundRequest.getContainerId())
                 .warehouseId(addRequest.getWarehouseId()).companyId(addRequest.getCompanyId()).inboundId(inboundRequest.getInboundId())
                 .skuCategoryType(skuCategoryAndType).skuCode(addRequest.getSkuCode()).creationTime(clock.millis()).modifiedTime(clock.millis())
-                .productionTime(addRequest.getProductionTime()).inventoryStatus(inboundRequest.getInventoryStatus()).build()).collect(Collectors.toList());
+                .productionTime(addRequest.getProductionTime()).inventoryStatus(inboundRequest.getInventoryStatus())
+                .warehouseContainerId(warehouseContainerId).build()).collect(Collectors.toList());
         new ListAssert(actualInventory).usingRecursiveFieldByFieldElementComparatorIgnoringFields("creationTime", "modifiedTime")
                 .containsExactlyInAnyOrderElementsOf(expectedInventory);
 
@@ -432,5 +487,47 @@ public class TestInmemoryDbInventoryDynamoDAOImpl {
         new IntegerAssert(containerCapacityAfterFullOutbound.get().getCurrentCapacity()).isEqualTo(0);
     }
 
+    @Test
+    public void test_query_by_container_lists_only_items_in_container() {
+        long productionTime = clock.millis();
+        InventoryAddRequest addRequest = InventoryAddRequest.builder().warehouseId(WAREHOUSE_1).companyId(COMPANY_1)
+                .inventoryStatus(new Production()).skuType(SKU_TYPE).skuCode(SKU_CODE).skuCategory(SKU_CATEGORY)
+                .uniqueProductIds(UNIQUE_PRODUCT_IDS_1).productionTime(productionTime).build();
+        inventoryDynamoDAO.add(addRequest);
+
+        InventoryInboundRequestDTO inboundRequest = InventoryInboundRequestDTO.builder().inboundId(INBOUND_1).inventoryStatus(new Inbound())
+                .skuCode(SKU_CODE).containerId(CONTAINER_1).containerMaxCapacity(CONTAINER_MAX_CAPACITY).uniqueProductIds(UNIQUE_PRODUCT_IDS_1).companyId(COMPANY_1).warehouseId(WAREHOUSE_1).build();
+        inventoryDynamoDAO.inbound(inboundRequest);
 
+        InventoryOutboundRequestDTO outboundRequest = InventoryOutboundRequestDTO.builder().outboundId(OUTBOUND_1).companyId(COMPANY_1)
+                .inventoryStatus(new Outbound()).containerId(CONTAINER_1).warehouseId(WAREHOUSE_1).containerMaxCapacity(CONTAINER_MAX_CAPACITY)
+                .orderId(ORDER_1).skuCode(SKU_CODE).uniqueProductIds(ImmutableList.of("4")).build();
+        inventoryDynamoDAO.outbound(outboundRequest);
+
+        List<String> streamedIds = inventoryDynamoDAO.queryByContainer(WAREHOUSE_1, CONTAINER_1).map(Inventory::getUniqueProductId)
+                .collect(Collectors.toList());
+        new ListAssert<String>(streamedIds).containsExactlyInAnyOrder("1", "2", "3");
+
+        GetContainerInventoryRequest firstPageRequest = GetContainerInventoryRequest.builder().warehouseId(WAREHOUSE_1)
+                .containerId(CONTAINER_1).limit(2).build();
+        PaginatedResponse<Inventory> firstPage = inventoryDynamoDAO.queryByContainer(firstPageRequest);
+        new IntegerAssert(firstPage.getItems().size()).isEqualTo(2);
+        new BooleanAssert(firstPage.getNextPageToken() != null).isEqualTo(true);
+
+        GetContainerInventoryRequest secondPageRequest = GetContainerInventoryRequest.builder().warehouseId(WAREHOUSE_1)
+                .containerId(CONTAINER_1).limit(2).pageToken(firstPage.getNextPageToken()).build();
+        PaginatedResponse<Inventory> secondPage = inventoryDynamoDAO.queryByContainer(secondPageRequest);
+        List<String> pagedIds = new ArrayList<>();
+        firstPage.getItems().forEach(inventory -> pagedIds.add(inventory.getUniqueProductId()));
+        secondPage.getItems().forEach(inventory -> pagedIds.add(inventory.getUniqueProductId()));
+        // pages follow uniqueProductId, which does not change while the items are updated
+        new ListAssert<String>(pagedIds).containsExactly("1", "2", "3");
+    }
+
+    @Test
+    public void test_query_by_container_invalid_page_token() {
+        GetContainerInventoryRequest request = GetContainerInventoryRequest.builder().warehouseId(WAREHOUSE_1)
+                .containerId(CONTAINER_1).limit(2).pageToken("not-a-page-token").build();
+        Assertions.assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> inventoryDynamoDAO.queryByContainer(request));
+    }
 }
@@ -71,6 +71,8 @@ public class TestInmemoryDbOutboundDynamoDAOImpl {
             CreateTableRequest tableRequest = dynamoDBMapper.generateCreateTableRequest(FinishedGoodsOutbound.class);
 
             tableRequest.setProvisionedThroughput(new ProvisionedThroughput(1L, 1L));
+            tableRequest.getGlobalSecondaryIndexes().forEach(index -> index.withProvisionedThroughput(new ProvisionedThroughput(1L, 1L))
+                    .withProjection(new Projection().withProjectionType(ProjectionType.ALL)));
 
             amazonDynamoDB.createTable(tableRequest);
         } catch (ResourceInUseException e) {
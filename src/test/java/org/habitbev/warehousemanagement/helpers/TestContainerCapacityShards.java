@@ -0,0 +1,82 @@
+package org.habitbev.warehousemanagement.helpers;
+
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.BooleanAssert;
+import org.assertj.core.api.IntegerAssert;
+import org.assertj.core.api.StringAssert;
+import org.habitbev.warehousemanagement.entities.exceptions.InconsistentStateException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+public class TestContainerCapacityShards {
+
+    private static final String WAREHOUSE_1 = "WAREHOUSE-1";
+    private static final String CONTAINER_1 = "CONTAINER-1";
+    private static final String CONTAINER_2 = "CONTAINER-2";
+
+    ContainerCapacityShards containerCapacityShards;
+
+    @Before
+    public void setup() {
+        containerCapacityShards = new ContainerCapacityShards(" WAREHOUSE-1<%>CONTAINER-1 , WAREHOUSE-2<%>CONTAINER-9", 4);
+    }
+
+    @Test
+    public void test_only_listed_containers_are_sharded() {
+        new BooleanAssert(containerCapacityShards.isSharded(WAREHOUSE_1, CONTAINER_1)).isEqualTo(true);
+        new BooleanAssert(containerCapacityShards.isSharded(WAREHOUSE_1, CONTAINER_2)).isEqualTo(false);
+        new IntegerAssert(containerCapacityShards.shardCount(WAREHOUSE_1, CONTAINER_1)).isEqualTo(4);
+        new IntegerAssert(containerCapacityShards.shardCount(WAREHOUSE_1, CONTAINER_2)).isEqualTo(1);
+        new BooleanAssert(new ContainerCapacityShards("", 4).isSharded(WAREHOUSE_1, CONTAINER_1)).isEqualTo(false);
+    }
+
+    @Test
+    public void test_first_shard_keeps_plain_key() {
+        new StringAssert(containerCapacityShards.shardKey(WAREHOUSE_1, CONTAINER_1, 0)).isEqualTo("WAREHOUSE-1<%>CONTAINER-1");
+        new StringAssert(containerCapacityShards.shardKey(WAREHOUSE_1, CONTAINER_1, 3)).isEqualTo("WAREHOUSE-1<%>CONTAINER-1<%>3");
+        Assertions.assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> containerCapacityShards.shardKey(WAREHOUSE_1, CONTAINER_2, 1));
+    }
+
+    @Test
+    public void test_allotments_add_up_to_max_capacity() {
+        int sum = IntStream.range(0, 4).map(shard -> containerCapacityShards.allotment(10, shard, 4)).sum();
+        new IntegerAssert(sum).isEqualTo(10);
+        new IntegerAssert(containerCapacityShards.allotment(10, 0, 4)).isEqualTo(3);
+        new IntegerAssert(containerCapacityShards.allotment(10, 3, 4)).isEqualTo(2);
+    }
+
+    @Test
+    public void test_distribute_addition_stays_on_preferred_shard() {
+        int[] shardDeltas = containerCapacityShards.distribute(2, 100, new int[]{0, 0, 0, 0}, 2);
+        Assertions.assertThat(shardDeltas).containsExactly(0, 0, 2, 0);
+    }
+
+    @Test
+    public void test_distribute_addition_spills_over() {
+        int[] shardDeltas = containerCapacityShards.distribute(5, 10, new int[]{0, 0, 0, 2}, 3);
+        Assertions.assertThat(shardDeltas).containsExactly(3, 2, 0, 0);
+    }
+
+    @Test
+    public void test_distribute_removal_spills_over() {
+        int[] shardDeltas = containerCapacityShards.distribute(-6, 10, new int[]{3, 1, 0, 2}, 3);
+        Assertions.assertThat(shardDeltas).containsExactly(-3, -1, 0, -2);
+    }
+
+    @Test
+    public void test_distribute_beyond_max_capacity() {
+        Assertions.assertThatExceptionOfType(InconsistentStateException.class)
+                .isThrownBy(() -> containerCapacityShards.distribute(3, 10, new int[]{3, 3, 1, 1}, 0));
+    }
+
+    @Test
+    public void test_distribute_beyond_current_capacity() {
+        Assertions.assertThatExceptionOfType(InconsistentStateException.class)
+                .isThrownBy(() -> containerCapacityShards.distribute(-5, 10, new int[]{1, 1, 1, 1}, 0));
+        new IntegerAssert(Arrays.stream(containerCapacityShards.distribute(-4, 10, new int[]{1, 1, 1, 1}, 0)).sum()).isEqualTo(-4);
+    }
+}
@@ -0,0 +1,122 @@
+package org.habitbev.warehousemanagement.helpers;
+
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.IntegerAssert;
+import org.assertj.core.api.LongAssert;
+import org.habitbev.warehousemanagement.entities.exceptions.RetriableException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestContainerLockRegistry {
+
+    private static final String WAREHOUSE_1 = "WAREHOUSE-1";
+    private static final String CONTAINER_1 = "CONTAINER-1";
+    private static final String CONTAINER_2 = "CONTAINER-2";
+
+    ContainerLockRegistry containerLockRegistry;
+
+    @Before
+    public void setup() {
+        containerLockRegistry = new ContainerLockRegistry(64, 200);
+    }
+
+    @Test
+    public void test_constructor_invalid_stripes() {
+        Assertions.assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> new ContainerLockRegistry(0, 200))
+                .withMessageContaining("stripeCount should be > 0");
+    }
+
+    @Test
+    public void test_execute_with_container_lock_blank_container() {
+        Assertions.assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> containerLockRegistry.executeWithContainerLock(WAREHOUSE_1, " ", () -> 1))
+                .withMessageContaining("containerId cannot be blank");
+    }
+
+    @Test
+    public void test_execute_with_container_lock_serializes_same_container() throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        AtomicInteger concurrentHolders = new AtomicInteger();
+        AtomicInteger maxConcurrentHolders = new AtomicInteger();
+        ContainerLockRegistry registry = new ContainerLockRegistry(64, 10000);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            futures.add(executorService.submit(() -> registry.executeWithContainerLock(WAREHOUSE_1, CONTAINER_1, () -> {
+                int holders = concurrentHolders.incrementAndGet();
+                maxConcurrentHolders.accumulateAndGet(holders, Math::max);
+                concurrentHolders.decrementAndGet();
+            })));
+        }
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executorService.shutdown();
+        new IntegerAssert(maxConcurrentHolders.get()).isEqualTo(1);
+        new LongAssert(registry.getMetrics().getAcquisitions()).isEqualTo(32);
+    }
+
+    @Test
+    public void test_execute_with_container_lock_timeout() throws Exception {
+        CountDownLatch lockHeld = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> containerLockRegistry.executeWithContainerLock(WAREHOUSE_1, CONTAINER_1, () -> {
+            lockHeld.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        holder.start();
+        lockHeld.await();
+        Assertions.assertThatExceptionOfType(RetriableException.class)
+                .isThrownBy(() -> containerLockRegistry.executeWithContainerLock(WAREHOUSE_1, CONTAINER_1, () -> 1))
+                .withMessageContaining("timed out");
+        release.countDown();
+        holder.join();
+        new LongAssert(containerLockRegistry.getMetrics().getTimeouts()).isEqualTo(1);
+        new LongAssert(containerLockRegistry.getMetrics().getContendedAcquisitions()).isEqualTo(1);
+    }
+
+    @Test
+    public void test_execute_with_container_lock_interrupted_free_lock_retriable_exception() {
+        AtomicInteger runs = new AtomicInteger();
+        Thread.currentThread().interrupt();
+        try {
+            Assertions.assertThatExceptionOfType(RetriableException.class)
+                    .isThrownBy(() -> containerLockRegistry.executeWithContainerLock(WAREHOUSE_1, CONTAINER_1, runs::incrementAndGet))
+                    .withMessageContaining("interrupted");
+            Assertions.assertThat(Thread.currentThread().isInterrupted()).isTrue();
+        } finally {
+            Thread.interrupted();
+        }
+        new IntegerAssert(runs.get()).isEqualTo(0);
+    }
+
+    @Test
+    public void test_execute_with_container_locks_opposite_order_no_deadlock() throws Exception {
+        ContainerLockRegistry registry = new ContainerLockRegistry(64, 10000);
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        AtomicInteger moves = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            boolean forward = i % 2 == 0;
+            futures.add(executorService.submit(() -> registry.executeWithContainerLocks(WAREHOUSE_1,
+                    forward ? CONTAINER_1 : CONTAINER_2, forward ? CONTAINER_2 : CONTAINER_1, moves::incrementAndGet)));
+        }
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executorService.shutdown();
+        new IntegerAssert(moves.get()).isEqualTo(200);
+    }
+}
@@ -0,0 +1,92 @@
+package org.habitbev.warehousemanagement.helpers;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
+import org.assertj.core.api.Assertions;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.IOException;
+
+import static org.mockito.Matchers.any;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TestS3MultipartUploadOutputStream {
+
+    private static final String BUCKET = "barcodes";
+    private static final String KEY = "file-1";
+    private static final String PDF = "application/pdf";
+    private static final int PART_SIZE = S3MultipartUploadOutputStream.MIN_PART_SIZE;
+
+    @Mock
+    AmazonS3 amazonS3;
+
+    @Before
+    public void setup() {
+        InitiateMultipartUploadResult initiateMultipartUploadResult = new InitiateMultipartUploadResult();
+        initiateMultipartUploadResult.setUploadId("upload-1");
+        Mockito.when(amazonS3.initiateMultipartUpload(any(InitiateMultipartUploadRequest.class))).thenReturn(initiateMultipartUploadResult);
+        Mockito.when(amazonS3.uploadPart(any(UploadPartRequest.class))).thenAnswer(invocation -> {
+            UploadPartRequest request = (UploadPartRequest) invocation.getArguments()[0];
+            UploadPartResult uploadPartResult = new UploadPartResult();
+            uploadPartResult.setPartNumber(request.getPartNumber());
+            uploadPartResult.setETag("etag-" + request.getPartNumber());
+            return uploadPartResult;
+        });
+    }
+
+    @Test
+    public void test_small_object_single_put() throws IOException {
+        S3MultipartUploadOutputStream outputStream = new S3MultipartUploadOutputStream(amazonS3, BUCKET, KEY, PDF, PART_SIZE);
+        outputStream.write(new byte[1024]);
+        outputStream.close();
+        outputStream.close();
+
+        ArgumentCaptor<PutObjectRequest> putObjectRequestCaptor = ArgumentCaptor.forClass(PutObjectRequest.class);
+        Mockito.verify(amazonS3).putObject(putObjectRequestCaptor.capture());
+        Assertions.assertThat(putObjectRequestCaptor.getValue().getMetadata().getContentLength()).isEqualTo(1024);
+        Mockito.verifyNoMoreInteractions(amazonS3);
+    }
+
+    @Test
+    public void test_large_object_uploaded_in_parts() throws IOException {
+        S3MultipartUploadOutputStream outputStream = new S3MultipartUploadOutputStream(amazonS3, BUCKET, KEY, PDF, PART_SIZE);
+        byte[] chunk = new byte[1024 * 1024];
+        for (int i = 0; i < 11; i++) {
+            outputStream.write(chunk);
+        }
+        outputStream.close();
+
+        ArgumentCaptor<UploadPartRequest> uploadPartRequestCaptor = ArgumentCaptor.forClass(UploadPartRequest.class);
+        Mockito.verify(amazonS3, Mockito.times(3)).uploadPart(uploadPartRequestCaptor.capture());
+        Assertions.assertThat(uploadPartRequestCaptor.getAllValues()).extracting(UploadPartRequest::getPartSize)
+                .containsExactly((long) PART_SIZE, (long) PART_SIZE, 1024L * 1024);
+        ArgumentCaptor<CompleteMultipartUploadRequest> completeCaptor = ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+        Mockito.verify(amazonS3).completeMultipartUpload(completeCaptor.capture());
+        Assertions.assertThat(completeCaptor.getValue().getPartETags()).extracting(PartETag::getPartNumber).containsExactly(1, 2, 3);
+        Mockito.verify(amazonS3, Mockito.never()).putObject(any(PutObjectRequest.class));
+    }
+
+    @Test
+    public void test_abort_drops_started_upload() throws IOException {
+        S3MultipartUploadOutputStream outputStream = new S3MultipartUploadOutputStream(amazonS3, BUCKET, KEY, PDF, PART_SIZE);
+        outputStream.write(new byte[PART_SIZE + 1]);
+        outputStream.abort();
+
+        Mockito.verify(amazonS3).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+        Mockito.verify(amazonS3, Mockito.never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+        Assertions.assertThatExceptionOfType(IOException.class).isThrownBy(() -> outputStream.write(1));
+    }
+}
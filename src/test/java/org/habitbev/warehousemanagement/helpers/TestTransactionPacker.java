@@ -0,0 +1,61 @@
+package org.habitbev.warehousemanagement.helpers;
+
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.IntegerAssert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class TestTransactionPacker {
+
+    TransactionPacker transactionPacker;
+
+    @Before
+    public void setup() {
+        transactionPacker = new TransactionPacker(100, 4 * 1024 * 1024);
+    }
+
+    @Test
+    public void test_pack_by_item_count_reserving_capacity_items() {
+        List<String> uniqueProductIds = uniqueProductIds(1000);
+        List<List<String>> packs = transactionPacker.pack(uniqueProductIds, 1, 512, id -> 512 + id.length());
+        new IntegerAssert(packs.size()).isEqualTo(11);
+        packs.forEach(pack -> new IntegerAssert(pack.size()).isLessThanOrEqualTo(99));
+        Assertions.assertThat(packs.stream().flatMap(List::stream).collect(Collectors.toList())).containsExactlyElementsOf(uniqueProductIds);
+    }
+
+    @Test
+    public void test_pack_by_bytes() {
+        TransactionPacker packer = new TransactionPacker(100, 10_000);
+        List<List<String>> packs = packer.pack(uniqueProductIds(10), 2, 1000, id -> 3000);
+        new IntegerAssert(packs.size()).isEqualTo(4);
+        new IntegerAssert(packs.get(0).size()).isEqualTo(3);
+        new IntegerAssert(packs.get(3).size()).isEqualTo(1);
+    }
+
+    @Test
+    public void test_pack_empty() {
+        Assertions.assertThat(transactionPacker.pack(uniqueProductIds(0), 1, 512, id -> 512)).isEmpty();
+    }
+
+    @Test
+    public void test_pack_item_too_large() {
+        Assertions.assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> new TransactionPacker(100, 1000).pack(uniqueProductIds(1), 1, 500, id -> 600))
+                .withMessageContaining("cannot fit in a transaction");
+    }
+
+    @Test
+    public void test_pack_reserved_items_out_of_range() {
+        Assertions.assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> transactionPacker.pack(uniqueProductIds(1), 100, 0, id -> 1))
+                .withMessageContaining("reservedItems should be in [0, maxItems)");
+    }
+
+    private List<String> uniqueProductIds(int count) {
+        return IntStream.range(0, count).mapToObj(i -> "sku-1650000000000-" + i).collect(Collectors.toList());
+    }
+}
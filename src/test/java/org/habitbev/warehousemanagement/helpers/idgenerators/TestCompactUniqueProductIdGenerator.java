@@ -0,0 +1,175 @@
+package org.habitbev.warehousemanagement.helpers.idgenerators;
+
+import org.assertj.core.api.Assertions;
+import org.habitbev.warehousemanagement.dao.IdCounterDAO;
+import org.habitbev.warehousemanagement.entities.UniqueProductIdsGenerationRequest;
+import org.habitbev.warehousemanagement.entities.exceptions.RetriableException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TestCompactUniqueProductIdGenerator {
+
+    public static final String COMPANY_1 = "company-1";
+    public static final String SKU_CATEGORY = "sku-category";
+    public static final String SKU_TYPE = "sku-type";
+    public static final String SKU_CODE = "sku-code";
+    public static final String WAREHOUSE_ID = "warehouse-id";
+    private static final String WORKER_COUNTER = "PRODUCT_ID_WORKER";
+    private static final String WORKER_LEASE = "PRODUCT_ID_WORKER<%>";
+    private static final long TIME_NOW = 1700000000000L;
+
+    @Mock
+    IdCounterDAO idCounterDAO;
+    @Mock
+    Clock clock;
+
+    CompactUniqueProductIdGenerator compactUniqueProductIdGenerator;
+    Map<String, String> leaseOwners;
+    Map<String, Long> leaseExpiries;
+
+    @Before
+    public void setUp() {
+        Mockito.when(clock.millis()).thenReturn(TIME_NOW);
+        Mockito.when(idCounterDAO.leaseBlock(eq(WORKER_COUNTER), eq(1))).thenReturn(Optional.of(1L), Optional.of(2L));
+        leaseOwners = new HashMap<>();
+        leaseExpiries = new HashMap<>();
+        // the conditional update of the id-counter table: free, expired or already owned leases are granted
+        Mockito.when(idCounterDAO.acquireLease(anyString(), anyString(), anyLong())).thenAnswer(invocation -> {
+            String leaseName = (String) invocation.getArguments()[0];
+            String owner = (String) invocation.getArguments()[1];
+            long now = clock.millis();
+            if (leaseOwners.containsKey(leaseName) && leaseExpiries.get(leaseName) >= now && !leaseOwners.get(leaseName).equals(owner)) {
+                return Optional.empty();
+            }
+            leaseOwners.put(leaseName, owner);
+            leaseExpiries.put(leaseName, now + (long) invocation.getArguments()[2]);
+            return Optional.of(now + (long) invocation.getArguments()[2]);
+        });
+        compactUniqueProductIdGenerator = new CompactUniqueProductIdGenerator(idCounterDAO, clock);
+    }
+
+    @Test
+    public void test_generate_input_null_illegal_argument_exception() {
+        Assertions.assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> compactUniqueProductIdGenerator.generate(null));
+        Mockito.verifyZeroInteractions(idCounterDAO);
+    }
+
+    @Test
+    public void test_generate_compact_sorted_ids() {
+        List<String> ids = compactUniqueProductIdGenerator.generate(request(1000));
+
+        Assertions.assertThat(ids).hasSize(1000).doesNotHaveDuplicates().isSorted();
+        Assertions.assertThat(ids).allMatch(id -> id.matches("[0-9A-HJKMNP-TV-Z]{13}"));
+        Mockito.verify(idCounterDAO).leaseBlock(eq(WORKER_COUNTER), eq(1));
+    }
+
+    @Test
+    public void test_generate_unique_within_a_millisecond_beyond_sequence_bits() {
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 10; i++) {
+            ids.addAll(compactUniqueProductIdGenerator.generate(request(1000)));
+        }
+        Assertions.assertThat(ids).hasSize(10000);
+    }
+
+    @Test
+    public void test_generate_unique_when_clock_moves_back() {
+        List<String> ids = new ArrayList<>(compactUniqueProductIdGenerator.generate(request(10)));
+        Mockito.when(clock.millis()).thenReturn(TIME_NOW - 1000);
+        ids.addAll(compactUniqueProductIdGenerator.generate(request(10)));
+
+        Assertions.assertThat(ids).doesNotHaveDuplicates().isSorted();
+    }
+
+    @Test
+    public void test_generate_workers_do_not_collide() {
+        CompactUniqueProductIdGenerator otherWorker = new CompactUniqueProductIdGenerator(idCounterDAO, clock);
+        List<String> ids = new ArrayList<>(compactUniqueProductIdGenerator.generate(request(1000)));
+        ids.addAll(otherWorker.generate(request(1000)));
+
+        Assertions.assertThat(ids).doesNotHaveDuplicates();
+    }
+
+    @Test
+    public void test_generate_counter_wrapping_onto_a_live_worker_takes_the_next_free_worker_id() {
+        Mockito.when(idCounterDAO.leaseBlock(eq(WORKER_COUNTER), eq(1))).thenReturn(Optional.of(1L), Optional.of(1025L));
+        CompactUniqueProductIdGenerator wrappedWorker = new CompactUniqueProductIdGenerator(idCounterDAO, clock);
+        List<String> ids = new ArrayList<>(compactUniqueProductIdGenerator.generate(request(1000)));
+        ids.addAll(wrappedWorker.generate(request(1000)));
+
+        Assertions.assertThat(ids).doesNotHaveDuplicates();
+        Assertions.assertThat(leaseOwners).containsOnlyKeys(WORKER_LEASE + 1, WORKER_LEASE + 2);
+    }
+
+    @Test
+    public void test_generate_expired_worker_id_taken_over() {
+        leaseOwners.put(WORKER_LEASE + 1, "frozen-instance");
+        leaseExpiries.put(WORKER_LEASE + 1, TIME_NOW - 1);
+
+        compactUniqueProductIdGenerator.generate(request(1));
+
+        Assertions.assertThat(leaseOwners.get(WORKER_LEASE + 1)).isNotEqualTo("frozen-instance");
+    }
+
+    @Test
+    public void test_generate_lease_renewed_before_it_expires() {
+        compactUniqueProductIdGenerator.generate(request(1));
+        Mockito.when(clock.millis()).thenReturn(TIME_NOW + CompactUniqueProductIdGenerator.WORKER_LEASE_MILLIS
+                - CompactUniqueProductIdGenerator.WORKER_LEASE_RENEW_MILLIS);
+        compactUniqueProductIdGenerator.generate(request(1));
+
+        Mockito.verify(idCounterDAO, Mockito.times(2)).acquireLease(eq(WORKER_LEASE + 1), anyString(), anyLong());
+        Mockito.verify(idCounterDAO).leaseBlock(eq(WORKER_COUNTER), eq(1));
+    }
+
+    @Test
+    public void test_generate_worker_id_lost_while_frozen_leases_another() {
+        compactUniqueProductIdGenerator.generate(request(1));
+        long afterExpiry = TIME_NOW + CompactUniqueProductIdGenerator.WORKER_LEASE_MILLIS + 1;
+        Mockito.when(clock.millis()).thenReturn(afterExpiry);
+        leaseOwners.put(WORKER_LEASE + 1, "other-instance");
+        leaseExpiries.put(WORKER_LEASE + 1, afterExpiry + CompactUniqueProductIdGenerator.WORKER_LEASE_MILLIS);
+
+        compactUniqueProductIdGenerator.generate(request(1));
+
+        Assertions.assertThat(leaseOwners.get(WORKER_LEASE + 1)).isEqualTo("other-instance");
+        Assertions.assertThat(leaseOwners).containsKey(WORKER_LEASE + 2);
+    }
+
+    @Test
+    public void test_generate_all_worker_ids_leased_retriable_exception() {
+        Mockito.when(idCounterDAO.acquireLease(anyString(), anyString(), anyLong())).thenReturn(Optional.empty());
+
+        Assertions.assertThatExceptionOfType(RetriableException.class).isThrownBy(() -> compactUniqueProductIdGenerator.generate(request(1)));
+        Mockito.verify(idCounterDAO, Mockito.times(1024)).acquireLease(anyString(), anyString(), anyLong());
+    }
+
+    @Test
+    public void test_encode_fixed_width() {
+        Assertions.assertThat(CompactUniqueProductIdGenerator.encode(0)).isEqualTo("0000000000000");
+        Assertions.assertThat(CompactUniqueProductIdGenerator.encode(Long.MAX_VALUE)).isEqualTo("7ZZZZZZZZZZZZ");
+    }
+
+    private UniqueProductIdsGenerationRequest request(int quantity) {
+        return UniqueProductIdsGenerationRequest.builder().productionTime(TIME_NOW).companyId(COMPANY_1).quantity(quantity)
+                .skuCategory(SKU_CATEGORY).skuType(SKU_TYPE).skuCode(SKU_CODE).warehouseId(WAREHOUSE_ID).build();
+    }
+}
@@ -0,0 +1,72 @@
+package org.habitbev.warehousemanagement.helpers.idgenerators;
+
+import org.assertj.core.api.Assertions;
+import org.habitbev.warehousemanagement.dao.IdCounterDAO;
+import org.habitbev.warehousemanagement.entities.exceptions.InconsistentStateException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Optional;
+
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TestLeasedIdBlockAllocator {
+
+    private static final String COUNTER_1 = "INBOUND<%>warehouse-1";
+    private static final String COUNTER_2 = "INBOUND<%>warehouse-2";
+
+    @Mock
+    IdCounterDAO idCounterDAO;
+
+    LeasedIdBlockAllocator leasedIdBlockAllocator;
+
+    @Before
+    public void setup() {
+        leasedIdBlockAllocator = new LeasedIdBlockAllocator(idCounterDAO, 3);
+    }
+
+    @Test
+    public void test_ids_served_from_leased_block() {
+        Mockito.when(idCounterDAO.leaseBlock(eq(COUNTER_1), eq(3))).thenReturn(Optional.of(13L), Optional.of(19L));
+
+        Assertions.assertThat(leasedIdBlockAllocator.next(COUNTER_1, () -> 0)).isEqualTo(11);
+        Assertions.assertThat(leasedIdBlockAllocator.next(COUNTER_1, () -> 0)).isEqualTo(12);
+        Assertions.assertThat(leasedIdBlockAllocator.next(COUNTER_1, () -> 0)).isEqualTo(13);
+        Assertions.assertThat(leasedIdBlockAllocator.next(COUNTER_1, () -> 0)).isEqualTo(17);
+
+        Mockito.verify(idCounterDAO, Mockito.times(2)).leaseBlock(eq(COUNTER_1), eq(3));
+        Mockito.verify(idCounterDAO, Mockito.never()).init(anyString(), anyLong());
+    }
+
+    @Test
+    public void test_counter_seeded_from_last_issued_id() {
+        Mockito.when(idCounterDAO.leaseBlock(eq(COUNTER_1), eq(3))).thenReturn(Optional.empty(), Optional.of(10L));
+
+        Assertions.assertThat(leasedIdBlockAllocator.next(COUNTER_1, () -> 7)).isEqualTo(8);
+
+        Mockito.verify(idCounterDAO).init(eq(COUNTER_1), eq(7L));
+    }
+
+    @Test
+    public void test_counters_leased_independently() {
+        Mockito.when(idCounterDAO.leaseBlock(eq(COUNTER_1), eq(3))).thenReturn(Optional.of(3L));
+        Mockito.when(idCounterDAO.leaseBlock(eq(COUNTER_2), eq(3))).thenReturn(Optional.of(30L));
+
+        Assertions.assertThat(leasedIdBlockAllocator.next(COUNTER_1, () -> 0)).isEqualTo(1);
+        Assertions.assertThat(leasedIdBlockAllocator.next(COUNTER_2, () -> 0)).isEqualTo(28);
+    }
+
+    @Test
+    public void test_counter_missing_after_init() {
+        Mockito.when(idCounterDAO.leaseBlock(eq(COUNTER_1), eq(3))).thenReturn(Optional.empty());
+
+        Assertions.assertThatExceptionOfType(InconsistentStateException.class).isThrownBy(() -> leasedIdBlockAllocator.next(COUNTER_1, () -> 0));
+    }
+}
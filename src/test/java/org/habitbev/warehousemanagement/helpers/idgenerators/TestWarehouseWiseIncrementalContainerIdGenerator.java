@@ -7,12 +7,14 @@ import org.habitbev.warehousemanagement.entities.container.GetContainerRequest;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.habitbev.warehousemanagement.dao.IdCounterDAO;
 import org.mockito.*;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.habitbev.warehousemanagement.dao.ContainerDAO;
 import org.habitbev.warehousemanagement.entities.container.AddContainerRequest;
 import org.habitbev.warehousemanagement.entities.container.ContainerDTO;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.Matchers.any;
@@ -29,13 +31,15 @@ public class TestWarehouseWiseIncrementalContainerIdGenerator {
     WarehouseWiseIncrementalContainerIdGenerator warehouseWiseIncrementalContainerIdGenerator;
     @Mock
     ContainerDAO containerDAO;
+    @Mock
+    IdCounterDAO idCounterDAO;
     @Captor
     ArgumentCaptor<GetContainerRequest> getContainerRequestArgumentCaptor;
 
     @Before
     public void setUp() throws Exception {
         MockitoAnnotations.initMocks(this);
-        warehouseWiseIncrementalContainerIdGenerator = new WarehouseWiseIncrementalContainerIdGenerator(containerDAO);
+        warehouseWiseIncrementalContainerIdGenerator = new WarehouseWiseIncrementalContainerIdGenerator(containerDAO, new LeasedIdBlockAllocator(idCounterDAO, 50));
     }
 
     @Test
@@ -48,9 +52,11 @@ public class TestWarehouseWiseIncrementalContainerIdGenerator {
     public void test_success_no_container_from_dao() {
         AddContainerRequest addContainerRequest = AddContainerRequest.builder().warehouseId(WAREHOUSE_1).skuCodeWisePredefinedCapacity(SKU_CODE_WISE_PREDEFINED_CAPACITY).build();
         Mockito.when(containerDAO.getLastAddedContainer(eq(addContainerRequest.getWarehouseId()))).thenReturn(Optional.empty());
+        Mockito.when(idCounterDAO.leaseBlock(eq("CONTAINER<%>" + addContainerRequest.getWarehouseId()), eq(50))).thenReturn(Optional.empty(), Optional.of(50L));
         String actualGeneratedId = warehouseWiseIncrementalContainerIdGenerator.generate(addContainerRequest);
         Mockito.verify(containerDAO).getLastAddedContainer(eq(addContainerRequest.getWarehouseId()));
         new StringAssert(actualGeneratedId).isEqualTo(CONTAINER_1);
+        Mockito.verify(idCounterDAO).init(eq("CONTAINER<%>" + addContainerRequest.getWarehouseId()), eq(0L));
         Mockito.verifyNoMoreInteractions(containerDAO);
 
     }
@@ -59,9 +65,21 @@ public class TestWarehouseWiseIncrementalContainerIdGenerator {
     public void test_success_already_existing_container() {
         AddContainerRequest addContainerRequest = AddContainerRequest.builder().warehouseId(WAREHOUSE_1).skuCodeWisePredefinedCapacity(SKU_CODE_WISE_PREDEFINED_CAPACITY).build();
         Mockito.when(containerDAO.getLastAddedContainer(eq(addContainerRequest.getWarehouseId()))).thenReturn(Optional.ofNullable(new ContainerDTO.Builder().containerId(CONTAINER_1).warehouseId(WAREHOUSE_1).predefinedCapacity(SKU_CODE_WISE_PREDEFINED_CAPACITY).build()));
+        Mockito.when(idCounterDAO.leaseBlock(eq("CONTAINER<%>" + addContainerRequest.getWarehouseId()), eq(50))).thenReturn(Optional.empty(), Optional.of(51L));
         String actualGeneratedId = warehouseWiseIncrementalContainerIdGenerator.generate(addContainerRequest);
         Mockito.verify(containerDAO).getLastAddedContainer(eq(addContainerRequest.getWarehouseId()));
         new StringAssert(actualGeneratedId).isEqualTo(CONTAINER_2);
+        Mockito.verify(idCounterDAO).init(eq("CONTAINER<%>" + addContainerRequest.getWarehouseId()), eq(1L));
         Mockito.verifyNoMoreInteractions(containerDAO);
     }
+
+    @Test
+    public void test_success_bulk_ids_in_one_lease() {
+        AddContainerRequest addContainerRequest = AddContainerRequest.builder().warehouseId(WAREHOUSE_1).skuCodeWisePredefinedCapacity(SKU_CODE_WISE_PREDEFINED_CAPACITY).build();
+        Mockito.when(idCounterDAO.leaseBlock(eq("CONTAINER<%>" + addContainerRequest.getWarehouseId()), eq(3))).thenReturn(Optional.of(13L));
+        List<String> actualGeneratedIds = warehouseWiseIncrementalContainerIdGenerator.generate(addContainerRequest, 3);
+        Assertions.assertThat(actualGeneratedIds).containsExactly("CONTAINER-11", "CONTAINER-12", "CONTAINER-13");
+        Mockito.verify(idCounterDAO).leaseBlock(eq("CONTAINER<%>" + addContainerRequest.getWarehouseId()), eq(3));
+        Mockito.verifyZeroInteractions(containerDAO);
+    }
 }
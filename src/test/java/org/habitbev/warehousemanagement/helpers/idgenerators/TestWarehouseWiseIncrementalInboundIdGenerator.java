@@ -8,6 +8,7 @@ import org.habitbev.warehousemanagement.entities.inbound.StartInboundRequest;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.habitbev.warehousemanagement.dao.IdCounterDAO;
 import org.mockito.*;
 import org.mockito.runners.MockitoJUnitRunner;
 
@@ -26,12 +27,14 @@ public class TestWarehouseWiseIncrementalInboundIdGenerator {
     WarehouseWiseIncrementalInboundIdGenerator warehouseWiseIncrementalInboundIdGenerator;
     @Mock
     InboundDAO inboundDAO;
+    @Mock
+    IdCounterDAO idCounterDAO;
 
 
     @Before
     public void setUp() throws Exception {
         MockitoAnnotations.initMocks(this);
-        warehouseWiseIncrementalInboundIdGenerator = new WarehouseWiseIncrementalInboundIdGenerator(inboundDAO);
+        warehouseWiseIncrementalInboundIdGenerator = new WarehouseWiseIncrementalInboundIdGenerator(inboundDAO, new LeasedIdBlockAllocator(idCounterDAO, 50));
     }
 
     @Test
@@ -44,9 +47,11 @@ public class TestWarehouseWiseIncrementalInboundIdGenerator {
     public void test_success_no_inbound_from_dao() {
         StartInboundRequest startInboundRequest = StartInboundRequest.builder().warehouseId(WAREHOUSE_1).userId(USER_1).build();
         Mockito.when(inboundDAO.getLastInbound(eq(startInboundRequest.getWarehouseId()))).thenReturn(Optional.empty());
+        Mockito.when(idCounterDAO.leaseBlock(eq("INBOUND<%>" + startInboundRequest.getWarehouseId()), eq(50))).thenReturn(Optional.empty(), Optional.of(50L));
         String actualGeneratedId = warehouseWiseIncrementalInboundIdGenerator.generate(startInboundRequest);
         Mockito.verify(inboundDAO).getLastInbound(eq(startInboundRequest.getWarehouseId()));
         new StringAssert(actualGeneratedId).isEqualTo(INBOUND_1);
+        Mockito.verify(idCounterDAO).init(eq("INBOUND<%>" + startInboundRequest.getWarehouseId()), eq(0L));
         Mockito.verifyNoMoreInteractions(inboundDAO);
 
     }
@@ -55,9 +60,11 @@ public class TestWarehouseWiseIncrementalInboundIdGenerator {
     public void test_success_already_existing_inbound() {
         StartInboundRequest startInboundRequest = StartInboundRequest.builder().warehouseId(WAREHOUSE_1).userId(USER_1).build();
         Mockito.when(inboundDAO.getLastInbound(eq(startInboundRequest.getWarehouseId()))).thenReturn(Optional.ofNullable(FinishedGoodsInbound.builder().inboundId(INBOUND_1).warehouseId(WAREHOUSE_1).build()));
+        Mockito.when(idCounterDAO.leaseBlock(eq("INBOUND<%>" + startInboundRequest.getWarehouseId()), eq(50))).thenReturn(Optional.empty(), Optional.of(51L));
         String actualGeneratedId = warehouseWiseIncrementalInboundIdGenerator.generate(startInboundRequest);
         Mockito.verify(inboundDAO).getLastInbound(eq(startInboundRequest.getWarehouseId()));
         new StringAssert(actualGeneratedId).isEqualTo(INBOUND_2);
+        Mockito.verify(idCounterDAO).init(eq("INBOUND<%>" + startInboundRequest.getWarehouseId()), eq(1L));
         Mockito.verifyNoMoreInteractions(inboundDAO);
     }
 }
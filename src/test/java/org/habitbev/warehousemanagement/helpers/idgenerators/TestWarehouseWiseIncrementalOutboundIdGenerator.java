@@ -30,12 +30,14 @@ public class TestWarehouseWiseIncrementalOutboundIdGenerator {
     WarehouseWiseIncrementalOutboundIdGenerator warehouseWiseIncrementalOutboundIdGenerator;
     @Mock
     OutboundDAO outboundDAO;
+    @Mock
+    IdCounterDAO idCounterDAO;
 
 
     @Before
     public void setUp() throws Exception {
         MockitoAnnotations.initMocks(this);
-        warehouseWiseIncrementalOutboundIdGenerator = new WarehouseWiseIncrementalOutboundIdGenerator(outboundDAO);
+        warehouseWiseIncrementalOutboundIdGenerator = new WarehouseWiseIncrementalOutboundIdGenerator(outboundDAO, new LeasedIdBlockAllocator(idCounterDAO, 50));
     }
 
     @Test
@@ -48,9 +50,11 @@ public class TestWarehouseWiseIncrementalOutboundIdGenerator {
     public void test_success_no_outbound_from_dao() {
         StartOutboundRequest startOutboundRequest = StartOutboundRequest.builder().companyId(COMPANY_1).warehouseId(WAREHOUSE_1).userId(USER_1).customerId(CUSTOMER_1).build();
         Mockito.when(outboundDAO.getLastOutbound(eq(startOutboundRequest.getWarehouseId()))).thenReturn(Optional.empty());
+        Mockito.when(idCounterDAO.leaseBlock(eq("OUTBOUND<%>" + startOutboundRequest.getWarehouseId()), eq(50))).thenReturn(Optional.empty(), Optional.of(50L));
         String actualGeneratedId = warehouseWiseIncrementalOutboundIdGenerator.generate(startOutboundRequest);
         Mockito.verify(outboundDAO).getLastOutbound(eq(startOutboundRequest.getWarehouseId()));
         new StringAssert(actualGeneratedId).isEqualTo(OUTBOUND_1);
+        Mockito.verify(idCounterDAO).init(eq("OUTBOUND<%>" + startOutboundRequest.getWarehouseId()), eq(0L));
         Mockito.verifyNoMoreInteractions(outboundDAO);
 
     }
@@ -59,9 +63,11 @@ public class TestWarehouseWiseIncrementalOutboundIdGenerator {
     public void test_success_already_existing_outbound() {
         StartOutboundRequest startOutboundRequest = StartOutboundRequest.builder().companyId(COMPANY_1).customerId(CUSTOMER_1).warehouseId(WAREHOUSE_1).userId(USER_1).build();
         Mockito.when(outboundDAO.getLastOutbound(eq(startOutboundRequest.getWarehouseId()))).thenReturn(Optional.ofNullable(FinishedGoodsOutbound.builder().outboundId(OUTBOUND_1).warehouseId(WAREHOUSE_1).build()));
+        Mockito.when(idCounterDAO.leaseBlock(eq("OUTBOUND<%>" + startOutboundRequest.getWarehouseId()), eq(50))).thenReturn(Optional.empty(), Optional.of(51L));
         String actualGeneratedId = warehouseWiseIncrementalOutboundIdGenerator.generate(startOutboundRequest);
         Mockito.verify(outboundDAO).getLastOutbound(eq(startOutboundRequest.getWarehouseId()));
         new StringAssert(actualGeneratedId).isEqualTo(OUTBOUND_2);
+        Mockito.verify(idCounterDAO).init(eq("OUTBOUND<%>" + startOutboundRequest.getWarehouseId()), eq(1L));
         Mockito.verifyNoMoreInteractions(outboundDAO);
     }
 }
@@ -0,0 +1,71 @@
+package org.habitbev.warehousemanagement.helpers.labelrenderers;
+
+import com.google.common.collect.ImmutableList;
+import org.assertj.core.api.Assertions;
+import org.habitbev.warehousemanagement.entities.ThermalLabelStock;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class TestEplLabelRenderer {
+
+    private static final ThermalLabelStock LABEL_STOCK = ThermalLabelStock.builder().labelWidthMm(70).labelHeightMm(37).gapMm(3)
+            .dotsPerMm(8).build();
+
+    EplLabelRenderer eplLabelRenderer = new EplLabelRenderer(LABEL_STOCK);
+
+    @Test
+    public void test_render_size_once_and_one_block_per_label() throws IOException {
+        String epl = render(ImmutableList.of("PRODUCT-1", "PRODUCT-2"), "sku-code");
+
+        Assertions.assertThat(epl).startsWith("\nq560\nQ296,24\n");
+        Assertions.assertThat(epl).endsWith("N\nB28,29,0,1,2,4,148,B,\"PRODUCT-1\"\nA28,222,0,3,1,1,N,\"sku-code\"\nP1\n"
+                + "N\nB28,29,0,1,2,4,148,B,\"PRODUCT-2\"\nA28,222,0,3,1,1,N,\"sku-code\"\nP1\n");
+    }
+
+    @Test
+    public void test_render_quotes_and_backslashes_escaped() throws IOException {
+        String epl = render(ImmutableList.of("A\"B\\C"), "say \"hi\"");
+
+        Assertions.assertThat(epl).contains("B,\"A\\\"B\\\\C\"\n").contains("N,\"say \\\"hi\\\"\"\n");
+    }
+
+    @Test
+    public void test_render_alt_text_null_blank_text_line() throws IOException {
+        String epl = render(ImmutableList.of("PRODUCT-1"), null);
+
+        Assertions.assertThat(epl).contains("A28,222,0,3,1,1,N,\"\"\n");
+    }
+
+    @Test
+    public void test_render_large_job_one_print_per_label() throws IOException {
+        List<String> ids = IntStream.range(0, 10000).mapToObj(i -> String.format("0%012d", i)).collect(Collectors.toList());
+
+        String epl = render(ids, "sku-code");
+
+        Assertions.assertThat(epl.split("\nP1\n", -1)).hasSize(10001);
+    }
+
+    @Test
+    public void test_render_input_null_illegal_argument_exception() {
+        Assertions.assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> eplLabelRenderer.render(null, "sku-code", new ByteArrayOutputStream()));
+    }
+
+    @Test
+    public void test_label_stock_without_size_illegal_argument_exception() {
+        Assertions.assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> ThermalLabelStock.builder().labelWidthMm(70).dotsPerMm(8).build());
+    }
+
+    private String render(List<String> ids, String altText) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        eplLabelRenderer.render(ids, altText, outputStream);
+        return new String(outputStream.toByteArray(), StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,252 @@
+package org.habitbev.warehousemanagement.helpers.labelrenderers;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import lombok.extern.slf4j.Slf4j;
+import org.assertj.core.api.Assertions;
+import org.habitbev.warehousemanagement.entities.LabelSheetLayout;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@Slf4j
+public class TestPdfLabelRenderer {
+
+    private static final String SKU_CODE = "sku-code";
+    private static final int CHUNK_SIZE = 96;
+    private static final int MAX_IN_FLIGHT_CHUNKS = 4;
+    private static final int LABELS_PER_PAGE = 24;
+    private static final Pattern PRODUCT_ID = Pattern.compile("PRODUCT-\\d{6}");
+    private static final LabelSheetLayout LAYOUT = LabelSheetLayout.builder().pageWidthMm(210).pageHeightMm(297).rows(8).columns(3)
+            .labelWidthMm(70).labelHeightMm(37).marginTopMm(0.5f).build();
+
+    @Test
+    public void test_render_chunks_merged_into_one_pdf() throws IOException {
+        PdfLabelRenderer sequentialRenderer = new PdfLabelRenderer(MoreExecutors.newDirectExecutorService(), LAYOUT, CHUNK_SIZE, MAX_IN_FLIGHT_CHUNKS);
+        ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+        try {
+            PdfLabelRenderer parallelRenderer = new PdfLabelRenderer(forkJoinPool, LAYOUT, CHUNK_SIZE, MAX_IN_FLIGHT_CHUNKS);
+            List<String> ids = ids(1000);
+
+            int sequentialPages = pageCount(render(sequentialRenderer, ids));
+            int parallelPages = pageCount(render(parallelRenderer, ids));
+
+            Assertions.assertThat(parallelPages).isEqualTo(sequentialPages).isEqualTo(42);
+        } finally {
+            forkJoinPool.shutdown();
+        }
+    }
+
+    @Test
+    public void test_render_chunk_size_rounded_to_whole_pages() throws IOException {
+        PdfLabelRenderer renderer = new PdfLabelRenderer(MoreExecutors.newDirectExecutorService(), LAYOUT, 10, MAX_IN_FLIGHT_CHUNKS);
+
+        Assertions.assertThat(pageCount(render(renderer, ids(48)))).isEqualTo(2);
+    }
+
+    @Test
+    public void test_render_no_ids_single_blank_page() throws IOException {
+        PdfLabelRenderer renderer = new PdfLabelRenderer(MoreExecutors.newDirectExecutorService(), LAYOUT, CHUNK_SIZE, MAX_IN_FLIGHT_CHUNKS);
+
+        Assertions.assertThat(pageCount(render(renderer, ids(0)))).isEqualTo(1);
+    }
+
+    @Test
+    public void test_render_input_null_illegal_argument_exception() {
+        PdfLabelRenderer renderer = new PdfLabelRenderer(MoreExecutors.newDirectExecutorService(), LAYOUT, CHUNK_SIZE, MAX_IN_FLIGHT_CHUNKS);
+
+        Assertions.assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> renderer.render(null, SKU_CODE, new ByteArrayOutputStream()));
+    }
+
+    @Test
+    public void test_render_max_in_flight_chunks_zero_illegal_argument_exception() {
+        Assertions.assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> new PdfLabelRenderer(MoreExecutors.newDirectExecutorService(), LAYOUT, CHUNK_SIZE, 0));
+    }
+
+    /**
+     * holds the first chunk on the pool and checks no more than the window is submitted while the output waits on it.
+     */
+    @Test
+    public void test_render_in_flight_chunks_bounded() throws Exception {
+        CountDownLatch firstChunkReleased = new CountDownLatch(1);
+        HoldingFirstTaskExecutorService executorService = new HoldingFirstTaskExecutorService(firstChunkReleased);
+        try {
+            PdfLabelRenderer renderer = new PdfLabelRenderer(executorService, LAYOUT, LABELS_PER_PAGE, 2);
+            List<String> ids = ids(LABELS_PER_PAGE * 10);
+            AtomicReference<byte[]> pdf = new AtomicReference<>();
+            Thread renderThread = new Thread(() -> {
+                try {
+                    pdf.set(render(renderer, ids, null));
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            renderThread.start();
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (renderThread.getState() != Thread.State.WAITING && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            Assertions.assertThat(renderThread.getState()).isEqualTo(Thread.State.WAITING);
+            Assertions.assertThat(executorService.submitted.get()).isEqualTo(2);
+
+            firstChunkReleased.countDown();
+            renderThread.join(10_000);
+            Assertions.assertThat(executorService.submitted.get()).isEqualTo(10);
+            Assertions.assertThat(pageIds(pdf.get())).isEqualTo(pages(ids));
+        } finally {
+            firstChunkReleased.countDown();
+            executorService.shutdown();
+        }
+    }
+
+    /**
+     * logs labels per second for growing pool sizes, the numbers only mean something on a multi core machine.
+     * Every pool size has to produce the same pages with the ids in order.
+     */
+    @Test
+    public void test_render_throughput_by_pool_size() throws IOException {
+        List<String> ids = ids(4000);
+        List<List<String>> expectedPages = pages(ids);
+        int cores = Runtime.getRuntime().availableProcessors();
+        render(new PdfLabelRenderer(MoreExecutors.newDirectExecutorService(), LAYOUT, CHUNK_SIZE, MAX_IN_FLIGHT_CHUNKS), ids(500));
+        for (int threads = 1; threads <= cores; threads *= 2) {
+            ForkJoinPool forkJoinPool = new ForkJoinPool(threads);
+            try {
+                PdfLabelRenderer renderer = new PdfLabelRenderer(forkJoinPool, LAYOUT, CHUNK_SIZE, MAX_IN_FLIGHT_CHUNKS);
+                long start = System.nanoTime();
+                byte[] pdf = render(renderer, ids, null);
+                double seconds = (System.nanoTime() - start) / 1e9;
+                log.info("threads {} labels/sec {}", threads, Math.round(ids.size() / seconds));
+                Assertions.assertThat(pageCount(pdf)).isEqualTo(167);
+                Assertions.assertThat(pageIds(pdf)).isEqualTo(expectedPages);
+            } finally {
+                forkJoinPool.shutdown();
+            }
+        }
+    }
+
+    private byte[] render(PdfLabelRenderer renderer, List<String> ids) throws IOException {
+        return render(renderer, ids, SKU_CODE);
+    }
+
+    /**
+     * a null alt text prints the encoded id under each barcode, which lets the pages be read back.
+     */
+    private byte[] render(PdfLabelRenderer renderer, List<String> ids, String altText) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        renderer.render(ids, altText, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * ids printed on every page, sorted within the page as text extraction follows the position on the page.
+     */
+    private List<List<String>> pageIds(byte[] pdf) throws IOException {
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)));
+        List<List<String>> pageIds = new ArrayList<>();
+        for (int page = 1; page <= pdfDocument.getNumberOfPages(); page++) {
+            Matcher matcher = PRODUCT_ID.matcher(PdfTextExtractor.getTextFromPage(pdfDocument.getPage(page)));
+            List<String> ids = new ArrayList<>();
+            while (matcher.find()) {
+                ids.add(matcher.group());
+            }
+            Collections.sort(ids);
+            pageIds.add(ids);
+        }
+        pdfDocument.close();
+        return pageIds;
+    }
+
+    private List<List<String>> pages(List<String> ids) {
+        return IntStream.range(0, (ids.size() + LABELS_PER_PAGE - 1) / LABELS_PER_PAGE)
+                .mapToObj(page -> ids.subList(page * LABELS_PER_PAGE, Math.min(ids.size(), (page + 1) * LABELS_PER_PAGE)))
+                .collect(Collectors.toList());
+    }
+
+    private int pageCount(byte[] pdf) throws IOException {
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)));
+        int pages = pdfDocument.getNumberOfPages();
+        pdfDocument.close();
+        return pages;
+    }
+
+    private List<String> ids(int quantity) {
+        return IntStream.range(0, quantity).mapToObj(i -> String.format("PRODUCT-%06d", i)).collect(Collectors.toList());
+    }
+
+    /**
+     * runs tasks on a small pool and counts them, the first task waits for the latch before it runs.
+     */
+    private static class HoldingFirstTaskExecutorService extends AbstractExecutorService {
+        private final ExecutorService delegate = Executors.newFixedThreadPool(2);
+        private final CountDownLatch firstTaskReleased;
+        private final AtomicInteger submitted = new AtomicInteger();
+
+        private HoldingFirstTaskExecutorService(CountDownLatch firstTaskReleased) {
+            this.firstTaskReleased = firstTaskReleased;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            if (submitted.incrementAndGet() > 1) {
+                delegate.execute(command);
+                return;
+            }
+            delegate.execute(() -> {
+                try {
+                    firstTaskReleased.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                command.run();
+            });
+        }
+
+        @Override
+        public void shutdown() {
+            delegate.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return delegate.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return delegate.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return delegate.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return delegate.awaitTermination(timeout, unit);
+        }
+    }
+}
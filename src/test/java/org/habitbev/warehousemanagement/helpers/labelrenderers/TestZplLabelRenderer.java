@@ -0,0 +1,59 @@
+package org.habitbev.warehousemanagement.helpers.labelrenderers;
+
+import com.google.common.collect.ImmutableList;
+import org.assertj.core.api.Assertions;
+import org.habitbev.warehousemanagement.entities.ThermalLabelStock;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class TestZplLabelRenderer {
+
+    private static final ThermalLabelStock LABEL_STOCK = ThermalLabelStock.builder().labelWidthMm(70).labelHeightMm(37).gapMm(3)
+            .dotsPerMm(8).build();
+
+    ZplLabelRenderer zplLabelRenderer = new ZplLabelRenderer(LABEL_STOCK);
+
+    @Test
+    public void test_render_format_once_and_one_block_per_label() throws IOException {
+        String zpl = render(ImmutableList.of("PRODUCT-1", "PRODUCT-2"), "sku-code");
+
+        Assertions.assertThat(zpl).startsWith("^XA^DFR:BARCODE.ZPL^FS\n");
+        Assertions.assertThat(zpl).contains("^PW560^LL296").contains("^FDsku-code^FS");
+        Assertions.assertThat(zpl).endsWith("^XA^XFR:BARCODE.ZPL^FN1^FDPRODUCT-1^FS^XZ\n^XA^XFR:BARCODE.ZPL^FN1^FDPRODUCT-2^FS^XZ\n");
+    }
+
+    @Test
+    public void test_render_control_characters_hex_escaped() throws IOException {
+        String zpl = render(ImmutableList.of("A^B~C_D"), "\u00e9");
+
+        Assertions.assertThat(zpl).contains("^FN1^FH^FDA_5EB_7EC_5FD^FS").contains("^FH^FD_C3_A9^FS");
+    }
+
+    @Test
+    public void test_render_large_job_small_output() throws IOException {
+        List<String> ids = IntStream.range(0, 10000).mapToObj(i -> String.format("0%012d", i)).collect(Collectors.toList());
+
+        String zpl = render(ids, "sku-code");
+
+        Assertions.assertThat(zpl.split("\\^XZ", -1)).hasSize(10002);
+        Assertions.assertThat(zpl.length()).isLessThan(500 * 1024);
+    }
+
+    @Test
+    public void test_render_input_null_illegal_argument_exception() {
+        Assertions.assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> zplLabelRenderer.render(null, "sku-code", new ByteArrayOutputStream()));
+    }
+
+    private String render(List<String> ids, String altText) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        zplLabelRenderer.render(ids, altText, outputStream);
+        return new String(outputStream.toByteArray(), StandardCharsets.US_ASCII);
+    }
+}
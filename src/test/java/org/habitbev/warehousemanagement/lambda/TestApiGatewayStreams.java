@@ -0,0 +1,73 @@
+package org.habitbev.warehousemanagement.lambda;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.assertj.core.api.Assertions;
+import org.habitbev.warehousemanagement.entities.inventory.InventoryInboundRequest;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+public class TestApiGatewayStreams {
+
+    private static final String BODY = "{\"uniqueProductIds\":[\"P1\",\"P2\"],\"inboundId\":\"INBOUND-1\",\"skuCode\":\"sku-1\","
+            + "\"containerId\":\"CONTAINER-1\",\"warehouseId\":\"WAREHOUSE-1\",\"companyId\":\"company-1\"}";
+
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void test_read_body_string_skipping_envelope() throws IOException {
+        String event = "{\"resource\":\"/inventory\",\"headers\":{\"a\":\"b\"},\"multiValueHeaders\":{\"a\":[\"b\"]},"
+                + "\"body\":" + objectMapper.writeValueAsString(BODY) + ",\"isBase64Encoded\":false}";
+
+        InventoryInboundRequest request = ApiGatewayStreams.readBody(objectMapper, stream(event), InventoryInboundRequest.class);
+
+        Assertions.assertThat(request.getUniqueProductIds()).containsExactly("P1", "P2");
+        Assertions.assertThat(request.getInboundId()).isEqualTo("INBOUND-1");
+    }
+
+    @Test
+    public void test_read_body_base64_encoded_after_body() throws IOException {
+        String encodedBody = Base64.getEncoder().encodeToString(BODY.getBytes(StandardCharsets.UTF_8));
+        String event = "{\"body\":\"" + encodedBody + "\",\"isBase64Encoded\":true}";
+
+        InventoryInboundRequest request = ApiGatewayStreams.readBody(objectMapper, stream(event), InventoryInboundRequest.class);
+
+        Assertions.assertThat(request.getContainerId()).isEqualTo("CONTAINER-1");
+    }
+
+    @Test
+    public void test_read_body_object_direct_invocation() throws IOException {
+        String event = "{\"body\":" + BODY + "}";
+
+        InventoryInboundRequest request = ApiGatewayStreams.readBody(objectMapper, stream(event), InventoryInboundRequest.class);
+
+        Assertions.assertThat(request.getWarehouseId()).isEqualTo("WAREHOUSE-1");
+    }
+
+    @Test
+    public void test_read_body_missing_illegal_argument_exception() {
+        Assertions.assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> ApiGatewayStreams.readBody(objectMapper, stream("{\"body\":null}"), InventoryInboundRequest.class));
+    }
+
+    @Test
+    public void test_write_response() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        ApiGatewayStreams.writeResponse(objectMapper, outputStream, 400, "bad \"input\"");
+
+        Map<?, ?> response = objectMapper.readValue(outputStream.toByteArray(), Map.class);
+        Assertions.assertThat(response.get("statusCode")).isEqualTo(400);
+        Assertions.assertThat(response.get("body")).isEqualTo("bad \"input\"");
+        Assertions.assertThat(response.get("isBase64Encoded")).isEqualTo(false);
+    }
+
+    private ByteArrayInputStream stream(String event) {
+        return new ByteArrayInputStream(event.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,128 @@
+package org.habitbev.warehousemanagement.lambda;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.google.common.collect.ImmutableMap;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.IntegerAssert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Matchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TestWarehouseRouterHandler {
+
+    private static final String START_INBOUND = "startInbound";
+    private static final String END_INBOUND = "endInbound";
+
+    @Mock
+    RequestHandler<Map<String, Object>, APIGatewayProxyResponseEvent> startInboundHandler;
+
+    @Mock
+    RequestHandler<Map<String, Object>, APIGatewayProxyResponseEvent> endInboundHandler;
+
+    @Mock
+    Context context;
+
+    WarehouseRouterHandler warehouseRouterHandler;
+
+    APIGatewayProxyResponseEvent startInboundResponse = new APIGatewayProxyResponseEvent().withStatusCode(200).withBody("INBOUND-1");
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+        warehouseRouterHandler = new WarehouseRouterHandler(ImmutableMap.of(START_INBOUND, () -> startInboundHandler,
+                END_INBOUND, () -> endInboundHandler));
+        Mockito.when(startInboundHandler.handleRequest(Matchers.anyMapOf(String.class, Object.class), Matchers.any(Context.class)))
+                .thenReturn(startInboundResponse);
+    }
+
+    @Test
+    public void test_action_from_path_parameters_routed() {
+        Map<String, Object> input = event(START_INBOUND, null);
+
+        APIGatewayProxyResponseEvent response = warehouseRouterHandler.handleRequest(input, context);
+
+        Assertions.assertThat(response).isSameAs(startInboundResponse);
+        Mockito.verify(startInboundHandler).handleRequest(input, context);
+        Mockito.verifyZeroInteractions(endInboundHandler);
+    }
+
+    @Test
+    public void test_action_from_top_level_key_routed() {
+        Map<String, Object> input = event(null, START_INBOUND);
+
+        APIGatewayProxyResponseEvent response = warehouseRouterHandler.handleRequest(input, context);
+
+        Assertions.assertThat(response).isSameAs(startInboundResponse);
+        Mockito.verify(startInboundHandler).handleRequest(input, context);
+    }
+
+    @Test
+    public void test_path_parameter_action_preferred_over_top_level_key() {
+        Map<String, Object> input = event(START_INBOUND, END_INBOUND);
+
+        warehouseRouterHandler.handleRequest(input, context);
+
+        Mockito.verify(startInboundHandler).handleRequest(input, context);
+        Mockito.verifyZeroInteractions(endInboundHandler);
+    }
+
+    @Test
+    public void test_path_parameters_without_action_falls_back_to_top_level_key() {
+        Map<String, Object> input = event(null, START_INBOUND);
+        input.put("pathParameters", new HashMap<>());
+
+        warehouseRouterHandler.handleRequest(input, context);
+
+        Mockito.verify(startInboundHandler).handleRequest(input, context);
+    }
+
+    @Test
+    public void test_unknown_action_not_found() {
+        APIGatewayProxyResponseEvent response = warehouseRouterHandler.handleRequest(event("noSuchAction", null), context);
+
+        new IntegerAssert(response.getStatusCode()).isEqualTo(404);
+        Assertions.assertThat(response.getBody()).isEqualTo("unknown action noSuchAction");
+        Mockito.verifyZeroInteractions(startInboundHandler, endInboundHandler);
+    }
+
+    @Test
+    public void test_blank_action_not_found() {
+        APIGatewayProxyResponseEvent response = warehouseRouterHandler.handleRequest(event(null, " "), context);
+
+        new IntegerAssert(response.getStatusCode()).isEqualTo(404);
+        Mockito.verifyZeroInteractions(startInboundHandler, endInboundHandler);
+    }
+
+    @Test
+    public void test_null_input_not_found() {
+        APIGatewayProxyResponseEvent response = warehouseRouterHandler.handleRequest(null, context);
+
+        new IntegerAssert(response.getStatusCode()).isEqualTo(404);
+        Assertions.assertThat(response.getBody()).isEqualTo("unknown action null");
+    }
+
+    private static Map<String, Object> event(String pathAction, String topLevelAction) {
+        Map<String, Object> input = new HashMap<>();
+        input.put("body", "{\"warehouseId\":\"WAREHOUSE-1\"}");
+        if (pathAction != null) {
+            Map<String, String> pathParameters = new HashMap<>();
+            pathParameters.put("action", pathAction);
+            input.put("pathParameters", pathParameters);
+        }
+        if (topLevelAction != null) {
+            input.put("action", topLevelAction);
+        }
+        return input;
+    }
+}
@@ -0,0 +1,26 @@
+package org.habitbev.warehousemanagement.lambda.runtime;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+public class TestHandlerInvoker {
+
+    @Test
+    public void test_handler_blank_illegal_argument_exception() {
+        Assertions.assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> new HandlerInvoker(" "));
+    }
+
+    @Test
+    public void test_handler_not_a_lambda_handler_illegal_argument_exception() {
+        Assertions.assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> new HandlerInvoker(String.class.getName() + "::handleRequest"))
+                .withMessageContaining("is not a lambda handler");
+    }
+
+    @Test
+    public void test_handler_unknown_class_not_found_exception() {
+        Assertions.assertThatExceptionOfType(ClassNotFoundException.class)
+                .isThrownBy(() -> new HandlerInvoker("org.habitbev.warehousemanagement.lambda.NoSuchHandler"));
+    }
+}
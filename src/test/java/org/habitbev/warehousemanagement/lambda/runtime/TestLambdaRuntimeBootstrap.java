@@ -0,0 +1,180 @@
+package org.habitbev.warehousemanagement.lambda.runtime;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.google.common.io.ByteStreams;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.assertj.core.api.Assertions;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Matchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TestLambdaRuntimeBootstrap {
+
+    private static final String INVOCATION_PATH = "/2018-06-01/runtime/invocation/";
+    private static final String REQUEST_ID = "request-1";
+    private static final String DEADLINE = "1700000000000";
+    private static final byte[] EVENT = "{\"action\":\"getStockLevel\"}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] RESPONSE = "{\"statusCode\":200}".getBytes(StandardCharsets.UTF_8);
+
+    @Mock
+    HandlerInvoker handlerInvoker;
+
+    HttpServer runtimeApi;
+    Deque<Invocation> invocations = new ConcurrentLinkedDeque<>();
+    Map<String, String> posts = new ConcurrentHashMap<>();
+    LambdaRuntimeBootstrap lambdaRuntimeBootstrap;
+
+    @Before
+    public void setup() throws IOException {
+        MockitoAnnotations.initMocks(this);
+        runtimeApi = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        runtimeApi.createContext(INVOCATION_PATH, this::serveRuntimeApi);
+        runtimeApi.start();
+        lambdaRuntimeBootstrap = new LambdaRuntimeBootstrap("localhost:" + runtimeApi.getAddress().getPort());
+    }
+
+    @After
+    public void teardown() {
+        runtimeApi.stop(0);
+    }
+
+    @Test
+    public void test_serve_posts_handler_response() throws IOException {
+        invocations.add(new Invocation(200, headers(REQUEST_ID, DEADLINE)));
+        Mockito.when(handlerInvoker.invoke(Matchers.any(byte[].class), Matchers.any(Context.class))).thenReturn(RESPONSE);
+
+        Assertions.assertThatExceptionOfType(IOException.class).isThrownBy(() -> lambdaRuntimeBootstrap.serve(handlerInvoker))
+                .withMessageContaining("runtime api returned 500");
+
+        ArgumentCaptor<Context> contextCaptor = ArgumentCaptor.forClass(Context.class);
+        Mockito.verify(handlerInvoker).invoke(Matchers.eq(EVENT), contextCaptor.capture());
+        Assertions.assertThat(contextCaptor.getValue().getAwsRequestId()).isEqualTo(REQUEST_ID);
+        Assertions.assertThat(contextCaptor.getValue().getInvokedFunctionArn()).isEqualTo("function-arn");
+        Assertions.assertThat(posts).containsOnly(Assertions.entry(REQUEST_ID + "/response", new String(RESPONSE, StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void test_serve_missing_deadline_posts_invocation_error_and_continues() throws IOException {
+        invocations.add(new Invocation(200, headers(REQUEST_ID, null)));
+        invocations.add(new Invocation(200, headers("request-2", DEADLINE)));
+        Mockito.when(handlerInvoker.invoke(Matchers.any(byte[].class), Matchers.any(Context.class))).thenReturn(RESPONSE);
+
+        Assertions.assertThatExceptionOfType(IOException.class).isThrownBy(() -> lambdaRuntimeBootstrap.serve(handlerInvoker));
+
+        Mockito.verify(handlerInvoker, Mockito.times(1)).invoke(Matchers.any(byte[].class), Matchers.any(Context.class));
+        Assertions.assertThat(posts).containsOnlyKeys(REQUEST_ID + "/error", "request-2/response");
+        Assertions.assertThat(posts.get(REQUEST_ID + "/error")).contains(IllegalArgumentException.class.getName())
+                .contains("Lambda-Runtime-Deadline-Ms");
+    }
+
+    @Test
+    public void test_serve_invalid_deadline_posts_invocation_error() throws IOException {
+        invocations.add(new Invocation(200, headers(REQUEST_ID, "soon")));
+
+        Assertions.assertThatExceptionOfType(IOException.class).isThrownBy(() -> lambdaRuntimeBootstrap.serve(handlerInvoker));
+
+        Mockito.verifyZeroInteractions(handlerInvoker);
+        Assertions.assertThat(posts).containsOnlyKeys(REQUEST_ID + "/error");
+    }
+
+    @Test
+    public void test_serve_handler_exception_posts_invocation_error() throws IOException {
+        invocations.add(new Invocation(200, headers(REQUEST_ID, DEADLINE)));
+        Mockito.when(handlerInvoker.invoke(Matchers.any(byte[].class), Matchers.any(Context.class)))
+                .thenThrow(new IllegalStateException("handler failed"));
+
+        Assertions.assertThatExceptionOfType(IOException.class).isThrownBy(() -> lambdaRuntimeBootstrap.serve(handlerInvoker));
+
+        Assertions.assertThat(posts).containsOnlyKeys(REQUEST_ID + "/error");
+        Assertions.assertThat(posts.get(REQUEST_ID + "/error")).contains("handler failed").contains(IllegalStateException.class.getName());
+    }
+
+    @Test
+    public void test_serve_missing_request_id_io_exception() throws IOException {
+        invocations.add(new Invocation(200, headers(null, DEADLINE)));
+
+        Assertions.assertThatExceptionOfType(IOException.class).isThrownBy(() -> lambdaRuntimeBootstrap.serve(handlerInvoker))
+                .withMessageContaining("Lambda-Runtime-Aws-Request-Id");
+
+        Mockito.verifyZeroInteractions(handlerInvoker);
+        Assertions.assertThat(posts).isEmpty();
+    }
+
+    @Test
+    public void test_serve_next_failed_io_exception() throws IOException {
+        invocations.add(new Invocation(403, headers(REQUEST_ID, DEADLINE)));
+
+        Assertions.assertThatExceptionOfType(IOException.class).isThrownBy(() -> lambdaRuntimeBootstrap.serve(handlerInvoker))
+                .withMessageContaining("runtime api returned 403");
+
+        Mockito.verifyZeroInteractions(handlerInvoker);
+        Assertions.assertThat(posts).isEmpty();
+    }
+
+    /**
+     * next hands out the queued invocations and then fails with a 500, posts are recorded by request id and kind.
+     */
+    private void serveRuntimeApi(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath().substring(INVOCATION_PATH.length());
+        if ("next".equals(path)) {
+            Invocation invocation = invocations.poll();
+            if (invocation == null) {
+                respond(exchange, 500, new byte[0]);
+                return;
+            }
+            invocation.headers.forEach((name, value) -> exchange.getResponseHeaders().set(name, value));
+            respond(exchange, invocation.status, EVENT);
+            return;
+        }
+        posts.put(path, new String(ByteStreams.toByteArray(exchange.getRequestBody()), StandardCharsets.UTF_8));
+        respond(exchange, 202, new byte[0]);
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(body);
+        }
+    }
+
+    private static Map<String, String> headers(String requestId, String deadline) {
+        Map<String, String> headers = new HashMap<>();
+        if (requestId != null) {
+            headers.put("Lambda-Runtime-Aws-Request-Id", requestId);
+        }
+        if (deadline != null) {
+            headers.put("Lambda-Runtime-Deadline-Ms", deadline);
+        }
+        headers.put("Lambda-Runtime-Invoked-Function-Arn", "function-arn");
+        return headers;
+    }
+
+    private static class Invocation {
+        private final int status;
+        private final Map<String, String> headers;
+
+        private Invocation(int status, Map<String, String> headers) {
+            this.status = status;
+            this.headers = headers;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package org.habitbev.warehousemanagement.lambda.runtime;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * the native image only sees what the checked in config registers, a class missing from it fails on the first request
+ * that reaches it and never on the jvm.
+ */
+public class TestNativeImageConfig {
+
+    private static final String CONFIG_DIRECTORY = "/META-INF/native-image/org.habitbev/warehousemanagement/";
+    private static final Path MAIN_SOURCES = Paths.get("src", "main", "java");
+
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void test_every_main_class_registered_for_reflection() throws IOException {
+        Set<String> registered = new HashSet<>();
+        readConfig("reflect-config.json").forEach(entry -> registered.add(entry.get("name").asText()));
+
+        Assertions.assertThat(registered).containsAll(mainClasses());
+    }
+
+    @Test
+    public void test_configs_resources_registered() throws IOException {
+        List<String> patterns = readConfig("resource-config.json").get("resources").get("includes").findValuesAsText("pattern");
+
+        Assertions.assertThat(patterns).contains("\\Qbeta.config\\E", "\\Qprod.config\\E", "\\Qsimplelogger.properties\\E");
+    }
+
+    private JsonNode readConfig(String fileName) throws IOException {
+        try (InputStream inputStream = getClass().getResourceAsStream(CONFIG_DIRECTORY + fileName)) {
+            Assertions.assertThat(inputStream).as(fileName).isNotNull();
+            return objectMapper.readTree(inputStream);
+        }
+    }
+
+    private static List<String> mainClasses() throws IOException {
+        try (Stream<Path> sources = Files.walk(MAIN_SOURCES)) {
+            return sources.filter(source -> source.toString().endsWith(".java"))
+                    .map(source -> MAIN_SOURCES.relativize(source).toString())
+                    .map(source -> source.substring(0, source.length() - ".java".length()).replace(File.separatorChar, '.'))
+                    .filter(className -> !className.endsWith("package-info"))
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package org.habitbev.warehousemanagement.server;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.google.common.io.ByteStreams;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.IntegerAssert;
+import org.habitbev.warehousemanagement.lambda.WarehouseRouterHandler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Matchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TestWarehouseHttpServer {
+
+    private static final String BODY = "{\"warehouseId\":\"WAREHOUSE-1\",\"userId\":\"user-1\"}";
+
+    @Mock
+    WarehouseRouterHandler warehouseRouterHandler;
+
+    @Captor
+    ArgumentCaptor<Map<String, Object>> eventCaptor;
+
+    WarehouseHttpServer warehouseHttpServer;
+
+    @Before
+    public void setup() throws IOException {
+        MockitoAnnotations.initMocks(this);
+        warehouseHttpServer = new WarehouseHttpServer(warehouseRouterHandler, 0, 0, 1);
+        warehouseHttpServer.start();
+    }
+
+    @After
+    public void teardown() {
+        warehouseHttpServer.stop();
+    }
+
+    @Test
+    public void test_max_concurrent_requests_zero_illegal_argument_exception() {
+        Assertions.assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> new WarehouseHttpServer(warehouseRouterHandler, 0, 0, 0));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void test_request_routed_as_api_gateway_event() throws IOException {
+        Mockito.when(warehouseRouterHandler.handleRequest(Matchers.anyMapOf(String.class, Object.class), Matchers.any(Context.class)))
+                .thenReturn(new APIGatewayProxyResponseEvent().withStatusCode(200).withBody("INBOUND-1"));
+
+        Response response = send("POST", "/startInbound/ignored?warehouseId=WAREHOUSE-1&note=a%20b&flag", BODY);
+
+        new IntegerAssert(response.statusCode).isEqualTo(200);
+        Assertions.assertThat(response.body).isEqualTo("INBOUND-1");
+        Assertions.assertThat(response.contentType).startsWith("text/plain");
+        Mockito.verify(warehouseRouterHandler).handleRequest(eventCaptor.capture(), Matchers.any(Context.class));
+        Map<String, Object> event = eventCaptor.getValue();
+        Assertions.assertThat(event.get("httpMethod")).isEqualTo("POST");
+        Assertions.assertThat(event.get("path")).isEqualTo("/startInbound/ignored");
+        Assertions.assertThat(event.get("body")).isEqualTo(BODY);
+        Assertions.assertThat((Map<String, String>) event.get("pathParameters")).containsEntry("action", "startInbound");
+        Assertions.assertThat((Map<String, String>) event.get("queryStringParameters")).containsEntry("warehouseId", "WAREHOUSE-1")
+                .containsEntry("note", "a b").containsEntry("flag", "");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void test_get_without_body_or_query() throws IOException {
+        Mockito.when(warehouseRouterHandler.handleRequest(Matchers.anyMapOf(String.class, Object.class), Matchers.any(Context.class)))
+                .thenReturn(new APIGatewayProxyResponseEvent().withStatusCode(200).withBody("[\"CONTAINER-1\"]"));
+
+        Response response = send("GET", "/getContainerIds", null);
+
+        new IntegerAssert(response.statusCode).isEqualTo(200);
+        Assertions.assertThat(response.body).isEqualTo("[\"CONTAINER-1\"]");
+        Assertions.assertThat(response.contentType).startsWith("application/json");
+        Mockito.verify(warehouseRouterHandler).handleRequest(eventCaptor.capture(), Matchers.any(Context.class));
+        Assertions.assertThat(eventCaptor.getValue().get("body")).isEqualTo("");
+        Assertions.assertThat((Map<String, String>) eventCaptor.getValue().get("queryStringParameters")).isEmpty();
+    }
+
+    @Test
+    public void test_handler_status_code_passed_through() throws IOException {
+        Mockito.when(warehouseRouterHandler.handleRequest(Matchers.anyMapOf(String.class, Object.class), Matchers.any(Context.class)))
+                .thenReturn(new APIGatewayProxyResponseEvent().withStatusCode(404).withBody("unknown action noSuchAction"));
+
+        Response response = send("POST", "/noSuchAction", BODY);
+
+        new IntegerAssert(response.statusCode).isEqualTo(404);
+        Assertions.assertThat(response.body).isEqualTo("unknown action noSuchAction");
+    }
+
+    @Test
+    public void test_handler_without_status_code_ok() throws IOException {
+        Mockito.when(warehouseRouterHandler.handleRequest(Matchers.anyMapOf(String.class, Object.class), Matchers.any(Context.class)))
+                .thenReturn(new APIGatewayProxyResponseEvent().withBody(BODY));
+
+        Response response = send("POST", "/startInbound", BODY);
+
+        new IntegerAssert(response.statusCode).isEqualTo(200);
+        Assertions.assertThat(response.body).isEqualTo(BODY);
+    }
+
+    @Test
+    public void test_handler_no_response_not_implemented() throws IOException {
+        Mockito.when(warehouseRouterHandler.handleRequest(Matchers.anyMapOf(String.class, Object.class), Matchers.any(Context.class)))
+                .thenReturn(null);
+
+        Response response = send("POST", "/startInbound", BODY);
+
+        new IntegerAssert(response.statusCode).isEqualTo(501);
+    }
+
+    @Test
+    public void test_handler_exception_internal_server_error() throws IOException {
+        Mockito.when(warehouseRouterHandler.handleRequest(Matchers.anyMapOf(String.class, Object.class), Matchers.any(Context.class)))
+                .thenThrow(new IllegalStateException("handler failed"));
+
+        Response response = send("POST", "/startInbound", BODY);
+
+        new IntegerAssert(response.statusCode).isEqualTo(500);
+        Assertions.assertThat(response.body).isEqualTo("handler failed");
+    }
+
+    @Test
+    public void test_requests_beyond_concurrency_limit_rejected() throws Exception {
+        CountDownLatch inHandler = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(warehouseRouterHandler.handleRequest(Matchers.anyMapOf(String.class, Object.class), Matchers.any(Context.class)))
+                .thenAnswer(invocation -> {
+                    inHandler.countDown();
+                    release.await(10, TimeUnit.SECONDS);
+                    return new APIGatewayProxyResponseEvent().withStatusCode(200).withBody("done");
+                });
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            Future<Response> inFlight = executorService.submit(() -> send("POST", "/startInbound", BODY));
+            Assertions.assertThat(inHandler.await(10, TimeUnit.SECONDS)).isTrue();
+
+            Response rejected = send("POST", "/startInbound", BODY);
+            new IntegerAssert(rejected.statusCode).isEqualTo(503);
+
+            release.countDown();
+            new IntegerAssert(inFlight.get(10, TimeUnit.SECONDS).statusCode).isEqualTo(200);
+            new IntegerAssert(send("POST", "/startInbound", BODY).statusCode).isEqualTo(200);
+            Mockito.verify(warehouseRouterHandler, Mockito.times(2))
+                    .handleRequest(Matchers.anyMapOf(String.class, Object.class), Matchers.any(Context.class));
+        } finally {
+            release.countDown();
+            executorService.shutdown();
+        }
+    }
+
+    private Response send(String method, String pathAndQuery, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + warehouseHttpServer.getPort() + pathAndQuery).openConnection();
+        connection.setRequestMethod(method);
+        connection.setConnectTimeout(5000);
+        connection.setReadTimeout(10000);
+        if (body != null) {
+            connection.setDoOutput(true);
+            try (OutputStream outputStream = connection.getOutputStream()) {
+                outputStream.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        int statusCode = connection.getResponseCode();
+        InputStream responseStream = statusCode >= HttpURLConnection.HTTP_BAD_REQUEST ? connection.getErrorStream() : connection.getInputStream();
+        String responseBody = "";
+        if (responseStream != null) {
+            try (InputStream inputStream = responseStream) {
+                responseBody = new String(ByteStreams.toByteArray(inputStream), StandardCharsets.UTF_8);
+            }
+        }
+        return new Response(statusCode, connection.getHeaderField("Content-Type"), responseBody);
+    }
+
+    private static class Response {
+        private final int statusCode;
+        private final String contentType;
+        private final String body;
+
+        private Response(int statusCode, String contentType, String body) {
+            this.statusCode = statusCode;
+            this.contentType = contentType;
+            this.body = body;
+        }
+    }
+}
@@ -103,4 +103,25 @@ public class TestContainerCapacityService {
         Mockito.verify(containerCapacityDAO).init(eq(WAREHOUSE_1), eq(CONTAINER_1));
         Mockito.verifyNoMoreInteractions(containerCapacityDAO);
     }
+
+    @Test
+    public void test_reserve_success() {
+        containerCapacityService.reserve(WAREHOUSE_1, CONTAINER_1, 5, 10);
+        Mockito.verify(containerCapacityDAO).adjustCapacity(eq(WAREHOUSE_1), eq(CONTAINER_1), eq(5), eq(10));
+        Mockito.verifyNoMoreInteractions(containerCapacityDAO);
+    }
+
+    @Test
+    public void test_release_success() {
+        containerCapacityService.release(WAREHOUSE_1, CONTAINER_1, 5, 10);
+        Mockito.verify(containerCapacityDAO).adjustCapacity(eq(WAREHOUSE_1), eq(CONTAINER_1), eq(-5), eq(10));
+        Mockito.verifyNoMoreInteractions(containerCapacityDAO);
+    }
+
+    @Test
+    public void test_reserve_warehouseid_blank() {
+        Assertions.assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> containerCapacityService.reserve(" ", CONTAINER_1, 5, 10))
+                .withMessageContaining("warehouseId cannot be blank");
+        Mockito.verifyZeroInteractions(containerCapacityDAO);
+    }
 }
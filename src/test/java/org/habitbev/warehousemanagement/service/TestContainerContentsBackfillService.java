@@ -0,0 +1,76 @@
+package org.habitbev.warehousemanagement.service;
+
+import com.google.common.collect.ImmutableMap;
+import org.assertj.core.api.Assertions;
+import org.habitbev.warehousemanagement.dao.ContainerContentsBackfillDAO;
+import org.habitbev.warehousemanagement.entities.BackfillResult;
+import org.habitbev.warehousemanagement.entities.SegmentBackfillProgress;
+import org.habitbev.warehousemanagement.entities.exceptions.RetriableException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isNull;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TestContainerContentsBackfillService {
+
+    private static final long DEADLINE = 1000L;
+
+    @Mock
+    ContainerContentsBackfillDAO containerContentsBackfillDAO;
+
+    ContainerContentsBackfillService containerContentsBackfillService;
+
+    @Before
+    public void setup() {
+        containerContentsBackfillService = new ContainerContentsBackfillService(containerContentsBackfillDAO);
+    }
+
+    @Test
+    public void test_backfill_all_segments_returns_unfinished() {
+        Mockito.when(containerContentsBackfillDAO.backfillSegment(eq(0), eq(2), (String) isNull(), eq(DEADLINE)))
+                .thenReturn(SegmentBackfillProgress.builder().segment(0).updatedItems(5).build());
+        Mockito.when(containerContentsBackfillDAO.backfillSegment(eq(1), eq(2), (String) isNull(), eq(DEADLINE)))
+                .thenReturn(SegmentBackfillProgress.builder().segment(1).updatedItems(3).nextToken("token-1").build());
+
+        BackfillResult result = containerContentsBackfillService.backfill(2, null, DEADLINE);
+
+        Assertions.assertThat(result.getTableName()).isEqualTo("inventory");
+        Assertions.assertThat(result.getUpdatedItems()).isEqualTo(8);
+        Assertions.assertThat(result.getSegmentTokens()).containsExactly(Assertions.entry(1, "token-1"));
+    }
+
+    @Test
+    public void test_backfill_resumes_only_unfinished_segments() {
+        Mockito.when(containerContentsBackfillDAO.backfillSegment(eq(1), eq(2), eq("token-1"), eq(DEADLINE)))
+                .thenReturn(SegmentBackfillProgress.builder().segment(1).updatedItems(2).build());
+        Map<Integer, String> segmentTokens = new HashMap<>(ImmutableMap.of(1, "token-1"));
+
+        BackfillResult result = containerContentsBackfillService.backfill(2, segmentTokens, DEADLINE);
+
+        Assertions.assertThat(result.getUpdatedItems()).isEqualTo(2);
+        Assertions.assertThat(result.getSegmentTokens()).isEmpty();
+        Mockito.verify(containerContentsBackfillDAO).backfillSegment(anyInt(), anyInt(), anyString(), anyLong());
+        Mockito.verifyNoMoreInteractions(containerContentsBackfillDAO);
+    }
+
+    @Test
+    public void test_backfill_segment_failure_retriable_exception() {
+        Mockito.when(containerContentsBackfillDAO.backfillSegment(anyInt(), anyInt(), anyString(), anyLong()))
+                .thenThrow(new RetriableException("exception"));
+
+        Assertions.assertThatExceptionOfType(RetriableException.class)
+                .isThrownBy(() -> containerContentsBackfillService.backfill(2, new HashMap<>(ImmutableMap.of(0, "token-0")), DEADLINE));
+    }
+}
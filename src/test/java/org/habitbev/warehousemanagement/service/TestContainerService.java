@@ -1,5 +1,6 @@
 package org.habitbev.warehousemanagement.service;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import org.assertj.core.api.Assertions;
 import org.assertj.core.api.ObjectAssert;
@@ -7,6 +8,7 @@ import org.assertj.core.api.StringAssert;
 import org.habitbev.warehousemanagement.dao.ContainerCapacityDAO;
 import org.habitbev.warehousemanagement.dao.ContainerDAO;
 import org.habitbev.warehousemanagement.entities.container.AddContainerRequest;
+import org.habitbev.warehousemanagement.entities.container.AddContainersRequest;
 import org.habitbev.warehousemanagement.entities.container.ContainerDTO;
 import org.habitbev.warehousemanagement.entities.container.containerstatus.PartiallyFilled;
 import org.habitbev.warehousemanagement.entities.dynamodb.ContainerCapacity;
@@ -18,6 +20,7 @@ import org.mockito.*;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -27,6 +30,7 @@ import static org.mockito.Matchers.eq;
 public class TestContainerService {
 
     public static final String CONTAINER_1 = "container-1";
+    public static final String CONTAINER_2 = "container-2";
     public static final String WAREHOUSE_1 = "warehouse-1";
     public static final long EPOCH_MILLI = Instant.now().toEpochMilli();
     private static final Map<String, Integer> PREDEFINED_CAPACITY = ImmutableMap.of("sku1", 20);
@@ -74,4 +78,38 @@ public class TestContainerService {
         Mockito.verify(containerCapacityService).initialize(eq(WAREHOUSE_1), eq(CONTAINER_1));
         Mockito.verifyNoMoreInteractions(containerDAO, containerCapacityService, containerIdGenerator);
     }
+
+    @Test
+    public void test_add_all_success() {
+        AddContainersRequest addContainersRequest = AddContainersRequest.builder().warehouseId(WAREHOUSE_1)
+                .skuCodeWisePredefinedCapacity(PREDEFINED_CAPACITY).quantity(2).build();
+        Mockito.when(containerIdGenerator.generate(addContainerRequestArgumentCaptor.capture(), eq(2))).thenReturn(ImmutableList.of(CONTAINER_1, CONTAINER_2));
+        Mockito.when(containerDAO.addAll(Mockito.anyList())).thenAnswer(invocation -> invocation.getArguments()[0]);
+        List<String> actualContainerIds = containerService.addAll(addContainersRequest);
+        Assertions.assertThat(addContainerRequestArgumentCaptor.getValue().getWarehouseId()).isEqualTo(WAREHOUSE_1);
+        ArgumentCaptor<List> containerDTOsArgumentCaptor = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(containerDAO).addAll(containerDTOsArgumentCaptor.capture());
+        List<ContainerDTO> actualContainerDTOs = containerDTOsArgumentCaptor.getValue();
+        Assertions.assertThat(actualContainerDTOs).extracting(ContainerDTO::getContainerId).containsExactly(CONTAINER_1, CONTAINER_2);
+        Assertions.assertThat(actualContainerDTOs).extracting(ContainerDTO::getSkuCodeWisePredefinedCapacity).containsOnly(PREDEFINED_CAPACITY);
+        Assertions.assertThat(actualContainerIds).containsExactly(CONTAINER_1, CONTAINER_2);
+        Mockito.verifyZeroInteractions(containerCapacityService);
+    }
+
+    @Test
+    public void test_add_all_partially_added_returns_added_ids() {
+        AddContainersRequest addContainersRequest = AddContainersRequest.builder().warehouseId(WAREHOUSE_1)
+                .skuCodeWisePredefinedCapacity(PREDEFINED_CAPACITY).quantity(2).build();
+        Mockito.when(containerIdGenerator.generate(Mockito.any(AddContainerRequest.class), eq(2))).thenReturn(ImmutableList.of(CONTAINER_1, CONTAINER_2));
+        Mockito.when(containerDAO.addAll(Mockito.anyList())).thenAnswer(invocation -> ((List<ContainerDTO>) invocation.getArguments()[0]).subList(0, 1));
+        List<String> actualContainerIds = containerService.addAll(addContainersRequest);
+        Assertions.assertThat(actualContainerIds).containsExactly(CONTAINER_1);
+        Mockito.verifyZeroInteractions(containerCapacityService);
+    }
+
+    @Test
+    public void test_add_all_input_null() {
+        Assertions.assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> containerService.addAll(null)).withMessageContaining("addContainersRequest cannot be null");
+        Mockito.verifyZeroInteractions(containerDAO, containerCapacityService, containerIdGenerator);
+    }
 }
@@ -0,0 +1,93 @@
+package org.habitbev.warehousemanagement.service;
+
+import com.google.common.collect.ImmutableList;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.IntegerAssert;
+import org.assertj.core.api.ObjectAssert;
+import org.habitbev.warehousemanagement.dao.InventoryCountsDAO;
+import org.habitbev.warehousemanagement.entities.dynamodb.InventoryCounts;
+import org.habitbev.warehousemanagement.entities.inventory.StockLevelDTO;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Optional;
+
+import static org.mockito.Matchers.eq;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TestInventoryCountsService {
+
+    public static final String SKU_CODE = "sku-code";
+    public static final String SKU_CODE_2 = "sku-code-2";
+    public static final String WAREHOUSE_1 = "warehouse-1";
+    InventoryCountsService inventoryCountsService;
+
+    @Mock
+    InventoryCountsDAO inventoryCountsDAO;
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        inventoryCountsService = new InventoryCountsService(inventoryCountsDAO);
+    }
+
+    @Test
+    public void test_get_stock_level_sku_code_blank() {
+        Assertions.assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> inventoryCountsService.getStockLevel(" ", WAREHOUSE_1))
+                .withMessageContaining("skuCode cannot be blank");
+        Mockito.verifyZeroInteractions(inventoryCountsDAO);
+    }
+
+    @Test
+    public void test_get_stock_level_success() {
+        InventoryCounts inventoryCounts = InventoryCounts.builder().skuCode(SKU_CODE).warehouseId(WAREHOUSE_1).availableInventory(12).allocatedInventory(2).build();
+        Mockito.when(inventoryCountsDAO.get(eq(SKU_CODE), eq(WAREHOUSE_1))).thenReturn(Optional.of(inventoryCounts));
+        StockLevelDTO stockLevel = inventoryCountsService.getStockLevel(SKU_CODE, WAREHOUSE_1);
+        StockLevelDTO expectedStockLevel = StockLevelDTO.builder().skuCode(SKU_CODE).warehouseId(WAREHOUSE_1).availableInventory(12).allocatedInventory(2).build();
+        new ObjectAssert<>(stockLevel).usingRecursiveComparison().isEqualTo(expectedStockLevel);
+        Mockito.verify(inventoryCountsDAO).get(eq(SKU_CODE), eq(WAREHOUSE_1));
+    }
+
+    @Test
+    public void test_get_stock_level_never_inbounded() {
+        Mockito.when(inventoryCountsDAO.get(eq(SKU_CODE), eq(WAREHOUSE_1))).thenReturn(Optional.empty());
+        StockLevelDTO stockLevel = inventoryCountsService.getStockLevel(SKU_CODE, WAREHOUSE_1);
+        new IntegerAssert(stockLevel.getAvailableInventory()).isEqualTo(0);
+        new IntegerAssert(stockLevel.getAllocatedInventory()).isEqualTo(0);
+    }
+
+    @Test
+    public void test_backfill_success() {
+        InventoryCounts inventoryCounts1 = InventoryCounts.builder().skuCode(SKU_CODE).warehouseId(WAREHOUSE_1).availableInventory(12).allocatedInventory(0).build();
+        InventoryCounts inventoryCounts2 = InventoryCounts.builder().skuCode(SKU_CODE_2).warehouseId(WAREHOUSE_1).availableInventory(3).allocatedInventory(0).build();
+        Mockito.when(inventoryCountsDAO.countAvailableInventory(eq(4))).thenReturn(ImmutableList.of(inventoryCounts1, inventoryCounts2));
+        Mockito.when(inventoryCountsDAO.putIfAbsent(Mockito.any(InventoryCounts.class))).thenReturn(true);
+        int backfilledCounts = inventoryCountsService.backfill(4);
+        new IntegerAssert(backfilledCounts).isEqualTo(2);
+        Mockito.verify(inventoryCountsDAO).putIfAbsent(inventoryCounts1);
+        Mockito.verify(inventoryCountsDAO).putIfAbsent(inventoryCounts2);
+    }
+
+    @Test
+    public void test_backfill_existing_counts_left_untouched() {
+        InventoryCounts inventoryCounts1 = InventoryCounts.builder().skuCode(SKU_CODE).warehouseId(WAREHOUSE_1).availableInventory(12).allocatedInventory(0).build();
+        InventoryCounts inventoryCounts2 = InventoryCounts.builder().skuCode(SKU_CODE_2).warehouseId(WAREHOUSE_1).availableInventory(3).allocatedInventory(0).build();
+        Mockito.when(inventoryCountsDAO.countAvailableInventory(eq(4))).thenReturn(ImmutableList.of(inventoryCounts1, inventoryCounts2));
+        Mockito.when(inventoryCountsDAO.putIfAbsent(inventoryCounts1)).thenReturn(false);
+        Mockito.when(inventoryCountsDAO.putIfAbsent(inventoryCounts2)).thenReturn(true);
+        int backfilledCounts = inventoryCountsService.backfill(4);
+        new IntegerAssert(backfilledCounts).isEqualTo(1);
+    }
+
+    @Test
+    public void test_backfill_invalid_segments() {
+        Assertions.assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> inventoryCountsService.backfill(0))
+                .withMessageContaining("totalSegments should be > 0");
+        Mockito.verifyZeroInteractions(inventoryCountsDAO);
+    }
+}
@@ -0,0 +1,335 @@
+package org.habitbev.warehousemanagement.service;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.assertj.core.api.Assertions;
+import org.habitbev.warehousemanagement.dao.AsyncInventoryDAO;
+import org.habitbev.warehousemanagement.dao.InventoryDAO;
+import org.habitbev.warehousemanagement.entities.WarehouseValidatedEntities;
+import org.habitbev.warehousemanagement.entities.container.ContainerDTO;
+import org.habitbev.warehousemanagement.entities.container.GetContainerRequest;
+import org.habitbev.warehousemanagement.entities.container.containerstatus.Available;
+import org.habitbev.warehousemanagement.entities.dynamodb.ContainerCapacity;
+import org.habitbev.warehousemanagement.entities.exceptions.InconsistentStateException;
+import org.habitbev.warehousemanagement.entities.exceptions.RetriableException;
+import org.habitbev.warehousemanagement.entities.inbound.FGInboundDTO;
+import org.habitbev.warehousemanagement.entities.inventory.InventoryInboundRequest;
+import org.habitbev.warehousemanagement.entities.inventory.InventoryInboundRequestDTO;
+import org.habitbev.warehousemanagement.entities.inventory.InventoryOutboundRequest;
+import org.habitbev.warehousemanagement.entities.inventory.InventoryOutboundRequestDTO;
+import org.habitbev.warehousemanagement.entities.inventory.MoveInventoryRequest;
+import org.habitbev.warehousemanagement.entities.inventory.WarehouseActionValidationRequest;
+import org.habitbev.warehousemanagement.entities.sku.SKUDTO;
+import org.habitbev.warehousemanagement.helpers.ContainerCapacityShards;
+import org.habitbev.warehousemanagement.helpers.TransactionPacker;
+import org.habitbev.warehousemanagement.helpers.validators.WarehouseActionValidatorChain;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TestInventoryService {
+
+    private static final String WAREHOUSE_1 = "WAREHOUSE-1";
+    private static final String COMPANY_1 = "COMPANY-1";
+    private static final String CONTAINER_1 = "CONTAINER-1";
+    private static final String CONTAINER_2 = "CONTAINER-2";
+    private static final String INBOUND_1 = "INBOUND-1";
+    private static final String SKU_CODE = "sku-code";
+    private static final int MAX_CAPACITY = 10;
+    // two reserved items per transaction leave room for two product ids, so four ids make two sub batches
+    private static final List<String> UNIQUE_PRODUCT_IDS = ImmutableList.of("1", "2", "3", "4");
+
+    @Mock
+    InventoryDAO inventoryDAO;
+    @Mock
+    AsyncInventoryDAO asyncInventoryDAO;
+    @Mock
+    ContainerService containerService;
+    @Mock
+    InboundService inboundService;
+    @Mock
+    OutboundService outboundService;
+    @Mock
+    WarehouseActionValidatorChain warehouseActionValidatorChain;
+    @Mock
+    ContainerCapacityService containerCapacityService;
+    @Mock
+    InventoryCountsService inventoryCountsService;
+
+    @Captor
+    ArgumentCaptor<InventoryInboundRequestDTO> inboundRequestDTOArgumentCaptor;
+
+    ExecutorService executorService;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        executorService = Executors.newFixedThreadPool(4);
+        ContainerDTO containerDTO = new ContainerDTO.Builder().containerId(CONTAINER_1).warehouseId(WAREHOUSE_1)
+                .predefinedCapacity(ImmutableMap.of(SKU_CODE, MAX_CAPACITY)).build();
+        WarehouseValidatedEntities warehouseValidatedEntities = new WarehouseValidatedEntities.Builder().containerDTO(containerDTO)
+                .fgInboundDTO(FGInboundDTO.builder().inboundId(INBOUND_1).warehouseId(WAREHOUSE_1).build())
+                .skuDTO(SKUDTO.builder().skuCode(SKU_CODE).companyId(COMPANY_1).build()).build();
+        Mockito.when(warehouseActionValidatorChain.execute(any(WarehouseActionValidationRequest.class))).thenReturn(warehouseValidatedEntities);
+    }
+
+    @After
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void test_inbound_async_sub_batches_reserve_capacity_once() {
+        InventoryService inventoryService = inventoryService(false, true);
+        Mockito.when(asyncInventoryDAO.inbound(any(InventoryInboundRequestDTO.class))).thenReturn(CompletableFuture.completedFuture(true));
+
+        inventoryService.inbound(inboundRequest());
+
+        Mockito.verify(containerCapacityService).reserve(WAREHOUSE_1, CONTAINER_1, UNIQUE_PRODUCT_IDS.size(), MAX_CAPACITY);
+        Mockito.verify(asyncInventoryDAO, Mockito.times(2)).inbound(inboundRequestDTOArgumentCaptor.capture());
+        Assertions.assertThat(inboundRequestDTOArgumentCaptor.getAllValues()).allMatch(InventoryInboundRequestDTO::isCapacityPreReserved);
+        Mockito.verify(containerCapacityService, Mockito.never()).release(anyString(), anyString(), anyInt(), anyInt());
+        Mockito.verify(inventoryCountsService).addAvailableInventory(SKU_CODE, WAREHOUSE_1, UNIQUE_PRODUCT_IDS.size());
+        Mockito.verifyZeroInteractions(inventoryDAO);
+    }
+
+    @Test
+    public void test_inbound_async_conflicting_sub_batch_releases_its_capacity() {
+        InventoryService inventoryService = inventoryService(false, true);
+        CompletableFuture<Boolean> conflicted = new CompletableFuture<>();
+        conflicted.completeExceptionally(new RetriableException("transaction conflicted with concurrent transactions, retry later"));
+        Mockito.when(asyncInventoryDAO.inbound(any(InventoryInboundRequestDTO.class))).thenReturn(CompletableFuture.completedFuture(true), conflicted);
+
+        Assertions.assertThatExceptionOfType(RetriableException.class).isThrownBy(() -> inventoryService.inbound(inboundRequest()));
+
+        Mockito.verify(containerCapacityService).reserve(WAREHOUSE_1, CONTAINER_1, UNIQUE_PRODUCT_IDS.size(), MAX_CAPACITY);
+        Mockito.verify(containerCapacityService).release(WAREHOUSE_1, CONTAINER_1, 2, MAX_CAPACITY);
+        // counted up front, the share of the conflicting sub batch is taken off again
+        Mockito.verify(inventoryCountsService).addAvailableInventory(SKU_CODE, WAREHOUSE_1, UNIQUE_PRODUCT_IDS.size());
+        Mockito.verify(inventoryCountsService).addAvailableInventory(SKU_CODE, WAREHOUSE_1, -2);
+    }
+
+    @Test
+    public void test_inbound_counts_failure_fails_request_before_any_sub_batch() {
+        InventoryService inventoryService = inventoryService(false, true);
+        Mockito.doThrow(new RetriableException("exception")).when(inventoryCountsService).addAvailableInventory(anyString(), anyString(), anyInt());
+
+        Assertions.assertThatExceptionOfType(RetriableException.class).isThrownBy(() -> inventoryService.inbound(inboundRequest()));
+
+        Mockito.verify(containerCapacityService).reserve(WAREHOUSE_1, CONTAINER_1, UNIQUE_PRODUCT_IDS.size(), MAX_CAPACITY);
+        Mockito.verify(containerCapacityService).release(WAREHOUSE_1, CONTAINER_1, UNIQUE_PRODUCT_IDS.size(), MAX_CAPACITY);
+        Mockito.verify(inventoryCountsService).addAvailableInventory(SKU_CODE, WAREHOUSE_1, UNIQUE_PRODUCT_IDS.size());
+        Mockito.verifyZeroInteractions(asyncInventoryDAO, inventoryDAO);
+    }
+
+    @Test
+    public void test_inbound_counts_give_back_failure_not_swallowed() {
+        InventoryService inventoryService = inventoryService(false, true);
+        Mockito.when(asyncInventoryDAO.inbound(any(InventoryInboundRequestDTO.class))).thenReturn(CompletableFuture.completedFuture(false),
+                CompletableFuture.completedFuture(true));
+        Mockito.doNothing().doThrow(new RetriableException("exception")).when(inventoryCountsService)
+                .addAvailableInventory(anyString(), anyString(), anyInt());
+
+        // the replayed sub batch committed before, its counted share could not be taken off again
+        Assertions.assertThatExceptionOfType(RetriableException.class).isThrownBy(() -> inventoryService.inbound(inboundRequest()));
+
+        Mockito.verify(containerCapacityService).release(WAREHOUSE_1, CONTAINER_1, 2, MAX_CAPACITY);
+        Mockito.verify(inventoryCountsService).addAvailableInventory(SKU_CODE, WAREHOUSE_1, -2);
+    }
+
+    @Test
+    public void test_inbound_parallel_failed_sub_batch_releases_its_capacity() {
+        InventoryService inventoryService = inventoryService(true, false);
+        Mockito.when(inventoryDAO.inbound(any(InventoryInboundRequestDTO.class))).thenReturn(true).thenThrow(new RetriableException("exception"));
+
+        Assertions.assertThatExceptionOfType(RetriableException.class).isThrownBy(() -> inventoryService.inbound(inboundRequest()));
+
+        Mockito.verify(containerCapacityService).reserve(WAREHOUSE_1, CONTAINER_1, UNIQUE_PRODUCT_IDS.size(), MAX_CAPACITY);
+        Mockito.verify(inventoryDAO, Mockito.times(2)).inbound(inboundRequestDTOArgumentCaptor.capture());
+        Assertions.assertThat(inboundRequestDTOArgumentCaptor.getAllValues()).allMatch(InventoryInboundRequestDTO::isCapacityPreReserved);
+        Mockito.verify(containerCapacityService).release(WAREHOUSE_1, CONTAINER_1, 2, MAX_CAPACITY);
+        Mockito.verify(inventoryCountsService).addAvailableInventory(SKU_CODE, WAREHOUSE_1, UNIQUE_PRODUCT_IDS.size());
+        Mockito.verify(inventoryCountsService).addAvailableInventory(SKU_CODE, WAREHOUSE_1, -2);
+        Mockito.verifyZeroInteractions(asyncInventoryDAO);
+    }
+
+    @Test
+    public void test_inbound_parallel_replay_of_partly_failed_request_counts_only_new_sub_batch() {
+        InventoryService inventoryService = inventoryService(true, false);
+        Set<String> committedTokens = ConcurrentHashMap.newKeySet();
+        boolean[] failSecondSubBatch = {true};
+        // stands in for dynamodb, a sub batch whose token already committed is reported as already applied
+        Mockito.when(inventoryDAO.inbound(any(InventoryInboundRequestDTO.class))).thenAnswer(invocation -> {
+            InventoryInboundRequestDTO request = (InventoryInboundRequestDTO) invocation.getArguments()[0];
+            if (failSecondSubBatch[0] && !request.getUniqueProductIds().contains(UNIQUE_PRODUCT_IDS.get(0))) {
+                throw new RetriableException("exception");
+            }
+            return committedTokens.add(request.getClientRequestToken());
+        });
+        Assertions.assertThatExceptionOfType(RetriableException.class).isThrownBy(() -> inventoryService.inbound(inboundRequest()));
+        failSecondSubBatch[0] = false;
+
+        inventoryService.inbound(inboundRequest());
+
+        Assertions.assertThat(committedTokens).hasSize(2);
+        Mockito.verify(containerCapacityService, Mockito.times(2)).reserve(WAREHOUSE_1, CONTAINER_1, UNIQUE_PRODUCT_IDS.size(), MAX_CAPACITY);
+        // each attempt gives back the share of the sub batch it did not commit itself
+        Mockito.verify(containerCapacityService, Mockito.times(2)).release(WAREHOUSE_1, CONTAINER_1, 2, MAX_CAPACITY);
+        // counted up front by each attempt, the same share is taken off again, so the counts end at one sub batch
+        Mockito.verify(inventoryCountsService, Mockito.times(2)).addAvailableInventory(SKU_CODE, WAREHOUSE_1, UNIQUE_PRODUCT_IDS.size());
+        Mockito.verify(inventoryCountsService, Mockito.times(2)).addAvailableInventory(SKU_CODE, WAREHOUSE_1, -2);
+        Mockito.verifyNoMoreInteractions(inventoryCountsService);
+    }
+
+    @Test
+    public void test_outbound_async_replay_of_committed_request_releases_whole_reservation() {
+        InventoryService inventoryService = inventoryService(false, true);
+        Mockito.when(asyncInventoryDAO.outbound(any(InventoryOutboundRequestDTO.class))).thenReturn(CompletableFuture.completedFuture(false));
+
+        inventoryService.outbound(outboundRequest());
+
+        Mockito.verify(containerCapacityService).reserve(WAREHOUSE_1, CONTAINER_1, -UNIQUE_PRODUCT_IDS.size(), MAX_CAPACITY);
+        Mockito.verify(containerCapacityService).release(WAREHOUSE_1, CONTAINER_1, -UNIQUE_PRODUCT_IDS.size(), MAX_CAPACITY);
+        Mockito.verify(inventoryCountsService).addAvailableInventory(SKU_CODE, WAREHOUSE_1, -UNIQUE_PRODUCT_IDS.size());
+        Mockito.verify(inventoryCountsService).addAvailableInventory(SKU_CODE, WAREHOUSE_1, UNIQUE_PRODUCT_IDS.size());
+    }
+
+    @Test
+    public void test_outbound_async_failed_sub_batch_releases_its_capacity() {
+        InventoryService inventoryService = inventoryService(false, true);
+        CompletableFuture<Boolean> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new RetriableException("exception"));
+        Mockito.when(asyncInventoryDAO.outbound(any(InventoryOutboundRequestDTO.class))).thenReturn(failed, CompletableFuture.completedFuture(true));
+
+        Assertions.assertThatExceptionOfType(RetriableException.class).isThrownBy(() -> inventoryService.outbound(outboundRequest()));
+
+        Mockito.verify(containerCapacityService).reserve(WAREHOUSE_1, CONTAINER_1, -UNIQUE_PRODUCT_IDS.size(), MAX_CAPACITY);
+        // the removal reserved for the failed sub batch is added back
+        Mockito.verify(containerCapacityService).release(WAREHOUSE_1, CONTAINER_1, -2, MAX_CAPACITY);
+        Mockito.verify(inventoryCountsService).addAvailableInventory(SKU_CODE, WAREHOUSE_1, -UNIQUE_PRODUCT_IDS.size());
+        Mockito.verify(inventoryCountsService).addAvailableInventory(SKU_CODE, WAREHOUSE_1, 2);
+    }
+
+    @Test
+    public void test_inbound_capacity_exceeded_no_sub_batch_sent() {
+        InventoryService inventoryService = inventoryService(false, true);
+        Mockito.doThrow(new InconsistentStateException("capacity cannot be adjusted")).when(containerCapacityService)
+                .reserve(anyString(), anyString(), anyInt(), anyInt());
+
+        Assertions.assertThatExceptionOfType(InconsistentStateException.class).isThrownBy(() -> inventoryService.inbound(inboundRequest()));
+
+        Mockito.verify(containerCapacityService, Mockito.never()).release(anyString(), anyString(), anyInt(), anyInt());
+        Mockito.verifyZeroInteractions(asyncInventoryDAO, inventoryDAO, inventoryCountsService);
+    }
+
+    @Test
+    public void test_inbound_sequential_sub_batches_not_pre_reserved() {
+        InventoryService inventoryService = inventoryService(false, false);
+
+        inventoryService.inbound(inboundRequest());
+
+        Mockito.verify(inventoryDAO, Mockito.times(2)).inbound(inboundRequestDTOArgumentCaptor.capture());
+        Assertions.assertThat(inboundRequestDTOArgumentCaptor.getAllValues()).noneMatch(InventoryInboundRequestDTO::isCapacityPreReserved);
+        Assertions.assertThat(inboundRequestDTOArgumentCaptor.getAllValues()).flatExtracting(InventoryInboundRequestDTO::getUniqueProductIds)
+                .containsExactlyElementsOf(UNIQUE_PRODUCT_IDS);
+        // each sub batch updates the capacity and counts in its own transaction
+        Mockito.verifyZeroInteractions(containerCapacityService, inventoryCountsService, asyncInventoryDAO);
+    }
+
+    @Test
+    public void test_inbound_without_request_id_retry_carries_same_tokens() {
+        InventoryService inventoryService = inventoryService(false, false);
+        InventoryInboundRequest inboundRequest = InventoryInboundRequest.builder().uniqueProductIds(UNIQUE_PRODUCT_IDS).skuCode(SKU_CODE)
+                .containerId(CONTAINER_1).inboundId(INBOUND_1).warehouseId(WAREHOUSE_1).companyId(COMPANY_1).build();
+
+        inventoryService.inbound(inboundRequest);
+        inventoryService.inbound(inboundRequest);
+
+        Mockito.verify(inventoryDAO, Mockito.times(4)).inbound(inboundRequestDTOArgumentCaptor.capture());
+        List<String> tokens = inboundRequestDTOArgumentCaptor.getAllValues().stream().map(InventoryInboundRequestDTO::getClientRequestToken)
+                .collect(Collectors.toList());
+        Assertions.assertThat(tokens).doesNotContainNull();
+        Assertions.assertThat(tokens.subList(2, 4)).containsExactlyElementsOf(tokens.subList(0, 2));
+        Assertions.assertThat(tokens.get(0)).isNotEqualTo(tokens.get(1));
+    }
+
+    @Test
+    public void test_inbound_parallel_single_sub_batch_not_pre_reserved() {
+        InventoryService inventoryService = inventoryService(true, false);
+
+        inventoryService.inbound(InventoryInboundRequest.builder().uniqueProductIds(UNIQUE_PRODUCT_IDS.subList(0, 2)).skuCode(SKU_CODE)
+                .containerId(CONTAINER_1).inboundId(INBOUND_1).warehouseId(WAREHOUSE_1).companyId(COMPANY_1).requestId("request-1").build());
+
+        Mockito.verify(inventoryDAO).inbound(inboundRequestDTOArgumentCaptor.capture());
+        Assertions.assertThat(inboundRequestDTOArgumentCaptor.getValue().isCapacityPreReserved()).isFalse();
+        Mockito.verifyZeroInteractions(containerCapacityService, inventoryCountsService);
+    }
+
+    @Test
+    public void test_move_async_sub_batches_chained() {
+        InventoryService inventoryService = inventoryService(false, true);
+        mockContainer(CONTAINER_1, 4);
+        mockContainer(CONTAINER_2, 0);
+        CompletableFuture<Void> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new RetriableException("exception"));
+        Mockito.when(asyncInventoryDAO.move(any(MoveInventoryRequest.class))).thenReturn(failed);
+
+        Assertions.assertThatExceptionOfType(RetriableException.class).isThrownBy(() -> inventoryService.move(moveRequest()));
+
+        // the second sub batch is only sent once the first one committed
+        Mockito.verify(asyncInventoryDAO).move(any(MoveInventoryRequest.class));
+        Mockito.verifyZeroInteractions(containerCapacityService);
+    }
+
+    InventoryService inventoryService(boolean parallelInventoryTransactions, boolean asyncInventoryTransactions) {
+        return new InventoryService(inventoryDAO, containerService, inboundService, outboundService, warehouseActionValidatorChain,
+                executorService, new TransactionPacker(4, 4194304), containerCapacityService, executorService,
+                parallelInventoryTransactions, asyncInventoryDAO, asyncInventoryTransactions, new ContainerCapacityShards("", 4), inventoryCountsService);
+    }
+
+    InventoryInboundRequest inboundRequest() {
+        return InventoryInboundRequest.builder().uniqueProductIds(UNIQUE_PRODUCT_IDS).skuCode(SKU_CODE).containerId(CONTAINER_1)
+                .inboundId(INBOUND_1).warehouseId(WAREHOUSE_1).companyId(COMPANY_1).requestId("request-1").build();
+    }
+
+    InventoryOutboundRequest outboundRequest() {
+        return InventoryOutboundRequest.builder().uniqueProductIds(UNIQUE_PRODUCT_IDS).skuCode(SKU_CODE).containerId(CONTAINER_1)
+                .outboundId("OUTBOUND-1").orderId("ORDER-1").warehouseId(WAREHOUSE_1).companyId(COMPANY_1).requestId("request-1").build();
+    }
+
+    MoveInventoryRequest moveRequest() {
+        return MoveInventoryRequest.builder().uniqueProductIds(UNIQUE_PRODUCT_IDS).sourceContainerId(CONTAINER_1).destinationContainerId(CONTAINER_2)
+                .skuCode(SKU_CODE).companyId(COMPANY_1).warehouseId(WAREHOUSE_1).sourceContainerMaxCapacity(MAX_CAPACITY)
+                .destinationContainerMaxCapacity(MAX_CAPACITY).build();
+    }
+
+    void mockContainer(String containerId, int currentCapacity) {
+        ContainerDTO containerDTO = new ContainerDTO.Builder().containerId(containerId).warehouseId(WAREHOUSE_1)
+                .predefinedCapacity(ImmutableMap.of(SKU_CODE, MAX_CAPACITY))
+                .currentCapacityDetails(ContainerCapacity.builder().warehouseContainerId(WAREHOUSE_1 + "<%>" + containerId)
+                        .currentCapacity(currentCapacity).containerStatus(new Available()).creationTime(0L).modifiedTime(0L).build()).build();
+        Mockito.when(containerService.getContainer(eq(GetContainerRequest.builder().containerId(containerId).warehouseId(WAREHOUSE_1).build())))
+                .thenReturn(containerDTO);
+    }
+}
@@ -0,0 +1,73 @@
+package org.habitbev.warehousemanagement.service;
+
+import com.google.common.collect.ImmutableMap;
+import org.assertj.core.api.Assertions;
+import org.habitbev.warehousemanagement.dao.SequenceNumberBackfillDAO;
+import org.habitbev.warehousemanagement.entities.SegmentBackfillProgress;
+import org.habitbev.warehousemanagement.entities.BackfillResult;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isNull;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TestSequenceNumberBackfillService {
+
+    private static final String INBOUNDS_TABLE = "fg-inbounds";
+    private static final long DEADLINE = 1000L;
+
+    @Mock
+    SequenceNumberBackfillDAO sequenceNumberBackfillDAO;
+
+    SequenceNumberBackfillService sequenceNumberBackfillService;
+
+    @Before
+    public void setup() {
+        sequenceNumberBackfillService = new SequenceNumberBackfillService(sequenceNumberBackfillDAO);
+    }
+
+    @Test
+    public void test_backfill_all_segments_returns_unfinished() {
+        Mockito.when(sequenceNumberBackfillDAO.backfillSegment(eq(INBOUNDS_TABLE), eq("inboundId"), eq(0), eq(2), (String) isNull(), eq(DEADLINE)))
+                .thenReturn(SegmentBackfillProgress.builder().segment(0).updatedItems(5).build());
+        Mockito.when(sequenceNumberBackfillDAO.backfillSegment(eq(INBOUNDS_TABLE), eq("inboundId"), eq(1), eq(2), (String) isNull(), eq(DEADLINE)))
+                .thenReturn(SegmentBackfillProgress.builder().segment(1).updatedItems(3).nextToken("token-1").build());
+
+        BackfillResult result = sequenceNumberBackfillService.backfill(INBOUNDS_TABLE, 2, null, DEADLINE);
+
+        Assertions.assertThat(result.getUpdatedItems()).isEqualTo(8);
+        Assertions.assertThat(result.getSegmentTokens()).containsExactly(Assertions.entry(1, "token-1"));
+    }
+
+    @Test
+    public void test_backfill_resumes_only_unfinished_segments() {
+        Mockito.when(sequenceNumberBackfillDAO.backfillSegment(eq(INBOUNDS_TABLE), eq("inboundId"), eq(1), eq(2), eq("token-1"), eq(DEADLINE)))
+                .thenReturn(SegmentBackfillProgress.builder().segment(1).updatedItems(2).build());
+        Map<Integer, String> segmentTokens = new HashMap<>(ImmutableMap.of(1, "token-1"));
+
+        BackfillResult result = sequenceNumberBackfillService.backfill(INBOUNDS_TABLE, 2, segmentTokens, DEADLINE);
+
+        Assertions.assertThat(result.getUpdatedItems()).isEqualTo(2);
+        Assertions.assertThat(result.getSegmentTokens()).isEmpty();
+        Mockito.verify(sequenceNumberBackfillDAO).backfillSegment(anyString(), anyString(), anyInt(), anyInt(), anyString(), anyLong());
+        Mockito.verifyNoMoreInteractions(sequenceNumberBackfillDAO);
+    }
+
+    @Test
+    public void test_backfill_unknown_table() {
+        Assertions.assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> sequenceNumberBackfillService.backfill("inventory", 2, null, DEADLINE));
+        Mockito.verifyZeroInteractions(sequenceNumberBackfillDAO);
+    }
+}